@@ -0,0 +1,137 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Ledger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BalanceReadBenchmark class to measure how balance reads scale with the amount of reader threads, while a writer thread keeps updating the same ledger.
+ *
+ * <p> One thread credits and debits random accounts, like the writer thread of a partition, while the other threads of the group read every balance
+ * of random users, like the balance endpoints. Reads never take a lock, so the writer's throughput should stay flat as readers are added,
+ * while the readers' total throughput grows with them. </p>
+ *
+ * <p> Running the main method repeats the benchmark with 1 writer and from 1 reader up to one reader per remaining core, and prints the scaling table. </p>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceReadBenchmark {
+
+	private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY"};
+	private static final long AMOUNT_MINOR_UNITS = 100;
+
+	@Param({"16", "100000"})
+	private int accounts; // A small amount of accounts means most reads overlap an update of the same stripe
+
+	private String[] userIds = null;
+	private Ledger ledger = null;
+
+	/**
+	 * Creates the accounts and gives each of them an opening balance in every currency.
+	 */
+	@Setup
+	public void setup() {
+		userIds = new String[accounts];
+		ledger = new Ledger();
+
+		for (int i = 0; i < accounts; i++) {
+			userIds[i] = Integer.toString(i);
+
+			for (String currency : CURRENCIES) {
+				ledger.credit(userIds[i], currency, 100000000);
+			}
+		}
+	}
+
+	/**
+	 * Credits or debits a random account.
+	 *
+	 * @return long so that the result is not optimized away.
+	 */
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(1)
+	public long write() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String userId = userIds[random.nextInt(accounts)];
+		String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+
+		if (random.nextBoolean()) {
+			return ledger.credit(userId, currency, AMOUNT_MINOR_UNITS);
+		}
+
+		return ledger.debit(userId, currency, AMOUNT_MINOR_UNITS);
+	}
+
+	/**
+	 * Reads every balance of a random user.
+	 *
+	 * @param blackhole Blackhole, which consumes the balances so that they are not optimized away
+	 */
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(1)
+	public void read(Blackhole blackhole) {
+		ledger.forEachBalance(userIds[ThreadLocalRandom.current().nextInt(accounts)], (userId, currency, balance) -> blackhole.consume(balance));
+	}
+
+	/**
+	 * Runs the benchmark once per reader count, from 1 reader up to one reader per core next to the writer.
+	 *
+	 * @param args String[]
+	 * @throws Exception if a benchmark run fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int readers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		StringBuilder table = new StringBuilder(String.format("%-8s %-10s %16s %16s%n", "Readers", "Accounts", "writes/ms", "reads/ms"));
+
+		for (int threads = 1; threads <= readers; threads *= 2) {
+			Options options = new OptionsBuilder()
+					.include(BalanceReadBenchmark.class.getSimpleName())
+					.threadGroups(threads, 1) // The methods of a group are ordered by name, so read gets the first count and write the second
+					.build();
+
+			for (RunResult result : new Runner(options).run()) {
+				Result<?> writes = result.getSecondaryResults().get("write");
+				Result<?> reads = result.getSecondaryResults().get("read");
+
+				table.append(String.format("%-8d %-10s %16.1f %16.1f%n", threads, result.getParams().getParam("accounts"), writes.getScore(), reads.getScore()));
+			}
+
+			if (threads < readers && threads * 2 > readers) { // Always finish with a run on every core
+				threads = readers / 2;
+			}
+		}
+
+		System.out.print(table);
+	}
+
+}
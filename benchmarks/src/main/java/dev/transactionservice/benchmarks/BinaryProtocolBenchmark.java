@@ -0,0 +1,204 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.TransactionService;
+
+import dev.transactionservice.binary.BinaryClient;
+import dev.transactionservice.binary.BinaryServer;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.LoadRequest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BinaryProtocolBenchmark class to compare the throughput and latency of load requests sent over the binary protocol with those sent to the /load endpoint.
+ *
+ * <p> The service is started in this JVM with the binary listener enabled, and each protocol is measured with a closed loop that keeps the same amount
+ * of requests in flight: over one pipelined binary connection, and over the HTTP client's pooled connections for the REST path.
+ * Each step prints the throughput, the p50, p99 and max latency from an HDR histogram, and the errors. </p>
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.BinaryProtocolBenchmark [--name=value ...]", with the options:
+ * in-flight (requests in flight per step, 1,16,256 by default), seconds (of each step, 10 by default), warmup (seconds, 5 by default) and users (100000 by default). </p>
+ */
+public class BinaryProtocolBenchmark {
+
+	/**
+	 * Runs every step for both protocols, and prints the results.
+	 *
+	 * @param args String[], containing the options as --name=value
+	 * @throws Exception if the service could not be started or a request could not be sent.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<String, String>();
+
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", please use --name=value!");
+			}
+
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+		int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+		int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionService.class)
+				.run("--server.port=0", "--transactionservice.binary.port=0", "--logging.level.root=WARN");
+		String target = "http://localhost:" + ((WebServerApplicationContext)context).getWebServer().getPort() + "/load";
+		HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+
+		System.out.printf("%-8s %10s %12s %10s %10s %10s %10s%n", "Protocol", "In flight", "Requests/s", "p50 ms", "p99 ms", "Max ms", "Errors");
+
+		try (BinaryClient binaryClient = new BinaryClient("localhost", context.getBean(BinaryServer.class).getPort())) {
+			for (String step : options.getOrDefault("in-flight", "1,16,256").split(",")) {
+				int inFlight = Integer.parseInt(step);
+
+				run(new Sender("REST", httpClient, target, null), inFlight, warmup, seconds, users);
+				run(new Sender("Binary", null, null, binaryClient), inFlight, warmup, seconds, users);
+			}
+		}
+		finally {
+			context.close();
+		}
+
+		System.exit(0); // The HTTP client's selector thread would otherwise keep the JVM alive
+	}
+
+	/**
+	 * Warms the protocol up, measures one step, and prints its results.
+	 *
+	 * @param sender Sender
+	 * @param inFlight int
+	 * @param warmup int
+	 * @param seconds int
+	 * @param users int
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static void run(Sender sender, int inFlight, int warmup, int seconds, int users) throws InterruptedException {
+		closedLoop(sender, inFlight, warmup, users);
+
+		long start = System.nanoTime();
+		Step step = closedLoop(sender, inFlight, seconds, users);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		Histogram histogram = step.recorder().getIntervalHistogram();
+
+		System.out.printf("%-8s %,10d %,12.0f %10.3f %10.3f %10.2f %,10d%n", sender.name(), inFlight, step.requests().get() / elapsed,
+				histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6, step.errors().get());
+	}
+
+	/**
+	 * Keeps the given amount of requests in flight until the end of the step.
+	 *
+	 * @param sender Sender
+	 * @param inFlight int
+	 * @param seconds int
+	 * @param users int
+	 * @return Step object containing the latencies and counts of the step.
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static Step closedLoop(Sender sender, int inFlight, int seconds, int users) throws InterruptedException {
+		Step step = new Step(new Recorder(3), new AtomicLong(), new AtomicLong(), new AtomicLong(), new CountDownLatch(inFlight),
+				System.nanoTime() + seconds * 1_000_000_000L, sender.name() + "-" + Long.toString(System.nanoTime(), 36) + "-");
+
+		for (int i = 0; i < inFlight; i++) {
+			send(sender, step, users);
+		}
+
+		step.done().await();
+
+		return step;
+	}
+
+	/**
+	 * Sends the next load request of a closed loop, until the end of the step.
+	 *
+	 * @param sender Sender
+	 * @param step Step
+	 * @param users int
+	 */
+	private static void send(Sender sender, Step step, int users) {
+		String messageId = step.messageIdPrefix() + step.messageIds().getAndIncrement();
+		String userId = Integer.toString(ThreadLocalRandom.current().nextInt(users));
+		long start = System.nanoTime();
+
+		if (sender.binaryClient() != null) {
+			sender.binaryClient().load(new LoadRequest(messageId, userId, new Amount("1.00", "USD", DebitCredit.CREDIT)))
+					.whenComplete((response, exception) -> complete(sender, step, users, start, exception != null));
+			return;
+		}
+
+		String body = "{\"userId\":\"" + userId + "\",\"messageId\":\"" + messageId
+				+ "\",\"transactionAmount\":{\"amount\":\"1.00\",\"currency\":\"USD\",\"debitOrCredit\":\"CREDIT\"}}";
+
+		sender.httpClient().sendAsync(HttpRequest.newBuilder(URI.create(sender.target())).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body)).build(),
+				HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, exception) -> complete(sender, step, users, start, exception != null || response.statusCode() != 201));
+	}
+
+	private static void complete(Sender sender, Step step, int users, long start, boolean error) {
+		long now = System.nanoTime();
+		step.recorder().recordValue(now - start);
+		step.requests().incrementAndGet();
+
+		if (error) {
+			step.errors().incrementAndGet();
+		}
+
+		if (now < step.end()) {
+			send(sender, step, users);
+		}
+		else {
+			step.done().countDown();
+		}
+	}
+
+	/**
+	 * Sender record for the client of one protocol, which is either the HTTP client and the /load URL, or the binary client.
+	 *
+	 * @param name String
+	 * @param httpClient HttpClient
+	 * @param target String
+	 * @param binaryClient BinaryClient
+	 */
+	private record Sender(String name, HttpClient httpClient, String target, BinaryClient binaryClient) {
+	}
+
+	/**
+	 * Step record for the latencies in nanoseconds and the counts of one step, and when it ends.
+	 *
+	 * @param recorder Recorder
+	 * @param messageIds AtomicLong
+	 * @param requests AtomicLong
+	 * @param errors AtomicLong, the requests that were not processed
+	 * @param done CountDownLatch, which is counted down once a loop stops
+	 * @param end long, the System.nanoTime at which the step ends
+	 * @param messageIdPrefix String, which keeps the message IDs of different steps apart
+	 */
+	private record Step(Recorder recorder, AtomicLong messageIds, AtomicLong requests, AtomicLong errors, CountDownLatch done, long end, String messageIdPrefix) {
+	}
+
+}
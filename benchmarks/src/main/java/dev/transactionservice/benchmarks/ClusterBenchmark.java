@@ -0,0 +1,250 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.TransactionService;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.ServerSocket;
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClusterBenchmark class to measure how the throughput of a cluster scales with its amount of nodes.
+ *
+ * <p> For every node count, a cluster of that many nodes is started on localhost in this JVM, and a closed loop of clients sends load requests
+ * for uniformly distributed users to a random node each, so that with n nodes about (n - 1) / n of the requests are forwarded to their owner.
+ * Each step prints the throughput, the p50, p99 and max latency from an HDR histogram, the share of forwarded requests and the errors.
+ * As the nodes share this machine's cores with each other and with the clients, it shows the cost of forwarding rather than the gain of more machines;
+ * to measure a real cluster, start its nodes on their own machines with the same members file, and pass their base URLs as the targets. </p>
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.ClusterBenchmark [--name=value ...]", with the options:
+ * nodes (node count of each step, 1,2,3 by default), targets (comma-separated base URLs of a running cluster, which replace the steps),
+ * clients (64 by default), seconds (of each step, 10 by default), warmup (seconds, 5 by default) and users (100000 by default). </p>
+ */
+public class ClusterBenchmark {
+
+	/**
+	 * Runs every step, and prints the results.
+	 *
+	 * @param args String[], containing the options as --name=value
+	 * @throws Exception if a node could not be started or a request could not be sent.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<String, String>();
+
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", please use --name=value!");
+			}
+
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+		int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+		int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+		int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+		HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+
+		System.out.printf("%-8s %12s %10s %10s %10s %11s %10s%n", "Nodes", "Requests/s", "p50 ms", "p99 ms", "Max ms", "Forwarded", "Errors");
+
+		if (options.containsKey("targets")) {
+			String[] targets = options.get("targets").split(",");
+
+			run(client, new Cluster(targets, null), clients, warmup, seconds, users);
+		}
+		else {
+			for (String step : options.getOrDefault("nodes", "1,2,3").split(",")) {
+				Cluster cluster = start(Integer.parseInt(step));
+
+				try {
+					run(client, cluster, clients, warmup, seconds, users);
+				}
+				finally {
+					for (ConfigurableApplicationContext node : cluster.nodes()) {
+						node.close();
+					}
+				}
+			}
+		}
+
+		System.exit(0); // The HTTP client's selector thread would otherwise keep the JVM alive
+	}
+
+	/**
+	 * Starts a cluster on localhost, whose nodes keep no journal.
+	 *
+	 * @param nodeCount int
+	 * @return Cluster object containing the base URLs and the application contexts of the nodes.
+	 * @throws Exception if a node could not be started.
+	 */
+	private static Cluster start(int nodeCount) throws Exception {
+		String[] targets = new String[nodeCount];
+		StringBuilder members = new StringBuilder();
+
+		for (int i = 0; i < nodeCount; i++) {
+			try (ServerSocket socket = new ServerSocket(0)) { // Every member's port must be known before the first node starts
+				targets[i] = "http://localhost:" + socket.getLocalPort();
+			}
+
+			members.append("node-").append(i).append('=').append(targets[i]).append('\n');
+		}
+
+		Path membersFile = Files.createTempFile("cluster-benchmark", ".properties");
+		Files.writeString(membersFile, members);
+
+		ConfigurableApplicationContext[] nodes = new ConfigurableApplicationContext[nodeCount];
+
+		try {
+			for (int i = 0; i < nodeCount; i++) {
+				nodes[i] = new SpringApplicationBuilder(TransactionService.class)
+						.run("--server.port=" + URI.create(targets[i]).getPort(),
+							"--transactionservice.cluster.members-file=" + membersFile,
+							"--transactionservice.cluster.node-id=node-" + i,
+							"--logging.level.root=WARN");
+			}
+		}
+		finally {
+			Files.delete(membersFile); // Only read on startup
+		}
+
+		return new Cluster(targets, nodes);
+	}
+
+	/**
+	 * Warms the cluster up, measures one step, and prints its results.
+	 *
+	 * @param client HttpClient
+	 * @param cluster Cluster
+	 * @param clients int
+	 * @param warmup int
+	 * @param seconds int
+	 * @param users int
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static void run(HttpClient client, Cluster cluster, int clients, int warmup, int seconds, int users) throws InterruptedException {
+		closedLoop(client, cluster, clients, warmup, users);
+
+		long start = System.nanoTime();
+		Step step = closedLoop(client, cluster, clients, seconds, users);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		Histogram histogram = step.recorder().getIntervalHistogram();
+
+		System.out.printf("%-8d %,12.0f %10.2f %10.2f %10.2f %10s %,10d%n", cluster.targets().length, step.requests().get() / elapsed,
+				histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6,
+				cluster.nodes() == null ? "-" : String.format("%.0f%%", 100.0 * step.forwarded().get() / Math.max(step.requests().get(), 1)), step.errors().get());
+	}
+
+	/**
+	 * Keeps the given amount of clients sending load requests to random nodes until the end of the step.
+	 *
+	 * @param client HttpClient
+	 * @param cluster Cluster
+	 * @param clients int
+	 * @param seconds int
+	 * @param users int
+	 * @return Step object containing the latencies and counts of the step.
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static Step closedLoop(HttpClient client, Cluster cluster, int clients, int seconds, int users) throws InterruptedException {
+		Step step = new Step(new Recorder(3), new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong(), new CountDownLatch(clients),
+				System.nanoTime() + seconds * 1_000_000_000L, Long.toString(System.nanoTime(), 36) + "-");
+
+		for (int i = 0; i < clients; i++) {
+			send(client, cluster, step, users);
+		}
+
+		step.done().await();
+
+		return step;
+	}
+
+	/**
+	 * Sends the next request of a closed loop client, until the end of the step.
+	 *
+	 * @param client HttpClient
+	 * @param cluster Cluster
+	 * @param step Step
+	 * @param users int
+	 */
+	private static void send(HttpClient client, Cluster cluster, Step step, int users) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int node = random.nextInt(cluster.targets().length);
+		String userId = Integer.toString(random.nextInt(users));
+		String body = "{\"userId\":\"" + userId + "\",\"messageId\":\"" + step.messageIdPrefix() + step.messageIds().getAndIncrement()
+				+ "\",\"transactionAmount\":{\"amount\":\"1.00\",\"currency\":\"USD\",\"debitOrCredit\":\"CREDIT\"}}";
+
+		if (cluster.nodes() != null && !cluster.nodes()[node].getBean(ClusterRouter.class).isLocal(userId)) {
+			step.forwarded().incrementAndGet();
+		}
+
+		long start = System.nanoTime();
+
+		client.sendAsync(HttpRequest.newBuilder(URI.create(cluster.targets()[node] + "/load")).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body)).build(),
+				HttpResponse.BodyHandlers.discarding()).whenComplete((response, exception) -> {
+			long now = System.nanoTime();
+			step.recorder().recordValue(now - start);
+			step.requests().incrementAndGet();
+
+			if (exception != null || response.statusCode() != 201) {
+				step.errors().incrementAndGet();
+			}
+
+			if (now < step.end()) {
+				send(client, cluster, step, users);
+			}
+			else {
+				step.done().countDown();
+			}
+		});
+	}
+
+	/**
+	 * Cluster record for the base URLs of the nodes, and their application contexts if they were started in this JVM.
+	 *
+	 * @param targets String[]
+	 * @param nodes ConfigurableApplicationContext[], or null for a running cluster
+	 */
+	private record Cluster(String[] targets, ConfigurableApplicationContext[] nodes) {
+	}
+
+	/**
+	 * Step record for the latencies in nanoseconds and the counts of one step, and when it ends.
+	 *
+	 * @param recorder Recorder
+	 * @param messageIds AtomicLong
+	 * @param requests AtomicLong
+	 * @param forwarded AtomicLong, the requests sent to a node that does not own their user
+	 * @param errors AtomicLong, the requests not answered with a 201 response
+	 * @param done CountDownLatch, which is counted down once a client stops
+	 * @param end long, the System.nanoTime at which the step ends
+	 * @param messageIdPrefix String, which keeps the message IDs of different steps apart
+	 */
+	private record Step(Recorder recorder, AtomicLong messageIds, AtomicLong requests, AtomicLong forwarded, AtomicLong errors, CountDownLatch done, long end, String messageIdPrefix) {
+	}
+
+}
@@ -0,0 +1,148 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.journal.ColumnarEventLog;
+import dev.transactionservice.journal.EventCodec;
+import dev.transactionservice.journal.EventLogTier;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationRequestEvent;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.Event;
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * EventLogFootprint class to measure how much memory the columnar event log needs per transaction, which is a request event and its response event,
+ * compared to keeping the Event objects, and to the encoded records of the previous memory-mapped event log,
+ * as well as how large the segment files of the same events are once they have been moved into the warm or cold tier.
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.EventLogFootprint [transactions] [users]", giving the JVM enough heap
+ * for the objects, such as -Xmx4g for 2 million transactions. Every transaction has a random UUID as its message ID and its own copy of the user ID string,
+ * as deserializing a request would create, and 3 in 10 are authorizations. </p>
+ */
+public class EventLogFootprint {
+
+	private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY"};
+
+	/**
+	 * Logs the same transactions in every form, and prints the retained memory per transaction.
+	 *
+	 * @param args String[], the amount of transactions and users, 2000000 and 100000 by default
+	 */
+	public static void main(String[] args) {
+		int transactions = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int users = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+		long before = usedHeap();
+		List<Event> objects = new ArrayList<Event>();
+		generate(transactions, users, objects);
+
+		long objectBytes = usedHeap() - before;
+		System.out.printf("Event objects:        %,d events, %,d bytes, %.1f bytes per transaction%n", objects.size(), objectBytes, (double)objectBytes / transactions);
+
+		ByteBuffer scratch = ByteBuffer.allocate(1 << 16);
+		long recordBytes = 0;
+
+		for (Event event : objects) {
+			scratch.clear();
+			EventCodec.encode(event, scratch);
+			recordBytes += 4 + scratch.position(); // The length of every record, as the segmented event log stored it
+		}
+
+		System.out.printf("Encoded records:      %,d events, %,d bytes, %.1f bytes per transaction%n", objects.size(), recordBytes, (double)recordBytes / transactions);
+
+		objects = null;
+
+		List<Event> batch = new ArrayList<Event>();
+		before = usedHeap();
+		ColumnarEventLog eventLog = new ColumnarEventLog();
+
+		for (int logged = 0; logged < transactions; logged += 100000) { // In batches, so that the Event objects are garbage before the heap is measured
+			batch.clear();
+			generate(Math.min(100000, transactions - logged), users, batch);
+
+			for (Event event : batch) {
+				eventLog.append(event);
+			}
+		}
+
+		batch.clear();
+
+		long columnarBytes = usedHeap() - before;
+		System.out.printf("Columnar event log:   %,d events, %,d bytes, %.1f bytes per transaction on the heap (%,d bytes allocated for the columns, %,d bytes outside the heap)%n",
+				eventLog.size(), columnarBytes, (double)columnarBytes / transactions, eventLog.allocatedBytes(), eventLog.directBytes());
+
+		eventLog = null;
+
+		for (EventLogTier tier : new EventLogTier[] {EventLogTier.WARM, EventLogTier.COLD}) {
+			ColumnarEventLog tieredLog = new ColumnarEventLog("", 0, tier == EventLogTier.WARM ? Long.MAX_VALUE : 0, 0); // Every full chunk is moved on the first pass
+
+			for (int logged = 0; logged < transactions; logged += 100000) {
+				batch.clear();
+				generate(Math.min(100000, transactions - logged), users, batch);
+
+				for (Event event : batch) {
+					tieredLog.append(event);
+				}
+			}
+
+			tieredLog.moveTiers();
+
+			long tieredEvents = tieredLog.size(tier);
+			long segmentBytes = tieredLog.segmentBytes(tier);
+			System.out.printf("%-21s %,d events, %,d bytes, %.1f bytes per transaction on disk%n", tier == EventLogTier.WARM ? "Warm segments:" : "Cold segments:",
+					tieredEvents, segmentBytes, 2.0 * segmentBytes / tieredEvents);
+
+			tieredLog.close();
+		}
+	}
+
+	/**
+	 * Processes random transactions, and adds their request and response events to a list.
+	 *
+	 * @param transactions int
+	 * @param users int
+	 * @param events List&lt;Event&gt;
+	 */
+	private static void generate(int transactions, int users, List<Event> events) {
+		SplittableRandom random = new SplittableRandom();
+		Ledger ledger = new Ledger();
+
+		for (int i = 0; i < transactions; i++) {
+			String messageId = UUID.randomUUID().toString();
+			String userId = new String("user-" + random.nextInt(users)); // Every request brings its own copy
+			String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+			Event request = random.nextInt(10) < 3
+					? new AuthorizationRequestEvent(messageId, new AuthorizationRequest(messageId, userId, new Amount("1.25", currency, DebitCredit.DEBIT)))
+					: new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("10.00", currency, DebitCredit.CREDIT)));
+
+			events.add(request);
+			events.add(request.createResponseEvent(request.process(ledger)));
+		}
+	}
+
+	/**
+	 * Gets the used heap after a few garbage collections.
+	 *
+	 * @return long containing the used heap in bytes.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
@@ -0,0 +1,303 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationRequestEvent;
+import dev.transactionservice.models.AuthorizationResponse;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.RequestError;
+import dev.transactionservice.models.RequestValidator;
+import dev.transactionservice.models.ResponseCode;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.profile.GCProfiler;
+
+import org.openjdk.jmh.results.RunResult;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Collection;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HotPathBenchmark class to measure every step a transaction takes through the service, as a baseline for performance changes.
+ *
+ * <p> It covers the processRequest methods of load and authorization requests against a shared ledger, the event processor's processEvent,
+ * the request validation of the controllers, the Jackson deserialization of a load request and serialization of an authorization response,
+ * and the metrics recorded for every request, which should not allocate.
+ * Every benchmark is parameterized by the amount of accounts, and run from the command line with "-t" or through the main method
+ * for several thread counts. Each thread has its own event processor, as only the writer thread ever calls processEvent. </p>
+ *
+ * <p> Running the main method repeats the benchmarks for 1 up to the amount of available cores with the GC profiler, and prints
+ * the throughput and the bytes allocated per operation. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+	private static final String CURRENCY = "USD";
+	private static final String AMOUNT = "1.00";
+	private static final int POOL_SIZE = 1024; // Requests prepared per thread, for randomly chosen accounts
+
+	@Param({"1000", "1000000"})
+	private int accounts;
+
+	private String[] userIds = null;
+	private Ledger ledger = null;
+	private ObjectMapper objectMapper = null;
+	private ServiceMetrics serviceMetrics = null;
+
+	/**
+	 * Creates the accounts with a balance large enough to approve every authorization, an object mapper configured like Spring Boot's,
+	 * and the service metrics on a Prometheus registry.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		userIds = new String[accounts];
+		ledger = new Ledger();
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		serviceMetrics = new ServiceMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+		for (int i = 0; i < accounts; i++) {
+			userIds[i] = Integer.toString(i);
+			ledger.credit(userIds[i], CURRENCY, Long.MAX_VALUE / 4);
+		}
+	}
+
+	/**
+	 * Processes a load request against the shared ledger, parsing its amount again as a new request would.
+	 *
+	 * @param thread ThreadState
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object loadProcessRequest(ThreadState thread) {
+		int index = thread.next();
+		LoadRequest loadRequest = thread.loadRequests[index];
+		loadRequest.getTransactionAmount().setAmount(AMOUNT);
+
+		return loadRequest.processRequest(thread.loadRequestEvents[index], ledger);
+	}
+
+	/**
+	 * Processes an authorization request against the shared ledger, parsing its amount again as a new request would.
+	 *
+	 * @param thread ThreadState
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object authorizationProcessRequest(ThreadState thread) {
+		int index = thread.next();
+		AuthorizationRequest authorizationRequest = thread.authorizationRequests[index];
+		authorizationRequest.getTransactionAmount().setAmount(AMOUNT);
+
+		return authorizationRequest.processRequest(thread.authorizationRequestEvents[index], ledger);
+	}
+
+	/**
+	 * Logs and processes a load request event in the thread's own event processor.
+	 *
+	 * @param thread ThreadState
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object processEvent(ThreadState thread) {
+		int index = thread.next();
+		thread.loadRequests[index].getTransactionAmount().setAmount(AMOUNT);
+
+		return thread.eventProcessor.processEvent(thread.loadRequestEvents[index]);
+	}
+
+	/**
+	 * Validates a load request the way the controllers do.
+	 *
+	 * @param thread ThreadState
+	 * @return RequestError so that the result is not optimized away.
+	 */
+	@Benchmark
+	public RequestError validation(ThreadState thread) {
+		LoadRequest loadRequest = thread.loadRequests[thread.next()];
+		loadRequest.getTransactionAmount().setAmount(AMOUNT);
+
+		return RequestValidator.validate(loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount(), DebitCredit.CREDIT);
+	}
+
+	/**
+	 * Deserializes the JSON body of a load request.
+	 *
+	 * @param thread ThreadState
+	 * @return LoadRequest so that the result is not optimized away.
+	 * @throws IOException if the JSON could not be read.
+	 */
+	@Benchmark
+	public LoadRequest deserializeLoadRequest(ThreadState thread) throws IOException {
+		return objectMapper.readValue(thread.loadRequestJson[thread.next()], LoadRequest.class);
+	}
+
+	/**
+	 * Serializes an authorization response into the JSON body sent back to the client.
+	 *
+	 * @param thread ThreadState
+	 * @return byte[] so that the result is not optimized away.
+	 * @throws IOException if the JSON could not be written.
+	 */
+	@Benchmark
+	public byte[] serializeAuthorizationResponse(ThreadState thread) throws IOException {
+		return objectMapper.writeValueAsBytes(thread.authorizationResponses[thread.next()]);
+	}
+
+	/**
+	 * Records the metrics of one load request the way the filter and the event sequencer do: its events, its response code and its endpoint's latency.
+	 *
+	 * @param thread ThreadState
+	 */
+	@Benchmark
+	public void recordMetrics(ThreadState thread) {
+		LoadRequestEvent loadRequestEvent = thread.loadRequestEvents[thread.next()];
+
+		serviceMetrics.recordEvent(loadRequestEvent, 150);
+		serviceMetrics.recordResponse(thread.authorizationResponses[thread.index]);
+		serviceMetrics.endpointTimer("/load").record(40_000, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * ThreadState class for the requests, JSON bodies and event processor of one benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private LoadRequest[] loadRequests = null;
+		private LoadRequestEvent[] loadRequestEvents = null;
+		private AuthorizationRequest[] authorizationRequests = null;
+		private AuthorizationRequestEvent[] authorizationRequestEvents = null;
+		private AuthorizationResponse[] authorizationResponses = null;
+		private byte[][] loadRequestJson = null;
+		private EventProcessor eventProcessor = null;
+		private int index = 0;
+
+		/**
+		 * Prepares the requests of this thread for randomly chosen accounts.
+		 *
+		 * @param benchmark HotPathBenchmark
+		 */
+		@Setup(Level.Trial)
+		public void setup(HotPathBenchmark benchmark) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			long thread = Thread.currentThread().getId();
+
+			loadRequests = new LoadRequest[POOL_SIZE];
+			loadRequestEvents = new LoadRequestEvent[POOL_SIZE];
+			authorizationRequests = new AuthorizationRequest[POOL_SIZE];
+			authorizationRequestEvents = new AuthorizationRequestEvent[POOL_SIZE];
+			authorizationResponses = new AuthorizationResponse[POOL_SIZE];
+			loadRequestJson = new byte[POOL_SIZE][];
+			eventProcessor = new EventProcessor();
+
+			for (int i = 0; i < POOL_SIZE; i++) {
+				String userId = benchmark.userIds[random.nextInt(benchmark.accounts)];
+				String messageId = thread + "-" + i;
+
+				loadRequests[i] = new LoadRequest(messageId, userId, new Amount(AMOUNT, CURRENCY, DebitCredit.CREDIT));
+				loadRequestEvents[i] = new LoadRequestEvent(messageId, loadRequests[i]);
+				authorizationRequests[i] = new AuthorizationRequest(messageId, userId, new Amount(AMOUNT, CURRENCY, DebitCredit.DEBIT));
+				authorizationRequestEvents[i] = new AuthorizationRequestEvent(messageId, authorizationRequests[i]);
+				authorizationResponses[i] = new AuthorizationResponse(messageId, userId, ResponseCode.APPROVED, new Amount("1234.56", CURRENCY, DebitCredit.DEBIT));
+				loadRequestJson[i] = loadRequests[i].toString().getBytes(StandardCharsets.UTF_8);
+			}
+		}
+
+		/**
+		 * Clears the thread's event log between iterations, so that it does not grow for the whole run.
+		 */
+		@Setup(Level.Iteration)
+		public void clear() {
+			eventProcessor.clear();
+		}
+
+		/**
+		 * Releases the thread's event log.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			eventProcessor.close();
+		}
+
+		private int next() {
+			index = (index + 1) & (POOL_SIZE - 1);
+
+			return index;
+		}
+	}
+
+	/**
+	 * Runs every benchmark with the GC profiler once per thread count, from 1 thread up to the amount of available cores.
+	 *
+	 * @param args String[]
+	 * @throws Exception if a benchmark run fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		StringBuilder table = new StringBuilder(String.format("%-8s %-32s %-10s %12s %12s%n", "Threads", "Benchmark", "Accounts", "ops/us", "B/op"));
+
+		for (int threads = 1; threads <= cores; threads *= 2) {
+			Options options = new OptionsBuilder()
+					.include(HotPathBenchmark.class.getSimpleName())
+					.threads(threads)
+					.addProfiler(GCProfiler.class)
+					.build();
+
+			Collection<RunResult> results = new Runner(options).run();
+
+			for (RunResult result : results) {
+				String label = result.getParams().getBenchmark();
+
+				table.append(String.format("%-8d %-32s %-10s %12.2f %12.1f%n", threads, label.substring(label.lastIndexOf('.') + 1),
+						result.getParams().getParam("accounts"), result.getPrimaryResult().getScore(),
+						result.getSecondaryResults().get("gc.alloc.rate.norm").getScore()));
+			}
+
+			if (threads < cores && threads * 2 > cores) { // Always finish with a run on every core
+				threads = cores / 2;
+			}
+		}
+
+		System.out.print(table);
+	}
+
+}
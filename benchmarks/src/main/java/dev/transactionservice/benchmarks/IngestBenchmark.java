@@ -0,0 +1,224 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.TransactionService;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.Socket;
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import java.util.stream.Stream;
+
+/**
+ * IngestBenchmark class to measure how many records per minute one stream of newline-delimited JSON is ingested at through /ingest.
+ *
+ * <p> The records are generated while they are sent, so that any amount of them can be streamed without holding them in memory, and the results
+ * are read on a second thread while the body is still being sent, as the endpoint writes them back after every batch. The body and the response are
+ * sent and read over a plain socket with chunked transfer encoding, which keeps both directions of the stream open at once. </p>
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.IngestBenchmark [--name=value ...]", with the options:
+ * target (e.g. http://localhost:8080, in-process by default), records (2000000 by default), users (100000 by default),
+ * debits (the share of authorizations, 0.3 by default) and durability (of the in-process service, group by default). </p>
+ */
+public class IngestBenchmark {
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Streams the records, and prints the throughput and the amount of results and rejected records.
+	 *
+	 * @param args String[], containing the options as --name=value
+	 * @throws Exception if the service could not be started or the stream could not be sent.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<String, String>();
+
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", please use --name=value!");
+			}
+
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		int records = Integer.parseInt(options.getOrDefault("records", "2000000"));
+		int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+		double debits = Double.parseDouble(options.getOrDefault("debits", "0.3"));
+
+		Path journalDirectory = null;
+		ConfigurableApplicationContext context = null;
+		String target = options.get("target");
+
+		if (target == null) {
+			journalDirectory = Files.createTempDirectory("ingest-benchmark");
+			context = new SpringApplicationBuilder(TransactionService.class)
+					.run("--server.port=0",
+						"--transactionservice.journal.durability=" + options.getOrDefault("durability", "group"),
+						"--transactionservice.journal.directory=" + journalDirectory,
+						"--transactionservice.snapshot.interval-seconds=0",
+						"--logging.level.root=WARN");
+			target = "http://localhost:" + ((WebServerApplicationContext)context).getWebServer().getPort();
+		}
+
+		try {
+			System.out.printf("%-12s %14s %16s %10s %10s%n", "Records", "Seconds", "Records/minute", "Results", "Rejected");
+
+			stream(URI.create(target), Math.min(records, 200000), users, debits, "warmup-");
+
+			long start = System.nanoTime();
+			long[] counts = stream(URI.create(target), records, users, debits, "");
+			double elapsed = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("%-,12d %14.2f %,16.0f %,10d %,10d%n", records, elapsed, records / elapsed * 60, counts[0], counts[1]);
+		}
+		finally {
+			if (context != null) {
+				context.close();
+
+				try (Stream<Path> paths = Files.walk(journalDirectory)) {
+					for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+						Files.delete(path);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends one stream of records, and reads its results until the service ends the response.
+	 *
+	 * @param target URI
+	 * @param records int
+	 * @param users int
+	 * @param debits double
+	 * @param messageIdPrefix String, which keeps the message IDs of different streams apart
+	 * @return long[] containing the amount of results and of rejected records.
+	 * @throws Exception if the stream could not be sent or its results could not be read.
+	 */
+	private static long[] stream(URI target, int records, int users, double debits, String messageIdPrefix) throws Exception {
+		try (Socket socket = new Socket(target.getHost(), target.getPort())) {
+			OutputStream output = new BufferedOutputStream(socket.getOutputStream(), CHUNK_SIZE);
+			long[] counts = new long[2];
+			IOException[] failure = new IOException[1];
+
+			output.write(("PUT /ingest HTTP/1.1\r\nHost: " + target.getHost() + "\r\nContent-Type: application/x-ndjson\r\n"
+					+ "Transfer-Encoding: chunked\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+			Thread reader = new Thread(() -> {
+				try {
+					readResults(socket.getInputStream(), counts);
+				}
+				catch (IOException e) {
+					failure[0] = e;
+				}
+			});
+
+			reader.start();
+
+			SplittableRandom random = new SplittableRandom(42);
+			ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE + 256);
+
+			for (int i = 0; i < records; i++) {
+				boolean debit = random.nextDouble() < debits;
+				String record = "{\"messageId\":\"" + messageIdPrefix + i + "\",\"userId\":\"" + random.nextInt(users) + "\",\"transactionAmount\":{\"amount\":\""
+						+ (debit ? "1.00" : "10.00") + "\",\"currency\":\"USD\",\"debitOrCredit\":\"" + (debit ? "DEBIT" : "CREDIT") + "\"}}\n";
+
+				chunk.write(record.getBytes(StandardCharsets.UTF_8));
+
+				if (chunk.size() >= CHUNK_SIZE || i == records - 1) {
+					output.write((Integer.toHexString(chunk.size()) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+					chunk.writeTo(output);
+					output.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+					chunk.reset();
+				}
+			}
+
+			output.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			output.flush();
+			reader.join();
+
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+
+			return counts;
+		}
+	}
+
+	/**
+	 * Reads a chunked response, and counts its results and the results that contain an error.
+	 *
+	 * @param socketInput InputStream
+	 * @param counts long[], filled in with the amount of results and of rejected records
+	 * @throws IOException if the response could not be read.
+	 */
+	private static void readResults(InputStream socketInput, long[] counts) throws IOException {
+		InputStream input = new BufferedInputStream(socketInput, CHUNK_SIZE);
+		String statusLine = readLine(input);
+
+		if (!statusLine.startsWith("HTTP/1.1 200")) {
+			throw new IOException("The stream was answered with " + statusLine + "!");
+		}
+
+		while (!readLine(input).isEmpty()) { // Skip the headers
+		}
+
+		StringBuilder line = new StringBuilder();
+
+		for (int size = Integer.parseInt(readLine(input), 16); size > 0; size = Integer.parseInt(readLine(input), 16)) {
+			for (int i = 0; i < size; i++) {
+				int b = input.read();
+
+				if (b == '\n') {
+					counts[0]++;
+					counts[1] += line.indexOf("\"error\"") >= 0 ? 1 : 0;
+					line.setLength(0);
+				}
+				else {
+					line.append((char)b);
+				}
+			}
+
+			readLine(input); // The end of the chunk
+		}
+	}
+
+	private static String readLine(InputStream input) throws IOException {
+		StringBuilder line = new StringBuilder();
+
+		for (int b = input.read(); b != '\n'; b = input.read()) {
+			if (b < 0) {
+				throw new IOException("The response ended early!");
+			}
+			else if (b != '\r') {
+				line.append((char)b);
+			}
+		}
+
+		return line.toString();
+	}
+
+}
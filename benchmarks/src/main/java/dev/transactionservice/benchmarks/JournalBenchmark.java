@@ -0,0 +1,116 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Comparator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.stream.Stream;
+
+/**
+ * JournalBenchmark class to measure how many requests per second can be made durable with each durability of the event journal.
+ *
+ * <p> Many threads publish at once, so that with group durability their requests share fsyncs.
+ * The journal is written to a temporary directory, which should be on the disk that is being measured (see java.io.tmpdir). </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class JournalBenchmark {
+
+	private static final int ACCOUNTS = 10000;
+
+	@Param({"none", "async", "group", "sync"})
+	private String durability;
+
+	private Path directory = null;
+	private AtomicLong messageIds = null;
+	private EventProcessor eventProcessor = null;
+	private EventJournal eventJournal = null;
+	private EventSequencer eventSequencer = null;
+
+	/**
+	 * Creates an empty journal in a temporary directory, and an event sequencer that writes to it.
+	 *
+	 * @throws IOException if the temporary directory could not be created.
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("journal-benchmark");
+		messageIds = new AtomicLong();
+		eventProcessor = new EventProcessor();
+		eventJournal = new EventJournal(durability, directory.toString(), 10);
+		eventSequencer = new EventSequencer(eventProcessor, eventJournal, new SnapshotManager(eventJournal, directory.toString(), 0, 1, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0), new ServiceMetrics(new SimpleMeterRegistry()), 1024);
+	}
+
+	/**
+	 * Stops the event sequencer, closes the journal and the event log, and deletes the journal directory.
+	 *
+	 * @throws IOException if the temporary directory could not be deleted.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		eventSequencer.shutdown();
+		eventJournal.close();
+		eventProcessor.close();
+
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	/**
+	 * Publishes a load request event, which only returns once the event is as durable as configured.
+	 *
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object durableLoad() {
+		String messageId = Long.toString(messageIds.getAndIncrement());
+		String userId = Integer.toString(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+
+		return eventSequencer.publish(new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("1.00", "USD", DebitCredit.CREDIT))));
+	}
+
+}
@@ -0,0 +1,113 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.JsonCodec;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.ResponseCode;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonCodecBenchmark class to compare reading a load request and writing a load response with the JSON codec against Jackson's databinding,
+ * configured like Spring Boot's ObjectMapper, which is what the /load and /authorization endpoints used before.
+ *
+ * <p> Responses are written into a reused stream, like a response buffer, so only the serialization itself is measured.
+ * Run it with "-prof gc" to compare the allocations per request as well. </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+	private ObjectMapper objectMapper = null;
+	private byte[] request = null;
+	private LoadResponse response = null;
+	private ByteArrayOutputStream output = null;
+
+	/**
+	 * Creates the mapper, the request body and the response.
+	 */
+	@Setup
+	public void setup() {
+		objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES); // As Spring Boot configures it
+		request = ("{\"messageId\":\"50e70c62-e480-49fc-bc1b-e991ac672173\",\"userId\":\"8786e2f9-d472-46a8-958f-d659880e723d\","
+				+ "\"transactionAmount\":{\"amount\":\"123.45\",\"currency\":\"USD\",\"debitOrCredit\":\"CREDIT\"}}").getBytes(StandardCharsets.UTF_8);
+		response = new LoadResponse("50e70c62-e480-49fc-bc1b-e991ac672173", "8786e2f9-d472-46a8-958f-d659880e723d", ResponseCode.APPROVED,
+				new Amount("9235.00", "USD", DebitCredit.CREDIT));
+		output = new ByteArrayOutputStream(512);
+	}
+
+	/**
+	 * Reads the load request with Jackson's databinding.
+	 *
+	 * @return LoadRequest
+	 * @throws IOException if the request could not be read.
+	 */
+	@Benchmark
+	public LoadRequest readObjectMapper() throws IOException {
+		return objectMapper.readValue(request, LoadRequest.class);
+	}
+
+	/**
+	 * Reads the load request with the JSON codec.
+	 *
+	 * @return LoadRequest
+	 */
+	@Benchmark
+	public LoadRequest readCodec() {
+		return JsonCodec.read(LoadRequest.class, request, request.length);
+	}
+
+	/**
+	 * Writes the load response with Jackson's databinding.
+	 *
+	 * @return int containing the size of the response.
+	 * @throws IOException if the response could not be written.
+	 */
+	@Benchmark
+	public int writeObjectMapper() throws IOException {
+		output.reset();
+		objectMapper.writeValue(output, response);
+
+		return output.size();
+	}
+
+	/**
+	 * Writes the load response with the JSON codec.
+	 *
+	 * @return int containing the size of the response.
+	 * @throws IOException if the response could not be written.
+	 */
+	@Benchmark
+	public int writeCodec() throws IOException {
+		output.reset();
+		JsonCodec.write(response, output);
+
+		return output.size();
+	}
+
+}
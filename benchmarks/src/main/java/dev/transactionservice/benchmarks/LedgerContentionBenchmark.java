@@ -0,0 +1,151 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Ledger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.results.RunResult;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import java.math.BigDecimal;
+
+/**
+ * LedgerContentionBenchmark class to measure how the throughput of the ledger scales with the amount of request threads.
+ *
+ * <p> Every thread credits and debits randomly chosen accounts. The ledger is compared against a single globally locked map,
+ * which is what making the previous HashMap thread safe with one monitor would look like. </p>
+ *
+ * <p> Running the main method repeats the benchmark for 1 up to the amount of available cores, and prints the scaling table. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerContentionBenchmark {
+
+	private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY"};
+	private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+	private static final long AMOUNT_MINOR_UNITS = 100;
+
+	@Param({"16", "100000"})
+	private int accounts; // A small amount of accounts means most requests touch the same balances
+
+	private String[] userIds = null;
+	private Ledger ledger = null;
+	private HashMap<String, BigDecimal> globallyLockedBalances = null;
+
+	/**
+	 * Creates the accounts and gives each of them an opening balance.
+	 */
+	@Setup
+	public void setup() {
+		userIds = new String[accounts];
+		ledger = new Ledger();
+		globallyLockedBalances = new HashMap<String, BigDecimal>();
+
+		for (int i = 0; i < accounts; i++) {
+			userIds[i] = Integer.toString(i);
+
+			for (String currency : CURRENCIES) {
+				ledger.credit(userIds[i], currency, 100000000);
+				globallyLockedBalances.put(userIds[i] + currency, new BigDecimal("1000000.00"));
+			}
+		}
+	}
+
+	/**
+	 * Credits or debits a random account in the ledger.
+	 *
+	 * @return long so that the result is not optimized away.
+	 */
+	@Benchmark
+	public long ledger() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String userId = userIds[random.nextInt(accounts)];
+		String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+
+		if (random.nextBoolean()) {
+			return ledger.credit(userId, currency, AMOUNT_MINOR_UNITS);
+		}
+
+		return ledger.debit(userId, currency, AMOUNT_MINOR_UNITS);
+	}
+
+	/**
+	 * Credits or debits a random account in a map guarded by a single lock.
+	 *
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object globalLock() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String key = userIds[random.nextInt(accounts)] + CURRENCIES[random.nextInt(CURRENCIES.length)];
+		boolean credit = random.nextBoolean();
+
+		synchronized (globallyLockedBalances) {
+			BigDecimal balance = globallyLockedBalances.get(key);
+			BigDecimal newBalance = credit ? balance.add(AMOUNT) : balance.subtract(AMOUNT);
+
+			if (newBalance.signum() >= 0) {
+				globallyLockedBalances.put(key, newBalance);
+			}
+
+			return newBalance;
+		}
+	}
+
+	/**
+	 * Runs the benchmark once per thread count, from 1 thread up to the amount of available cores.
+	 *
+	 * @param args String[]
+	 * @throws Exception if a benchmark run fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		StringBuilder table = new StringBuilder(String.format("%-8s %-12s %-10s %16s%n", "Threads", "Benchmark", "Accounts", "ops/ms"));
+
+		for (int threads = 1; threads <= cores; threads *= 2) {
+			Options options = new OptionsBuilder()
+					.include(LedgerContentionBenchmark.class.getSimpleName())
+					.threads(threads)
+					.build();
+
+			Collection<RunResult> results = new Runner(options).run();
+
+			for (RunResult result : results) {
+				String label = result.getParams().getBenchmark();
+
+				table.append(String.format("%-8d %-12s %-10s %16.1f%n", threads, label.substring(label.lastIndexOf('.') + 1),
+						result.getParams().getParam("accounts"), result.getPrimaryResult().getScore()));
+			}
+
+			if (threads < cores && threads * 2 > cores) { // Always finish with a run on every core
+				threads = cores / 2;
+			}
+		}
+
+		System.out.print(table);
+	}
+
+}
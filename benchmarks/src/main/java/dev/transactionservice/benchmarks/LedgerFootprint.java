@@ -0,0 +1,76 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.Pair;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LedgerFootprint class to measure how much heap the ledger needs per balance, compared to a map keyed by Pair&lt;String, String&gt; records.
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.LedgerFootprint [users] [currencies]",
+ * giving the JVM enough heap for the map, such as -Xmx8g for 10 million balances. The user ID and currency strings are created for both,
+ * as requests would bring them in either way, so only what the ledger keeps alive is counted. </p>
+ */
+public class LedgerFootprint {
+
+	private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "CNY"};
+
+	/**
+	 * Fills both ledgers with every combination of users and currencies, and prints the retained heap per balance.
+	 *
+	 * @param args String[], the amount of users and currencies, 1000000 and 4 by default
+	 */
+	public static void main(String[] args) {
+		int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int currencies = Math.min(args.length > 1 ? Integer.parseInt(args[1]) : 4, CURRENCIES.length);
+		long balances = (long)users * currencies;
+
+		long before = usedHeap();
+		Ledger ledger = new Ledger();
+
+		for (int user = 0; user < users; user++) {
+			String userId = Integer.toString(user);
+
+			for (int currency = 0; currency < currencies; currency++) {
+				ledger.credit(userId, CURRENCIES[currency], 100);
+			}
+		}
+
+		long ledgerBytes = usedHeap() - before;
+		System.out.printf("Ledger:               %,d balances, %,d bytes, %.1f bytes per balance%n", ledger.size(), ledgerBytes, (double)ledgerBytes / balances);
+
+		ledger = null;
+		before = usedHeap();
+		ConcurrentHashMap<Pair<String, String>, AtomicLong> pairMap = new ConcurrentHashMap<Pair<String, String>, AtomicLong>();
+
+		for (int user = 0; user < users; user++) {
+			String userId = Integer.toString(user);
+
+			for (int currency = 0; currency < currencies; currency++) {
+				pairMap.computeIfAbsent(new Pair<>(userId, CURRENCIES[currency]), key -> new AtomicLong()).addAndGet(100);
+			}
+		}
+
+		long pairMapBytes = usedHeap() - before;
+		System.out.printf("Pair-keyed map:       %,d balances, %,d bytes, %.1f bytes per balance%n", pairMap.size(), pairMapBytes, (double)pairMapBytes / balances);
+	}
+
+	/**
+	 * Gets the used heap after a few garbage collections.
+	 *
+	 * @return long containing the used heap in bytes.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
@@ -0,0 +1,323 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.TransactionService;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.concurrent.locks.LockSupport;
+
+import java.util.stream.Stream;
+
+/**
+ * LoadGenerator class to drive the /load and /authorization endpoints of a single node end to end, and find the rate at which its latency breaks away.
+ *
+ * <p> The open loop model sends requests on a fixed schedule whether or not earlier ones have been answered, and measures every latency from the time
+ * the request was due rather than from when it was sent, so that a stalled service is not hidden by the generator backing off (coordinated omission).
+ * The closed loop model keeps a fixed amount of clients that each send their next request once the previous one is answered. Each step of the given rates
+ * or client counts is run in turn after a warmup, and prints the throughput and the p50, p99, p99.9 and max latency from an HDR histogram. </p>
+ *
+ * <p> User IDs follow a Zipfian distribution, so that a few users receive most of the requests, and the given share of requests are debits sent to /authorization,
+ * while the rest are credits sent to /load. Without a target, the service is started in this JVM, which then shares its cores with the generator;
+ * to find the saturation knee before a release, start the service on its own and pass its address as the target. </p>
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.LoadGenerator [--name=value ...]", with the options:
+ * target (e.g. http://localhost:8080, in-process by default), model (open or closed, open by default), rates (requests per second of each open loop step,
+ * 1000,2000,4000,8000 by default), clients (clients of each closed loop step, 16,64,256 by default), seconds (of each step, 10 by default),
+ * warmup (seconds, 5 by default), users (100000 by default), zipf (the exponent of the distribution, 0.99 by default, 0 for uniform),
+ * debits (share of authorization requests, 0.5 by default), outstanding (most requests the open loop keeps unanswered, 10000 by default),
+ * and durability (of the in-process service's journal, group by default). </p>
+ */
+public class LoadGenerator {
+
+	/**
+	 * Starts or targets the service, runs every step, and prints the results.
+	 *
+	 * @param args String[], containing the options as --name=value
+	 * @throws Exception if the service could not be started or a request could not be sent.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<String, String>();
+
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", please use --name=value!");
+			}
+
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		boolean openLoop = options.getOrDefault("model", "open").equals("open");
+		String[] steps = (openLoop ? options.getOrDefault("rates", "1000,2000,4000,8000") : options.getOrDefault("clients", "16,64,256")).split(",");
+		int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+		int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+		int outstanding = Integer.parseInt(options.getOrDefault("outstanding", "10000"));
+
+		Path journalDirectory = null;
+		ConfigurableApplicationContext context = null;
+		String target = options.get("target");
+
+		if (target == null) {
+			journalDirectory = Files.createTempDirectory("load-generator");
+			context = new SpringApplicationBuilder(TransactionService.class)
+					.run("--server.port=0",
+						"--transactionservice.journal.durability=" + options.getOrDefault("durability", "group"),
+						"--transactionservice.journal.directory=" + journalDirectory,
+						"--transactionservice.snapshot.interval-seconds=0",
+						"--logging.level.root=WARN");
+			target = "http://localhost:" + ((WebServerApplicationContext)context).getWebServer().getPort();
+		}
+
+		try {
+			HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+			Workload workload = new Workload(target, Integer.parseInt(options.getOrDefault("users", "100000")),
+					Double.parseDouble(options.getOrDefault("zipf", "0.99")), Double.parseDouble(options.getOrDefault("debits", "0.5")));
+
+			closedLoop(client, workload, 64, warmup);
+
+			System.out.printf("%-14s %12s %10s %10s %10s %10s %10s%n", openLoop ? "Rate" : "Clients", "Requests/s", "p50 ms", "p99 ms", "p99.9 ms", "Max ms", "Errors");
+
+			for (String step : steps) {
+				Result result = openLoop ? openLoop(client, workload, Double.parseDouble(step), seconds, outstanding) : closedLoop(client, workload, Integer.parseInt(step), seconds);
+				Histogram histogram = result.histogram();
+
+				System.out.printf("%-14s %,12.0f %10.2f %10.2f %10.2f %10.2f %,10d%n", step, result.throughput(), histogram.getValueAtPercentile(50) / 1e6,
+						histogram.getValueAtPercentile(99) / 1e6, histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6, result.errors());
+			}
+		}
+		finally {
+			if (context != null) {
+				context.close();
+
+				try (Stream<Path> paths = Files.walk(journalDirectory)) {
+					for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+						Files.delete(path);
+					}
+				}
+			}
+		}
+
+		System.exit(0); // The HTTP client's selector thread would otherwise keep the JVM alive
+	}
+
+	/**
+	 * Sends requests on a fixed schedule, and measures each latency from the time the request was due.
+	 *
+	 * @param client HttpClient
+	 * @param workload Workload
+	 * @param rate double, in requests per second
+	 * @param seconds int
+	 * @param outstanding int, the most requests left unanswered before the schedule waits, whose delay is still counted in the latencies
+	 * @return Result object containing the latencies, throughput and errors of the step.
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static Result openLoop(HttpClient client, Workload workload, double rate, int seconds, int outstanding) throws InterruptedException {
+		int requests = (int)(rate * seconds);
+		double interval = 1e9 / rate;
+		Recorder recorder = new Recorder(3);
+		Semaphore unanswered = new Semaphore(outstanding);
+		CountDownLatch done = new CountDownLatch(requests);
+		AtomicLong errors = new AtomicLong();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < requests; i++) {
+			long due = start + (long)(i * interval);
+			long delay = 0;
+
+			while ((delay = due - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(delay);
+			}
+
+			unanswered.acquire();
+
+			client.sendAsync(workload.next(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, exception) -> {
+				recorder.recordValue(System.nanoTime() - due);
+
+				if (exception != null || response.statusCode() != 201) {
+					errors.incrementAndGet();
+				}
+
+				unanswered.release();
+				done.countDown();
+			});
+		}
+
+		done.await();
+
+		return new Result(recorder.getIntervalHistogram(), requests / ((System.nanoTime() - start) / 1e9), errors.get());
+	}
+
+	/**
+	 * Keeps a fixed amount of clients sending requests, each one once its previous request has been answered.
+	 *
+	 * @param client HttpClient
+	 * @param workload Workload
+	 * @param clients int
+	 * @param seconds int
+	 * @return Result object containing the latencies, throughput and errors of the step.
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static Result closedLoop(HttpClient client, Workload workload, int clients, int seconds) throws InterruptedException {
+		Recorder recorder = new Recorder(3);
+		CountDownLatch done = new CountDownLatch(clients);
+		AtomicLong requests = new AtomicLong();
+		AtomicLong errors = new AtomicLong();
+		long start = System.nanoTime();
+		long end = start + seconds * 1_000_000_000L;
+
+		for (int i = 0; i < clients; i++) {
+			send(client, workload, end, recorder, requests, errors, done);
+		}
+
+		done.await();
+
+		return new Result(recorder.getIntervalHistogram(), requests.get() / ((System.nanoTime() - start) / 1e9), errors.get());
+	}
+
+	/**
+	 * Sends the next request of a closed loop client, until the end of the step.
+	 *
+	 * @param client HttpClient
+	 * @param workload Workload
+	 * @param end long, the System.nanoTime at which the step ends
+	 * @param recorder Recorder
+	 * @param requests AtomicLong
+	 * @param errors AtomicLong
+	 * @param done CountDownLatch, which is counted down once the client stops
+	 */
+	private static void send(HttpClient client, Workload workload, long end, Recorder recorder, AtomicLong requests, AtomicLong errors, CountDownLatch done) {
+		long start = System.nanoTime();
+
+		client.sendAsync(workload.next(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, exception) -> {
+			long now = System.nanoTime();
+			recorder.recordValue(now - start);
+			requests.incrementAndGet();
+
+			if (exception != null || response.statusCode() != 201) {
+				errors.incrementAndGet();
+			}
+
+			if (now < end) {
+				send(client, workload, end, recorder, requests, errors, done);
+			}
+			else {
+				done.countDown();
+			}
+		});
+	}
+
+	/**
+	 * Result record for the latencies in nanoseconds, the requests per second and the amount of requests not answered with a 201 response of one step.
+	 *
+	 * @param histogram Histogram
+	 * @param throughput double
+	 * @param errors long
+	 */
+	private record Result(Histogram histogram, double throughput, long errors) {
+	}
+
+	/**
+	 * Workload class to create the requests, with Zipfian distributed user IDs and the given share of debits.
+	 */
+	private static class Workload {
+		private final URI loadUri;
+		private final URI authorizationUri;
+		private final double[] cumulative; // Cumulative probability of each user ID, in order of popularity
+		private final double debits;
+		private final String messageIdPrefix = Long.toString(System.currentTimeMillis(), 36) + "-"; // Keeps the message IDs of different runs against the same service apart
+		private final AtomicLong messageIds = new AtomicLong();
+
+		/**
+		 * Constructor for the Workload class.
+		 *
+		 * @param target String
+		 * @param users int
+		 * @param exponent double, of which 0 makes every user equally likely
+		 * @param debits double
+		 */
+		private Workload(String target, int users, double exponent, double debits) {
+			this.loadUri = URI.create(target + "/load");
+			this.authorizationUri = URI.create(target + "/authorization");
+			this.cumulative = new double[users];
+			this.debits = debits;
+
+			double sum = 0;
+
+			for (int i = 0; i < users; i++) {
+				sum += 1 / Math.pow(i + 1, exponent);
+				cumulative[i] = sum;
+			}
+
+			for (int i = 0; i < users; i++) {
+				cumulative[i] /= sum;
+			}
+		}
+
+		/**
+		 * Creates the next request, a debit to a Zipfian distributed user with the given probability, and a credit otherwise.
+		 *
+		 * @return HttpRequest object containing the request.
+		 */
+		private HttpRequest next() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int userId = search(random.nextDouble());
+			boolean debit = random.nextDouble() < debits;
+			String body = "{\"userId\":\"" + userId + "\",\"messageId\":\"" + messageIdPrefix + messageIds.getAndIncrement()
+					+ "\",\"transactionAmount\":{\"amount\":\"" + (1 + random.nextInt(100)) + ".00\",\"currency\":\"USD\",\"debitOrCredit\":\"" + (debit ? "DEBIT" : "CREDIT") + "\"}}";
+
+			return HttpRequest.newBuilder(debit ? authorizationUri : loadUri).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+		}
+
+		/**
+		 * Finds the first user whose cumulative probability is at least the given one.
+		 *
+		 * @param probability double
+		 * @return int containing the user ID.
+		 */
+		private int search(double probability) {
+			int low = 0;
+			int high = cumulative.length - 1;
+
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+
+				if (cumulative[middle] < probability) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+
+			return low;
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * MoneyBenchmark class to compare the amount handling of a request with long minor units against the previous BigDecimal path.
+ *
+ * <p> Each benchmark does what a request used to do with its amount: check that it is positive, truncate it to the decimal places of the currency,
+ * add it to a balance, and format the new balance for the response. Run it with "-prof gc" to compare the allocations per request as well. </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+	private static final String CURRENCY = "USD";
+
+	@Param({"100.12", ".5", "123456.78912"})
+	private String amount;
+
+	private BigDecimal bigDecimalBalance = null;
+	private long minorUnitsBalance = 0;
+
+	/**
+	 * Resets both balances.
+	 */
+	@Setup
+	public void setup() {
+		bigDecimalBalance = new BigDecimal("0.00");
+		minorUnitsBalance = 0;
+	}
+
+	/**
+	 * Handles the amount with BigDecimal, the way the controllers and processRequest used to.
+	 *
+	 * @return String containing the formatted balance.
+	 */
+	@Benchmark
+	public String bigDecimal() {
+		if (new BigDecimal(amount).compareTo(new BigDecimal(0)) != 1) {
+			return null;
+		}
+
+		bigDecimalBalance = bigDecimalBalance.add(new BigDecimal(amount).setScale(2, RoundingMode.FLOOR));
+
+		return bigDecimalBalance.toString();
+	}
+
+	/**
+	 * Handles the amount as long minor units.
+	 *
+	 * @return String containing the formatted balance.
+	 */
+	@Benchmark
+	public String minorUnits() {
+		if (Money.signum(amount) != 1) {
+			return null;
+		}
+
+		minorUnitsBalance = Math.addExact(minorUnitsBalance, Money.parse(amount, CURRENCY));
+
+		return Money.format(minorUnitsBalance, CURRENCY);
+	}
+
+}
@@ -0,0 +1,94 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PartitionBenchmark class to measure how the throughput of load requests scales with the amount of partitions the users are split into.
+ *
+ * <p> Every available core publishes load requests for uniformly distributed users through the event router, without a journal,
+ * so that the writer threads are the bottleneck. With one partition, every request is applied by the same writer thread;
+ * with more partitions, the writer threads apply their users' requests in parallel, as long as there are cores for them. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class PartitionBenchmark {
+
+	private static final int USERS = 100000;
+
+	@Param({"1", "2", "4", "8"})
+	private int partitions;
+
+	private EventRouter eventRouter = null;
+
+	/**
+	 * Creates the event router with the given amount of partitions, and the default settings otherwise.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		eventRouter = new EventRouter(partitions, 1024, "none", "", 10, 0, 1, "", 0, 0, 0, 1000000, 8, 0.00001, new ServiceMetrics(meterRegistry), meterRegistry);
+	}
+
+	/**
+	 * Stops every partition.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		eventRouter.close();
+	}
+
+	/**
+	 * Publishes a load request for a random user, and waits for its response.
+	 *
+	 * @param thread ThreadState
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object publish(ThreadState thread) {
+		String messageId = thread.prefix + thread.messageIds++;
+		String userId = Integer.toString(ThreadLocalRandom.current().nextInt(USERS));
+
+		return eventRouter.publish(new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("1.00", "USD", DebitCredit.CREDIT))));
+	}
+
+	/**
+	 * ThreadState class for the message IDs of one benchmark thread, which never collide with those of another thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private String prefix = Thread.currentThread().getId() + "-";
+		private long messageIds = 0;
+	}
+
+}
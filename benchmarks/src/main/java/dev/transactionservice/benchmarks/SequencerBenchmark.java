@@ -0,0 +1,132 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.Event;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SequencerBenchmark class to compare publishing events through the EventSequencer against calling the EventProcessor directly.
+ *
+ * <p> The direct path guards the event processor with one monitor, which is how the controllers used to share it through the synchronized Vector.
+ * Both throughput and the latency distribution (including p99) are reported. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SequencerBenchmark {
+
+	private static final int ACCOUNTS = 10000;
+
+	private AtomicLong messageIds = null;
+	private EventProcessor directProcessor = null;
+	private EventProcessor sequencedProcessor = null;
+	private EventSequencer eventSequencer = null;
+
+	/**
+	 * Creates both event processors and the event sequencer.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		messageIds = new AtomicLong();
+		directProcessor = new EventProcessor();
+		sequencedProcessor = new EventProcessor();
+		EventJournal eventJournal = new EventJournal("none", "", 0);
+
+		eventSequencer = new EventSequencer(sequencedProcessor, eventJournal, new SnapshotManager(eventJournal, "", 0, 1, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0), new ServiceMetrics(new SimpleMeterRegistry()), 1024);
+	}
+
+	/**
+	 * Clears the logged events between iterations, so that the event logs do not grow for the whole run.
+	 */
+	@Setup(Level.Iteration)
+	public void clear() {
+		synchronized (directProcessor) {
+			directProcessor.clear();
+		}
+
+		sequencedProcessor.clear(); // No events are in flight between iterations
+	}
+
+	/**
+	 * Stops the writer thread of the event sequencer, and releases the event logs.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		eventSequencer.shutdown();
+		directProcessor.close();
+		sequencedProcessor.close();
+	}
+
+	/**
+	 * Publishes a load request event through the event sequencer.
+	 *
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object sequencer() {
+		return eventSequencer.publish(nextEvent());
+	}
+
+	/**
+	 * Processes a load request event and its response event directly, under one shared monitor.
+	 *
+	 * @return Object so that the result is not optimized away.
+	 */
+	@Benchmark
+	public Object synchronizedProcessor() {
+		Event event = nextEvent();
+
+		synchronized (directProcessor) {
+			Object response = directProcessor.processEvent(event);
+			directProcessor.processEvent(event.createResponseEvent(response));
+
+			return response;
+		}
+	}
+
+	/**
+	 * Creates a load request event for a random user, with a unique message ID.
+	 *
+	 * @return LoadRequestEvent object containing the load request.
+	 */
+	private LoadRequestEvent nextEvent() {
+		String messageId = Long.toString(messageIds.getAndIncrement());
+		String userId = Integer.toString(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+
+		return new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("1.00", "USD", DebitCredit.CREDIT)));
+	}
+
+}
@@ -0,0 +1,228 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.TransactionService;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+
+import org.springframework.web.server.WebFilter;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.stream.Stream;
+
+/**
+ * ThreadingModeBenchmark class to compare serving requests on Tomcat's platform thread pool, on virtual threads, and on the reactive stack.
+ *
+ * <p> The service is started in this JVM once per mode, with sync durability so that every request waits for an fsync,
+ * and a client keeps a fixed amount of load requests outstanding. A filter counts how many requests the service is handling at once,
+ * which is capped by the pool size for platform threads, and the client measures the latency of every request.
+ * The reactive mode answers with a 503 response once the event sequencer's ring buffer is full, which is counted separately. </p>
+ *
+ * <p> Run it with "java -cp target/benchmarks.jar dev.transactionservice.benchmarks.ThreadingModeBenchmark [concurrency] [requests] [durability]".
+ * Virtual threads need Java 21 or later, so the virtual mode is skipped on older versions. </p>
+ */
+public class ThreadingModeBenchmark {
+
+	private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+	private static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger();
+
+	/**
+	 * Runs the benchmark for both modes, and prints the results.
+	 *
+	 * @param args String[], the amount of outstanding requests, the amount of requests and the journal durability, 1000, 20000 and sync by default
+	 * @throws Exception if the service could not be started or a request failed.
+	 */
+	public static void main(String[] args) throws Exception {
+		int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		String durability = args.length > 2 ? args[2] : "sync";
+
+		System.out.printf("%-10s %12s %14s %10s %10s %10s %10s%n", "Mode", "Requests/s", "Max in flight", "p50 ms", "p99 ms", "Max ms", "Busy");
+
+		for (String mode : new String[] {"platform", "virtual", "reactive"}) {
+			if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+				System.out.printf("%-10s skipped, as virtual threads need Java 21 or later%n", mode);
+				continue;
+			}
+
+			run(mode, concurrency, requests, durability);
+		}
+	}
+
+	/**
+	 * Starts the service in one mode, warms it up, and measures the requests.
+	 *
+	 * @param mode String, which is platform, virtual or reactive
+	 * @param concurrency int
+	 * @param requests int
+	 * @param durability String
+	 * @throws Exception if the service could not be started or a request failed.
+	 */
+	private static void run(String mode, int concurrency, int requests, String durability) throws Exception {
+		Path journalDirectory = Files.createTempDirectory("threading-benchmark");
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionService.class, InFlightConfiguration.class)
+				.run("--server.port=0",
+					"--spring.main.web-application-type=" + (mode.equals("reactive") ? "reactive" : "servlet"),
+					"--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+					"--transactionservice.journal.durability=" + durability,
+					"--transactionservice.journal.directory=" + journalDirectory,
+					"--transactionservice.snapshot.interval-seconds=0",
+					"--logging.level.root=WARN");
+
+		try {
+			URI uri = URI.create("http://localhost:" + ((WebServerApplicationContext)context).getWebServer().getPort() + "/load");
+			HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+
+			AtomicInteger busy = new AtomicInteger();
+
+			send(client, uri, "warmup-", Math.min(requests, 5000), concurrency, busy);
+
+			IN_FLIGHT.set(0);
+			MAX_IN_FLIGHT.set(0);
+			busy.set(0);
+
+			long start = System.nanoTime();
+			long[] latencies = send(client, uri, "", requests, concurrency, busy);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			Arrays.sort(latencies);
+			System.out.printf("%-10s %,12.0f %,14d %10.2f %10.2f %10.2f %,10d%n", mode, requests / seconds, MAX_IN_FLIGHT.get(),
+					latencies[(int)(latencies.length * 0.50)] / 1e6, latencies[(int)(latencies.length * 0.99)] / 1e6, latencies[latencies.length - 1] / 1e6, busy.get());
+		}
+		finally {
+			context.close();
+
+			try (Stream<Path> paths = Files.walk(journalDirectory)) {
+				for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+					Files.delete(path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends load requests to a thousand users, keeping a fixed amount of them outstanding.
+	 *
+	 * @param client HttpClient
+	 * @param uri URI
+	 * @param messageIdPrefix String, which keeps the message IDs of different rounds apart
+	 * @param requests int
+	 * @param concurrency int
+	 * @param busy AtomicInteger, which counts the requests answered with a 503 response
+	 * @return long[] containing the latency of every request in nanoseconds.
+	 * @throws InterruptedException if interrupted while waiting for the requests.
+	 */
+	private static long[] send(HttpClient client, URI uri, String messageIdPrefix, int requests, int concurrency, AtomicInteger busy) throws InterruptedException {
+		long[] latencies = new long[requests];
+		Semaphore outstanding = new Semaphore(concurrency);
+		CountDownLatch done = new CountDownLatch(requests);
+		AtomicInteger failures = new AtomicInteger();
+
+		for (int i = 0; i < requests; i++) {
+			int index = i;
+			String body = "{\"userId\":\"" + (i % 1000) + "\",\"messageId\":\"" + messageIdPrefix + i
+					+ "\",\"transactionAmount\":{\"amount\":\"1.00\",\"currency\":\"USD\",\"debitOrCredit\":\"CREDIT\"}}";
+			HttpRequest request = HttpRequest.newBuilder(uri).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+
+			outstanding.acquire();
+			long start = System.nanoTime();
+
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, exception) -> {
+				latencies[index] = System.nanoTime() - start;
+
+				if (exception == null && response.statusCode() == 503) {
+					busy.incrementAndGet();
+				}
+				else if (exception != null || response.statusCode() != 201) {
+					failures.incrementAndGet();
+				}
+
+				outstanding.release();
+				done.countDown();
+			});
+		}
+
+		done.await();
+
+		if (failures.get() > 0) {
+			throw new IllegalStateException(failures.get() + " requests failed!");
+		}
+
+		return latencies;
+	}
+
+	/**
+	 * InFlightConfiguration class for registering the filters that count the requests being handled at once, of which only the one of the running stack is used.
+	 */
+	@Configuration
+	public static class InFlightConfiguration {
+
+		/**
+		 * Registers the filter for every path.
+		 *
+		 * @return FilterRegistrationBean&lt;Filter&gt; object storing the filter.
+		 */
+		@Bean
+		public FilterRegistrationBean<Filter> inFlightFilter() {
+			return new FilterRegistrationBean<Filter>(new Filter() {
+				@Override
+				public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+					MAX_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+
+					try {
+						chain.doFilter(request, response);
+					}
+					finally {
+						IN_FLIGHT.decrementAndGet();
+					}
+				}
+			});
+		}
+
+		/**
+		 * Registers the filter for the reactive stack, which counts a request until its response is complete.
+		 *
+		 * @return WebFilter object storing the filter.
+		 */
+		@Bean
+		public WebFilter inFlightWebFilter() {
+			return (exchange, chain) -> {
+				MAX_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+
+				return chain.filter(exchange).doFinally(signal -> IN_FLIGHT.decrementAndGet());
+			};
+		}
+
+	}
+
+}
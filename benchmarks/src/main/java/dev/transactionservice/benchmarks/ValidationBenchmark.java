@@ -0,0 +1,108 @@
+package dev.transactionservice.benchmarks;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.InternalException;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.Money;
+import dev.transactionservice.models.RequestError;
+import dev.transactionservice.models.RequestValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.regex.Pattern;
+
+/**
+ * ValidationBenchmark class to compare how fast an invalid load request is rejected by the request validator against the previous path,
+ * which compiled two regex patterns per request and threw an InternalException for every rejection.
+ *
+ * <p> Only the validation and the rejection itself are measured; the previous path also forwarded every rejection to the error controller,
+ * which is not included here. Run it with "-prof gc" to compare the allocations per rejected request as well. </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	@Param({"12a", "-5", "100.00"})
+	private String amount;
+
+	@Param({"USD", "usd"})
+	private String currency;
+
+	private LoadRequest loadRequest = null;
+
+	/**
+	 * Creates the request, which is invalid for every combination except a valid amount with "USD".
+	 */
+	@Setup
+	public void setup() {
+		loadRequest = new LoadRequest("0", "0", new Amount(amount, currency, DebitCredit.CREDIT));
+	}
+
+	/**
+	 * Validates the request the way the controllers used to, throwing and catching an InternalException if it is invalid.
+	 *
+	 * @return String containing the reason the request is invalid, or null if it is valid.
+	 */
+	@Benchmark
+	public String regexAndException() {
+		try {
+			String requestedAmount = loadRequest.getTransactionAmount().getAmount();
+			String requestedCurrency = loadRequest.getTransactionAmount().getCurrency();
+
+			if (loadRequest.getMessageId().length() == 0) {
+				throw new InternalException("The message ID is empty!");
+			}
+			else if (loadRequest.getUserId().length() == 0) {
+				throw new InternalException("The user ID is empty!");
+			}
+			else if (!Pattern.compile("^-?\\d*\\.?\\d+$").matcher(requestedAmount).find()) {
+				throw new InternalException("The amount is non-numeric!");
+			}
+			else if (Money.signum(requestedAmount) != 1) {
+				throw new InternalException("The amount is less than or equal to 0!");
+			}
+			else if (requestedCurrency.length() == 0) {
+				throw new InternalException("The currency is empty!");
+			}
+			else if (!Pattern.compile("^[A-Z]{3}$").matcher(requestedCurrency).find()) {
+				throw new InternalException("The currency must be 3 uppercase letters!");
+			}
+			else if (loadRequest.getTransactionAmount().getDebitOrCredit() != DebitCredit.CREDIT) {
+				throw new InternalException("For Load requests, please use CREDIT!");
+			}
+
+			return null;
+		}
+		catch (InternalException exception) {
+			return exception.getMessage();
+		}
+	}
+
+	/**
+	 * Validates the request with the request validator.
+	 *
+	 * @return RequestError containing the reason the request is invalid, or null if it is valid.
+	 */
+	@Benchmark
+	public RequestError scanAndErrorResult() {
+		return RequestValidator.validate(loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount(), DebitCredit.CREDIT);
+	}
+
+}
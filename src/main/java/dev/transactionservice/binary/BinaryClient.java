@@ -0,0 +1,254 @@
+package dev.transactionservice.binary;
+
+import dev.transactionservice.models.*;
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.SocketChannel;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BinaryClient class for sending load and authorization requests to the binary listener of the service over one connection.
+ *
+ * <p> Requests are pipelined: sending a request does not wait for the replies of earlier ones, and every reply completes the future of the request
+ * with the same message ID, which is why two requests with the same message ID cannot be in flight at once. Replies are read by a thread of the client. </p>
+ *
+ * <p> A rejected request completes its future with a RejectedException holding the RequestError, a request that failed while it was processed
+ * with an InternalException, and every request in flight with an IOException once the connection is closed, which it also is once a request could not be
+ * written to it. A request is validated with the same rules as in the service before it is sent, as its amount is sent in minor units of its currency,
+ * so an invalid request, or one with an ID longer than the protocol carries, is rejected without being sent. </p>
+ */
+public class BinaryClient implements AutoCloseable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private SocketChannel channel = null;
+  private ByteBuffer output = null; // Only used while holding the lock of the client
+  private Map<String, CompletableFuture<Object>> inFlight = null;
+  private Thread readerThread = null;
+  private volatile boolean closed = false;
+
+  /**
+   * Parameterized constructor for BinaryClient, which connects to the binary listener.
+   *
+   * @param host String
+   * @param port int
+   * @throws IOException if the connection could not be made.
+   */
+  public BinaryClient(String host, int port) throws IOException {
+    this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+    this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    this.output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.inFlight = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+    this.readerThread = new Thread(this::readReplies, "binary-client-reader");
+    this.readerThread.setDaemon(true);
+    this.readerThread.start();
+  }
+
+  /**
+   * Sends a load request.
+   *
+   * @param loadRequest LoadRequest
+   * @return CompletableFuture&lt;LoadResponse&gt; object that is completed with the response once the reply arrives.
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<LoadResponse> load(LoadRequest loadRequest) {
+    return (CompletableFuture<LoadResponse>)(CompletableFuture<?>)send(BinaryProtocol.LOAD, loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount());
+  }
+
+  /**
+   * Sends an authorization request.
+   *
+   * @param authorizationRequest AuthorizationRequest
+   * @return CompletableFuture&lt;AuthorizationResponse&gt; object that is completed with the response once the reply arrives.
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<AuthorizationResponse> authorize(AuthorizationRequest authorizationRequest) {
+    return (CompletableFuture<AuthorizationResponse>)(CompletableFuture<?>)send(BinaryProtocol.AUTHORIZATION, authorizationRequest.getMessageId(),
+        authorizationRequest.getUserId(), authorizationRequest.getTransactionAmount());
+  }
+
+  /**
+   * Gets how many requests are waiting for their reply.
+   *
+   * @return int containing the amount of requests in flight.
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Closes the connection, which fails every request in flight.
+   */
+  @Override
+  public void close() {
+    closed = true;
+
+    try {
+      channel.close();
+      readerThread.join();
+    }
+    catch (IOException e) {
+      failInFlight(e);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private CompletableFuture<Object> send(byte kind, String messageId, String userId, Amount transactionAmount) {
+    CompletableFuture<Object> response = new CompletableFuture<Object>();
+    RequestError error = RequestValidator.validate(messageId, userId, transactionAmount, kind == BinaryProtocol.LOAD ? DebitCredit.CREDIT : DebitCredit.DEBIT);
+
+    if (error == null && (!BinaryProtocol.fitsInFrame(messageId) || !BinaryProtocol.fitsInFrame(userId))) {
+      error = RequestError.ID_TOO_LONG;
+    }
+
+    if (error != null) {
+      response.completeExceptionally(new RejectedException(error));
+      return response;
+    }
+    else if (inFlight.putIfAbsent(messageId, response) != null) {
+      response.completeExceptionally(new RejectedException(RequestError.MESSAGE_ID_EXISTS));
+      return response;
+    }
+
+    try {
+      synchronized (this) {
+        if (closed) {
+          throw new IOException("The connection is closed!");
+        }
+
+        try {
+          BinaryProtocol.encodeRequest(kind, messageId, userId, transactionAmount, output);
+          output.flip();
+
+          while (output.hasRemaining()) {
+            channel.write(output);
+          }
+        }
+        finally {
+          output.clear(); // While holding the lock, as other threads encode into the same buffer
+        }
+      }
+    }
+    catch (IOException e) {
+      failConnection(e);
+    }
+    catch (IllegalArgumentException | ArithmeticException e) { // Nothing was written, so the connection can still be used
+      inFlight.remove(messageId, response);
+      response.completeExceptionally(e);
+    }
+
+    return response;
+  }
+
+  /**
+   * Closes the connection once a frame could not be written, as part of it may have been sent, and fails every request in flight.
+   *
+   * @param exception IOException
+   */
+  private void failConnection(IOException exception) {
+    try {
+      channel.close();
+    }
+    catch (IOException e) {
+      exception.addSuppressed(e);
+    }
+
+    failInFlight(exception);
+  }
+
+  /**
+   * Reads replies until the connection is closed, and completes the future of every reply's request.
+   */
+  private void readReplies() {
+    ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    byte[] scratch = new byte[BinaryProtocol.MAXIMUM_STRING_SIZE];
+
+    try {
+      while (channel.read(input) >= 0) {
+        input.flip();
+
+        while (input.remaining() >= 4 && input.remaining() >= 4 + input.getInt(input.position())) {
+          int end = input.position() + 4 + input.getInt(input.position());
+          int limit = input.limit();
+
+          input.position(input.position() + 4).limit(end);
+          BinaryProtocol.Reply reply = BinaryProtocol.decodeReply(input, scratch);
+          input.limit(limit).position(end);
+
+          CompletableFuture<Object> response = inFlight.remove(reply.messageId());
+
+          if (response == null) {
+            continue;
+          }
+          else if (reply.requestError() != null) {
+            response.completeExceptionally(new RejectedException(reply.requestError()));
+          }
+          else if (reply.failure() != null) {
+            response.completeExceptionally(new InternalException(reply.failure()));
+          }
+          else {
+            response.complete(reply.response());
+          }
+        }
+
+        input.compact();
+      }
+
+      throw new IOException("The connection was closed by the service!");
+    }
+    catch (IOException e) {
+      failInFlight(e);
+    }
+  }
+
+  private void failInFlight(IOException exception) {
+    closed = true;
+
+    for (String messageId : inFlight.keySet()) {
+      CompletableFuture<Object> response = inFlight.remove(messageId);
+
+      if (response != null) {
+        response.completeExceptionally(exception);
+      }
+    }
+  }
+
+  /**
+   * RejectedException class for a request that the service rejected, such as for an invalid amount or a message ID that has already been used.
+   */
+  public static class RejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private RequestError requestError = null;
+
+    /**
+     * Parameterized constructor for RejectedException.
+     *
+     * @param requestError RequestError
+     */
+    public RejectedException(RequestError requestError) {
+      super(requestError.getReason());
+
+      this.requestError = requestError;
+    }
+
+    /**
+     * Gets the reason the request was rejected.
+     *
+     * @return RequestError object containing the reason.
+     */
+    public RequestError getRequestError() {
+      return requestError;
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package dev.transactionservice.binary;
+
+import dev.transactionservice.models.*;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryProtocol class for encoding and decoding the frames of the binary protocol, which carries load and authorization requests and their replies over TCP.
+ *
+ * <p> Every frame starts with its length as a 4-byte int, not counting the length itself, followed by fields in a fixed order.
+ * Amounts are stored like in the ledger, as a signed 8-byte long of minor units of their currency, such as cents, followed by the ISO 4217 currency code
+ * in 3 ASCII bytes, where 3 zero bytes stand for a missing amount. Enumerations are stored as their ordinal in one byte, where -1 stands for null.
+ * Only the message and user IDs vary in size: they are stored as their UTF-8 length in one unsigned byte and their bytes, so they are at most 255 bytes long,
+ * and a null ID is sent as an empty one. All numbers are big-endian. </p>
+ *
+ * <p> A request is the kind (LOAD or AUTHORIZATION), the debit or credit flag, the amount and currency, and then the message ID and user ID.
+ * A reply is the status (PROCESSED, REJECTED or FAILED), the kind and the message ID of its request, which the client correlates it by, followed by
+ * the response code, debit or credit flag, balance, currency and user ID of a processed request, the RequestError ordinal of a rejected request,
+ * or the reason a request failed. As requests are pipelined, the replies of one connection may arrive in another order than their requests. </p>
+ *
+ * <p> As an amount has to be a decimal number with a currency code to be sent, the client validates a request before encoding it. The service validates
+ * every decoded request again, such as for a non-positive amount, and formats its amount with the decimal places of its currency. </p>
+ *
+ * <p> Strings are copied between the buffers and a reused scratch array, so that no intermediate arrays are created for a frame. </p>
+ */
+public final class BinaryProtocol {
+  public static final byte LOAD = 1;
+  public static final byte AUTHORIZATION = 2;
+
+  public static final byte PROCESSED = 0;
+  public static final byte REJECTED = 1;
+  public static final byte FAILED = 2;
+
+  public static final int MAXIMUM_STRING_SIZE = 255;
+  public static final int CURRENCY_SIZE = 3;
+  public static final int MAXIMUM_FRAME_SIZE = 4 + 4 + 8 + CURRENCY_SIZE + 2 * (1 + MAXIMUM_STRING_SIZE); // Including the length, for requests as well as replies
+
+  private static final DebitCredit[] DEBIT_CREDIT_VALUES = DebitCredit.values();
+  private static final ResponseCode[] RESPONSE_CODE_VALUES = ResponseCode.values();
+  private static final RequestError[] REQUEST_ERROR_VALUES = RequestError.values();
+
+  private BinaryProtocol() {
+
+  }
+
+  /**
+   * Encodes a load or authorization request at the current position of a buffer.
+   *
+   * @param kind byte, LOAD or AUTHORIZATION
+   * @param messageId String
+   * @param userId String
+   * @param transactionAmount Amount, a decimal number with a currency code
+   * @param buffer ByteBuffer
+   * @throws IllegalArgumentException if an ID is longer than 255 bytes, the amount is not a decimal number, or the currency is not 3 ASCII characters.
+   * @throws ArithmeticException if the amount does not fit into a long in minor units.
+   * @throws java.nio.BufferOverflowException if the frame does not fit into the remaining space of the buffer.
+   */
+  public static void encodeRequest(byte kind, String messageId, String userId, Amount transactionAmount, ByteBuffer buffer) {
+    int start = buffer.position();
+
+    buffer.putInt(0); // The length is filled in once the frame is complete
+    buffer.put(kind);
+    encodeEnum(transactionAmount == null ? null : transactionAmount.getDebitOrCredit(), buffer);
+    encodeAmount(transactionAmount, buffer);
+    encodeString(messageId, buffer);
+    encodeString(userId, buffer);
+    buffer.putInt(start, buffer.position() - start - 4);
+  }
+
+  /**
+   * Decodes the request of a complete frame, whose length has already been read.
+   *
+   * @param buffer ByteBuffer, positioned after the length of the frame, with its limit at the end of the frame
+   * @param scratch byte[], of at least 255 bytes
+   * @return Object containing the LoadRequest or AuthorizationRequest.
+   * @throws IllegalArgumentException if the kind of the request is unknown.
+   * @throws java.nio.BufferUnderflowException if the frame is shorter than its fields.
+   */
+  public static Object decodeRequest(ByteBuffer buffer, byte[] scratch) {
+    byte kind = buffer.get();
+    DebitCredit debitOrCredit = decodeEnum(DEBIT_CREDIT_VALUES, buffer);
+    Amount transactionAmount = decodeAmount(debitOrCredit, buffer, scratch);
+    String messageId = decodeString(buffer, scratch);
+    String userId = decodeString(buffer, scratch);
+
+    if (kind == LOAD) {
+      return new LoadRequest(messageId, userId, transactionAmount);
+    }
+    else if (kind == AUTHORIZATION) {
+      return new AuthorizationRequest(messageId, userId, transactionAmount);
+    }
+
+    throw new IllegalArgumentException("Unknown request kind: " + kind);
+  }
+
+  /**
+   * Encodes the reply of a processed request.
+   *
+   * @param response Object, the LoadResponse or AuthorizationResponse
+   * @param buffer ByteBuffer
+   */
+  public static void encodeResponse(Object response, ByteBuffer buffer) {
+    boolean load = response instanceof LoadResponse;
+    String messageId = load ? ((LoadResponse)response).getMessageId() : ((AuthorizationResponse)response).getMessageId();
+    String userId = load ? ((LoadResponse)response).getUserId() : ((AuthorizationResponse)response).getUserId();
+    ResponseCode responseCode = load ? ((LoadResponse)response).getResponseCode() : ((AuthorizationResponse)response).getResponseCode();
+    Amount balance = load ? ((LoadResponse)response).getBalance() : ((AuthorizationResponse)response).getBalance();
+    int start = encodeReplyHeader(PROCESSED, load ? LOAD : AUTHORIZATION, messageId, buffer);
+
+    encodeEnum(responseCode, buffer);
+    encodeEnum(balance.getDebitOrCredit(), buffer);
+    encodeAmount(balance, buffer);
+    encodeString(userId, buffer);
+    buffer.putInt(start, buffer.position() - start - 4);
+  }
+
+  /**
+   * Encodes the reply of a rejected request.
+   *
+   * @param kind byte
+   * @param messageId String
+   * @param requestError RequestError
+   * @param buffer ByteBuffer
+   */
+  public static void encodeRejection(byte kind, String messageId, RequestError requestError, ByteBuffer buffer) {
+    int start = encodeReplyHeader(REJECTED, kind, messageId, buffer);
+
+    encodeEnum(requestError, buffer);
+    buffer.putInt(start, buffer.position() - start - 4);
+  }
+
+  /**
+   * Encodes the reply of a request that failed while it was processed.
+   *
+   * @param kind byte
+   * @param messageId String
+   * @param reason String, which is cut off after 85 characters
+   * @param buffer ByteBuffer
+   */
+  public static void encodeFailure(byte kind, String messageId, String reason, ByteBuffer buffer) {
+    int start = encodeReplyHeader(FAILED, kind, messageId, buffer);
+    String message = reason == null ? "" : reason;
+
+    encodeString(message.length() > MAXIMUM_STRING_SIZE / 3 ? message.substring(0, MAXIMUM_STRING_SIZE / 3) : message, buffer); // A character takes at most 3 bytes
+    buffer.putInt(start, buffer.position() - start - 4);
+  }
+
+  /**
+   * Decodes the reply of a complete frame, whose length has already been read.
+   *
+   * @param buffer ByteBuffer, positioned after the length of the frame, with its limit at the end of the frame
+   * @param scratch byte[], of at least 255 bytes
+   * @return Reply object containing the message ID and the outcome of the request.
+   * @throws java.nio.BufferUnderflowException if the frame is shorter than its fields.
+   */
+  public static Reply decodeReply(ByteBuffer buffer, byte[] scratch) {
+    byte status = buffer.get();
+    byte kind = buffer.get();
+    String messageId = decodeString(buffer, scratch);
+
+    if (status == REJECTED) {
+      return new Reply(messageId, null, decodeEnum(REQUEST_ERROR_VALUES, buffer), null);
+    }
+    else if (status == FAILED) {
+      return new Reply(messageId, null, null, decodeString(buffer, scratch));
+    }
+
+    ResponseCode responseCode = decodeEnum(RESPONSE_CODE_VALUES, buffer);
+    DebitCredit debitOrCredit = decodeEnum(DEBIT_CREDIT_VALUES, buffer);
+    Amount balance = decodeAmount(debitOrCredit, buffer, scratch);
+    String userId = decodeString(buffer, scratch);
+    Object response = kind == LOAD ? new LoadResponse(messageId, userId, responseCode, balance) : new AuthorizationResponse(messageId, userId, responseCode, balance);
+
+    return new Reply(messageId, response, null, null);
+  }
+
+  private static int encodeReplyHeader(byte status, byte kind, String messageId, ByteBuffer buffer) {
+    int start = buffer.position();
+
+    buffer.putInt(0);
+    buffer.put(status);
+    buffer.put(kind);
+    encodeString(messageId, buffer);
+
+    return start;
+  }
+
+  /**
+   * Encodes an amount as its minor units and currency code, or as zero minor units and 3 zero bytes if it is missing.
+   *
+   * @param amount Amount
+   * @param buffer ByteBuffer
+   * @throws IllegalArgumentException if the amount is not a decimal number, or the currency is not 3 ASCII characters.
+   * @throws ArithmeticException if the amount does not fit into a long in minor units.
+   */
+  private static void encodeAmount(Amount amount, ByteBuffer buffer) {
+    if (amount == null) {
+      buffer.putLong(0);
+      buffer.put((byte)0).put((byte)0).put((byte)0);
+      return;
+    }
+
+    String currency = amount.getCurrency();
+
+    if (currency == null || currency.length() != CURRENCY_SIZE) {
+      throw new IllegalArgumentException("The currency " + currency + " is not " + CURRENCY_SIZE + " characters long!");
+    }
+
+    for (int i = 0; i < CURRENCY_SIZE; i++) {
+      if (currency.charAt(i) == 0 || currency.charAt(i) >= 0x80) {
+        throw new IllegalArgumentException("The currency " + currency + " is not made of ASCII characters!");
+      }
+    }
+
+    buffer.putLong(amount.getMinorUnits());
+
+    for (int i = 0; i < CURRENCY_SIZE; i++) {
+      buffer.put((byte)currency.charAt(i));
+    }
+  }
+
+  private static Amount decodeAmount(DebitCredit debitOrCredit, ByteBuffer buffer, byte[] scratch) {
+    long minorUnits = buffer.getLong();
+
+    buffer.get(scratch, 0, CURRENCY_SIZE);
+
+    if (scratch[0] == 0 && scratch[1] == 0 && scratch[2] == 0) {
+      return null;
+    }
+
+    String currency = new String(scratch, 0, CURRENCY_SIZE, StandardCharsets.ISO_8859_1);
+
+    return new Amount(Money.format(minorUnits, currency), currency, debitOrCredit);
+  }
+
+  /**
+   * Checks whether a string fits into a frame, counting its UTF-8 bytes without creating them.
+   *
+   * @param value String
+   * @return boolean containing true if the string is null or at most 255 bytes long in UTF-8.
+   */
+  public static boolean fitsInFrame(String value) {
+    if (value == null) {
+      return true;
+    }
+
+    int bytes = 0;
+
+    for (int i = 0; i < value.length() && bytes <= MAXIMUM_STRING_SIZE; i++) {
+      char character = value.charAt(i);
+
+      if (character < 0x80) {
+        bytes++;
+      }
+      else if (character < 0x800) {
+        bytes += 2;
+      }
+      else if (Character.isHighSurrogate(character) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+        bytes += 4;
+        i++;
+      }
+      else {
+        bytes += 3; // A lone surrogate is encoded as a replacement character of 3 bytes
+      }
+    }
+
+    return bytes <= MAXIMUM_STRING_SIZE;
+  }
+
+  /**
+   * Encodes a string, copying ASCII strings character by character so that no byte array is created for them.
+   *
+   * @param value String
+   * @param buffer ByteBuffer
+   * @throws IllegalArgumentException if the string is longer than 255 bytes.
+   */
+  private static void encodeString(String value, ByteBuffer buffer) {
+    String string = value == null ? "" : value;
+    int length = string.length();
+    boolean ascii = length <= MAXIMUM_STRING_SIZE;
+
+    for (int i = 0; i < length && ascii; i++) {
+      ascii = string.charAt(i) < 0x80;
+    }
+
+    if (ascii) {
+      buffer.put((byte)length);
+
+      for (int i = 0; i < length; i++) {
+        buffer.put((byte)string.charAt(i));
+      }
+
+      return;
+    }
+
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+    if (bytes.length > MAXIMUM_STRING_SIZE) {
+      throw new IllegalArgumentException("The string " + string + " is longer than " + MAXIMUM_STRING_SIZE + " bytes!");
+    }
+
+    buffer.put((byte)bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String decodeString(ByteBuffer buffer, byte[] scratch) {
+    int length = buffer.get() & 0xFF;
+
+    buffer.get(scratch, 0, length);
+
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private static void encodeEnum(Enum<?> value, ByteBuffer buffer) {
+    buffer.put(value == null ? -1 : (byte)value.ordinal());
+  }
+
+  private static <E> E decodeEnum(E[] values, ByteBuffer buffer) {
+    int ordinal = buffer.get();
+
+    return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+  }
+
+  /**
+   * Reply record for the decoded reply of a request, which holds exactly one of the response, the request error and the failure.
+   *
+   * @param messageId String
+   * @param response Object, the LoadResponse or AuthorizationResponse of a processed request
+   * @param requestError RequestError, the reason a request was rejected
+   * @param failure String, the reason a request failed
+   */
+  public record Reply(String messageId, Object response, RequestError requestError, String failure) {
+  }
+}
@@ -0,0 +1,522 @@
+package dev.transactionservice.binary;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * BinaryServer class for the optional listener of the binary protocol, which processes load and authorization requests like the /load and /authorization endpoints,
+ * without the cost of HTTP and JSON.
+ *
+ * <p> One selector thread serves every connection. It reads the frames of a connection into a direct buffer, validates every request with the same rules
+ * as the controllers, and publishes it to the event sequencer of its user's partition without waiting, so that many requests of one connection are in flight at once.
+ * Once a request is processed, the writer thread hands its exchange over to the selector thread, which encodes the reply into the connection's direct output buffer.
+ * The buffers of closed connections and the exchanges of replied requests are reused, so that no buffer or exchange is created per request. </p>
+ *
+ * <p> A connection has at most "transactionservice.binary.max-in-flight" requests in flight, after which its socket is no longer read until replies are sent,
+ * so a client that sends faster than the service processes is slowed down by TCP rather than queued without bound. The same happens while the event sequencer's
+ * ring buffer is full, unless none of the connection's requests are in flight, in which case the request is rejected with SERVICE_BUSY like on the reactive stack. In a cluster, the requests of users that another node owns are forwarded to the owner over HTTP. </p>
+ */
+@Component
+public class BinaryServer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinaryServer.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private EventRouter eventRouter = null;
+  private ServiceMetrics serviceMetrics = null;
+  private ClusterRouter clusterRouter = null;
+  private ObjectMapper objectMapper = null;
+  private int maxInFlight = 0;
+
+  private Selector selector = null;
+  private ServerSocketChannel serverChannel = null;
+  private Thread selectorThread = null;
+  private volatile boolean running = false;
+  private Consumer<SelectionKey> keyHandler = null; // Created once, so that handling the selected keys allocates nothing
+  private ConcurrentLinkedQueue<Connection> signalledConnections = null; // Connections with replies to send, handed over by other threads
+  private ArrayDeque<ByteBuffer> bufferPool = null; // Direct buffers of closed connections, only used by the selector thread
+
+  /**
+   * Parameterized constructor for BinaryServer, which starts listening unless the port is negative.
+   *
+   * @param port int, the port to listen on, 0 for any free port, or -1 to disable the listener
+   * @param maxInFlight int, how many requests of one connection may be in flight at once
+   * @param eventRouter EventRouter
+   * @param serviceMetrics ServiceMetrics
+   * @param clusterRouter ClusterRouter
+   * @param objectMapper ObjectMapper, to read the responses of other nodes
+   * @throws UncheckedIOException if the listener could not be started.
+   */
+  public BinaryServer(@Value("${transactionservice.binary.port:-1}") int port,
+                      @Value("${transactionservice.binary.max-in-flight:4096}") int maxInFlight,
+                      EventRouter eventRouter, ServiceMetrics serviceMetrics, ClusterRouter clusterRouter, ObjectMapper objectMapper) {
+    this.eventRouter = eventRouter;
+    this.serviceMetrics = serviceMetrics;
+    this.clusterRouter = clusterRouter;
+    this.objectMapper = objectMapper;
+    this.maxInFlight = Math.max(maxInFlight, 1);
+
+    if (port < 0) {
+      return;
+    }
+
+    try {
+      this.selector = Selector.open();
+      this.serverChannel = ServerSocketChannel.open();
+      this.serverChannel.bind(new InetSocketAddress(port));
+      this.serverChannel.configureBlocking(false);
+      this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("The binary listener could not be started on port " + port + "!", e);
+    }
+
+    this.keyHandler = this::handle;
+    this.signalledConnections = new ConcurrentLinkedQueue<Connection>();
+    this.bufferPool = new ArrayDeque<ByteBuffer>();
+    this.running = true;
+    this.selectorThread = new Thread(this::run, "binary-selector");
+    this.selectorThread.setDaemon(true);
+    this.selectorThread.start();
+  }
+
+  /**
+   * Checks whether the listener is running.
+   *
+   * @return boolean containing true if a port is configured.
+   */
+  public boolean isEnabled() {
+    return serverChannel != null;
+  }
+
+  /**
+   * Gets the port the listener is bound to, which is useful if any free port was picked.
+   *
+   * @return int containing the port, or -1 if the listener is disabled.
+   */
+  public int getPort() {
+    return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Stops the listener and closes every connection once the application shuts down, before the event router stops its partitions.
+   */
+  @PreDestroy
+  public void close() {
+    if (!running) {
+      return;
+    }
+
+    running = false;
+    selector.wakeup();
+
+    try {
+      selectorThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+
+      selector.close();
+    }
+    catch (IOException e) {
+      LOGGER.warn("The binary listener could not be closed", e);
+    }
+  }
+
+  /**
+   * Runs the selector loop, which serves every ready connection and then every connection with replies to send.
+   */
+  private void run() {
+    while (running) {
+      try {
+        selector.select(keyHandler);
+
+        for (Connection connection = signalledConnections.poll(); connection != null; connection = signalledConnections.poll()) {
+          connection.signalled.set(false); // Reset before the replies are taken, so that a later reply signals again
+          connection.serve();
+        }
+      }
+      catch (IOException | RuntimeException e) {
+        LOGGER.error("The binary listener failed to serve its connections", e);
+      }
+    }
+  }
+
+  private void handle(SelectionKey key) {
+    if (!key.isValid()) {
+      return;
+    }
+    else if (key.isAcceptable()) {
+      accept();
+      return;
+    }
+
+    Connection connection = (Connection)key.attachment();
+
+    if (key.isReadable() && !connection.read()) {
+      return;
+    }
+
+    connection.serve();
+  }
+
+  private void accept() {
+    try {
+      for (SocketChannel channel = serverChannel.accept(); channel != null; channel = serverChannel.accept()) {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+      }
+    }
+    catch (IOException e) {
+      LOGGER.warn("A binary connection could not be accepted", e);
+    }
+  }
+
+  private ByteBuffer takeBuffer() {
+    ByteBuffer buffer = bufferPool.poll();
+
+    return buffer == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : buffer.clear();
+  }
+
+  /**
+   * Connection class for the state of one connection, which is only used by the selector thread except for its queue of completed exchanges.
+   */
+  private final class Connection {
+    private SocketChannel channel = null;
+    private SelectionKey key = null;
+    private ByteBuffer input = null; // In write mode, holding the bytes of incomplete frames
+    private ByteBuffer output = null; // In write mode, holding the bytes of replies that have not been written to the socket yet
+    private byte[] scratch = new byte[BinaryProtocol.MAXIMUM_STRING_SIZE];
+    private Exchange[] freeExchanges = null;
+    private int freeCount = 0;
+    private ArrayBlockingQueue<Exchange> completed = null; // Exchanges whose request has been processed, offered by other threads
+    private AtomicBoolean signalled = new AtomicBoolean(); // Whether the connection is queued for the selector thread
+    private boolean closed = false;
+
+    private Connection(SocketChannel channel) {
+      this.channel = channel;
+      this.input = takeBuffer();
+      this.output = takeBuffer();
+      this.freeExchanges = new Exchange[maxInFlight];
+      this.completed = new ArrayBlockingQueue<Exchange>(maxInFlight); // Never full, as it holds at most every exchange
+
+      for (int i = 0; i < maxInFlight; i++) {
+        freeExchanges[freeCount++] = new Exchange(this);
+      }
+    }
+
+    /**
+     * Reads from the socket, closing the connection once the client has closed it.
+     *
+     * @return boolean containing false if the connection was closed.
+     */
+    private boolean read() {
+      try {
+        if (channel.read(input) >= 0) {
+          return true;
+        }
+      }
+      catch (IOException e) {
+        LOGGER.debug("A binary connection could not be read", e);
+      }
+
+      close();
+
+      return false;
+    }
+
+    /**
+     * Encodes the replies of completed exchanges, processes the buffered requests while exchanges and output space are free,
+     * writes the output to the socket, and only reads the socket or waits for it to be writable if that can make progress.
+     */
+    private void serve() {
+      if (closed) {
+        for (Exchange exchange = completed.poll(); exchange != null; exchange = completed.poll()) {
+          exchange.clear(); // The exchanges of a closed connection are dropped with it
+        }
+
+        return;
+      }
+
+      reply();
+      process();
+      flush();
+
+      if (!closed) {
+        key.interestOps((freeCount > 0 && input.hasRemaining() ? SelectionKey.OP_READ : 0) | (output.position() > 0 ? SelectionKey.OP_WRITE : 0));
+      }
+    }
+
+    private void reply() {
+      for (Exchange exchange = null; output.remaining() >= BinaryProtocol.MAXIMUM_FRAME_SIZE && (exchange = completed.poll()) != null; ) {
+        if (exchange.failure != null) {
+          Throwable cause = exchange.failure instanceof CompletionException && exchange.failure.getCause() != null ? exchange.failure.getCause() : exchange.failure;
+
+          BinaryProtocol.encodeFailure(exchange.kind, exchange.messageId, cause.getMessage(), output);
+        }
+        else if (exchange.response == null) { // The event sequencer rejects any message ID that has already been used
+          BinaryProtocol.encodeRejection(exchange.kind, exchange.messageId, RequestError.MESSAGE_ID_EXISTS, output);
+        }
+        else if (exchange.response instanceof RequestError requestError) {
+          BinaryProtocol.encodeRejection(exchange.kind, exchange.messageId, requestError, output);
+        }
+        else {
+          BinaryProtocol.encodeResponse(exchange.response, output);
+        }
+
+        exchange.clear();
+        freeExchanges[freeCount++] = exchange;
+      }
+    }
+
+    private void process() {
+      input.flip();
+
+      while (input.remaining() >= 4 && freeCount > 0 && output.remaining() >= BinaryProtocol.MAXIMUM_FRAME_SIZE) { // Room for a rejection
+        int start = input.position();
+        int length = input.getInt(start);
+
+        if (length < 2 || length > BinaryProtocol.MAXIMUM_FRAME_SIZE - 4) {
+          close();
+          return;
+        }
+        else if (input.remaining() < 4 + length) {
+          break;
+        }
+
+        int limit = input.limit();
+        Object request = null;
+
+        try {
+          input.position(start + 4).limit(start + 4 + length);
+          request = BinaryProtocol.decodeRequest(input, scratch);
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e) { // A frame the protocol cannot have produced
+          close();
+          return;
+        }
+
+        input.limit(limit).position(start + 4 + length);
+
+        if (!submit(request)) { // The frame is processed again once a reply of this connection makes room in the ring buffer
+          input.position(start);
+          break;
+        }
+      }
+
+      input.compact();
+    }
+
+    /**
+     * Validates a request, and either rejects it or publishes it to the partition of its user, or forwards it to the node that owns its user.
+     *
+     * @param request Object, the LoadRequest or AuthorizationRequest
+     * @return boolean containing false if the ring buffer is full while requests of this connection are in flight, so that the request has to be submitted again later.
+     */
+    private boolean submit(Object request) {
+      boolean load = request instanceof LoadRequest;
+      byte kind = load ? BinaryProtocol.LOAD : BinaryProtocol.AUTHORIZATION;
+      String messageId = load ? ((LoadRequest)request).getMessageId() : ((AuthorizationRequest)request).getMessageId();
+      String userId = load ? ((LoadRequest)request).getUserId() : ((AuthorizationRequest)request).getUserId();
+      Amount transactionAmount = load ? ((LoadRequest)request).getTransactionAmount() : ((AuthorizationRequest)request).getTransactionAmount();
+      RequestError error = RequestValidator.validate(messageId, userId, transactionAmount, load ? DebitCredit.CREDIT : DebitCredit.DEBIT);
+
+      if (error != null) {
+        serviceMetrics.recordRejection(error);
+        BinaryProtocol.encodeRejection(kind, messageId, error, output);
+        return true;
+      }
+
+      Exchange exchange = freeExchanges[--freeCount];
+      exchange.kind = kind;
+      exchange.messageId = messageId;
+
+      if (!clusterRouter.isLocal(userId)) {
+        clusterRouter.forward(userId, load ? "/load" : "/authorization", request).whenComplete(exchange.forwarded);
+        return true;
+      }
+
+      Event event = load ? new LoadRequestEvent(messageId, (LoadRequest)request) : new AuthorizationRequestEvent(messageId, (AuthorizationRequest)request);
+      CompletableFuture<Object> response = eventRouter.tryPublish(event);
+
+      if (response == null) {
+        exchange.clear();
+        freeExchanges[freeCount++] = exchange;
+
+        if (freeCount < maxInFlight) { // Stop reading the connection, which slows the client down over TCP, until one of its requests is replied to
+          return false;
+        }
+
+        serviceMetrics.recordRejection(RequestError.SERVICE_BUSY); // Other connections filled the ring buffer, so the client is told to back off
+        BinaryProtocol.encodeRejection(kind, messageId, RequestError.SERVICE_BUSY, output);
+        return true;
+      }
+
+      response.whenComplete(exchange);
+
+      return true;
+    }
+
+    private void flush() {
+      if (closed || output.position() == 0) {
+        return;
+      }
+
+      try {
+        output.flip();
+        channel.write(output);
+        output.compact();
+      }
+      catch (IOException e) {
+        LOGGER.debug("A binary connection could not be written", e);
+        close();
+      }
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+      key.cancel();
+
+      try {
+        channel.close();
+      }
+      catch (IOException e) {
+        LOGGER.debug("A binary connection could not be closed", e);
+      }
+
+      bufferPool.push(input);
+      bufferPool.push(output);
+      input = null;
+      output = null;
+    }
+
+    /**
+     * Hands a completed exchange over to the selector thread, waking it up only if the connection is not queued already.
+     *
+     * @param exchange Exchange
+     */
+    private void complete(Exchange exchange) {
+      completed.offer(exchange);
+
+      if (signalled.compareAndSet(false, true)) {
+        signalledConnections.offer(this);
+        selector.wakeup();
+      }
+    }
+  }
+
+  /**
+   * Exchange class for one request in flight, which is reused for the connection's later requests once its reply has been encoded.
+   *
+   * <p> It is the completion of the request's future itself, so that completing a request creates no lambda, and it is only handed to the selector thread
+   * through the connection's queue, which orders its fields' writes before their reads. </p>
+   */
+  private final class Exchange implements BiConsumer<Object, Throwable> {
+    private Connection connection = null;
+    private byte kind = 0;
+    private String messageId = null;
+    private Object response = null; // The LoadResponse or AuthorizationResponse, the RequestError of a forwarded request, or null for a used message ID
+    private Throwable failure = null;
+    private BiConsumer<ResponseEntity<Object>, Throwable> forwarded = null; // The completion of a forwarded request
+
+    private Exchange(Connection connection) {
+      this.connection = connection;
+      this.forwarded = this::acceptForwarded;
+    }
+
+    @Override
+    public void accept(Object response, Throwable failure) {
+      this.response = response;
+      this.failure = failure;
+
+      connection.complete(this);
+    }
+
+    /**
+     * Completes a forwarded request with the response of the owner, which is the JSON of a response or of an error response.
+     *
+     * @param forwardedResponse ResponseEntity&lt;Object&gt;
+     * @param forwardFailure Throwable
+     */
+    private void acceptForwarded(ResponseEntity<Object> forwardedResponse, Throwable forwardFailure) {
+      try {
+        if (forwardFailure != null) {
+          accept(null, forwardFailure);
+        }
+        else if (forwardedResponse.getBody() instanceof dev.transactionservice.models.Error error) { // The owner could not be reached
+          accept(RequestError.NODE_UNAVAILABLE, null);
+        }
+        else if (forwardedResponse.getStatusCode().is2xxSuccessful()) {
+          Class<?> responseClass = kind == BinaryProtocol.LOAD ? LoadResponse.class : AuthorizationResponse.class;
+
+          accept(objectMapper.readValue((byte[])forwardedResponse.getBody(), responseClass), null);
+        }
+        else {
+          RequestError requestError = RequestError.fromReason(objectMapper.readValue((byte[])forwardedResponse.getBody(), dev.transactionservice.models.Error.class).getReason());
+
+          accept(requestError == null ? RequestError.NODE_UNAVAILABLE : requestError, null);
+        }
+      }
+      catch (IOException e) {
+        accept(null, e);
+      }
+    }
+
+    private void clear() {
+      messageId = null;
+      response = null;
+      failure = null;
+    }
+  }
+}
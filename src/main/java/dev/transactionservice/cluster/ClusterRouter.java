@@ -0,0 +1,401 @@
+package dev.transactionservice.cluster;
+
+import dev.transactionservice.models.BatchResult;
+import dev.transactionservice.models.RequestError;
+import dev.transactionservice.models.ServiceMetrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.stereotype.Component;
+
+import org.springframework.web.util.UriUtils;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * ClusterRouter class for running several instances of the service as one cluster, where every node owns a consistent-hash range of the user IDs.
+ *
+ * <p> The members of the cluster are read from a static properties file with one line per node, mapping its node ID to its base URL,
+ * such as "node-1=http://10.0.0.1:8080", and every node is started with the same file and its own node ID. A request for a user that
+ * another node owns is forwarded to that node as is, and its response is passed back unchanged, so a client can send any request to any node.
+ * Forwarded requests carry a header, and are always processed by the node that receives them, so that two nodes with different
+ * memberships never pass a request back and forth. </p>
+ *
+ * <p> Requests are forwarded with a single HTTP client, which keeps its connections to the other nodes open and reuses them for later requests.
+ * If the owner cannot be reached in time, the request is answered with a 503 response and a Retry-After header. Without a members file,
+ * which is the default, the service runs as a single node that owns every user. </p>
+ */
+@Component
+public class ClusterRouter {
+  public static final String FORWARDED_HEADER = "X-Transaction-Service-Forwarded"; // Holds the ID of the node that forwarded the request
+
+  private String nodeId = null;
+  private URI[] nodeUris = null; // Indexed like the node IDs, which are sorted
+  private int localNode = 0;
+  private ConsistentHashRing ring = null; // Null if the service runs as a single node
+  private HttpClient httpClient = null;
+  private ExecutorService httpExecutor = null; // Completes the forwarded requests
+  private Duration forwardTimeout = null;
+  private ObjectMapper objectMapper = null;
+  private ServiceMetrics serviceMetrics = null;
+  private Counter[] forwardCounters = null; // Indexed like the node IDs
+
+  /**
+   * Parameterized constructor for ClusterRouter, which reads the members of the cluster.
+   *
+   * @param membersFile String, the path of the properties file with the node ID and base URL of every member, or an empty String to run as a single node
+   * @param nodeId String, the ID of this node, which must be one of the members
+   * @param virtualNodes int, how many points every node is placed at on the hash ring
+   * @param forwardTimeoutMillis long, how long a forwarded request may take before it is answered with a 503 response
+   * @param objectMapper ObjectMapper
+   * @param serviceMetrics ServiceMetrics
+   * @param meterRegistry MeterRegistry
+   * @throws IllegalStateException if the members file is empty, or does not contain this node.
+   * @throws UncheckedIOException if the members file could not be read.
+   */
+  public ClusterRouter(@Value("${transactionservice.cluster.members-file:}") String membersFile,
+                       @Value("${transactionservice.cluster.node-id:}") String nodeId,
+                       @Value("${transactionservice.cluster.virtual-nodes:128}") int virtualNodes,
+                       @Value("${transactionservice.cluster.forward-timeout-ms:5000}") long forwardTimeoutMillis,
+                       ObjectMapper objectMapper,
+                       ServiceMetrics serviceMetrics,
+                       MeterRegistry meterRegistry) {
+    this.nodeId = nodeId;
+    this.objectMapper = objectMapper;
+    this.serviceMetrics = serviceMetrics;
+
+    if (membersFile.isEmpty()) {
+      return;
+    }
+
+    Properties members = new Properties();
+
+    try (Reader reader = Files.newBufferedReader(Path.of(membersFile))) {
+      members.load(reader);
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The cluster members could not be read from " + membersFile + "!", exception);
+    }
+
+    String[] nodeIds = members.stringPropertyNames().toArray(new String[0]);
+    Arrays.sort(nodeIds); // Every node sees the members in the same order, whatever the order of the file
+
+    if (nodeIds.length == 0) {
+      throw new IllegalStateException("The cluster members file " + membersFile + " is empty!");
+    }
+
+    this.localNode = Arrays.binarySearch(nodeIds, nodeId);
+
+    if (localNode < 0) {
+      throw new IllegalStateException("The node ID " + nodeId + " is not one of the cluster members in " + membersFile + "!");
+    }
+
+    this.nodeUris = new URI[nodeIds.length];
+    this.forwardCounters = new Counter[nodeIds.length];
+
+    for (int i = 0; i < nodeIds.length; i++) {
+      String uri = members.getProperty(nodeIds[i]).trim();
+
+      nodeUris[i] = URI.create(uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri);
+      forwardCounters[i] = Counter.builder("transactionservice.requests.forwarded")
+          .description("Amount of requests and batches forwarded to the node that owns their users, by node")
+          .tag("node", nodeIds[i])
+          .register(meterRegistry);
+    }
+
+    this.ring = new ConsistentHashRing(nodeIds, virtualNodes);
+    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+      Thread thread = new Thread(runnable, "cluster-forward");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.prestartAllCoreThreads(); // Started on startup rather than by a request thread, so that the threads do not belong to the web server
+
+    this.httpExecutor = executor;
+    this.forwardTimeout = Duration.ofMillis(forwardTimeoutMillis);
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1) // Kept alive and reused between requests, without an upgrade attempt on every new connection
+        .connectTimeout(forwardTimeout)
+        .executor(httpExecutor)
+        .build();
+  }
+
+  /**
+   * Checks whether the service runs as one node of a cluster.
+   *
+   * @return boolean containing true if a members file is configured.
+   */
+  public boolean isEnabled() {
+    return ring != null;
+  }
+
+  /**
+   * Checks whether this node owns a user, which it always does if the service runs as a single node.
+   *
+   * @param userId String, which may be null for a request that is rejected anyway
+   * @return boolean containing true if the user's requests are processed by this node.
+   */
+  public boolean isLocal(String userId) {
+    return ownerOf(userId) == localNode;
+  }
+
+  /**
+   * Forwards a request to the node that owns its user, without waiting for its response.
+   *
+   * @param userId String
+   * @param path String, the path of the endpoint on the owner
+   * @param request Object, which is serialized to JSON again, or null to forward a GET request
+   * @return CompletableFuture&lt;ResponseEntity&lt;Object&gt;&gt; object that is completed with the owner's response, or with the 503 response if the owner could not be reached.
+   */
+  public CompletableFuture<ResponseEntity<Object>> forward(String userId, String path, Object request) {
+    return send(ownerOf(userId), path, request).handle((response, exception) -> {
+      if (exception != null) {
+        serviceMetrics.recordRejection(RequestError.NODE_UNAVAILABLE);
+        return RequestError.NODE_UNAVAILABLE.toResponse(path);
+      }
+
+      ResponseEntity.BodyBuilder forwarded = ResponseEntity.status(response.statusCode()).contentType(MediaType.APPLICATION_JSON);
+      response.headers().firstValue(HttpHeaders.RETRY_AFTER).ifPresent(retryAfter -> forwarded.header(HttpHeaders.RETRY_AFTER, retryAfter));
+
+      return forwarded.body(response.body()); // The owner's JSON is passed back as is, without deserializing it
+    });
+  }
+
+  /**
+   * Processes a batch whose items may belong to several nodes: every other node's items are forwarded to it as one batch,
+   * while this node's items are processed locally, and the results are put back into the order of the batch.
+   *
+   * <p> The forwarded batches are sent before the local items are processed, so that every node works on its part of the batch at the same time.
+   * If a node cannot be reached, each of its items is rejected with the reason of the 503 response. </p>
+   *
+   * @param <R> the type of the requests, such as LoadRequest or AuthorizationRequest
+   * @param <T> the type of the responses, such as LoadResponse or AuthorizationResponse
+   * @param path String, the path of the batch endpoint on the owners
+   * @param requests List&lt;R&gt;
+   * @param messageIdOf Function&lt;R, String&gt;, which gets the message ID of a request
+   * @param userIdOf Function&lt;R, String&gt;, which gets the user ID of a request
+   * @param processLocally Function&lt;List&lt;R&gt;, List&lt;BatchResult&lt;T&gt;&gt;&gt;, which processes the requests of this node's users
+   * @param responseType Class&lt;T&gt;
+   * @return List&lt;BatchResult&lt;T&gt;&gt; object storing the result of every item, in the order of the batch.
+   */
+  public <R, T> List<BatchResult<T>> routeBatch(String path, List<R> requests, Function<R, String> messageIdOf, Function<R, String> userIdOf,
+                                                Function<List<R>, List<BatchResult<T>>> processLocally, Class<T> responseType) {
+    JavaType resultsType = objectMapper.getTypeFactory().constructCollectionType(List.class,
+        objectMapper.getTypeFactory().constructParametricType(BatchResult.class, responseType));
+
+    return this.<R, BatchResult<T>>route(requests, userIdOf, processLocally, (node, nodeRequests) -> send(node, path, nodeRequests), resultsType, request -> {
+      serviceMetrics.recordRejection(RequestError.NODE_UNAVAILABLE);
+      return new BatchResult<T>(messageIdOf.apply(request), null, RequestError.NODE_UNAVAILABLE.getReason());
+    }).join();
+  }
+
+  /**
+   * Looks up several users that may belong to several nodes, without waiting: every other node is asked for its users with one GET request
+   * that repeats the given query parameter for each of them, while this node's users are looked up locally.
+   *
+   * @param <T> the type of the result of a user, such as UserBalances
+   * @param path String, the path of the lookup endpoint on the owners
+   * @param parameter String, the name of the query parameter holding the user IDs
+   * @param userIds List&lt;String&gt;
+   * @param lookUpLocally Function&lt;List&lt;String&gt;, List&lt;T&gt;&gt;, which looks up this node's users
+   * @param resultType Class&lt;T&gt;
+   * @return CompletableFuture&lt;List&lt;T&gt;&gt; object that is completed with the result of every user in the order of the user IDs,
+   * which is null for a user whose owner could not be reached.
+   */
+  public <T> CompletableFuture<List<T>> routeLookup(String path, String parameter, List<String> userIds, Function<List<String>, List<T>> lookUpLocally, Class<T> resultType) {
+    JavaType resultsType = objectMapper.getTypeFactory().constructCollectionType(List.class, resultType);
+
+    return this.<String, T>route(userIds, Function.identity(), lookUpLocally, (node, nodeUserIds) -> {
+      StringBuilder query = new StringBuilder(path);
+
+      for (int i = 0; i < nodeUserIds.size(); i++) {
+        query.append(i == 0 ? '?' : '&').append(parameter).append('=').append(UriUtils.encodeQueryParam(nodeUserIds.get(i), StandardCharsets.UTF_8));
+      }
+
+      return send(node, query.toString(), null);
+    }, resultsType, userId -> null);
+  }
+
+  /**
+   * Stops the threads of the HTTP client once the application shuts down.
+   */
+  @PreDestroy
+  public void close() {
+    if (httpExecutor != null) {
+      httpExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Finds the node that owns a user, which is this node for a null user ID, so that the request is rejected locally.
+   *
+   * @param userId String
+   * @return int containing the index of the node.
+   */
+  private int ownerOf(String userId) {
+    return ring == null || userId == null ? localNode : ring.owner(userId);
+  }
+
+  /**
+   * Splits items by the node that owns their user, sends every other node's items to it, processes this node's items locally,
+   * and puts the results back into the order of the items once every node has answered.
+   *
+   * @param <R> the type of the items
+   * @param <T> the type of the results
+   * @param items List&lt;R&gt;
+   * @param userIdOf Function&lt;R, String&gt;
+   * @param processLocally Function&lt;List&lt;R&gt;, List&lt;T&gt;&gt;
+   * @param sendToNode BiFunction&lt;Integer, List&lt;R&gt;, CompletableFuture&lt;HttpResponse&lt;byte[]&gt;&gt;&gt;, which sends a node its items
+   * @param resultsType JavaType, the type of the list of results a node answers with
+   * @param unavailable Function&lt;R, T&gt;, which creates the result of an item whose node could not be reached
+   * @return CompletableFuture&lt;List&lt;T&gt;&gt; object that is completed with the result of every item, in the order of the items.
+   */
+  private <R, T> CompletableFuture<List<T>> route(List<R> items, Function<R, String> userIdOf, Function<List<R>, List<T>> processLocally,
+                                                  BiFunction<Integer, List<R>, CompletableFuture<HttpResponse<byte[]>>> sendToNode,
+                                                  JavaType resultsType, Function<R, T> unavailable) {
+    int[] owners = new int[items.size()];
+    int[] ownerSizes = new int[nodeUris == null ? 1 : nodeUris.length];
+
+    for (int i = 0; i < items.size(); i++) {
+      owners[i] = ownerOf(userIdOf.apply(items.get(i)));
+      ownerSizes[owners[i]]++;
+    }
+
+    if (ownerSizes[localNode] == items.size()) {
+      return CompletableFuture.completedFuture(processLocally.apply(items));
+    }
+
+    ArrayList<CompletableFuture<List<T>>> nodeResults = new ArrayList<CompletableFuture<List<T>>>(nodeUris.length);
+
+    for (int node = 0; node < nodeUris.length; node++) {
+      if (node == localNode || ownerSizes[node] == 0) {
+        nodeResults.add(CompletableFuture.completedFuture(List.of()));
+        continue;
+      }
+
+      nodeResults.add(sendToNode.apply(node, itemsOf(items, owners, node, ownerSizes[node])).thenApply(response -> {
+        if (response.statusCode() / 100 != 2) {
+          throw new IllegalStateException("The node answered with status " + response.statusCode() + "!");
+        }
+
+        try {
+          return objectMapper.<List<T>>readValue(response.body(), resultsType);
+        }
+        catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      }).exceptionally(exception -> null)); // Every item of the node is given the unavailable result below
+    }
+
+    if (ownerSizes[localNode] > 0) { // Processed while the other nodes work on their items
+      nodeResults.set(localNode, CompletableFuture.completedFuture(processLocally.apply(itemsOf(items, owners, localNode, ownerSizes[localNode]))));
+    }
+
+    return CompletableFuture.allOf(nodeResults.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+      ArrayList<T> results = new ArrayList<T>(items.size());
+      int[] positions = new int[nodeUris.length];
+
+      for (int i = 0; i < items.size(); i++) {
+        List<T> ownerResults = nodeResults.get(owners[i]).join();
+        int position = positions[owners[i]]++;
+
+        results.add(ownerResults == null || position >= ownerResults.size() ? unavailable.apply(items.get(i)) : ownerResults.get(position));
+      }
+
+      return results;
+    });
+  }
+
+  /**
+   * Sends a request to a node, marked as forwarded by this node.
+   *
+   * @param node int
+   * @param path String
+   * @param request Object, which is sent as the JSON body of a PUT request, or null to send a GET request
+   * @return CompletableFuture&lt;HttpResponse&lt;byte[]&gt;&gt; object that is completed with the node's response.
+   */
+  private CompletableFuture<HttpResponse<byte[]>> send(int node, String path, Object request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(nodeUris[node] + path))
+        .header(FORWARDED_HEADER, nodeId)
+        .timeout(forwardTimeout);
+
+    if (request != null) {
+      try {
+        builder.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)));
+      }
+      catch (JsonProcessingException exception) {
+        return CompletableFuture.failedFuture(exception);
+      }
+    }
+
+    forwardCounters[node].increment();
+
+    return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  /**
+   * Gets the items of a batch that belong to one node, in their order in the batch.
+   *
+   * @param <R> the type of the requests
+   * @param requests List&lt;R&gt;
+   * @param owners int[], the owner of every item
+   * @param node int
+   * @param size int, the amount of items of the node
+   * @return List&lt;R&gt; object storing the items.
+   */
+  private static <R> List<R> itemsOf(List<R> requests, int[] owners, int node, int size) {
+    ArrayList<R> items = new ArrayList<R>(size);
+
+    for (int i = 0; i < requests.size(); i++) {
+      if (owners[i] == node) {
+        items.add(requests.get(i));
+      }
+    }
+
+    return items;
+  }
+}
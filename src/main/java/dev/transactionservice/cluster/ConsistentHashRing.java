@@ -0,0 +1,102 @@
+package dev.transactionservice.cluster;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+
+/**
+ * ConsistentHashRing class for assigning every user ID to one of the nodes of a cluster.
+ *
+ * <p> Every node is placed on a ring of 64-bit hashes at many points, its virtual nodes, and a user belongs to the node of the first point
+ * at or after the hash of its user ID. Adding or removing a node therefore only moves the users of the ranges next to its points,
+ * and the many points spread the users evenly across the nodes. The ring only depends on the node IDs, not on their order,
+ * so every node of a cluster that reads the same membership builds the same ring. </p>
+ */
+public class ConsistentHashRing {
+  private long[] points = null; // Sorted hashes of every virtual node
+  private int[] owners = null; // The index of the node of every point
+
+  /**
+   * Parameterized constructor for ConsistentHashRing.
+   *
+   * @param nodeIds String[], the IDs of the nodes, which the owner indexes refer to
+   * @param virtualNodes int, how many points every node is placed at
+   */
+  public ConsistentHashRing(String[] nodeIds, int virtualNodes) {
+    int pointsPerNode = Math.max(virtualNodes, 1);
+    int count = nodeIds.length * pointsPerNode;
+    long[] hashes = new long[count]; // The points of node n are at the indexes n * pointsPerNode and after
+
+    for (int node = 0, i = 0; node < nodeIds.length; node++) {
+      for (int virtualNode = 0; virtualNode < pointsPerNode; virtualNode++, i++) {
+        hashes[i] = hash(nodeIds[node] + "#" + virtualNode);
+      }
+    }
+
+    Integer[] order = new Integer[count];
+
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort(order, (a, b) -> Long.compareUnsigned(hashes[a], hashes[b]));
+
+    this.points = new long[count];
+    this.owners = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      points[i] = hashes[order[i]];
+      owners[i] = order[i] / pointsPerNode;
+    }
+  }
+
+  /**
+   * Finds the node that owns a user.
+   *
+   * @param userId String
+   * @return int containing the index of the node.
+   */
+  public int owner(String userId) {
+    long hash = hash(userId);
+    int low = 0;
+    int high = points.length;
+
+    while (low < high) { // Binary search for the first point at or after the hash
+      int middle = (low + high) >>> 1;
+
+      if (Long.compareUnsigned(points[middle], hash) < 0) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+
+    return owners[low == points.length ? 0 : low]; // Past the last point, the ring wraps around to the first
+  }
+
+  /**
+   * Hashes a String with 64-bit FNV-1a over its UTF-8 bytes, followed by a finalizer that spreads similar IDs across the ring.
+   *
+   * <p> Unlike String.hashCode, the hash is fixed by its definition, so that every node computes the same owner. </p>
+   *
+   * @param value String
+   * @return long containing the hash.
+   */
+  static long hash(String value) {
+    long hash = 0xCBF29CE484222325L;
+
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+
+    hash ^= hash >>> 33; // The finalizer of MurmurHash3
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+
+    return hash;
+  }
+}
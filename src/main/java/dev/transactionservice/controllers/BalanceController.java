@@ -0,0 +1,100 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.web.util.UriUtils;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BalanceController class to read the balances of users through the /users/{userId}/balances and /users/balances paths.
+ *
+ * <p> Consequently, it lets clients poll balances without sending a transaction. The balances are read directly from the ledger of the user's partition,
+ * which is never locked by a read, so that reads neither wait for the writer threads nor slow them down. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BalanceController {
+
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to read every balance from the partition of its user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected lookups
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the lookups of users that another node owns
+
+	/**
+	 * Method for reading the balances of a user in every currency.
+	 * 
+	 * @param userId String
+	 * @param forwardedBy String, the ID of the node that forwarded the lookup, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the user's balances, which are empty for an unknown user.
+	 */
+	@GetMapping("/users/{userId}/balances")
+	public ResponseEntity<Object> balances(@PathVariable String userId, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		if (forwardedBy == null && !clusterRouter.isLocal(userId)) {
+			return clusterRouter.forward(userId, "/users/" + UriUtils.encodePathSegment(userId, StandardCharsets.UTF_8) + "/balances", null).join();
+		}
+
+		return ResponseEntity.ok(eventRouter.getBalances(userId));
+	}
+
+	/**
+	 * Method for reading the balances of several users at once, given as repeated or comma-separated userId query parameters.
+	 * 
+	 * <p> In a cluster, every other node is asked for the balances of its users with one request, and the lookup is answered with a 503 response
+	 * if one of them cannot be reached. </p>
+	 * 
+	 * @param userIds List&lt;String&gt;
+	 * @param forwardedBy String, the ID of the node that forwarded the lookup, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the balances of every user, in the order of the user IDs.
+	 */
+	@GetMapping("/users/balances")
+	public ResponseEntity<Object> bulkBalances(@RequestParam("userId") List<String> userIds, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		List<UserBalances> balances = forwardedBy != null ? lookUp(userIds)
+				: clusterRouter.routeLookup("/users/balances", "userId", userIds, this::lookUp, UserBalances.class).join();
+
+		if (balances.contains(null)) { // The owner of at least one of the users could not be reached
+			serviceMetrics.recordRejection(RequestError.NODE_UNAVAILABLE);
+			return RequestError.NODE_UNAVAILABLE.toResponse("/users/balances");
+		}
+
+		return ResponseEntity.ok(balances);
+	}
+
+	/**
+	 * Reads the balances of users that this node owns.
+	 * 
+	 * @param userIds List&lt;String&gt;
+	 * @return List&lt;UserBalances&gt; object storing the balances of every user, in the order of the user IDs.
+	 */
+	private List<UserBalances> lookUp(List<String> userIds) {
+		ArrayList<UserBalances> balances = new ArrayList<UserBalances>(userIds.size());
+
+		for (String userId : userIds) {
+			balances.add(eventRouter.getBalances(userId));
+		}
+
+		return balances;
+	}
+
+}
@@ -3,6 +3,8 @@ package dev.transactionservice.controllers;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
 import dev.transactionservice.models.Error;
 
 import org.springframework.boot.web.servlet.error.ErrorController;
@@ -20,6 +22,7 @@ import java.util.regex.Pattern;
  * <p> This is used in tandem with the Error class to produce custom error messages that pertain to the Error class structure. </p>
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomErrorController implements ErrorController {
 
     /**
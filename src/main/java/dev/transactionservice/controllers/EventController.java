@@ -0,0 +1,97 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.web.util.UriUtils;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * EventController class to read the logged events of a user through the /users/{userId}/events path, one page at a time.
+ *
+ * <p> Consequently, it lets clients list a user's transactions, which are the user's load and authorization requests and their responses.
+ * The events are found through an index of every user's events in the event log of the user's partition, and the page is decoded from the event log
+ * while it is written to the response, so neither the lookup nor the response grows with the amount of events of other users. </p>
+ *
+ * <p> A page ends with the cursor of the next page, which is passed back as the cursor query parameter until it is null.
+ * Cursors are sequence numbers in the event log of the node that owns the user, which starts over once the node restarts. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EventController {
+
+	private static final int MAXIMUM_LIMIT = 1000;
+
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to read the events from the partition of their user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected lookups
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the lookups of users that another node owns
+
+	/**
+	 * Method for reading a page of the logged events of a user, newest first.
+	 *
+	 * @param userId String
+	 * @param cursor String, the next cursor of the previous page, or null for the first page
+	 * @param limit String, the largest amount of events in the page, from 1 to 1000
+	 * @param forwardedBy String, the ID of the node that forwarded the lookup, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the page of events, which is empty for an unknown user.
+	 */
+	@GetMapping("/users/{userId}/events")
+	public ResponseEntity<Object> events(@PathVariable String userId, @RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "limit", defaultValue = "100") String limit, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		String path = "/users/" + UriUtils.encodePathSegment(userId, StandardCharsets.UTF_8) + "/events";
+		long before = parse(cursor == null ? Long.toString(Long.MAX_VALUE) : cursor, 0, Long.MAX_VALUE);
+		long pageSize = parse(limit, 1, MAXIMUM_LIMIT);
+		RequestError requestError = before < 0 ? RequestError.INVALID_CURSOR : pageSize < 0 ? RequestError.INVALID_LIMIT : null;
+
+		if (requestError != null) {
+			serviceMetrics.recordRejection(requestError);
+			return requestError.toResponse(path);
+		}
+		else if (forwardedBy == null && !clusterRouter.isLocal(userId)) {
+			String query = "?limit=" + pageSize + (cursor == null ? "" : "&cursor=" + before);
+
+			return clusterRouter.forward(userId, path + query, null).join();
+		}
+
+		return ResponseEntity.ok(eventRouter.getEvents(userId, before, (int)pageSize));
+	}
+
+	/**
+	 * Parses a query parameter as a number within bounds.
+	 *
+	 * @param value String
+	 * @param minimum long
+	 * @param maximum long
+	 * @return long containing the number, or -1 if the value is not a number within the bounds.
+	 */
+	private static long parse(String value, long minimum, long maximum) {
+		try {
+			long number = Long.parseLong(value);
+
+			return number >= minimum && number <= maximum ? number : -1;
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+}
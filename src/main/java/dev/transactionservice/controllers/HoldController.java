@@ -0,0 +1,116 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * HoldController class to place, capture and release authorization holds through the /holds paths.
+ * 
+ * <p> A hold moves funds out of a user's available balance until it is captured, partially captured or released, or until its TTL has passed,
+ * after which the writer thread of the user's partition releases it. The ID of a hold is the message ID of the request that placed it. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ResponseStatus(HttpStatus.CREATED)
+public class HoldController {
+	
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to publish every event to the partition of its user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected requests
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the requests of users that another node owns
+
+	/**
+	 * Method for placing a hold of a debit amount for a TTL in seconds, which is approved if the available balance covers it.
+	 * 
+	 * @param holdRequest HoldRequest
+	 * @param forwardedBy String, the ID of the node that forwarded the request, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the hold response, or the error response if the request is rejected.
+	 */
+	@PutMapping("/holds")
+	public ResponseEntity<Object> hold(@RequestBody HoldRequest holdRequest, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		holdRequest.setAction(HoldAction.HOLD);
+		holdRequest.setHoldId(holdRequest.getMessageId());
+
+		return process(holdRequest, "/holds", forwardedBy);
+	}
+
+	/**
+	 * Method for capturing some or all of a hold, which is approved if the hold is open and its amount covers the captured amount.
+	 * The rest of the hold is returned to the available balance, so a hold is captured at most once.
+	 * 
+	 * @param holdRequest HoldRequest
+	 * @param forwardedBy String, the ID of the node that forwarded the request, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the hold response, or the error response if the request is rejected.
+	 */
+	@PutMapping("/holds/capture")
+	public ResponseEntity<Object> capture(@RequestBody HoldRequest holdRequest, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		holdRequest.setAction(HoldAction.CAPTURE);
+		holdRequest.setTtlSeconds(0);
+
+		return process(holdRequest, "/holds/capture", forwardedBy);
+	}
+
+	/**
+	 * Method for releasing a hold, which is approved if the hold is open, and returns all of it to the available balance.
+	 * 
+	 * @param holdRequest HoldRequest
+	 * @param forwardedBy String, the ID of the node that forwarded the request, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the hold response, or the error response if the request is rejected.
+	 */
+	@PutMapping("/holds/release")
+	public ResponseEntity<Object> release(@RequestBody HoldRequest holdRequest, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		holdRequest.setAction(HoldAction.RELEASE);
+		holdRequest.setTransactionAmount(null);
+		holdRequest.setTtlSeconds(0);
+
+		return process(holdRequest, "/holds/release", forwardedBy);
+	}
+
+	/**
+	 * Validates a hold request, forwards it to the node that owns its user in a cluster, or publishes it to the partition of its user.
+	 * 
+	 * @param holdRequest HoldRequest, whose action is set by the path
+	 * @param path String
+	 * @param forwardedBy String
+	 * @return ResponseEntity&lt;Object&gt; object storing the hold response, or the error response if the request is rejected.
+	 */
+	private ResponseEntity<Object> process(HoldRequest holdRequest, String path, String forwardedBy) {
+		RequestError error = RequestValidator.validateHold(holdRequest);
+
+		if (error != null) {
+			serviceMetrics.recordRejection(error);
+			return error.toResponse(path);
+		}
+
+		if (forwardedBy == null && !clusterRouter.isLocal(holdRequest.getUserId())) { // The owner processes the request and its response is passed back unchanged
+			return clusterRouter.forward(holdRequest.getUserId(), path, holdRequest).join();
+		}
+
+		HoldResponse holdResponse = (HoldResponse)eventRouter.publish(new HoldRequestEvent(holdRequest.getMessageId(), holdRequest)); // Processed and logged together with its response event
+
+		if (holdResponse == null) { // The event sequencer rejects any message ID that has already been used
+			return RequestError.MESSAGE_ID_EXISTS.toResponse(path);
+		}
+
+		return ResponseEntity.status(HttpStatus.CREATED).body(holdResponse);
+	}
+
+}
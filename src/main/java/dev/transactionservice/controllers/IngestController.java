@@ -0,0 +1,355 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.http.HttpStatus;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IngestController class to process a stream of load and authorization requests of any size through the /ingest path, such as a migration or settlement file.
+ *
+ * <p> The body is newline-delimited JSON with one request per line, where a request with a CREDIT amount is a load and one with a DEBIT amount an authorization,
+ * and every request is validated by the same rules as on /load and /authorization. The body is read one line at a time into a buffer of fixed size,
+ * and the requests are processed in batches of up to "transactionservice.ingest.batch-size", just like those of the batch endpoints, so memory stays constant
+ * however long the stream is. A batch is processed early once no more of the body has arrived, so a slow stream is not held back until a batch is full. </p>
+ *
+ * <p> The response is newline-delimited JSON as well, with the result of every non-blank line in the order of the body, which is written and flushed
+ * after every batch while the body is still being read. The client must therefore read the response while it sends the body. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IngestController {
+
+	private static final String NDJSON = "application/x-ndjson";
+	private static final int MAXIMUM_RECORD_SIZE = 64 * 1024; // Longer lines are rejected, so that one line cannot grow the buffer
+
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to publish every batch to the partitions of its users
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected requests
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the requests of users that another node owns
+
+	@Autowired
+	private ObjectMapper objectMapper; // Autowired object mapper to parse every line and write every result
+
+	@Value("${transactionservice.ingest.batch-size:4096}")
+	private int batchSize; // The largest amount of requests processed together
+
+	/**
+	 * Method for handling a stream of load and authorization requests, which writes the result of every request as soon as its batch is processed.
+	 *
+	 * @param request HttpServletRequest, whose body is read as a stream
+	 * @param response HttpServletResponse, whose body is written as a stream
+	 * @throws IOException if the body could not be read or the results could not be written.
+	 */
+	@PutMapping("/ingest")
+	public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		ObjectReader requestReader = objectMapper.readerFor(LoadRequest.class); // Authorization requests have the same fields
+		ObjectWriter resultWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // Flushed once per batch instead
+		RecordReader records = new RecordReader(request.getInputStream());
+		ArrayList<Object> batch = new ArrayList<Object>(batchSize); // The valid requests of the batch
+		ArrayList<BatchResult<?>> rejected = new ArrayList<BatchResult<?>>(); // The result of every line of the batch, which is null for a valid request
+
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(NDJSON);
+
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+			generator.setRootValueSeparator(null); // Every result is followed by a newline instead
+
+			while (records.next()) {
+				if (!records.isBlank()) {
+					Object parsed = parse(requestReader, records);
+
+					if (parsed instanceof BatchResult<?> result) {
+						rejected.add(result);
+					}
+					else {
+						batch.add(parsed);
+						rejected.add(null);
+					}
+				}
+
+				if (batch.size() >= batchSize || (!rejected.isEmpty() && !records.ready())) {
+					write(generator, resultWriter, batch, rejected);
+				}
+			}
+
+			write(generator, resultWriter, batch, rejected);
+		}
+	}
+
+	/**
+	 * Parses and validates one line as a load or authorization request.
+	 *
+	 * @param requestReader ObjectReader
+	 * @param records RecordReader, positioned at the line
+	 * @return The valid LoadRequest or AuthorizationRequest as an Object, or the BatchResult&lt;?&gt; of a rejected line.
+	 */
+	private Object parse(ObjectReader requestReader, RecordReader records) {
+		LoadRequest loadRequest = null;
+
+		try {
+			loadRequest = records.isTooLong() ? null : requestReader.readValue(records.buffer(), records.start(), records.length());
+		}
+		catch (IOException e) {
+			loadRequest = null;
+		}
+
+		if (loadRequest == null) {
+			serviceMetrics.recordRejection(RequestError.MALFORMED_RECORD);
+			return new BatchResult<Object>(null, null, RequestError.MALFORMED_RECORD.getReason());
+		}
+
+		Amount transactionAmount = loadRequest.getTransactionAmount();
+		DebitCredit debitOrCredit = transactionAmount != null && transactionAmount.getDebitOrCredit() == DebitCredit.DEBIT ? DebitCredit.DEBIT : DebitCredit.CREDIT;
+		RequestError error = RequestValidator.validate(loadRequest.getMessageId(), loadRequest.getUserId(), transactionAmount, debitOrCredit);
+
+		if (error != null) {
+			serviceMetrics.recordRejection(error);
+			return new BatchResult<Object>(loadRequest.getMessageId(), null, error.getReason());
+		}
+
+		return debitOrCredit == DebitCredit.CREDIT ? loadRequest : new AuthorizationRequest(loadRequest.getMessageId(), loadRequest.getUserId(), transactionAmount);
+	}
+
+	/**
+	 * Processes the valid requests of a batch, writes the result of every line of the batch in order and flushes them to the client, and empties the batch.
+	 *
+	 * @param generator JsonGenerator
+	 * @param resultWriter ObjectWriter
+	 * @param batch List&lt;Object&gt;
+	 * @param rejected List&lt;BatchResult&lt;?&gt;&gt;
+	 * @throws IOException if the results could not be written.
+	 */
+	private void write(JsonGenerator generator, ObjectWriter resultWriter, List<Object> batch, List<BatchResult<?>> rejected) throws IOException {
+		if (rejected.isEmpty()) {
+			return;
+		}
+
+		List<? extends BatchResult<?>> results = batch.isEmpty() ? List.of() : process(batch);
+
+		for (int i = 0, processed = 0; i < rejected.size(); i++) {
+			resultWriter.writeValue(generator, rejected.get(i) != null ? rejected.get(i) : results.get(processed++));
+			generator.writeRaw('\n');
+		}
+
+		generator.flush();
+		batch.clear();
+		rejected.clear();
+	}
+
+	/**
+	 * Processes valid requests in their order. In a cluster, every run of loads or authorizations is routed to the owners of its users
+	 * through their batch endpoints, so the requests of one user are still processed in the order of the stream.
+	 *
+	 * @param batch List&lt;Object&gt;
+	 * @return List&lt;? extends BatchResult&lt;?&gt;&gt; object storing the result of every request, in the order of the batch.
+	 */
+	private List<? extends BatchResult<?>> process(List<Object> batch) {
+		if (!clusterRouter.isEnabled()) {
+			return publish(batch, Object.class);
+		}
+
+		ArrayList<BatchResult<?>> results = new ArrayList<BatchResult<?>>(batch.size());
+
+		for (int start = 0, end = 0; start < batch.size(); start = end) {
+			boolean loads = batch.get(start) instanceof LoadRequest;
+
+			while (end < batch.size() && (batch.get(end) instanceof LoadRequest) == loads) {
+				end++;
+			}
+
+			List<Object> run = batch.subList(start, end);
+
+			if (loads) {
+				results.addAll(clusterRouter.routeBatch("/load/batch", run, IngestController::messageIdOf, IngestController::userIdOf,
+						requests -> publish(requests, LoadResponse.class), LoadResponse.class));
+			}
+			else {
+				results.addAll(clusterRouter.routeBatch("/authorization/batch", run, IngestController::messageIdOf, IngestController::userIdOf,
+						requests -> publish(requests, AuthorizationResponse.class), AuthorizationResponse.class));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Publishes valid requests as one batch of events, which the event sequencer of every partition processes and journals together.
+	 *
+	 * @param <T> the type of the responses
+	 * @param requests List&lt;Object&gt;, containing LoadRequest and AuthorizationRequest objects
+	 * @param responseType Class&lt;T&gt;
+	 * @return List&lt;BatchResult&lt;T&gt;&gt; object storing the result of every request, in the order of the requests.
+	 */
+	private <T> List<BatchResult<T>> publish(List<Object> requests, Class<T> responseType) {
+		Event[] events = new Event[requests.size()];
+
+		for (int i = 0; i < events.length; i++) {
+			events[i] = requests.get(i) instanceof LoadRequest loadRequest ? new LoadRequestEvent(loadRequest.getMessageId(), loadRequest)
+					: new AuthorizationRequestEvent(messageIdOf(requests.get(i)), (AuthorizationRequest)requests.get(i));
+		}
+
+		Object[] responses = eventRouter.publishBatch(events);
+		ArrayList<BatchResult<T>> results = new ArrayList<BatchResult<T>>(events.length);
+
+		for (int i = 0; i < events.length; i++) {
+			String messageId = events[i].getMessageId();
+
+			if (responses[i] == null) {
+				results.add(new BatchResult<T>(messageId, null, RequestError.MESSAGE_ID_EXISTS.getReason()));
+			}
+			else if (responses[i] instanceof RuntimeException exception) {
+				results.add(new BatchResult<T>(messageId, null, exception.getMessage()));
+			}
+			else {
+				results.add(new BatchResult<T>(messageId, responseType.cast(responses[i]), null));
+			}
+		}
+
+		return results;
+	}
+
+	private static String messageIdOf(Object request) {
+		return request instanceof LoadRequest loadRequest ? loadRequest.getMessageId() : ((AuthorizationRequest)request).getMessageId();
+	}
+
+	private static String userIdOf(Object request) {
+		return request instanceof LoadRequest loadRequest ? loadRequest.getUserId() : ((AuthorizationRequest)request).getUserId();
+	}
+
+	/**
+	 * RecordReader class for reading the lines of a stream into one buffer of fixed size, without copying a line out of the buffer.
+	 */
+	private static class RecordReader {
+		private InputStream inputStream = null;
+		private byte[] buffer = new byte[MAXIMUM_RECORD_SIZE];
+		private int start = 0; // The current line
+		private int length = 0;
+		private int next = 0; // The bytes after the current line that have been read
+		private int end = 0;
+		private boolean tooLong = false;
+
+		private RecordReader(InputStream inputStream) {
+			this.inputStream = inputStream;
+		}
+
+		/**
+		 * Moves to the next line, reading more of the stream if the buffer does not hold a complete line.
+		 *
+		 * @return boolean containing true if there is a next line, or false at the end of the stream.
+		 * @throws IOException if the stream could not be read.
+		 */
+		private boolean next() throws IOException {
+			int scanned = next;
+			tooLong = false;
+
+			while (true) {
+				for (int i = scanned; i < end; i++) {
+					if (buffer[i] == '\n') {
+						return moveTo(i, i + 1);
+					}
+				}
+
+				if (next > 0) { // Move the partial line to the start of the buffer before reading more
+					System.arraycopy(buffer, next, buffer, 0, end - next);
+					end -= next;
+					next = 0;
+				}
+
+				if (end == buffer.length) { // The line is too long, so its start is dropped and only its end is looked for
+					tooLong = true;
+					end = 0;
+				}
+
+				scanned = end;
+				int read = inputStream.read(buffer, end, buffer.length - end);
+
+				if (read < 0) {
+					return end > 0 || tooLong ? moveTo(end, end) : false; // The last line may have no newline
+				}
+
+				end += read;
+			}
+		}
+
+		private boolean moveTo(int lineEnd, int nextLine) {
+			start = next;
+			length = lineEnd - next;
+			next = nextLine;
+
+			return true;
+		}
+
+		/**
+		 * Checks if the next line can be read without waiting for more of the stream.
+		 *
+		 * @return boolean containing true if a complete line is buffered or more of the stream has arrived.
+		 * @throws IOException if the stream could not be read.
+		 */
+		private boolean ready() throws IOException {
+			for (int i = next; i < end; i++) {
+				if (buffer[i] == '\n') {
+					return true;
+				}
+			}
+
+			return inputStream.available() > 0;
+		}
+
+		private boolean isBlank() {
+			for (int i = start; i < start + length; i++) {
+				if (buffer[i] != ' ' && buffer[i] != '\t' && buffer[i] != '\r') {
+					return false;
+				}
+			}
+
+			return !tooLong;
+		}
+
+		private boolean isTooLong() {
+			return tooLong;
+		}
+
+		private byte[] buffer() {
+			return buffer;
+		}
+
+		private int start() {
+			return start;
+		}
+
+		private int length() {
+			return length;
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package dev.transactionservice.controllers;
+
+import dev.transactionservice.models.JsonCodec;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * JsonCodecMessageConverter class to read the bodies of /load and /authorization and write their responses with the JsonCodec, instead of Jackson's reflective databinding.
+ *
+ * <p> Spring Boot places every HttpMessageConverter bean in front of its default converters, so this converter is asked first, but only
+ * takes the request and response types of the codec; batches, error responses and every other body are still handled by Jackson. </p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JsonCodecMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	/**
+	 * Default constructor for JsonCodecMessageConverter, which supports application/json.
+	 */
+	public JsonCodecMessageConverter() {
+		super(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return JsonCodec.supports(clazz);
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+		byte[] body = inputMessage.getBody().readAllBytes();
+
+		try {
+			return JsonCodec.read(clazz, body, body.length);
+		}
+		catch (IllegalArgumentException e) {
+			throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage); // The same prefix as Jackson's errors
+		}
+	}
+
+	@Override
+	protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+		try {
+			JsonCodec.write(object, outputMessage.getBody());
+		}
+		catch (IllegalArgumentException e) {
+			throw new HttpMessageNotWritableException("Could not write JSON: " + e.getMessage(), e);
+		}
+	}
+
+}
@@ -2,18 +2,23 @@ package dev.transactionservice.controllers;
 
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
 import dev.transactionservice.models.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
-import java.util.regex.Pattern;
-
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * LoadController class to process load requests and responses through the /load path.
@@ -21,60 +26,119 @@ import java.math.BigDecimal;
  * <p> Consequently, it adds funds to a user's account. </p>
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @ResponseStatus(HttpStatus.CREATED)
 public class LoadController {
 
 	@Autowired
-	private EventProcessor eventProcessor; // Autowired event processor to allow for shared access between the controllers
+	private EventRouter eventRouter; // Autowired event router to publish every event to the partition of its user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected requests
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the requests of users that another node owns
 
 	/**
 	 * Method for handling load requests and responses.
 	 * 
+	 * <p> An invalid request is answered with a 422 response directly, instead of throwing an exception for the error controller to handle.
+	 * In a cluster, a valid request for a user that another node owns is forwarded to that node, unless it was forwarded already. </p>
+	 * 
 	 * @param loadRequest LoadRequest
-	 * @return LoadResponse object storing the load response.
+	 * @param forwardedBy String, the ID of the node that forwarded the request, or null if it came from a client
+	 * @return ResponseEntity&lt;Object&gt; object storing the load response, or the error response if the request is rejected.
 	 */
 	@PutMapping("/load")
-	public LoadResponse load(@RequestBody LoadRequest loadRequest) { // The JSON body sent to this controller will be deserialized into an authorization request
-		String requestedMsgID = loadRequest.getMessageId();
-      	String requestedUserID = loadRequest.getUserId();
-      	String requestedAmount = loadRequest.getTransactionAmount().getAmount();
-      	String requestedCurrency = loadRequest.getTransactionAmount().getCurrency();
-		DebitCredit debitOrCredit = loadRequest.getTransactionAmount().getDebitOrCredit();
-
-		if (requestedMsgID.length() == 0) {
-			throw new InternalException("The message ID is empty!");
-		}
-		else if (eventProcessor.eventExists(requestedMsgID)) { // Since non-correlated events tie to message IDs, we can check for their existance to determine if a message ID has already been used
-			throw new InternalException("The message ID already exists!");
-		}
-		else if (requestedUserID.length() == 0) {
-			throw new InternalException("The user ID is empty!");
-		}
-		else if (!Pattern.compile("^-?\\d*\\.?\\d+$").matcher(requestedAmount).find()) { // This regex pattern can be used to determine if the requested amount is non-numeric (contains letters or symbols other than . or -)
-			throw new InternalException("The amount is non-numeric!");
+	public ResponseEntity<Object> load(@RequestBody LoadRequest loadRequest, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) { // The JSON body sent to this controller will be deserialized into an authorization request
+		RequestError error = RequestValidator.validate(loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount(), DebitCredit.CREDIT);
+
+		if (error != null) {
+			serviceMetrics.recordRejection(error);
+			return error.toResponse("/load");
 		}
-		else if (new BigDecimal(requestedAmount).compareTo(new BigDecimal(0)) != 1) { // This is equivalent to "if (requestedAmount == 0)"
-			throw new InternalException("The amount is less than or equal to 0!");
+
+		if (forwardedBy == null && !clusterRouter.isLocal(loadRequest.getUserId())) { // The owner processes the request and its response is passed back unchanged
+			return clusterRouter.forward(loadRequest.getUserId(), "/load", loadRequest).join();
 		}
-		else if (requestedCurrency.length() == 0) {
-			throw new InternalException("The currency is empty!");
+
+		LoadRequestEvent loadRequestEvent = new LoadRequestEvent(loadRequest.getMessageId(), loadRequest); // Create a load request event
+
+		LoadResponse loadResponse = (LoadResponse)eventRouter.publish(loadRequestEvent); // Publish the event to the event sequencer of its user's partition, where it will be processed and logged together with its response event
+
+		if (loadResponse == null) { // Since non-correlated events tie to message IDs, the event sequencer rejects any message ID that has already been used
+			return RequestError.MESSAGE_ID_EXISTS.toResponse("/load");
 		}
-		else if (!Pattern.compile("^[A-Z]{3}$").matcher(requestedCurrency).find()) { // This regex pattern can be used to determine if the requested currency follows the ISO 4217 standard of 3 uppercase letters
-			throw new InternalException("The currency must be 3 uppercase letters!");
+
+		return ResponseEntity.status(HttpStatus.CREATED).body(loadResponse); // Serialize the load response and send it back to the client
+	}
+
+	/**
+	 * Method for handling batches of load requests, which are validated one by one and then processed together, in their order in the batch.
+	 * 
+	 * <p> An invalid item or an item with a message ID that already exists is rejected on its own, without affecting the rest of the batch.
+	 * In a cluster, the items of users that other nodes own are forwarded to them, unless the batch was forwarded already. </p>
+	 * 
+	 * @param loadRequests List&lt;LoadRequest&gt;
+	 * @param forwardedBy String, the ID of the node that forwarded the batch, or null if it came from a client
+	 * @return List&lt;BatchResult&lt;LoadResponse&gt;&gt; object storing the result of every item, in the order of the batch.
+	 */
+	@PutMapping("/load/batch")
+	public List<BatchResult<LoadResponse>> loadBatch(@RequestBody List<LoadRequest> loadRequests, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		if (forwardedBy != null || !clusterRouter.isEnabled()) {
+			return processLoadBatch(loadRequests);
 		}
-		else if (debitOrCredit != DebitCredit.CREDIT) {
-			throw new InternalException("For Load requests, please use CREDIT!");
+
+		return clusterRouter.routeBatch("/load/batch", loadRequests, LoadRequest::getMessageId, LoadRequest::getUserId, this::processLoadBatch, LoadResponse.class);
+	}
+
+	/**
+	 * Processes the items of a batch on this node, in their order in the batch.
+	 * 
+	 * @param loadRequests List&lt;LoadRequest&gt;
+	 * @return List&lt;BatchResult&lt;LoadResponse&gt;&gt; object storing the result of every item, in the order of the batch.
+	 */
+	private List<BatchResult<LoadResponse>> processLoadBatch(List<LoadRequest> loadRequests) {
+		RequestError[] errors = new RequestError[loadRequests.size()];
+		ArrayList<Event> events = new ArrayList<Event>(loadRequests.size());
+
+		for (int i = 0; i < loadRequests.size(); i++) {
+			LoadRequest loadRequest = loadRequests.get(i);
+			errors[i] = RequestValidator.validate(loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount(), DebitCredit.CREDIT);
+
+			if (errors[i] == null) {
+				events.add(new LoadRequestEvent(loadRequest.getMessageId(), loadRequest));
+			}
+			else {
+				serviceMetrics.recordRejection(errors[i]);
+			}
 		}
 
-		LoadRequestEvent loadRequestEvent = new LoadRequestEvent(loadRequest.getMessageId(), loadRequest); // Create a load request event
+		Object[] responses = eventRouter.publishBatch(events.toArray(new Event[0])); // The valid items of each partition are processed and journaled as one entry of its event sequencer
+		ArrayList<BatchResult<LoadResponse>> results = new ArrayList<BatchResult<LoadResponse>>(loadRequests.size());
 
-		LoadResponse loadResponse = (LoadResponse)eventProcessor.processEvent(loadRequestEvent); // Pass the event into the event processor, where it will then return a load response
+		for (int i = 0, processed = 0; i < loadRequests.size(); i++) {
+			String messageId = loadRequests.get(i).getMessageId();
 
-		LoadResponseEvent loadResponseEvent = new LoadResponseEvent(loadRequest.getMessageId(), loadResponse); // Create a load response event using the load response from the previous event
+			if (errors[i] != null) {
+				results.add(new BatchResult<LoadResponse>(messageId, null, errors[i].getReason()));
+				continue;
+			}
 
-		eventProcessor.processEvent(loadResponseEvent); // Pass the event into the event processor; this will return a null as the LoadResponse class has no methods the event can call for processing
+			Object response = responses[processed++];
+
+			if (response == null) {
+				results.add(new BatchResult<LoadResponse>(messageId, null, RequestError.MESSAGE_ID_EXISTS.getReason()));
+			}
+			else if (response instanceof RuntimeException exception) {
+				results.add(new BatchResult<LoadResponse>(messageId, null, exception.getMessage()));
+			}
+			else {
+				results.add(new BatchResult<LoadResponse>(messageId, (LoadResponse)response, null));
+			}
+		}
 
-		return loadResponse; // Serialize the load response and send it back to the client
+		return results;
 	}
 
 }
@@ -3,6 +3,8 @@ package dev.transactionservice.controllers;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
 import dev.transactionservice.models.Ping;
 
 /**
@@ -11,6 +13,7 @@ import dev.transactionservice.models.Ping;
  * <p> Consequently, it tests the availability of the service and returns the current server time. </p>
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PingController {
 
 	/**
@@ -0,0 +1,80 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import reactor.core.publisher.Mono;
+
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ReactiveAuthorizationController class to process authorization requests and responses through the /authorization path, on the reactive stack.
+ *
+ * <p> It is used instead of the AuthorizationController when the service is started as a reactive web application, and answers the same way,
+ * except that no thread waits for the event sequencer: the response is sent once the writer thread completes the event's future.
+ * If the ring buffer of the user's event sequencer is full, the request is answered with a 503 response and a Retry-After header right away. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthorizationController {
+
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to publish every event to the partition of its user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected requests
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the requests of users that another node owns
+
+	/**
+	 * Method for handling authorization requests and responses without blocking.
+	 *
+	 * @param authorizationRequest Mono&lt;AuthorizationRequest&gt;
+	 * @param forwardedBy String, the ID of the node that forwarded the request, or null if it came from a client
+	 * @return Mono&lt;ResponseEntity&lt;Object&gt;&gt; object that emits the authorization response, or the error response if the request is rejected.
+	 */
+	@PutMapping("/authorization")
+	public Mono<ResponseEntity<Object>> authorization(@RequestBody Mono<AuthorizationRequest> authorizationRequest, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		return authorizationRequest.flatMap(request -> {
+			RequestError error = RequestValidator.validate(request.getMessageId(), request.getUserId(), request.getTransactionAmount(), DebitCredit.DEBIT);
+
+			if (error != null) {
+				serviceMetrics.recordRejection(error);
+				return Mono.just(error.toResponse("/authorization"));
+			}
+
+			if (forwardedBy == null && !clusterRouter.isLocal(request.getUserId())) { // No thread waits for the owner either
+				return Mono.fromFuture(clusterRouter.forward(request.getUserId(), "/authorization", request));
+			}
+
+			CompletableFuture<Object> authorizationResponse = eventRouter.tryPublish(new AuthorizationRequestEvent(request.getMessageId(), request));
+
+			if (authorizationResponse == null) { // The ring buffer is full, so the client is told to back off instead of the request being queued without bound
+				serviceMetrics.recordRejection(RequestError.SERVICE_BUSY);
+				return Mono.just(RequestError.SERVICE_BUSY.toResponse("/authorization"));
+			}
+
+			return Mono.fromFuture(authorizationResponse)
+					.publishOn(Schedulers.parallel()) // Leave the writer thread as soon as the response is handed over
+					.map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+					.switchIfEmpty(Mono.fromSupplier(() -> RequestError.MESSAGE_ID_EXISTS.toResponse("/authorization"))); // A null result means the message ID has already been used
+		});
+	}
+
+}
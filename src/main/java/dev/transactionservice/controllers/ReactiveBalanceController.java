@@ -0,0 +1,103 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.web.util.UriUtils;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.http.ResponseEntity;
+
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReactiveBalanceController class to read the balances of users through the /users/{userId}/balances and /users/balances paths, on the reactive stack.
+ *
+ * <p> It is used instead of the BalanceController when the service is started as a reactive web application, and answers the same way.
+ * A local read never blocks, so it is answered on the event loop, while a lookup forwarded to another node is answered once the node responds. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBalanceController {
+
+	@Autowired
+	private EventRouter eventRouter; // Autowired event router to read every balance from the partition of its user
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to count the rejected lookups
+
+	@Autowired
+	private ClusterRouter clusterRouter; // Autowired cluster router to forward the lookups of users that another node owns
+
+	/**
+	 * Method for reading the balances of a user in every currency without blocking.
+	 *
+	 * @param userId String
+	 * @param forwardedBy String, the ID of the node that forwarded the lookup, or null if it came from a client
+	 * @return Mono&lt;ResponseEntity&lt;Object&gt;&gt; object that emits the user's balances, which are empty for an unknown user.
+	 */
+	@GetMapping("/users/{userId}/balances")
+	public Mono<ResponseEntity<Object>> balances(@PathVariable String userId, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		if (forwardedBy == null && !clusterRouter.isLocal(userId)) {
+			return Mono.fromFuture(clusterRouter.forward(userId, "/users/" + UriUtils.encodePathSegment(userId, StandardCharsets.UTF_8) + "/balances", null));
+		}
+
+		return Mono.fromSupplier(() -> ResponseEntity.<Object>ok(eventRouter.getBalances(userId)));
+	}
+
+	/**
+	 * Method for reading the balances of several users at once without blocking, given as repeated or comma-separated userId query parameters.
+	 *
+	 * @param userIds List&lt;String&gt;
+	 * @param forwardedBy String, the ID of the node that forwarded the lookup, or null if it came from a client
+	 * @return Mono&lt;ResponseEntity&lt;Object&gt;&gt; object that emits the balances of every user in the order of the user IDs,
+	 * or the 503 response if the owner of one of them cannot be reached.
+	 */
+	@GetMapping("/users/balances")
+	public Mono<ResponseEntity<Object>> bulkBalances(@RequestParam("userId") List<String> userIds, @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+		if (forwardedBy != null) {
+			return Mono.fromSupplier(() -> ResponseEntity.<Object>ok(lookUp(userIds)));
+		}
+
+		return Mono.fromFuture(clusterRouter.routeLookup("/users/balances", "userId", userIds, this::lookUp, UserBalances.class)).map(balances -> {
+			if (balances.contains(null)) { // The owner of at least one of the users could not be reached
+				serviceMetrics.recordRejection(RequestError.NODE_UNAVAILABLE);
+				return RequestError.NODE_UNAVAILABLE.toResponse("/users/balances");
+			}
+
+			return ResponseEntity.<Object>ok(balances);
+		});
+	}
+
+	/**
+	 * Reads the balances of users that this node owns.
+	 *
+	 * @param userIds List&lt;String&gt;
+	 * @return List&lt;UserBalances&gt; object storing the balances of every user, in the order of the user IDs.
+	 */
+	private List<UserBalances> lookUp(List<String> userIds) {
+		ArrayList<UserBalances> balances = new ArrayList<UserBalances>(userIds.size());
+
+		for (String userId : userIds) {
+			balances.add(eventRouter.getBalances(userId));
+		}
+
+		return balances;
+	}
+
+}
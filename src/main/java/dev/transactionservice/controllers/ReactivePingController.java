@@ -0,0 +1,31 @@
+package dev.transactionservice.controllers;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.transactionservice.models.Ping;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactivePingController class to return a Ping object whenever the /ping path is used, on the reactive stack.
+ *
+ * <p> It is used instead of the PingController when the service is started as a reactive web application. </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePingController {
+
+	/**
+	 * Method for handling pings.
+	 *
+	 * @return Mono&lt;Ping&gt; object that emits the current server time once subscribed.
+	 */
+	@GetMapping("/ping")
+	public Mono<Ping> ping() {
+		return Mono.fromSupplier(Ping::new);
+	}
+
+}
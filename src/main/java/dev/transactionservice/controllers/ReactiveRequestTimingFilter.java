@@ -0,0 +1,53 @@
+package dev.transactionservice.controllers;
+
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+
+import org.springframework.stereotype.Component;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReactiveRequestTimingFilter class to record how long every request to one of the service's endpoints takes, on the reactive stack.
+ *
+ * <p> It is used instead of the RequestTimingFilter when the service is started as a reactive web application, and records into the same timers. </p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestTimingFilter implements WebFilter {
+
+	@Autowired
+	private ServiceMetrics serviceMetrics; // Autowired service metrics to look up the timer of each endpoint
+
+	/**
+	 * Method for passing a request on, and recording its duration once its response is complete, if it is for one of the measured endpoints.
+	 *
+	 * @param exchange ServerWebExchange
+	 * @param chain WebFilterChain
+	 * @return Mono&lt;Void&gt; object that completes once the request has been handled.
+	 */
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		Timer timer = serviceMetrics.endpointTimer(exchange.getRequest().getPath().value());
+
+		if (timer == null) {
+			return chain.filter(exchange);
+		}
+
+		long start = System.nanoTime();
+
+		return chain.filter(exchange).doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+	}
+
+}
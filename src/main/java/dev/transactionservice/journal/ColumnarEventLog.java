@@ -0,0 +1,787 @@
+package dev.transactionservice.journal;
+
+import dev.transactionservice.models.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Instant;
+
+import java.util.Arrays;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import java.util.stream.Stream;
+
+/**
+ * ColumnarEventLog class for storing logged events as columns of primitive arrays, instead of as objects or encoded records.
+ *
+ * <p> Every event is a row of the columns: its time stamp in nanoseconds, the IDs of its user and currency in dictionaries of user IDs and currencies,
+ * its amount in minor units (the transaction amount of a request, or the balance of a response), its type, its response code, and the offset of its message ID.
+ * User IDs and currencies are therefore stored once rather than with every event, and a response shares the stored message ID of its request.
+ * The debit or credit flag is not stored, as validation ties it to the type of the request. Rows are numbered by the order they were appended in. </p>
+ *
+ * <p> The action of a hold request or response is part of its type. Its hold ID and TTL are stored right after its message ID, which it therefore never shares,
+ * and a release, or a declined release, which has no amount, has no currency either. </p>
+ *
+ * <p> The rows are split into chunks of CHUNK_SIZE rows, whose columns are allocated once, so appending never copies the earlier rows.
+ * A message ID is stored as its UTF-8 bytes, or as 16 bytes if it is a UUID in its canonical lowercase form.
+ * Only the chunk being appended to is held in primitive arrays on the heap: once a chunk is full, the appending thread encodes its columns and message IDs
+ * into a block in a direct buffer outside the heap, laid out like a warm segment file, so the heap the garbage collector scans does not grow with the event log.
+ * Events are only materialized as Event objects when they are read, with their amounts formatted from minor units, such as "100.00" for a request of "100". </p>
+ *
+ * <p> Only the EventSequencer's writer thread appends events, while any thread may read them without a lock: a row is published by advancing the size
+ * once all of its columns are written, and a chunk's message ID bytes are published before the size, like the histories of the UserEventIndex. </p>
+ *
+ * <p> With a directory, full chunks are moved out of memory as their events age, in the background: a full chunk whose newest event is older than
+ * the hot retention is written into an uncompressed, memory-mapped segment file of the warm tier, and once it is older than the warm retention,
+ * into a segment file of compressed blocks of the cold tier. Reads go to whichever tier holds the chunk, and only decompress the block of the event.
+ * The segment files only hold the events of the current run, as the event log is rebuilt from the journal on startup. </p>
+ */
+public class ColumnarEventLog {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarEventLog.class);
+
+  private static final int CHUNK_SHIFT = 14;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int INITIAL_MESSAGE_ID_BYTES = 4096; // Per chunk, doubled whenever it is full
+
+  private static final String WARM_SUFFIX = ".warm";
+  private static final String COLD_SUFFIX = ".cold";
+
+  private static final byte LOAD_REQUEST = 0;
+  private static final byte AUTHORIZATION_REQUEST = 1;
+  private static final byte LOAD_RESPONSE = 2;
+  private static final byte AUTHORIZATION_RESPONSE = 3;
+  private static final byte HOLD_REQUEST = 4; // Followed by a type per hold action, in the order of the actions
+  private static final byte HOLD_RESPONSE = 8;
+
+  private static final ResponseCode[] RESPONSE_CODE_VALUES = ResponseCode.values();
+  private static final HoldAction[] HOLD_ACTION_VALUES = HoldAction.values();
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private StringDictionary userIds = null;
+  private StringDictionary currencies = null;
+  private volatile Chunk[] chunks = null; // Replaced by a longer copy whenever a chunk is added, so readers never see a half-updated array
+  private volatile long size = 0; // The amount of published rows
+  private String lastMessageId = null; // The message ID of the last row, which its response shares, only used by the appending thread
+  private int lastMessageIdOffset = 0;
+  private Path directory = null; // The directory of the segment files, or null if every event stays in memory
+  private boolean temporaryDirectory = false; // Whether the directory was created by the event log, and should be deleted with it
+  private long hotRetentionNanos = 0;
+  private long warmRetentionNanos = 0;
+  private ScheduledExecutorService scheduler = null;
+
+  /**
+   * Default constructor for ColumnarEventLog, which keeps every event in memory.
+   */
+  public ColumnarEventLog() {
+    this.userIds = new StringDictionary(Integer.MAX_VALUE);
+    this.currencies = new StringDictionary(Short.MAX_VALUE);
+    this.chunks = new Chunk[0];
+  }
+
+  /**
+   * Parameterized constructor for ColumnarEventLog, which moves aged chunks into segment files, and deletes any segment files left in the directory by a previous run.
+   *
+   * @param directory String, the directory of the segment files, or an empty String for a temporary directory
+   * @param hotRetentionSeconds long, how old the newest event of a chunk is before the chunk is moved into the warm tier
+   * @param warmRetentionSeconds long, how old the newest event of a chunk is before the chunk is moved into the cold tier
+   * @param tieringIntervalSeconds long, how often chunks are moved between tiers in the background, or 0 to only move them when moveTiers is called
+   */
+  public ColumnarEventLog(String directory, long hotRetentionSeconds, long warmRetentionSeconds, long tieringIntervalSeconds) {
+    this();
+
+    try {
+      if (directory == null || directory.isBlank()) {
+        this.directory = Files.createTempDirectory("event-log");
+        this.temporaryDirectory = true;
+      }
+      else {
+        this.directory = Files.createDirectories(Path.of(directory));
+      }
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event log directory could not be created!", exception);
+    }
+
+    this.hotRetentionNanos = TimeUnit.SECONDS.toNanos(hotRetentionSeconds);
+    this.warmRetentionNanos = TimeUnit.SECONDS.toNanos(warmRetentionSeconds);
+
+    deleteSegmentFiles();
+
+    if (tieringIntervalSeconds > 0) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-log-tiering");
+        thread.setDaemon(true);
+
+        return thread;
+      });
+      scheduler.scheduleWithFixedDelay(this::moveTiersPeriodically, tieringIntervalSeconds, tieringIntervalSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Appends an event to the log. Its request must have been validated, so that its currency is set and its amount fits into minor units.
+   *
+   * @param event Event
+   * @return long containing the sequence number of the event, starting at 0.
+   * @throws IllegalArgumentException if the event is of an unknown type.
+   */
+  public long append(Event event) {
+    byte type = 0;
+    ResponseCode responseCode = null;
+    Amount amount = null;
+    String holdId = null;
+    long ttlSeconds = 0;
+
+    if (event instanceof LoadRequestEvent loadRequestEvent) {
+      type = LOAD_REQUEST;
+      amount = loadRequestEvent.getStoredRecord().getTransactionAmount();
+    }
+    else if (event instanceof AuthorizationRequestEvent authorizationRequestEvent) {
+      type = AUTHORIZATION_REQUEST;
+      amount = authorizationRequestEvent.getStoredRecord().getTransactionAmount();
+    }
+    else if (event instanceof LoadResponseEvent loadResponseEvent) {
+      type = LOAD_RESPONSE;
+      responseCode = loadResponseEvent.getStoredRecord().getResponseCode();
+      amount = loadResponseEvent.getStoredRecord().getBalance();
+    }
+    else if (event instanceof AuthorizationResponseEvent authorizationResponseEvent) {
+      type = AUTHORIZATION_RESPONSE;
+      responseCode = authorizationResponseEvent.getStoredRecord().getResponseCode();
+      amount = authorizationResponseEvent.getStoredRecord().getBalance();
+    }
+    else if (event instanceof HoldRequestEvent holdRequestEvent) {
+      type = (byte)(HOLD_REQUEST + holdRequestEvent.getStoredRecord().getAction().ordinal());
+      amount = holdRequestEvent.getStoredRecord().getTransactionAmount();
+      holdId = holdRequestEvent.getStoredRecord().getHoldId();
+      ttlSeconds = holdRequestEvent.getStoredRecord().getTtlSeconds();
+    }
+    else if (event instanceof HoldResponseEvent holdResponseEvent) {
+      type = (byte)(HOLD_RESPONSE + holdResponseEvent.getStoredRecord().getAction().ordinal());
+      responseCode = holdResponseEvent.getStoredRecord().getResponseCode();
+      amount = holdResponseEvent.getStoredRecord().getBalance();
+      holdId = holdResponseEvent.getStoredRecord().getHoldId();
+    }
+    else {
+      throw new IllegalArgumentException("Unknown event type: " + event.getClass().getName());
+    }
+
+    long sequence = size;
+    int row = (int)(sequence & (CHUNK_SIZE - 1));
+    Chunk[] currentChunks = chunks;
+
+    if (row == 0) {
+      if (currentChunks.length > 0) {
+        seal(currentChunks[currentChunks.length - 1]);
+      }
+
+      currentChunks = Arrays.copyOf(currentChunks, currentChunks.length + 1);
+      currentChunks[currentChunks.length - 1] = new Chunk();
+      chunks = currentChunks;
+      lastMessageId = null; // Message IDs are only shared within a chunk
+    }
+
+    Columns chunk = currentChunks[currentChunks.length - 1].columns; // The last chunk is only sealed once it is full
+
+    chunk.timeStamps[row] = event.getTimeStamp().getEpochSecond() * 1_000_000_000L + event.getTimeStamp().getNano();
+    chunk.users[row] = userIds.add(event.getUserId());
+    chunk.currencies[row] = amount == null ? -1 : (short)currencies.add(amount.getCurrency());
+    chunk.amounts[row] = amount == null ? 0 : amount.getMinorUnits();
+    chunk.types[row] = type;
+    chunk.responseCodes[row] = responseCode == null ? -1 : (byte)responseCode.ordinal();
+    chunk.messageIds[row] = type >= HOLD_REQUEST ? addHoldEntry(chunk, event.getMessageId(), holdId, ttlSeconds) : addMessageId(chunk, event.getMessageId());
+
+    size = sequence + 1; // Publish the row only once it is completely written
+
+    return sequence;
+  }
+
+  /**
+   * Gets a logged event by its sequence number, materialized from its row.
+   *
+   * @param sequence long
+   * @return Event object containing the event, with its original time stamp.
+   * @throws IndexOutOfBoundsException if no event with the sequence number has been published.
+   */
+  public Event get(long sequence) {
+    if (sequence < 0 || sequence >= size) {
+      throw new IndexOutOfBoundsException("No event with the sequence number " + sequence + " exists!");
+    }
+
+    Chunk chunk = chunks[(int)(sequence >>> CHUNK_SHIFT)];
+    int row = (int)(sequence & (CHUNK_SIZE - 1));
+    Columns columns = chunk.columns; // Read before the block, which is set before the columns are released, like the segment before the block
+
+    if (columns != null) {
+      ByteBuffer messageIdBytes = ByteBuffer.wrap(columns.messageIdBytes);
+      int offset = columns.messageIds[row];
+      boolean hold = columns.types[row] >= HOLD_REQUEST;
+
+      return materialize(columns.timeStamps[row], readMessageId(messageIdBytes, offset), hold ? readHoldId(messageIdBytes, offset) : null,
+                         hold ? readTtlSeconds(messageIdBytes, offset) : 0, columns.users[row], columns.currencies[row], columns.amounts[row],
+                         columns.types[row], columns.responseCodes[row]);
+    }
+
+    EventLogSegment.Block sealed = chunk.block;
+    EventLogSegment.Block block = sealed != null ? sealed : chunk.segment.block(row);
+    boolean hold = block.type(row) >= HOLD_REQUEST;
+
+    return materialize(block.timeStamp(row), block.messageId(row), hold ? block.holdId(row) : null, hold ? block.ttlSeconds(row) : 0, block.user(row),
+                       block.currency(row), block.amount(row), block.type(row), block.responseCode(row));
+  }
+
+  /**
+   * Materializes an event from the columns of its row.
+   *
+   * @param timeStampNanos long
+   * @param messageId String
+   * @param holdId String, or null for anything but a hold request or response
+   * @param ttlSeconds long
+   * @param user int
+   * @param currencyId short, or -1 for an event without an amount
+   * @param minorUnits long
+   * @param type byte
+   * @param responseCodeOrdinal byte
+   * @return Event object containing the event.
+   */
+  private Event materialize(long timeStampNanos, String messageId, String holdId, long ttlSeconds, int user, short currencyId, long minorUnits, byte type,
+                            byte responseCodeOrdinal) {
+    Instant timeStamp = Instant.ofEpochSecond(0, timeStampNanos);
+    String userId = userIds.get(user);
+    String currency = currencyId < 0 ? null : currencies.get(currencyId);
+    DebitCredit debitOrCredit = type == LOAD_REQUEST || type == LOAD_RESPONSE ? DebitCredit.CREDIT : DebitCredit.DEBIT;
+    Amount amount = currency == null ? null : new Amount(Money.format(minorUnits, currency), currency, debitOrCredit);
+    ResponseCode responseCode = responseCodeOrdinal < 0 ? null : RESPONSE_CODE_VALUES[responseCodeOrdinal];
+
+    if (type >= HOLD_RESPONSE) {
+      return new HoldResponseEvent(messageId, new HoldResponse(messageId, userId, holdId, HOLD_ACTION_VALUES[type - HOLD_RESPONSE], responseCode, amount), timeStamp);
+    }
+    else if (type >= HOLD_REQUEST) {
+      return new HoldRequestEvent(messageId, new HoldRequest(messageId, userId, holdId, HOLD_ACTION_VALUES[type - HOLD_REQUEST], amount, ttlSeconds), timeStamp);
+    }
+
+    switch (type) {
+      case LOAD_REQUEST:
+        return new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, amount), timeStamp);
+      case AUTHORIZATION_REQUEST:
+        return new AuthorizationRequestEvent(messageId, new AuthorizationRequest(messageId, userId, amount), timeStamp);
+      case LOAD_RESPONSE:
+        return new LoadResponseEvent(messageId, new LoadResponse(messageId, userId, responseCode, amount), timeStamp);
+      default:
+        return new AuthorizationResponseEvent(messageId, new AuthorizationResponse(messageId, userId, responseCode, amount), timeStamp);
+    }
+  }
+
+  /**
+   * Gets the amount of logged events.
+   *
+   * @return long containing the amount of logged events.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Gets the amount of logged events in a tier.
+   *
+   * @param tier EventLogTier
+   * @return long containing the amount of logged events in the tier.
+   */
+  public long size(EventLogTier tier) {
+    Chunk[] currentChunks = chunks;
+    long count = 0;
+
+    for (int i = 0; i < currentChunks.length; i++) {
+      Chunk chunk = currentChunks[i];
+      EventLogTier chunkTier = chunk.columns != null || chunk.block != null ? EventLogTier.HOT : chunk.segment.tier();
+
+      if (chunkTier == tier) {
+        count += Math.max(Math.min(size - ((long)i << CHUNK_SHIFT), CHUNK_SIZE), 0); // The last chunk may not be full, or may be added before its first row is published
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the amount of heap the columns and message IDs of the chunk being appended to and the dictionaries take, not counting the strings of the dictionaries.
+   *
+   * @return long containing the amount of bytes, counting every allocated row of the chunk.
+   */
+  public long allocatedBytes() {
+    long bytes = 0;
+
+    for (Chunk chunk : chunks) {
+      Columns columns = chunk.columns;
+
+      if (columns != null) {
+        bytes += (long)CHUNK_SIZE * (8 + 4 + 2 + 8 + 1 + 1 + 4) + columns.messageIdBytes.length;
+      }
+    }
+
+    return bytes + 12L * (userIds.size() + currencies.size()); // A reference and two hash slots per dictionary entry
+  }
+
+  /**
+   * Gets the amount of memory outside the heap that the blocks of the full hot chunks take.
+   *
+   * @return long containing the amount of bytes.
+   */
+  public long directBytes() {
+    long bytes = 0;
+
+    for (Chunk chunk : chunks) {
+      EventLogSegment.Block block = chunk.block;
+
+      if (block != null) {
+        bytes += block.size();
+      }
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Gets the size of the segment files of a tier.
+   *
+   * @param tier EventLogTier, either WARM or COLD
+   * @return long containing the size of the segment files in bytes.
+   */
+  public long segmentBytes(EventLogTier tier) {
+    long bytes = 0;
+
+    for (Chunk chunk : chunks) {
+      EventLogSegment segment = chunk.segment;
+
+      if (chunk.block == null && segment != null && segment.tier() == tier) {
+        bytes += segment.fileSize();
+      }
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Moves every full chunk whose newest event has aged past a retention into the next tier, which the scheduler does periodically.
+   * A hot chunk that is already older than the warm retention is moved straight into the cold tier. Does nothing without a directory.
+   *
+   * @throws UncheckedIOException if a segment file could not be written.
+   */
+  public synchronized void moveTiers() {
+    if (directory == null) {
+      return;
+    }
+
+    Chunk[] currentChunks = chunks;
+    Instant now = Instant.now();
+    long nowNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+
+    try {
+      for (int i = 0; i < currentChunks.length; i++) {
+        Chunk chunk = currentChunks[i];
+        EventLogSegment.Block block = chunk.block;
+        EventLogSegment segment = chunk.segment;
+
+        if ((block == null && segment == null) || (segment != null && segment.tier() == EventLogTier.COLD)) { // Still being appended to, or already cold
+          continue;
+        }
+
+        long age = nowNanos - (block != null ? block : segment.block(CHUNK_SIZE - 1)).timeStamp(CHUNK_SIZE - 1);
+
+        if (block != null && age > hotRetentionNanos) {
+          EventLogTier tier = age > warmRetentionNanos ? EventLogTier.COLD : EventLogTier.WARM;
+
+          chunk.segment = EventLogSegment.write(segmentFile(i, tier), block, tier);
+          chunk.block = null; // Released only once the segment is set, see get
+        }
+        else if (block == null && age > warmRetentionNanos) {
+          chunk.segment = EventLogSegment.write(segmentFile(i, EventLogTier.COLD), segment.block(0), EventLogTier.COLD);
+          Files.delete(segmentFile(i, EventLogTier.WARM)); // Readers still holding the warm segment keep its mapping
+        }
+      }
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event log chunks could not be moved between tiers!", exception);
+    }
+  }
+
+  /**
+   * Removes every logged event and deletes the segment files. Must not be called while events are being appended.
+   */
+  public synchronized void clear() {
+    chunks = new Chunk[0];
+    size = 0;
+    userIds.clear();
+    currencies.clear();
+    lastMessageId = null;
+
+    if (directory != null) {
+      deleteSegmentFiles();
+    }
+  }
+
+  /**
+   * Stops moving chunks between tiers, removes every logged event, and deletes the directory if it is a temporary directory.
+   */
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+
+      try {
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    clear();
+
+    if (temporaryDirectory) {
+      try {
+        Files.deleteIfExists(directory);
+      }
+      catch (IOException exception) {
+        throw new UncheckedIOException("The event log directory could not be deleted!", exception);
+      }
+    }
+  }
+
+  /**
+   * Encodes the columns of a full chunk into a block outside the heap, and releases the columns. Readers still holding the columns keep reading them.
+   *
+   * @param chunk Chunk
+   */
+  private static void seal(Chunk chunk) {
+    Columns columns = chunk.columns;
+
+    chunk.block = EventLogSegment.encode(CHUNK_SIZE, columns.timeStamps, columns.amounts, columns.users, columns.messageIds, columns.currencies,
+                                         columns.types, columns.responseCodes, columns.messageIdBytes, columns.messageIdSize);
+    chunk.columns = null; // Released only once the block is set, see get
+  }
+
+  /**
+   * Moves chunks between tiers from the scheduler thread, where a failure is logged instead of stopping any further moves.
+   */
+  private void moveTiersPeriodically() {
+    try {
+      moveTiers();
+    }
+    catch (RuntimeException exception) {
+      LOGGER.error("The event log chunks could not be moved between tiers!", exception);
+    }
+  }
+
+  private Path segmentFile(int chunk, EventLogTier tier) {
+    return directory.resolve(String.format("%010d%s", chunk, tier == EventLogTier.WARM ? WARM_SUFFIX : COLD_SUFFIX));
+  }
+
+  /**
+   * Deletes every segment file in the directory.
+   */
+  private void deleteSegmentFiles() {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(path -> path.getFileName().toString().endsWith(WARM_SUFFIX) || path.getFileName().toString().endsWith(COLD_SUFFIX)).toList()) {
+        Files.delete(file);
+      }
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event log segments could not be deleted!", exception);
+    }
+  }
+
+  /**
+   * Stores a message ID in a chunk as its length and UTF-8 bytes, or as a UUID, unless it is the message ID of the previous row, which it shares.
+   * The length is stored shifted left by one, with the lowest bit set for a UUID, whose length is 0.
+   *
+   * @param chunk Columns
+   * @param messageId String
+   * @return int containing the offset of the stored message ID in the chunk's message ID bytes.
+   */
+  private int addMessageId(Columns chunk, String messageId) {
+    if (messageId.equals(lastMessageId)) { // The response of the previous row's request
+      return lastMessageIdOffset;
+    }
+
+    int offset = chunk.messageIdSize;
+
+    putMessageId(chunk, messageId);
+    lastMessageId = messageId;
+    lastMessageIdOffset = offset;
+
+    return offset;
+  }
+
+  /**
+   * Stores the message ID of a hold request or response in a chunk, followed by its hold ID like another message ID, and its TTL as a variable-length integer.
+   *
+   * @param chunk Columns
+   * @param messageId String
+   * @param holdId String
+   * @param ttlSeconds long
+   * @return int containing the offset of the stored message ID in the chunk's message ID bytes.
+   */
+  private int addHoldEntry(Columns chunk, String messageId, String holdId, long ttlSeconds) {
+    int offset = chunk.messageIdSize;
+
+    putMessageId(chunk, messageId);
+    putMessageId(chunk, holdId);
+
+    byte[] bytes = chunk.messageIdSize + 10 > chunk.messageIdBytes.length ? Arrays.copyOf(chunk.messageIdBytes, chunk.messageIdBytes.length * 2) : chunk.messageIdBytes;
+    int position = chunk.messageIdSize;
+
+    for (long value = ttlSeconds; ; value >>>= 7) {
+      if (value < 0x80) {
+        bytes[position++] = (byte)value;
+        break;
+      }
+
+      bytes[position++] = (byte)(value & 0x7F | 0x80);
+    }
+
+    chunk.messageIdBytes = bytes;
+    chunk.messageIdSize = position;
+    lastMessageId = null; // The entry is only read as a whole, so the next row cannot share it
+
+    return offset;
+  }
+
+  /**
+   * Appends a message ID to a chunk's message ID bytes.
+   *
+   * @param chunk Columns
+   * @param messageId String
+   */
+  private static void putMessageId(Columns chunk, String messageId) {
+    int length = messageId.length();
+    boolean uuid = isUuid(messageId);
+    boolean ascii = true;
+
+    for (int i = 0; i < length && ascii && !uuid; i++) {
+      ascii = messageId.charAt(i) < 0x80;
+    }
+
+    byte[] utf8 = ascii ? null : messageId.getBytes(StandardCharsets.UTF_8);
+    int byteLength = uuid ? 16 : ascii ? length : utf8.length;
+    int offset = chunk.messageIdSize;
+    byte[] bytes = chunk.messageIdBytes;
+
+    if (offset + 5 + byteLength > bytes.length) { // Room for the longest length prefix
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, offset + 5 + byteLength));
+    }
+
+    int position = offset;
+
+    for (int value = uuid ? 1 : byteLength << 1; ; value >>>= 7) { // The length as a variable-length integer, 7 bits per byte
+      if (value < 0x80) {
+        bytes[position++] = (byte)value;
+        break;
+      }
+
+      bytes[position++] = (byte)(value & 0x7F | 0x80);
+    }
+
+    if (uuid) {
+      for (int i = 0; i < length; i += 2) {
+        if (messageId.charAt(i) == '-') {
+          i--; // Every hyphen is followed by a pair of hexadecimal digits
+          continue;
+        }
+
+        bytes[position++] = (byte)(Character.digit(messageId.charAt(i), 16) << 4 | Character.digit(messageId.charAt(i + 1), 16));
+      }
+    }
+    else if (ascii) {
+      for (int i = 0; i < length; i++) {
+        bytes[position++] = (byte)messageId.charAt(i);
+      }
+    }
+    else {
+      System.arraycopy(utf8, 0, bytes, position, byteLength);
+      position += byteLength;
+    }
+
+    chunk.messageIdBytes = bytes; // Published before the size, see the class comment
+    chunk.messageIdSize = position;
+  }
+
+  /**
+   * Reads a message ID stored by addMessageId.
+   *
+   * @param bytes ByteBuffer, holding the stored message ID
+   * @param offset int, the offset of the stored message ID in the buffer
+   * @return String containing the message ID.
+   */
+  static String readMessageId(ByteBuffer bytes, int offset) {
+    int length = 0;
+    int position = offset;
+
+    for (int shift = 0; ; shift += 7) {
+      byte b = bytes.get(position++);
+      length |= (b & 0x7F) << shift;
+
+      if (b >= 0) {
+        break;
+      }
+    }
+
+    if ((length & 1) == 0) {
+      byte[] utf8 = new byte[length >>> 1];
+      bytes.get(position, utf8);
+
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    char[] chars = new char[36];
+
+    for (int i = 0, j = 0; i < 16; i++) {
+      if (i == 4 || i == 6 || i == 8 || i == 10) {
+        chars[j++] = '-';
+      }
+
+      chars[j++] = HEX_DIGITS[(bytes.get(position + i) >>> 4) & 0xF];
+      chars[j++] = HEX_DIGITS[bytes.get(position + i) & 0xF];
+    }
+
+    return new String(chars);
+  }
+
+  /**
+   * Gets how many bytes a message ID stored by addMessageId takes, including its length, so that it can be copied as it is.
+   *
+   * @param bytes ByteBuffer, holding the stored message ID
+   * @param offset int, the offset of the stored message ID in the buffer
+   * @return int containing the amount of bytes.
+   */
+  static int messageIdLength(ByteBuffer bytes, int offset) {
+    int length = 0;
+    int position = offset;
+
+    for (int shift = 0; ; shift += 7) {
+      byte b = bytes.get(position++);
+      length |= (b & 0x7F) << shift;
+
+      if (b >= 0) {
+        break;
+      }
+    }
+
+    return position - offset + ((length & 1) == 0 ? length >>> 1 : 16);
+  }
+
+  /**
+   * Reads the hold ID stored by addHoldEntry after a message ID.
+   *
+   * @param bytes ByteBuffer, holding the stored message ID
+   * @param offset int, the offset of the stored message ID in the buffer
+   * @return String containing the hold ID.
+   */
+  static String readHoldId(ByteBuffer bytes, int offset) {
+    return readMessageId(bytes, offset + messageIdLength(bytes, offset));
+  }
+
+  /**
+   * Reads the TTL stored by addHoldEntry after a message ID and its hold ID.
+   *
+   * @param bytes ByteBuffer, holding the stored message ID
+   * @param offset int, the offset of the stored message ID in the buffer
+   * @return long containing the TTL in seconds.
+   */
+  static long readTtlSeconds(ByteBuffer bytes, int offset) {
+    int position = offset + messageIdLength(bytes, offset);
+    position += messageIdLength(bytes, position);
+    long ttlSeconds = 0;
+
+    for (int shift = 0; ; shift += 7) {
+      byte b = bytes.get(position++);
+      ttlSeconds |= (long)(b & 0x7F) << shift;
+
+      if (b >= 0) {
+        return ttlSeconds;
+      }
+    }
+  }
+
+  /**
+   * Gets how many bytes the stored message ID of a row takes, including the hold ID and TTL stored after the message ID of a hold request or response.
+   *
+   * @param bytes ByteBuffer, holding the stored message ID
+   * @param offset int, the offset of the stored message ID in the buffer
+   * @param type byte, the type of the row
+   * @return int containing the amount of bytes.
+   */
+  static int entryLength(ByteBuffer bytes, int offset, byte type) {
+    int position = offset + messageIdLength(bytes, offset);
+
+    if (type >= HOLD_REQUEST) {
+      position += messageIdLength(bytes, position);
+
+      while (bytes.get(position++) < 0) { // The TTL ends with the first byte without its high bit set
+      }
+    }
+
+    return position - offset;
+  }
+
+  /**
+   * Checks whether a message ID is a UUID in its canonical form, with lowercase hexadecimal digits, so that it can be stored in 16 bytes and read back unchanged.
+   *
+   * @param messageId String
+   * @return boolean containing true if the message ID is a canonical UUID.
+   */
+  private static boolean isUuid(String messageId) {
+    if (messageId.length() != 36) {
+      return false;
+    }
+
+    for (int i = 0; i < 36; i++) {
+      char c = messageId.charAt(i);
+      boolean valid = i == 8 || i == 13 || i == 18 || i == 23 ? c == '-' : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+
+      if (!valid) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Chunk class for CHUNK_SIZE rows, which are held by their columns while they are appended to, then by a block outside the heap once they are full,
+   * and in a segment file once they have been moved out of the hot tier.
+   */
+  private static final class Chunk {
+    private volatile Columns columns = new Columns(); // Null once the chunk is full
+    private volatile EventLogSegment.Block block = null; // Set once the chunk is full, and null again once it has been moved into a segment file
+    private volatile EventLogSegment segment = null;
+  }
+
+  /**
+   * Columns class for the columns of the chunk being appended to and the bytes of their message IDs.
+   */
+  private static final class Columns {
+    private long[] timeStamps = new long[CHUNK_SIZE]; // Nanoseconds since the epoch
+    private int[] users = new int[CHUNK_SIZE];
+    private short[] currencies = new short[CHUNK_SIZE];
+    private long[] amounts = new long[CHUNK_SIZE]; // In minor units of the currency
+    private byte[] types = new byte[CHUNK_SIZE];
+    private byte[] responseCodes = new byte[CHUNK_SIZE]; // The ordinal of the response code, or -1 for a request
+    private int[] messageIds = new int[CHUNK_SIZE]; // The offset of the message ID in the message ID bytes
+    private volatile byte[] messageIdBytes = new byte[INITIAL_MESSAGE_ID_BYTES];
+    private int messageIdSize = 0; // Only used by the appending thread
+  }
+}
@@ -0,0 +1,11 @@
+package dev.transactionservice.journal;
+
+/**
+ * How durable the event journal makes an event before its request is answered.
+ */
+public enum Durability {
+    NONE, // Events are not journaled at all, and are lost on restart
+    ASYNC, // Events are written once their batch is processed, and forced to disk periodically in the background
+    GROUP, // Every batch of events is forced to disk with one shared fsync before any of its requests is answered
+    SYNC // Every event is forced to disk with its own fsync before its request is answered
+}
@@ -0,0 +1,215 @@
+package dev.transactionservice.journal;
+
+import dev.transactionservice.models.*;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.time.Instant;
+
+/**
+ * EventCodec class for encoding events into a compact binary form and decoding them back, so that they can be stored outside the heap.
+ *
+ * <p> An encoded event starts with its type and time stamp, followed by the fields of its stored record.
+ * Strings are stored as their UTF-8 length and bytes, and enumerations as their ordinal, where -1 stands for null.
+ * An amount a hold request or response may not have is preceded by a byte telling whether it is there. </p>
+ */
+public final class EventCodec {
+  private static final byte LOAD_REQUEST = 1;
+  private static final byte AUTHORIZATION_REQUEST = 2;
+  private static final byte LOAD_RESPONSE = 3;
+  private static final byte AUTHORIZATION_RESPONSE = 4;
+  private static final byte HOLD_REQUEST = 5;
+  private static final byte HOLD_RESPONSE = 6;
+
+  private static final DebitCredit[] DEBIT_CREDIT_VALUES = DebitCredit.values();
+  private static final ResponseCode[] RESPONSE_CODE_VALUES = ResponseCode.values();
+  private static final HoldAction[] HOLD_ACTION_VALUES = HoldAction.values();
+
+  private EventCodec() {
+
+  }
+
+  /**
+   * Encodes an event at the current position of a buffer.
+   *
+   * @param event Event
+   * @param buffer ByteBuffer
+   * @throws java.nio.BufferOverflowException if the event does not fit into the remaining space of the buffer.
+   */
+  public static void encode(Event event, ByteBuffer buffer) {
+    if (event instanceof LoadRequestEvent loadRequestEvent) {
+      LoadRequest loadRequest = loadRequestEvent.getStoredRecord();
+
+      encodeHeader(LOAD_REQUEST, event, buffer);
+      encodeString(loadRequest.getUserId(), buffer);
+      encodeAmount(loadRequest.getTransactionAmount(), buffer);
+    }
+    else if (event instanceof AuthorizationRequestEvent authorizationRequestEvent) {
+      AuthorizationRequest authorizationRequest = authorizationRequestEvent.getStoredRecord();
+
+      encodeHeader(AUTHORIZATION_REQUEST, event, buffer);
+      encodeString(authorizationRequest.getUserId(), buffer);
+      encodeAmount(authorizationRequest.getTransactionAmount(), buffer);
+    }
+    else if (event instanceof LoadResponseEvent loadResponseEvent) {
+      LoadResponse loadResponse = loadResponseEvent.getStoredRecord();
+
+      encodeHeader(LOAD_RESPONSE, event, buffer);
+      encodeString(loadResponse.getUserId(), buffer);
+      encodeEnum(loadResponse.getResponseCode(), buffer);
+      encodeAmount(loadResponse.getBalance(), buffer);
+    }
+    else if (event instanceof AuthorizationResponseEvent authorizationResponseEvent) {
+      AuthorizationResponse authorizationResponse = authorizationResponseEvent.getStoredRecord();
+
+      encodeHeader(AUTHORIZATION_RESPONSE, event, buffer);
+      encodeString(authorizationResponse.getUserId(), buffer);
+      encodeEnum(authorizationResponse.getResponseCode(), buffer);
+      encodeAmount(authorizationResponse.getBalance(), buffer);
+    }
+    else if (event instanceof HoldRequestEvent holdRequestEvent) {
+      HoldRequest holdRequest = holdRequestEvent.getStoredRecord();
+
+      encodeHeader(HOLD_REQUEST, event, buffer);
+      encodeString(holdRequest.getUserId(), buffer);
+      encodeString(holdRequest.getHoldId(), buffer);
+      encodeEnum(holdRequest.getAction(), buffer);
+      encodeOptionalAmount(holdRequest.getTransactionAmount(), buffer);
+      buffer.putLong(holdRequest.getTtlSeconds());
+    }
+    else if (event instanceof HoldResponseEvent holdResponseEvent) {
+      HoldResponse holdResponse = holdResponseEvent.getStoredRecord();
+
+      encodeHeader(HOLD_RESPONSE, event, buffer);
+      encodeString(holdResponse.getUserId(), buffer);
+      encodeString(holdResponse.getHoldId(), buffer);
+      encodeEnum(holdResponse.getAction(), buffer);
+      encodeEnum(holdResponse.getResponseCode(), buffer);
+      encodeOptionalAmount(holdResponse.getBalance(), buffer);
+    }
+    else {
+      throw new IllegalArgumentException("Unknown event type: " + event.getClass().getName());
+    }
+  }
+
+  /**
+   * Decodes the event at the current position of a buffer, advancing the position past it.
+   *
+   * @param buffer ByteBuffer
+   * @return Event object containing the decoded event, with its original time stamp.
+   */
+  public static Event decode(ByteBuffer buffer) {
+    byte type = buffer.get();
+    Instant timeStamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+    String messageId = decodeString(buffer);
+    String userId = decodeString(buffer);
+
+    switch (type) {
+      case LOAD_REQUEST:
+        return new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, decodeAmount(buffer)), timeStamp);
+      case AUTHORIZATION_REQUEST:
+        return new AuthorizationRequestEvent(messageId, new AuthorizationRequest(messageId, userId, decodeAmount(buffer)), timeStamp);
+      case LOAD_RESPONSE: {
+        ResponseCode responseCode = decodeResponseCode(buffer);
+
+        return new LoadResponseEvent(messageId, new LoadResponse(messageId, userId, responseCode, decodeAmount(buffer)), timeStamp);
+      }
+      case AUTHORIZATION_RESPONSE: {
+        ResponseCode responseCode = decodeResponseCode(buffer);
+
+        return new AuthorizationResponseEvent(messageId, new AuthorizationResponse(messageId, userId, responseCode, decodeAmount(buffer)), timeStamp);
+      }
+      case HOLD_REQUEST: {
+        String holdId = decodeString(buffer);
+        HoldAction action = decodeHoldAction(buffer);
+        Amount transactionAmount = decodeOptionalAmount(buffer);
+
+        return new HoldRequestEvent(messageId, new HoldRequest(messageId, userId, holdId, action, transactionAmount, buffer.getLong()), timeStamp);
+      }
+      case HOLD_RESPONSE: {
+        String holdId = decodeString(buffer);
+        HoldAction action = decodeHoldAction(buffer);
+        ResponseCode responseCode = decodeResponseCode(buffer);
+
+        return new HoldResponseEvent(messageId, new HoldResponse(messageId, userId, holdId, action, responseCode, decodeOptionalAmount(buffer)), timeStamp);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown encoded event type: " + type);
+    }
+  }
+
+  private static void encodeHeader(byte type, Event event, ByteBuffer buffer) {
+    buffer.put(type);
+    buffer.putLong(event.getTimeStamp().getEpochSecond());
+    buffer.putInt(event.getTimeStamp().getNano());
+    encodeString(event.getMessageId(), buffer);
+  }
+
+  private static void encodeAmount(Amount amount, ByteBuffer buffer) {
+    encodeString(amount.getAmount(), buffer);
+    encodeString(amount.getCurrency(), buffer);
+    encodeEnum(amount.getDebitOrCredit(), buffer);
+  }
+
+  private static Amount decodeAmount(ByteBuffer buffer) {
+    String amount = decodeString(buffer);
+    String currency = decodeString(buffer);
+    byte debitOrCredit = buffer.get();
+
+    return new Amount(amount, currency, debitOrCredit < 0 ? null : DEBIT_CREDIT_VALUES[debitOrCredit]);
+  }
+
+  private static void encodeOptionalAmount(Amount amount, ByteBuffer buffer) {
+    buffer.put(amount == null ? (byte)0 : (byte)1);
+
+    if (amount != null) {
+      encodeAmount(amount, buffer);
+    }
+  }
+
+  private static Amount decodeOptionalAmount(ByteBuffer buffer) {
+    return buffer.get() == 0 ? null : decodeAmount(buffer);
+  }
+
+  private static HoldAction decodeHoldAction(ByteBuffer buffer) {
+    byte action = buffer.get();
+
+    return action < 0 ? null : HOLD_ACTION_VALUES[action];
+  }
+
+  private static ResponseCode decodeResponseCode(ByteBuffer buffer) {
+    byte responseCode = buffer.get();
+
+    return responseCode < 0 ? null : RESPONSE_CODE_VALUES[responseCode];
+  }
+
+  private static void encodeEnum(Enum<?> value, ByteBuffer buffer) {
+    buffer.put(value == null ? -1 : (byte)value.ordinal());
+  }
+
+  private static void encodeString(String value, ByteBuffer buffer) {
+    if (value == null) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String decodeString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,462 @@
+package dev.transactionservice.journal;
+
+import dev.transactionservice.models.Event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Locale;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.locks.LockSupport;
+
+import java.util.function.Consumer;
+
+import java.util.zip.CRC32C;
+
+/**
+ * EventJournal class for durably appending every processed event to a file, so that the event processor can be rebuilt on restart.
+ *
+ * <p> Each record is stored as its length, a CRC32C checksum, and the event encoded by the EventCodec.
+ * Records are buffered by the EventSequencer's writer thread and written once per batch, so that with group durability
+ * all requests of a batch share a single fsync. A record that was torn by a crash fails its checksum and is cut off on startup. </p>
+ *
+ * <p> A record torn by a failed write is cut off right away, and the records of the write stay buffered, so that the next write appends them in one piece.
+ * If the journal file cannot be cut back, the journal fails and refuses every further record, as a replay stops at the first torn record
+ * and would drop every record appended after it. </p>
+ *
+ * <p> The EventRouter creates one journal per partition, each in a directory of its own and appended to by its partition's writer thread only. </p>
+ */
+public class EventJournal {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+
+  public static final String FILE_NAME = "events.journal";
+  private static final int BUFFER_SIZE = 1 << 20; // Also the largest possible record
+  private static final int RECORD_HEADER_SIZE = 8; // The record length and checksum
+
+  private Durability durability = null;
+  private FileChannel channel = null;
+  private ByteBuffer buffer = null; // Records that have not been written to the channel yet, only used by the writer thread
+  private int lastRecordStart = 0; // The buffer position of the record appended last
+  private CRC32C checksum = null;
+  private boolean unforced = false; // Whether data was written to the channel since the last fsync
+  private volatile long writtenLength = 0; // The length of the journal file written so far
+  private volatile long durableLength = 0; // The length of the journal file known to be forced to disk
+  private volatile boolean failed = false; // Whether a torn record could not be cut off, after which nothing more is written
+  private Thread flusher = null;
+  private volatile boolean running = true;
+
+  /**
+   * Parameterized constructor for EventJournal, which opens the journal file unless the durability is none.
+   *
+   * @param durability String, one of none, async, group or sync
+   * @param directory String, the directory of the journal file
+   * @param flushIntervalMillis long, how often the journal is forced to disk with async durability
+   */
+  public EventJournal(String durability, String directory, long flushIntervalMillis) {
+    this.durability = Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+
+    if (this.durability == Durability.NONE) {
+      return;
+    }
+
+    try {
+      Path path = Path.of(directory);
+      Files.createDirectories(path);
+
+      this.channel = FileChannel.open(path.resolve(FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.checksum = new CRC32C();
+      this.writtenLength = channel.size();
+      this.durableLength = writtenLength;
+
+      channel.position(writtenLength);
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event journal could not be opened!", exception);
+    }
+
+    if (this.durability == Durability.ASYNC) {
+      this.flusher = new Thread(() -> runFlusher(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis)), "journal-flusher");
+      this.flusher.setDaemon(true);
+      this.flusher.start();
+    }
+  }
+
+  /**
+   * Gets the durability of the journal.
+   *
+   * @return Durability enumeration as NONE, ASYNC, GROUP or SYNC.
+   */
+  public Durability getDurability() {
+    return durability;
+  }
+
+  /**
+   * Gets the length of the journal file that is known to be forced to disk. Every complete record before it can be read safely.
+   *
+   * @return long containing the durable length of the journal file.
+   */
+  public long getDurableLength() {
+    return durableLength;
+  }
+
+  /**
+   * Passes every journaled event from an offset on to a consumer, in the order they were appended.
+   *
+   * <p> The journal is cut off after the last complete record, so that a record torn by a crash is overwritten by the next append.
+   * This must be called once on startup, before any event is appended. </p>
+   *
+   * @param fromOffset long, the offset of the first record to replay
+   * @param consumer Consumer&lt;Event&gt;
+   */
+  public void replay(long fromOffset, Consumer<Event> consumer) {
+    if (durability == Durability.NONE) {
+      return;
+    }
+
+    try {
+      long validLength = scan(fromOffset, Long.MAX_VALUE, consumer);
+
+      channel.truncate(validLength);
+      channel.position(validLength);
+
+      writtenLength = validLength;
+      durableLength = validLength;
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event journal could not be replayed!", exception);
+    }
+  }
+
+  /**
+   * Passes the journaled events between two offsets to a consumer, while events are still being appended.
+   *
+   * @param fromOffset long, the offset of the first record to read
+   * @param toOffset long, the offset after the last record to read, which must not be past the durable length
+   * @param consumer Consumer&lt;Event&gt;
+   * @throws IOException if the journal file could not be read, or the records between the offsets are incomplete.
+   */
+  public void read(long fromOffset, long toOffset, Consumer<Event> consumer) throws IOException {
+    if (scan(fromOffset, toOffset, consumer) != toOffset) {
+      throw new IOException("The event journal is corrupted between the offsets " + fromOffset + " and " + toOffset + "!");
+    }
+  }
+
+  /**
+   * Buffers an event as a journal record. It is only written once commit is called.
+   *
+   * @param event Event
+   * @throws IllegalStateException if the journal has failed.
+   */
+  public void append(Event event) {
+    if (durability == Durability.NONE) {
+      return;
+    }
+
+    checkNotFailed();
+
+    int start = buffer.position();
+
+    try {
+      encode(event, start);
+      lastRecordStart = start;
+    }
+    catch (BufferOverflowException exception) { // Make room by writing the buffered records, and try once more
+      buffer.position(start);
+      write();
+
+      try {
+        encode(event, 0);
+        lastRecordStart = 0;
+      }
+      catch (BufferOverflowException tooLarge) {
+        buffer.position(0);
+        throw new IllegalArgumentException("The event is too large for the event journal!");
+      }
+      catch (RuntimeException failure) {
+        buffer.position(0);
+        throw failure;
+      }
+    }
+    catch (RuntimeException exception) { // Drop the partly encoded record, so that the next record starts where it did
+      buffer.position(start);
+      throw exception;
+    }
+  }
+
+  /**
+   * Drops the record appended last, which is still buffered, such as the record of an event that failed to be processed.
+   * Must be called before anything else is appended.
+   */
+  public void discardLast() {
+    if (durability == Durability.NONE) {
+      return;
+    }
+
+    buffer.position(lastRecordStart);
+  }
+
+  /**
+   * Writes every buffered record to the journal file and, unless the durability is async, forces it to disk.
+   *
+   * @throws IllegalStateException if the journal has failed.
+   */
+  public void commit() {
+    if (durability == Durability.NONE) {
+      return;
+    }
+
+    checkNotFailed();
+    write();
+
+    if (durability != Durability.ASYNC && unforced) {
+      force();
+    }
+  }
+
+  /**
+   * Writes and forces any buffered records, stops the flusher thread and closes the journal file, which the EventRouter does once the application shuts down.
+   * A journal that has failed is closed without writing anything more.
+   */
+  public void close() {
+    if (durability == Durability.NONE) {
+      return;
+    }
+
+    running = false;
+
+    if (flusher != null) {
+      LockSupport.unpark(flusher);
+
+      try {
+        flusher.join(TimeUnit.SECONDS.toMillis(1));
+      }
+      catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    try {
+      if (!failed) {
+        write();
+        force();
+      }
+    }
+    finally {
+      closeChannel();
+    }
+  }
+
+  private void checkNotFailed() {
+    if (failed) {
+      throw new IllegalStateException("The event journal has failed, and accepts no more events!");
+    }
+  }
+
+  private void closeChannel() {
+    try {
+      channel.close();
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event journal could not be closed!", exception);
+    }
+  }
+
+  /**
+   * Encodes an event as a record at a position of the buffer, filling in its length and checksum once its size is known.
+   *
+   * @param event Event
+   * @param start int
+   */
+  private void encode(Event event, int start) {
+    buffer.position(start + RECORD_HEADER_SIZE);
+    EventCodec.encode(event, buffer);
+
+    int length = buffer.position() - start - RECORD_HEADER_SIZE;
+
+    checksum.reset();
+    checksum.update(buffer.slice(start + RECORD_HEADER_SIZE, length));
+
+    buffer.putInt(start, length);
+    buffer.putInt(start + 4, (int)checksum.getValue());
+  }
+
+  /**
+   * Writes every buffered record to the journal file, without forcing it to disk.
+   *
+   * <p> The written length only moves once every record is written, so the flusher thread never reports a torn record as durable.
+   * If the write fails, whatever part of it reached the file is cut off again, and every record stays in the buffer. </p>
+   */
+  private void write() {
+    int pending = buffer.position();
+    long written = 0;
+
+    buffer.flip();
+
+    try {
+      while (buffer.hasRemaining()) {
+        written += channel.write(buffer);
+      }
+    }
+    catch (IOException exception) {
+      buffer.limit(buffer.capacity()).position(pending); // Keep every record, including the part that reached the file
+      cutOff(exception);
+
+      throw new UncheckedIOException("The event journal could not be written!", exception);
+    }
+
+    buffer.clear();
+
+    writtenLength += written;
+    unforced |= written > 0;
+  }
+
+  /**
+   * Cuts the journal file back to its written length after a failed write, so that the next write does not follow a torn record,
+   * or fails the journal if the file cannot be cut back.
+   *
+   * @param writeException IOException, which any failure to cut the file back is added to
+   */
+  private void cutOff(IOException writeException) {
+    try {
+      channel.truncate(writtenLength);
+      channel.position(writtenLength);
+    }
+    catch (IOException exception) {
+      writeException.addSuppressed(exception);
+      failed = true;
+
+      LOGGER.error("The event journal could not be cut back after a failed write, and accepts no more events!", exception);
+    }
+  }
+
+  /**
+   * Forces everything written to the journal file to disk.
+   */
+  private void force() {
+    try {
+      long length = writtenLength;
+      unforced = false;
+      channel.force(false);
+      durableLength = length;
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The event journal could not be forced to disk!", exception);
+    }
+  }
+
+  /**
+   * The flusher thread's loop, which forces the journal file to disk at a fixed interval for async durability.
+   *
+   * @param intervalNanos long
+   */
+  private void runFlusher(long intervalNanos) {
+    while (running) {
+      LockSupport.parkNanos(intervalNanos);
+
+      try {
+        long length = writtenLength;
+        channel.force(false);
+        durableLength = length;
+      }
+      catch (IOException exception) {
+        LOGGER.error("The event journal could not be forced to disk!", exception);
+      }
+    }
+  }
+
+  /**
+   * Reads the journal file from an offset, until another offset, the end, or the first incomplete or corrupted record.
+   *
+   * @param fromOffset long
+   * @param toOffset long
+   * @param consumer Consumer&lt;Event&gt;
+   * @return long containing the offset after the last valid record that was read.
+   * @throws IOException if the journal file could not be read.
+   */
+  private long scan(long fromOffset, long toOffset, Consumer<Event> consumer) throws IOException {
+    ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    CRC32C readChecksum = new CRC32C();
+    long readPosition = fromOffset; // The file position the next read starts from
+    long recordPosition = fromOffset; // The file position of the next record
+
+    readBuffer.limit(0);
+
+    while (recordPosition < toOffset) {
+      if (readBuffer.remaining() < RECORD_HEADER_SIZE) {
+        readPosition = fill(readBuffer, readPosition);
+      }
+
+      if (readBuffer.remaining() < RECORD_HEADER_SIZE) {
+        break;
+      }
+
+      int length = readBuffer.getInt(readBuffer.position());
+      int expectedChecksum = readBuffer.getInt(readBuffer.position() + 4);
+
+      if (length <= 0 || length > BUFFER_SIZE - RECORD_HEADER_SIZE) {
+        break;
+      }
+
+      if (readBuffer.remaining() < RECORD_HEADER_SIZE + length) {
+        readPosition = fill(readBuffer, readPosition);
+      }
+
+      if (readBuffer.remaining() < RECORD_HEADER_SIZE + length) {
+        break;
+      }
+
+      ByteBuffer record = readBuffer.slice(readBuffer.position() + RECORD_HEADER_SIZE, length);
+
+      readChecksum.reset();
+      readChecksum.update(record.duplicate());
+
+      if ((int)readChecksum.getValue() != expectedChecksum) {
+        break;
+      }
+
+      consumer.accept(EventCodec.decode(record));
+
+      readBuffer.position(readBuffer.position() + RECORD_HEADER_SIZE + length);
+      recordPosition += RECORD_HEADER_SIZE + length;
+    }
+
+    return recordPosition;
+  }
+
+  /**
+   * Moves the unread bytes of a read buffer to its start, and fills the rest of it from the journal file.
+   *
+   * @param readBuffer ByteBuffer
+   * @param readPosition long
+   * @return long containing the file position the next read starts from.
+   * @throws IOException if the journal file could not be read.
+   */
+  private long fill(ByteBuffer readBuffer, long readPosition) throws IOException {
+    readBuffer.compact();
+
+    int read = 0;
+
+    while (readBuffer.hasRemaining() && (read = channel.read(readBuffer, readPosition)) > 0) {
+      readPosition += read;
+    }
+
+    readBuffer.flip();
+
+    return readPosition;
+  }
+}
@@ -0,0 +1,429 @@
+package dev.transactionservice.journal;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * EventLogSegment class for a chunk of the ColumnarEventLog that has been moved out of memory into a segment file of the warm or cold tier.
+ *
+ * <p> A segment file holds a header, an index with the offset and lengths of every block, and the blocks. A block holds the columns of consecutive rows,
+ * one column after the other: time stamps, amounts, user IDs, message ID offsets, currency IDs, types and response codes, followed by the message IDs
+ * of its rows, stored the same way as in the ColumnarEventLog. A warm segment is a single uncompressed block of every row, which is read straight
+ * from the memory-mapped file. A cold segment is split into blocks of BLOCK_ROWS rows, each compressed on its own, so reading an event only
+ * decompresses the block of its row. </p>
+ *
+ * <p> A segment file is written once and never modified, so any thread may read it without a lock. The file stays mapped until the segment
+ * is garbage collected, so readers still holding a segment can read it even after the chunk has moved to the next tier and the file was deleted. </p>
+ */
+public class EventLogSegment {
+  public static final int BLOCK_ROWS = 1024; // Rows per compressed block of a cold segment
+
+  private static final int MAGIC = 0x45564C53; // "EVLS"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 20; // Magic, version, tier, rows and block count
+  private static final int INDEX_ENTRY_SIZE = 16; // Offset of the block, its stored length and its uncompressed length
+  private static final int ROW_SIZE = 8 + 8 + 4 + 4 + 2 + 1 + 1; // The columns of one row, without its message ID
+
+  private EventLogTier tier = null;
+  private int rows = 0;
+  private MappedByteBuffer buffer = null;
+  private Block warmBlock = null; // The only block of a warm segment, which is read in place
+  private volatile Block lastBlock = null; // The last decompressed block of a cold segment, as the events of a page are often close to each other
+
+  /**
+   * Parameterized constructor for EventLogSegment, for a segment file that has been written and mapped.
+   *
+   * @param buffer MappedByteBuffer, the whole segment file
+   */
+  private EventLogSegment(MappedByteBuffer buffer) {
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IllegalStateException("The event log segment has an unknown format!");
+    }
+
+    this.buffer = buffer;
+    this.tier = EventLogTier.values()[buffer.getInt(8)];
+    this.rows = buffer.getInt(12);
+
+    if (tier == EventLogTier.WARM) {
+      int offset = (int)buffer.getLong(HEADER_SIZE);
+      this.warmBlock = new Block(buffer.slice(offset, buffer.getInt(HEADER_SIZE + 12)), 0, rows);
+    }
+  }
+
+  /**
+   * Encodes the columns of a full chunk into a block in a direct buffer outside the heap, which holds the chunk's hot rows and which segment files are written from.
+   *
+   * @param rows int, how many rows of the columns are used
+   * @param timeStamps long[]
+   * @param amounts long[]
+   * @param users int[]
+   * @param messageIds int[], the offsets of the message IDs in the message ID bytes
+   * @param currencies short[]
+   * @param types byte[]
+   * @param responseCodes byte[]
+   * @param messageIdBytes byte[]
+   * @param messageIdSize int, how many of the message ID bytes are used
+   * @return Block object containing every row of the columns.
+   */
+  public static Block encode(int rows, long[] timeStamps, long[] amounts, int[] users, int[] messageIds, short[] currencies,
+                             byte[] types, byte[] responseCodes, byte[] messageIdBytes, int messageIdSize) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(rows * ROW_SIZE + messageIdSize);
+
+    for (int row = 0; row < rows; row++) {
+      buffer.putLong(row * 8, timeStamps[row]);
+      buffer.putLong(rows * 8 + row * 8, amounts[row]);
+      buffer.putInt(rows * 16 + row * 4, users[row]);
+      buffer.putInt(rows * 20 + row * 4, messageIds[row]);
+      buffer.putShort(rows * 24 + row * 2, currencies[row]);
+      buffer.put(rows * 26 + row, types[row]);
+      buffer.put(rows * 27 + row, responseCodes[row]);
+    }
+
+    buffer.put(rows * ROW_SIZE, messageIdBytes, 0, messageIdSize);
+
+    return new Block(buffer, 0, rows);
+  }
+
+  /**
+   * Writes a block of every row of a chunk into a new segment file of a tier, and maps it.
+   *
+   * @param file Path
+   * @param block Block, starting at the first row of the chunk
+   * @param tier EventLogTier, which must be WARM or COLD
+   * @return EventLogSegment object reading the new segment file.
+   * @throws IOException if the segment file could not be written.
+   * @throws IllegalArgumentException if the tier is HOT.
+   */
+  public static EventLogSegment write(Path file, Block block, EventLogTier tier) throws IOException {
+    if (tier == EventLogTier.HOT) {
+      throw new IllegalArgumentException("Hot events are not stored in segment files!");
+    }
+
+    List<ByteBuffer> storedBlocks = new ArrayList<ByteBuffer>();
+    List<Integer> lengths = new ArrayList<Integer>();
+
+    if (tier == EventLogTier.WARM) {
+      storedBlocks.add(block.buffer.duplicate().clear());
+      lengths.add(block.buffer.capacity());
+    }
+    else {
+      for (int firstRow = 0; firstRow < block.rows; firstRow += BLOCK_ROWS) {
+        ByteBuffer part = block.copyRows(firstRow, Math.min(firstRow + BLOCK_ROWS, block.rows));
+
+        lengths.add(part.capacity());
+        storedBlocks.add(compress(part));
+      }
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + storedBlocks.size() * INDEX_ENTRY_SIZE);
+    long offset = header.capacity();
+
+    header.putInt(MAGIC).putInt(VERSION).putInt(tier.ordinal()).putInt(block.rows).putInt(storedBlocks.size());
+
+    for (int i = 0; i < storedBlocks.size(); i++) {
+      header.putLong(offset).putInt(storedBlocks.get(i).remaining()).putInt(lengths.get(i));
+      offset += storedBlocks.get(i).remaining();
+    }
+
+    header.flip();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer[] buffers = new ByteBuffer[storedBlocks.size() + 1];
+      buffers[0] = header;
+
+      for (int i = 0; i < storedBlocks.size(); i++) {
+        buffers[i + 1] = storedBlocks.get(i);
+      }
+
+      while (channel.position() < offset) {
+        channel.write(buffers);
+      }
+
+      return new EventLogSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, offset));
+    }
+  }
+
+  /**
+   * Gets the tier of the segment.
+   *
+   * @return EventLogTier, either WARM or COLD.
+   */
+  public EventLogTier tier() {
+    return tier;
+  }
+
+  /**
+   * Gets the amount of rows in the segment.
+   *
+   * @return int containing the amount of rows.
+   */
+  public int rows() {
+    return rows;
+  }
+
+  /**
+   * Gets the size of the segment file.
+   *
+   * @return long containing the size in bytes.
+   */
+  public long fileSize() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Gets the block holding a row, decompressing it if the segment is cold.
+   *
+   * @param row int, the row in the chunk
+   * @return Block object containing the row.
+   */
+  public Block block(int row) {
+    if (warmBlock != null) {
+      return warmBlock;
+    }
+
+    int index = row / BLOCK_ROWS;
+    Block cached = lastBlock;
+
+    if (cached != null && cached.firstRow == index * BLOCK_ROWS) {
+      return cached;
+    }
+
+    int entry = HEADER_SIZE + index * INDEX_ENTRY_SIZE;
+    ByteBuffer stored = buffer.slice((int)buffer.getLong(entry), buffer.getInt(entry + 8));
+    ByteBuffer decompressed = ByteBuffer.allocate(buffer.getInt(entry + 12));
+    Inflater inflater = new Inflater();
+
+    try {
+      inflater.setInput(stored);
+
+      while (decompressed.hasRemaining() && !inflater.finished()) {
+        if (inflater.inflate(decompressed) == 0 && inflater.needsInput()) {
+          throw new IllegalStateException("The event log segment is truncated!");
+        }
+      }
+    }
+    catch (DataFormatException exception) {
+      throw new IllegalStateException("The event log segment could not be decompressed!", exception);
+    }
+    finally {
+      inflater.end();
+    }
+
+    Block block = new Block(decompressed, index * BLOCK_ROWS, Math.min(BLOCK_ROWS, rows - index * BLOCK_ROWS));
+    lastBlock = block;
+
+    return block;
+  }
+
+  /**
+   * Compresses an encoded block.
+   *
+   * @param block ByteBuffer
+   * @return ByteBuffer containing the compressed block, ready to be written.
+   */
+  private static ByteBuffer compress(ByteBuffer block) {
+    Deflater deflater = new Deflater();
+    ByteBuffer compressed = ByteBuffer.allocate(block.capacity() + block.capacity() / 1000 + 64); // Deflate's bound for incompressible input
+
+    try {
+      deflater.setInput(block.duplicate().clear());
+      deflater.finish();
+
+      while (!deflater.finished()) {
+        if (!compressed.hasRemaining()) {
+          ByteBuffer larger = ByteBuffer.allocate(compressed.capacity() * 2);
+          compressed = larger.put(compressed.flip());
+        }
+
+        deflater.deflate(compressed);
+      }
+    }
+    finally {
+      deflater.end();
+    }
+
+    return compressed.flip();
+  }
+
+  /**
+   * Block class for the columns of consecutive rows of a chunk, encoded into a buffer, which every row of the chunk is read from by its row in the chunk.
+   */
+  public static final class Block {
+    private ByteBuffer buffer = null;
+    private int firstRow = 0;
+    private int rows = 0;
+
+    private Block(ByteBuffer buffer, int firstRow, int rows) {
+      this.buffer = buffer;
+      this.firstRow = firstRow;
+      this.rows = rows;
+    }
+
+    /**
+     * Gets the size of the block's buffer.
+     *
+     * @return int containing the size in bytes.
+     */
+    public int size() {
+      return buffer.capacity();
+    }
+
+    /**
+     * Gets the time stamp of a row, in nanoseconds since the epoch.
+     *
+     * @param row int, the row in the chunk
+     * @return long containing the time stamp of a row, in nanoseconds since the epoch.
+     */
+    public long timeStamp(int row) {
+      return buffer.getLong((row - firstRow) * 8);
+    }
+
+    /**
+     * Gets the amount of a row, in minor units of its currency.
+     *
+     * @param row int, the row in the chunk
+     * @return long containing the amount of a row, in minor units of its currency.
+     */
+    public long amount(int row) {
+      return buffer.getLong(rows * 8 + (row - firstRow) * 8);
+    }
+
+    /**
+     * Gets the user ID of a row, in the user dictionary of the event log.
+     *
+     * @param row int, the row in the chunk
+     * @return int containing the user ID of a row, in the user dictionary of the event log.
+     */
+    public int user(int row) {
+      return buffer.getInt(rows * 16 + (row - firstRow) * 4);
+    }
+
+    /**
+     * Gets the currency of a row, in the currency dictionary of the event log.
+     *
+     * @param row int, the row in the chunk
+     * @return short containing the currency of a row, in the currency dictionary of the event log.
+     */
+    public short currency(int row) {
+      return buffer.getShort(rows * 24 + (row - firstRow) * 2);
+    }
+
+    /**
+     * Gets the type of a row's event.
+     *
+     * @param row int, the row in the chunk
+     * @return byte containing the type of a row's event.
+     */
+    public byte type(int row) {
+      return buffer.get(rows * 26 + row - firstRow);
+    }
+
+    /**
+     * Gets the response code ordinal of a row, or -1 for a request.
+     *
+     * @param row int, the row in the chunk
+     * @return byte containing the response code ordinal of a row, or -1 for a request.
+     */
+    public byte responseCode(int row) {
+      return buffer.get(rows * 27 + row - firstRow);
+    }
+
+    /**
+     * Gets the message ID of a row.
+     *
+     * @param row int, the row in the chunk
+     * @return String containing the message ID of a row.
+     */
+    public String messageId(int row) {
+      return ColumnarEventLog.readMessageId(buffer, rows * ROW_SIZE + messageIdOffset(row));
+    }
+
+    /**
+     * Gets the hold ID of a hold request or response row.
+     *
+     * @param row int, the row in the chunk
+     * @return String containing the hold ID of a row.
+     */
+    public String holdId(int row) {
+      return ColumnarEventLog.readHoldId(buffer, rows * ROW_SIZE + messageIdOffset(row));
+    }
+
+    /**
+     * Gets the TTL of a hold request or response row, which is 0 for anything but a hold.
+     *
+     * @param row int, the row in the chunk
+     * @return long containing the TTL of a row, in seconds.
+     */
+    public long ttlSeconds(int row) {
+      return ColumnarEventLog.readTtlSeconds(buffer, rows * ROW_SIZE + messageIdOffset(row));
+    }
+
+    private int messageIdOffset(int row) {
+      return buffer.getInt(rows * 20 + (row - firstRow) * 4);
+    }
+
+    /**
+     * Copies some of the block's rows into a block of their own, with only their own message IDs.
+     *
+     * @param from int, the first copied row in the chunk
+     * @param to int, the row after the last copied row
+     * @return ByteBuffer containing the encoded rows.
+     */
+    private ByteBuffer copyRows(int from, int to) {
+      int count = to - from;
+      int messageIdStart = rows * ROW_SIZE;
+      int messageIdSize = 0;
+      int lastOffset = -1;
+
+      for (int row = from; row < to; row++) {
+        if (messageIdOffset(row) != lastOffset) { // A response shares the message ID of its request
+          lastOffset = messageIdOffset(row);
+          messageIdSize += ColumnarEventLog.entryLength(buffer, messageIdStart + lastOffset, type(row));
+        }
+      }
+
+      ByteBuffer copy = ByteBuffer.allocate(count * ROW_SIZE + messageIdSize);
+      int position = count * ROW_SIZE;
+      int copiedOffset = 0; // The offset of the last copied message ID in the copy
+      lastOffset = -1;
+
+      for (int row = from; row < to; row++) {
+        int i = row - from;
+
+        copy.putLong(i * 8, timeStamp(row));
+        copy.putLong(count * 8 + i * 8, amount(row));
+        copy.putInt(count * 16 + i * 4, user(row));
+        copy.putShort(count * 24 + i * 2, currency(row));
+        copy.put(count * 26 + i, type(row));
+        copy.put(count * 27 + i, responseCode(row));
+
+        if (messageIdOffset(row) != lastOffset) {
+          lastOffset = messageIdOffset(row);
+          int length = ColumnarEventLog.entryLength(buffer, messageIdStart + lastOffset, type(row));
+
+          copy.put(position, buffer, messageIdStart + lastOffset, length);
+          copiedOffset = position - count * ROW_SIZE;
+          position += length;
+        }
+
+        copy.putInt(count * 20 + i * 4, copiedOffset);
+      }
+
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package dev.transactionservice.journal;
+
+/**
+ * Where the columnar event log keeps a chunk of logged events, which moves to the next tier as its events age.
+ */
+public enum EventLogTier {
+    HOT, // The events are kept in memory, as columns of primitive arrays
+    WARM, // The events are kept in an uncompressed, memory-mapped segment file
+    COLD // The events are kept in a segment file of compressed blocks, which are decompressed when they are read
+}
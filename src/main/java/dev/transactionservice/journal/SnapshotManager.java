@@ -0,0 +1,567 @@
+package dev.transactionservice.journal;
+
+import dev.transactionservice.models.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.function.Consumer;
+
+import java.util.stream.Stream;
+
+/**
+ * SnapshotManager class for periodically snapshotting the balances and message IDs, so that a restart only replays the journal after the latest snapshot.
+ *
+ * <p> A snapshot is tagged with the journal offset and the amount of events it covers. Its balances and open holds are split into shards by user ID,
+ * and its idempotency window of recent message IDs is written to a file of its own, which are all written and loaded in parallel.
+ * A snapshot is never taken from the live event processor: every shard and the window are built from the previous snapshot plus
+ * the journaled events after it, on a background thread, so the writer thread is never paused. </p>
+ *
+ * <p> The window accepts a message ID depending only on the message IDs before it, so reserving the journaled message IDs in order
+ * rebuilds the same window the writer thread had at the same offset. </p>
+ *
+ * <p> The EventRouter creates one snapshot manager per partition, which snapshots the partition's journal into its own directory,
+ * and whose metrics are tagged with the partition. </p>
+ */
+public class SnapshotManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotManager.class);
+
+  private static final int MAGIC = 0x534E4150; // "SNAP"
+  private static final int VERSION = 4;
+  private static final String WINDOW_FILE = "window.snapshot";
+  private static final String COMPLETE_MARKER = "complete"; // Written last, so that a snapshot without it is incomplete and ignored
+
+  private EventJournal eventJournal = null;
+  private Path directory = null;
+  private int shardCount = 0;
+  private long intervalSeconds = 0;
+  private int exactMessageIds = 0;
+  private int filteredGenerations = 0;
+  private double falsePositiveRate = 0;
+  private Timer snapshotTimer = null;
+  private Timer recoveryTimer = null;
+  private AtomicLong snapshotEvents = null; // The amount of events covered by the latest snapshot
+  private AtomicLong replayedEvents = null; // The amount of events replayed from the journal on the last startup
+  private volatile Snapshot latest = null;
+  private ScheduledExecutorService scheduler = null;
+
+  /**
+   * Parameterized constructor for SnapshotManager.
+   *
+   * @param eventJournal EventJournal
+   * @param journalDirectory String, the directory of the journal, which snapshots are stored in a subdirectory of
+   * @param intervalSeconds long, how often a snapshot is taken, or 0 to never take one
+   * @param shardCount int, how many files the balances of every snapshot are split into
+   * @param exactMessageIds int, the same setting as the event processor's idempotency window
+   * @param filteredGenerations int, the same setting as the event processor's idempotency window
+   * @param falsePositiveRate double, the same setting as the event processor's idempotency window
+   * @param meterRegistry MeterRegistry
+   * @param partition int, the partition whose journal is snapshotted, used to tag the metrics
+   */
+  public SnapshotManager(EventJournal eventJournal, String journalDirectory, long intervalSeconds, int shardCount,
+                         int exactMessageIds, int filteredGenerations, double falsePositiveRate, MeterRegistry meterRegistry, int partition) {
+    String partitionTag = Integer.toString(partition);
+
+    this.eventJournal = eventJournal;
+    this.directory = Path.of(journalDirectory).resolve("snapshots");
+    this.intervalSeconds = intervalSeconds;
+    this.shardCount = Math.max(shardCount, 1);
+    this.exactMessageIds = exactMessageIds;
+    this.filteredGenerations = filteredGenerations;
+    this.falsePositiveRate = falsePositiveRate;
+    this.snapshotEvents = new AtomicLong();
+    this.replayedEvents = new AtomicLong();
+
+    this.snapshotTimer = Timer.builder("transactionservice.snapshot.duration")
+        .description("Time taken to write a snapshot of the balances and message IDs")
+        .tag("partition", partitionTag)
+        .register(meterRegistry);
+    this.recoveryTimer = Timer.builder("transactionservice.recovery.duration")
+        .description("Time taken to load the latest snapshot and replay the journal after it on startup")
+        .tag("partition", partitionTag)
+        .register(meterRegistry);
+
+    Gauge.builder("transactionservice.snapshot.events", snapshotEvents, AtomicLong::get)
+        .description("Amount of events covered by the latest snapshot")
+        .tag("partition", partitionTag)
+        .register(meterRegistry);
+    Gauge.builder("transactionservice.recovery.replayed.events", replayedEvents, AtomicLong::get)
+        .description("Amount of events replayed from the journal on startup")
+        .tag("partition", partitionTag)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Rebuilds the event processor from the latest snapshot and the journaled events after it, and starts taking snapshots periodically.
+   *
+   * <p> The event processor only logs the replayed events, so its event log starts at the latest snapshot. </p>
+   *
+   * @param eventProcessor EventProcessor
+   */
+  public void recover(EventProcessor eventProcessor) {
+    if (eventJournal.getDurability() == Durability.NONE) {
+      return;
+    }
+
+    long start = System.nanoTime();
+
+    try {
+      latest = findLatestSnapshot();
+
+      if (latest != null) {
+        load(latest, eventProcessor);
+        snapshotEvents.set(latest.eventCount());
+      }
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The latest snapshot could not be loaded!", exception);
+    }
+
+    eventJournal.replay(latest == null ? 0 : latest.journalOffset(), event -> {
+      eventProcessor.reserveMessageId(event.getMessageId()); // A response event has the message ID of its request, which is already reserved
+      eventProcessor.processEvent(event);
+      replayedEvents.incrementAndGet();
+    });
+
+    recoveryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    if (intervalSeconds > 0) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshotter");
+        thread.setDaemon(true);
+
+        return thread;
+      });
+      scheduler.scheduleWithFixedDelay(this::snapshotPeriodically, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Takes a snapshot covering every event that is durable in the journal, unless no event was journaled since the latest snapshot.
+   *
+   * @throws IOException if the snapshot could not be written.
+   */
+  public void snapshot() throws IOException {
+    Snapshot previous = latest;
+    long fromOffset = previous == null ? 0 : previous.journalOffset();
+    long toOffset = eventJournal.getDurableLength();
+
+    if (toOffset <= fromOffset) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    Path snapshotDirectory = directory.resolve(String.format("%020d", toOffset));
+    AtomicLong newEvents = new AtomicLong();
+
+    Files.createDirectories(snapshotDirectory);
+
+    runInParallel(shardCount + 1, shard -> { // The last task builds the window
+      if (shard == shardCount) {
+        buildWindow(previous, fromOffset, toOffset, snapshotDirectory, newEvents);
+      }
+      else {
+        buildShard(previous, shard, fromOffset, toOffset, snapshotDirectory);
+      }
+
+      return null;
+    });
+
+    Snapshot snapshot = new Snapshot(snapshotDirectory, toOffset, (previous == null ? 0 : previous.eventCount()) + newEvents.get(), shardCount);
+    writeMarker(snapshot);
+
+    latest = snapshot;
+    snapshotEvents.set(snapshot.eventCount());
+    deleteSnapshotsExcept(snapshotDirectory);
+
+    snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops taking snapshots, waiting for a snapshot in progress to finish, which the EventRouter does once the application shuts down.
+   */
+  public void shutdown() {
+    if (scheduler == null) {
+      return;
+    }
+
+    scheduler.shutdown();
+
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Takes a snapshot from the scheduler thread, where a failure is logged instead of stopping any further snapshots.
+   */
+  private void snapshotPeriodically() {
+    try {
+      snapshot();
+    }
+    catch (IOException | RuntimeException exception) {
+      LOGGER.error("The snapshot could not be written!", exception);
+    }
+  }
+
+  /**
+   * Builds one shard of a new snapshot from the previous snapshot and the journaled events after it.
+   *
+   * @param previous Snapshot, or null if there is no previous snapshot
+   * @param shard int
+   * @param fromOffset long
+   * @param toOffset long
+   * @param snapshotDirectory Path
+   * @throws IOException if the previous snapshot or the journal could not be read, or the shard could not be written.
+   */
+  private void buildShard(Snapshot previous, int shard, long fromOffset, long toOffset, Path snapshotDirectory) throws IOException {
+    Ledger balances = new Ledger();
+
+    if (previous != null) {
+      boolean sameSharding = previous.shardCount() == shardCount; // Otherwise every previous shard has to be filtered for this shard's entries
+
+      for (int previousShard = sameSharding ? shard : 0; previousShard < (sameSharding ? shard + 1 : previous.shardCount()); previousShard++) {
+        readShard(shardFile(previous.directory(), previousShard), (userId, currency, balance) -> {
+          if (userShard(userId) == shard) {
+            balances.setBalance(userId, currency, balance);
+          }
+        }, hold -> {
+          if (userShard(hold.getUserId()) == shard) {
+            balances.restoreHold(hold);
+          }
+        });
+      }
+    }
+
+    eventJournal.read(fromOffset, toOffset, event -> {
+      // Applying the request events of this shard's users to its own ledger gives the same balances and holds as the live ledger at the same offset,
+      // as every expired hold is released by a journaled event, while the holds of this ledger never expire on their own
+      if (event instanceof LoadRequestEvent loadRequestEvent && userShard(loadRequestEvent.getStoredRecord().getUserId()) == shard) {
+        event.process(balances);
+      }
+      else if (event instanceof AuthorizationRequestEvent authorizationRequestEvent && userShard(authorizationRequestEvent.getStoredRecord().getUserId()) == shard) {
+        event.process(balances);
+      }
+      else if (event instanceof HoldRequestEvent holdRequestEvent && userShard(holdRequestEvent.getStoredRecord().getUserId()) == shard) {
+        event.process(balances);
+      }
+    });
+
+    try (FileOutputStream file = new FileOutputStream(shardFile(snapshotDirectory, shard).toFile());
+         DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(balances.size());
+
+      balances.forEach((userId, currency, balance) -> {
+        try {
+          writeString(output, userId);
+          writeString(output, currency);
+          output.writeLong(balance);
+        }
+        catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+
+      output.writeInt(balances.holdCount());
+
+      balances.forEachHold(hold -> {
+        try {
+          writeString(output, hold.getHoldId());
+          writeString(output, hold.getUserId());
+          writeString(output, hold.getCurrency());
+          output.writeLong(hold.getAmount());
+          output.writeLong(hold.getExpiresAtMillis());
+        }
+        catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+
+      output.flush();
+      file.getFD().sync();
+    }
+    catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  /**
+   * Builds the idempotency window of a new snapshot by reserving the message IDs of the journaled events after the previous snapshot in order.
+   *
+   * @param previous Snapshot, or null if there is no previous snapshot
+   * @param fromOffset long
+   * @param toOffset long
+   * @param snapshotDirectory Path
+   * @param eventCounter AtomicLong, which counts the journaled events
+   * @throws IOException if the previous snapshot or the journal could not be read, or the window could not be written.
+   */
+  private void buildWindow(Snapshot previous, long fromOffset, long toOffset, Path snapshotDirectory, AtomicLong eventCounter) throws IOException {
+    IdempotencyWindow window = previous == null ? newWindow() : readWindow(previous.directory());
+
+    eventJournal.read(fromOffset, toOffset, event -> {
+      eventCounter.incrementAndGet();
+      window.reserve(event.getMessageId());
+    });
+
+    try (FileOutputStream file = new FileOutputStream(snapshotDirectory.resolve(WINDOW_FILE).toFile());
+         DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      window.write(output);
+      output.flush();
+      file.getFD().sync();
+    }
+  }
+
+  /**
+   * Loads every shard and the window of a snapshot into the event processor in parallel.
+   *
+   * @param snapshot Snapshot
+   * @param eventProcessor EventProcessor
+   * @throws IOException if a shard or the window could not be read.
+   */
+  private void load(Snapshot snapshot, EventProcessor eventProcessor) throws IOException {
+    List<IdempotencyWindow> windows = runInParallel(snapshot.shardCount() + 1, shard -> {
+      if (shard == snapshot.shardCount()) {
+        return readWindow(snapshot.directory());
+      }
+
+      readShard(shardFile(snapshot.directory(), shard), eventProcessor::restoreBalance, eventProcessor::restoreHold);
+
+      return null;
+    });
+
+    eventProcessor.restoreMessageIds(windows.get(snapshot.shardCount()));
+  }
+
+  /**
+   * Reads a snapshot shard.
+   *
+   * @param file Path
+   * @param balanceConsumer Ledger.BalanceConsumer
+   * @param holdConsumer Consumer&lt;Hold&gt;
+   * @throws IOException if the shard could not be read, or is not a snapshot shard.
+   */
+  private static void readShard(Path file, Ledger.BalanceConsumer balanceConsumer, Consumer<Hold> holdConsumer) throws IOException {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        throw new IOException("The file " + file + " is not a snapshot shard!");
+      }
+
+      for (int i = input.readInt(); i > 0; i--) {
+        balanceConsumer.accept(readString(input), readString(input), input.readLong());
+      }
+
+      for (int i = input.readInt(); i > 0; i--) {
+        holdConsumer.accept(new Hold(readString(input), readString(input), readString(input), input.readLong(), input.readLong()));
+      }
+    }
+  }
+
+  /**
+   * Reads the idempotency window of a snapshot.
+   *
+   * @param snapshotDirectory Path
+   * @return IdempotencyWindow object containing the window, with the configured settings.
+   * @throws IOException if the window could not be read, or is not a snapshot window.
+   */
+  private IdempotencyWindow readWindow(Path snapshotDirectory) throws IOException {
+    Path file = snapshotDirectory.resolve(WINDOW_FILE);
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        throw new IOException("The file " + file + " is not a snapshot window!");
+      }
+
+      return IdempotencyWindow.read(input, exactMessageIds, filteredGenerations, falsePositiveRate);
+    }
+  }
+
+  private IdempotencyWindow newWindow() {
+    return new IdempotencyWindow(exactMessageIds, filteredGenerations, falsePositiveRate);
+  }
+
+  /**
+   * Finds the latest complete snapshot, deleting any incomplete snapshot left by a crash.
+   *
+   * @return Snapshot object containing the latest complete snapshot, or null if there is none.
+   * @throws IOException if the snapshot directory could not be read.
+   */
+  private Snapshot findLatestSnapshot() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return null;
+    }
+
+    Snapshot snapshot = null;
+
+    try (Stream<Path> snapshotDirectories = Files.list(directory)) {
+      for (Path snapshotDirectory : snapshotDirectories.sorted(Comparator.reverseOrder()).toList()) {
+        Path marker = snapshotDirectory.resolve(COMPLETE_MARKER);
+
+        if (snapshot == null && Files.exists(marker)) {
+          try (DataInputStream input = new DataInputStream(Files.newInputStream(marker))) {
+            snapshot = new Snapshot(snapshotDirectory, input.readLong(), input.readLong(), input.readInt());
+          }
+        }
+        else if (snapshot == null) {
+          deleteDirectory(snapshotDirectory);
+        }
+      }
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * Writes the marker that completes a snapshot.
+   *
+   * @param snapshot Snapshot
+   * @throws IOException if the marker could not be written.
+   */
+  private static void writeMarker(Snapshot snapshot) throws IOException {
+    try (FileOutputStream file = new FileOutputStream(snapshot.directory().resolve(COMPLETE_MARKER).toFile());
+         DataOutputStream output = new DataOutputStream(file)) {
+      output.writeLong(snapshot.journalOffset());
+      output.writeLong(snapshot.eventCount());
+      output.writeInt(snapshot.shardCount());
+      output.flush();
+      file.getFD().sync();
+    }
+  }
+
+  /**
+   * Deletes every snapshot except one.
+   *
+   * @param kept Path
+   * @throws IOException if a snapshot could not be deleted.
+   */
+  private void deleteSnapshotsExcept(Path kept) throws IOException {
+    try (Stream<Path> snapshotDirectories = Files.list(directory)) {
+      for (Path snapshotDirectory : snapshotDirectories.filter(path -> !path.equals(kept)).toList()) {
+        deleteDirectory(snapshotDirectory);
+      }
+    }
+  }
+
+  private static void deleteDirectory(Path path) throws IOException {
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Runs a task for every shard in parallel, on up to one thread per core.
+   *
+   * @param shards int
+   * @param task ShardTask&lt;T&gt;
+   * @return List&lt;T&gt; containing the result of every shard, in shard order.
+   * @throws IOException if a task failed.
+   */
+  private static <T> List<T> runInParallel(int shards, ShardTask<T> task) throws IOException {
+    ExecutorService workers = Executors.newFixedThreadPool(Math.min(shards, Runtime.getRuntime().availableProcessors()));
+
+    try {
+      List<Future<T>> futures = new ArrayList<Future<T>>();
+
+      for (int shard = 0; shard < shards; shard++) {
+        int currentShard = shard;
+        futures.add(workers.submit(() -> task.run(currentShard)));
+      }
+
+      List<T> results = new ArrayList<T>();
+
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+
+      return results;
+    }
+    catch (ExecutionException exception) {
+      if (exception.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+
+      throw new IllegalStateException("A snapshot shard could not be processed!", exception.getCause());
+    }
+    catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while processing the snapshot shards!", exception);
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private int userShard(String userId) {
+    return Math.floorMod(userId.hashCode(), shardCount);
+  }
+
+  private static Path shardFile(Path snapshotDirectory, int shard) {
+    return snapshotDirectory.resolve(String.format("shard-%04d.snapshot", shard));
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    return new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Snapshot record for a complete snapshot.
+   *
+   * @param directory Path
+   * @param journalOffset long, the journal offset after the last event covered by the snapshot
+   * @param eventCount long, the amount of events covered by the snapshot
+   * @param shardCount int
+   */
+  private record Snapshot(Path directory, long journalOffset, long eventCount, int shardCount) {}
+
+  /**
+   * ShardTask interface for the work done on one shard.
+   */
+  @FunctionalInterface
+  private interface ShardTask<T> {
+    T run(int shard) throws IOException;
+  }
+}
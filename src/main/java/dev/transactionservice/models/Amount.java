@@ -1,5 +1,7 @@
 package dev.transactionservice.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Amount class for storing currency, amount of currency, and the type of amount.
  */
@@ -7,6 +9,8 @@ public class Amount {
     private String amount = null;
     private String currency = null;
     private DebitCredit debitOrCredit = null;
+    private long minorUnits = 0; // The amount in minor units of the currency, parsed on first use
+    private boolean parsed = false;
 
     /**
      * Default constructor for Amount.
@@ -35,6 +39,7 @@ public class Amount {
      */
     public void setAmount(String amount) {
       this.amount = amount;
+      this.parsed = false;
     }
 
     /**
@@ -44,6 +49,7 @@ public class Amount {
      */
     public void setCurrency(String currency) {
       this.currency = currency;
+      this.parsed = false;
     }
 
     /**
@@ -64,6 +70,33 @@ public class Amount {
       return amount;
     }
 
+    /**
+     * Gets the currency amount in minor units of the currency, such as cents, truncated to the currency's decimal places.
+     * The amount is only parsed once, no matter how often this is called.
+     * 
+     * @return long containing the currency amount in minor units.
+     * @throws NumberFormatException if the amount is not a decimal number.
+     * @throws ArithmeticException if the amount is too large for a long in minor units.
+     */
+    @JsonIgnore
+    public long getMinorUnits() {
+      if (!parsed) {
+        minorUnits = Money.parse(amount, currency);
+        parsed = true;
+      }
+
+      return minorUnits;
+    }
+
+    /**
+     * Checks whether the currency amount can be stored in minor units of the currency, which is only false for very large amounts.
+     * 
+     * @return boolean containing true if the amount is a decimal number that fits into a long in minor units.
+     */
+    public boolean fitsInMinorUnits() {
+      return parsed || Money.fitsInMinorUnits(amount, currency);
+    }
+
     /**
      * Gets the currency.
      * 
@@ -1,10 +1,5 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 /**
  * AuthorizationRequest class for storing an authorization request that needs to be processed.
  */
@@ -91,42 +86,23 @@ public class AuthorizationRequest {
      * Creates an authorization response from an authorization request event.
      * 
      * @param authorizationRequestEvent AuthorizationRequestEvent
-     * @param userBalances HashMap&lt;Pair&lt;String, String&gt;, BigDecimal&gt;
+     * @param ledger Ledger
      * @return AuthorizationResponse object containing the response of an authorization request following an authorization request event.
      */
-    public AuthorizationResponse processRequest(AuthorizationRequestEvent authorizationRequestEvent, HashMap<Pair<String, String>, BigDecimal> userBalances) {
+    public AuthorizationResponse processRequest(AuthorizationRequestEvent authorizationRequestEvent, Ledger ledger) {
       String requestedMsgID = authorizationRequestEvent.getStoredRecord().getMessageId();
       String requestedUserID = authorizationRequestEvent.getStoredRecord().getUserId();
-      String requestedAmount = authorizationRequestEvent.getStoredRecord().getTransactionAmount().getAmount();
       String requestedCurrency = authorizationRequestEvent.getStoredRecord().getTransactionAmount().getCurrency();
       DebitCredit debitOrCredit = authorizationRequestEvent.getStoredRecord().getTransactionAmount().getDebitOrCredit();
-      ResponseCode responseCode = ResponseCode.APPROVED;
-
-      BigDecimal requestedAmountNum = new BigDecimal(requestedAmount).setScale(2, RoundingMode.FLOOR); // Truncate the amount to two decimal places
-      BigDecimal currentUserBalance = new BigDecimal(0).setScale(2); // We need to return a 0.00 as the amount instead of a 0 if the need arises
-
-      Pair<String, String> userIdCurrency = new Pair<>(requestedUserID, requestedCurrency);
-
-      // Does the user ID and associated currency balance exist, and does subtracting the amount from the balance result in a greater than or equal to 0 balance?
-      if (userBalances.containsKey(userIdCurrency) && userBalances.get(userIdCurrency).subtract(requestedAmountNum).compareTo(currentUserBalance) >= 0) {
-          
-        userBalances.put(userIdCurrency, userBalances.get(userIdCurrency).subtract(requestedAmountNum)); // Subtract the amount from the balance
-        currentUserBalance = userBalances.get(userIdCurrency); // Retrieve the now modified balance
-
-      } // Does the user ID and associated currency balance exist?
-      else if (userBalances.containsKey(userIdCurrency)) {
-
-        currentUserBalance = userBalances.get(userIdCurrency); // Retrieve the unmodified balance following a failed authorization
-        responseCode = ResponseCode.DECLINED;
-
-      }
-      else {
 
-        responseCode = ResponseCode.DECLINED;
+      long requestedAmountNum = authorizationRequestEvent.getStoredRecord().getTransactionAmount().getMinorUnits(); // The amount in minor units, truncated to the decimal places of the currency
 
-      }
+      // Subtract the amount from the balance only if the balance exists and the result is greater than or equal to 0, as one atomic step
+      long debitResult = ledger.debit(requestedUserID, requestedCurrency, requestedAmountNum);
+      ResponseCode responseCode = debitResult < 0 ? ResponseCode.DECLINED : ResponseCode.APPROVED;
+      long currentUserBalance = debitResult < 0 ? ~debitResult : debitResult; // A declined debit returns the complement of the unmodified balance, which is 0 if there is no balance
 
-      Amount balance = new Amount(currentUserBalance.toString(), requestedCurrency, debitOrCredit);
+      Amount balance = new Amount(Money.format(currentUserBalance, requestedCurrency), requestedCurrency, debitOrCredit);
 
       AuthorizationResponse authorizationResponse = new AuthorizationResponse(requestedMsgID, requestedUserID, responseCode, balance);
 
@@ -1,8 +1,6 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * AuthorizationRequestEvent class that is a child of the Event class.
@@ -21,11 +19,32 @@ public class AuthorizationRequestEvent extends Event {
     this.authorizationRequest = authorizationRequest;
   }
 
+  /**
+   * Parameterized constructor for AuthorizationRequestEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param authorizationRequest AuthorizationRequest
+   * @param timeStamp Instant
+   */
+  public AuthorizationRequestEvent(String messageId, AuthorizationRequest authorizationRequest, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.authorizationRequest = authorizationRequest;
+  }
+
+  public String getUserId() {
+    return authorizationRequest.getUserId();
+  }
+
   public AuthorizationRequest getStoredRecord() {
     return authorizationRequest;
   }
 
-  public Object process(HashMap<Pair<String, String>, BigDecimal> userBalances) {
-    return authorizationRequest.processRequest(this, userBalances);
+  public Object process(Ledger ledger) {
+    return authorizationRequest.processRequest(this, ledger);
+  }
+
+  @Override
+  public Event createResponseEvent(Object response) {
+    return new AuthorizationResponseEvent(getMessageId(), (AuthorizationResponse)response);
   }
 }
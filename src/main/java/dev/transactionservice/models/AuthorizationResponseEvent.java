@@ -1,8 +1,6 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * AuthorizationResponseEvent class that is a child of the Event class.
@@ -21,11 +19,27 @@ public class AuthorizationResponseEvent extends Event {
     this.authorizationResponse = authorizationResponse;
   }
 
+  /**
+   * Parameterized constructor for AuthorizationResponseEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param authorizationResponse AuthorizationResponse
+   * @param timeStamp Instant
+   */
+  public AuthorizationResponseEvent(String messageId, AuthorizationResponse authorizationResponse, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.authorizationResponse = authorizationResponse;
+  }
+
+  public String getUserId() {
+    return authorizationResponse.getUserId();
+  }
+
   public AuthorizationResponse getStoredRecord() {
     return authorizationResponse;
   }
 
-  public Object process(HashMap<Pair<String, String>, BigDecimal> userBalances) {
+  public Object process(Ledger ledger) {
     return null;
   }
 }
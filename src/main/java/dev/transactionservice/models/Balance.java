@@ -0,0 +1,106 @@
+package dev.transactionservice.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Balance class for storing the balance of a user in one currency.
+ *
+ * <p> The amount is the available balance, which authorizations and holds are checked against. Funds held by open holds are reported
+ * separately, only if there are any, and the ledger balance is the sum of both. </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Balance {
+    private String amount = null;
+    private String currency = null;
+    private String held = null; // The total of the open holds, or null if there is none
+
+    /**
+     * Default constructor for Balance.
+     */
+    public Balance() {
+
+    }
+
+    /**
+     * Parameterized constructor for Balance.
+     *
+     * @param amount String
+     * @param currency String
+     */
+    public Balance(String amount, String currency) {
+      this.amount = amount;
+      this.currency = currency;
+    }
+
+    /**
+     * Parameterized constructor for Balance, with the funds held by open holds.
+     *
+     * @param amount String
+     * @param currency String
+     * @param held String, or null if there is no open hold
+     */
+    public Balance(String amount, String currency, String held) {
+      this.amount = amount;
+      this.currency = currency;
+      this.held = held;
+    }
+
+    /**
+     * Sets the balance amount.
+     *
+     * @param amount String
+     */
+    public void setAmount(String amount) {
+      this.amount = amount;
+    }
+
+    /**
+     * Sets the currency.
+     *
+     * @param currency String
+     */
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+
+    /**
+     * Sets the held amount.
+     *
+     * @param held String
+     */
+    public void setHeld(String held) {
+      this.held = held;
+    }
+
+    /**
+     * Gets the balance amount.
+     *
+     * @return String object containing the balance amount.
+     */
+    public String getAmount() {
+      return amount;
+    }
+
+    /**
+     * Gets the currency.
+     *
+     * @return String object containing the currency.
+     */
+    public String getCurrency() {
+      return currency;
+    }
+
+    /**
+     * Gets the held amount.
+     *
+     * @return String object containing the total of the open holds, or null if there is none.
+     */
+    public String getHeld() {
+      return held;
+    }
+
+    @Override
+    public String toString() {
+        return "{\"amount\":\"" + amount + "\",\"currency\":\"" + currency + "\"" + (held == null ? "" : ",\"held\":\"" + held + "\"") + "}";
+    }
+}
@@ -0,0 +1,322 @@
+package dev.transactionservice.models;
+
+import java.util.Arrays;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * BalanceTable class for storing balances as primitive longs, keyed by non-negative primitive long account keys.
+ *
+ * <p> The table is split into stripes by the hash of the key, and each stripe is an open-addressing hash table with linear probing
+ * over two parallel long arrays, so that a balance costs two array slots instead of a map entry, a key object and a value object.
+ * Each stripe is guarded by its own StampedLock: updates take its write lock, which is uncontended unless two threads update the same stripe,
+ * while reads are optimistic reads like those of a seqlock, which are retried until no update overlapped them. A read never takes the lock,
+ * so readers never block or slow down the writers, and any amount of reader threads only read the shared stripes. </p>
+ */
+public class BalanceTable {
+  private static final long EMPTY = -1; // Account keys are never negative
+  private static final int STRIPE_BITS = 6;
+  private static final int INITIAL_CAPACITY = 16; // Per stripe, always a power of 2
+  private static final int SPINS = 64; // Retries of a read before it yields to the writer, which may have been descheduled
+
+  private Stripe[] stripes = null;
+
+  /**
+   * Default constructor for BalanceTable.
+   */
+  public BalanceTable() {
+    this.stripes = new Stripe[1 << STRIPE_BITS];
+
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Gets a balance, without taking the lock of its stripe: the read is retried until it did not overlap an update of the stripe,
+   * so that it returns a value the balance had at some point, never one torn by a concurrent update or resize.
+   *
+   * @param key long
+   * @param missing long, returned if the balance does not exist
+   * @return long containing the balance, or the missing value if the balance does not exist.
+   */
+  public long get(long key, long missing) {
+    long hash = hash(key);
+    Stripe stripe = stripe(hash);
+
+    for (int attempt = 0; ; attempt++) {
+      long stamp = stripe.lock.tryOptimisticRead(); // 0 while an update holds the write lock
+
+      if (stamp != 0) {
+        long balance = stripe.get(key, hash, missing);
+
+        if (stripe.lock.validate(stamp)) {
+          return balance;
+        }
+      }
+
+      backOff(attempt);
+    }
+  }
+
+  /**
+   * Adds an amount to a balance, creating the balance if it does not exist yet.
+   *
+   * @param key long
+   * @param amount long
+   * @return long containing the balance after the addition.
+   * @throws ArithmeticException if the balance would overflow, in which case it is not modified.
+   */
+  public long add(long key, long amount) {
+    long hash = hash(key);
+    Stripe stripe = stripe(hash);
+    long stamp = stripe.lock.writeLock();
+
+    try {
+      int slot = stripe.slotForUpdate(key, hash);
+      long balance = stripe.keys[slot] == key ? Math.addExact(stripe.values[slot], amount) : amount;
+
+      stripe.set(slot, key, balance);
+
+      return balance;
+    }
+    finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Subtracts an amount from a balance, if the balance exists and would not drop below 0.
+   *
+   * @param key long
+   * @param amount long
+   * @return long containing the new balance, or the bitwise complement of the unmodified balance (or of 0 if it does not exist) if it would drop below 0.
+   */
+  public long subtract(long key, long amount) {
+    long hash = hash(key);
+    Stripe stripe = stripe(hash);
+    long stamp = stripe.lock.writeLock();
+
+    try {
+      int slot = stripe.slot(stripe.keys, key, hash);
+
+      if (slot < 0 || stripe.keys[slot] != key) {
+        return ~0L;
+      }
+      else if (stripe.values[slot] < amount) {
+        return ~stripe.values[slot];
+      }
+
+      return stripe.values[slot] -= amount;
+    }
+    finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Sets a balance, replacing any existing balance.
+   *
+   * @param key long
+   * @param balance long
+   */
+  public void put(long key, long balance) {
+    long hash = hash(key);
+    Stripe stripe = stripe(hash);
+    long stamp = stripe.lock.writeLock();
+
+    try {
+      stripe.set(stripe.slotForUpdate(key, hash), key, balance);
+    }
+    finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Passes every balance to a consumer, one stripe at a time.
+   *
+   * @param consumer EntryConsumer
+   */
+  public void forEach(EntryConsumer consumer) {
+    for (Stripe stripe : stripes) {
+      long stamp = stripe.lock.readLock();
+
+      try {
+        for (int i = 0; i < stripe.keys.length; i++) {
+          if (stripe.keys[i] != EMPTY) {
+            consumer.accept(stripe.keys[i], stripe.values[i]);
+          }
+        }
+      }
+      finally {
+        stripe.lock.unlockRead(stamp);
+      }
+    }
+  }
+
+  /**
+   * Gets the amount of balances in the table.
+   *
+   * @return int containing the amount of balances.
+   */
+  public int size() {
+    int size = 0;
+
+    for (Stripe stripe : stripes) {
+      long stamp = stripe.lock.readLock();
+      size += stripe.size;
+      stripe.lock.unlockRead(stamp);
+    }
+
+    return size;
+  }
+
+  /**
+   * Removes every balance from the table.
+   */
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      long stamp = stripe.lock.writeLock();
+
+      try {
+        stripe.reset(INITIAL_CAPACITY);
+      }
+      finally {
+        stripe.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  private Stripe stripe(long hash) {
+    return stripes[(int)(hash >>> (Long.SIZE - STRIPE_BITS))]; // The top bits pick the stripe, and the bits below them the slot
+  }
+
+  private static long hash(long key) {
+    return key * 0x9E3779B97F4A7C15L;
+  }
+
+  private static void backOff(int attempt) {
+    if (attempt < SPINS) {
+      Thread.onSpinWait();
+    }
+    else {
+      Thread.yield();
+    }
+  }
+
+  /**
+   * EntryConsumer interface for receiving the balances of the table.
+   */
+  @FunctionalInterface
+  public interface EntryConsumer {
+    void accept(long key, long balance);
+  }
+
+  /**
+   * Stripe class for one open-addressing hash table of the balance table, together with the lock that guards it.
+   */
+  private static class Stripe {
+    private StampedLock lock = null;
+    private long[] keys = null;
+    private long[] values = null;
+    private int size = 0;
+
+    private Stripe() {
+      this.lock = new StampedLock();
+      reset(INITIAL_CAPACITY);
+    }
+
+    private void reset(int capacity) {
+      keys = new long[capacity];
+      values = new long[capacity];
+      size = 0;
+
+      Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Gets a balance, which may be called without the lock: a resize replaces both arrays, so arrays of different lengths are never probed together.
+     *
+     * @param key long
+     * @param hash long
+     * @param missing long
+     * @return long containing the balance, or the missing value if it is not found.
+     */
+    private long get(long key, long hash, long missing) {
+      long[] currentKeys = keys;
+      long[] currentValues = values;
+
+      if (currentKeys.length != currentValues.length) {
+        return missing;
+      }
+
+      int slot = slot(currentKeys, key, hash);
+
+      return slot >= 0 && currentKeys[slot] == key ? currentValues[slot] : missing;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot it would be inserted at. The amount of probes is bounded, as the arrays may be read without the lock.
+     *
+     * @param currentKeys long[]
+     * @param key long
+     * @param hash long
+     * @return int containing the slot, or -1 if every slot was probed.
+     */
+    private int slot(long[] currentKeys, long key, long hash) {
+      int mask = currentKeys.length - 1;
+
+      for (int i = 0, slot = (int)(hash >>> (Long.SIZE - STRIPE_BITS - 31)) & mask; i < currentKeys.length; i++, slot = (slot + 1) & mask) {
+        if (currentKeys[slot] == key || currentKeys[slot] == EMPTY) {
+          return slot;
+        }
+      }
+
+      return -1;
+    }
+
+    /**
+     * Finds the slot of a key for an update, first doubling the capacity if inserting the key would fill more than three quarters of the table.
+     *
+     * @param key long
+     * @param hash long
+     * @return int containing the slot of the key, or the empty slot it is to be inserted at.
+     */
+    private int slotForUpdate(long key, long hash) {
+      int slot = slot(keys, key, hash);
+
+      if (keys[slot] != key && (size + 1) * 4 > keys.length * 3) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[oldKeys.length * 2];
+        long[] newValues = new long[oldKeys.length * 2];
+
+        Arrays.fill(newKeys, EMPTY);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+          if (oldKeys[i] != EMPTY) {
+            int newSlot = slot(newKeys, oldKeys[i], hash(oldKeys[i]));
+            newKeys[newSlot] = oldKeys[i];
+            newValues[newSlot] = oldValues[i];
+          }
+        }
+
+        keys = newKeys; // Both arrays are complete before they are published
+        values = newValues;
+        slot = slot(keys, key, hash);
+      }
+
+      return slot;
+    }
+
+    private void set(int slot, long key, long balance) {
+      if (keys[slot] != key) {
+        keys[slot] = key;
+        size++;
+      }
+
+      values[slot] = balance;
+    }
+  }
+}
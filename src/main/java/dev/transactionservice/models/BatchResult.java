@@ -0,0 +1,89 @@
+package dev.transactionservice.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * BatchResult class for storing the outcome of one item of a batch request, which is either its response or the reason it was rejected.
+ *
+ * @param <T> the type of the response, such as LoadResponse or AuthorizationResponse
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult<T> {
+    private String messageId = null;
+    private T response = null;
+    private String error = null;
+
+    /**
+     * Default constructor for BatchResult.
+     */
+    public BatchResult() {
+
+    }
+
+    /**
+     * Parameterized constructor for BatchResult.
+     *
+     * @param messageId String
+     * @param response T, or null if the item was rejected
+     * @param error String, or null if the item was processed
+     */
+    public BatchResult(String messageId, T response, String error) {
+      this.messageId = messageId;
+      this.response = response;
+      this.error = error;
+    }
+
+    /**
+     * Sets the message ID of the item.
+     *
+     * @param messageId String
+     */
+    public void setMessageId(String messageId) {
+      this.messageId = messageId;
+    }
+
+    /**
+     * Sets the response of the item.
+     *
+     * @param response T
+     */
+    public void setResponse(T response) {
+      this.response = response;
+    }
+
+    /**
+     * Sets the reason the item was rejected.
+     *
+     * @param error String
+     */
+    public void setError(String error) {
+      this.error = error;
+    }
+
+    /**
+     * Gets the message ID of the item.
+     *
+     * @return String object containing the message ID.
+     */
+    public String getMessageId() {
+      return messageId;
+    }
+
+    /**
+     * Gets the response of the item.
+     *
+     * @return T object containing the response, or null if the item was rejected.
+     */
+    public T getResponse() {
+      return response;
+    }
+
+    /**
+     * Gets the reason the item was rejected, which is the same message a single request would have been rejected with.
+     *
+     * @return String object containing the reason, or null if the item was processed.
+     */
+    public String getError() {
+      return error;
+    }
+}
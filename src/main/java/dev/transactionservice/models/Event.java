@@ -2,10 +2,6 @@ package dev.transactionservice.models;
 
 import java.time.Instant;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
-
 /**
  * Event abstract class for storing an event, in accordance with the Event Sourcing model.
  * 
@@ -25,6 +21,17 @@ public abstract class Event {
     this.timeStamp = Instant.now();
   }
 
+  /**
+   * Parameterized constructor for Event, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param timeStamp Instant
+   */
+  public Event(String messageId, Instant timeStamp) {
+    this.messageId = messageId;
+    this.timeStamp = timeStamp;
+  }
+
   /**
    * Gets the message ID, sourced from the message ID of a request or response.
    * 
@@ -43,6 +50,13 @@ public abstract class Event {
     return timeStamp;
   }
 
+  /**
+   * Abstract method that gets the ID of the user the event belongs to, which decides the partition the event is processed in.
+   * 
+   * @return String object containing the user ID.
+   */
+  public abstract String getUserId();
+
   /**
    * Abstract method that gets the stored record in an event.
    * 
@@ -55,8 +69,20 @@ public abstract class Event {
    * 
    * <p> An example would be calling processRequest on a LoadRequest object, which would return a LoadResponse object. </p>
    * 
-   * @param userBalances HashMap&lt;Pair&lt;String, String&gt;, BigDecimal&gt;
+   * @param ledger Ledger
    * @return Some returned value as an Object.
    */
-  public abstract Object process(HashMap<Pair<String, String>, BigDecimal> userBalances);
+  public abstract Object process(Ledger ledger);
+
+  /**
+   * Method that wraps the value returned from the process method in a response event, so that the response can be logged as well.
+   * 
+   * <p> Events that are responses themselves have no response event, which is the default. </p>
+   * 
+   * @param response Object
+   * @return The response event as an Event, or null if there is no response event.
+   */
+  public Event createResponseEvent(Object response) {
+    return null;
+  }
 }
@@ -1,44 +1,179 @@
 package dev.transactionservice.models;
 
-import org.springframework.stereotype.Component;
+import dev.transactionservice.journal.ColumnarEventLog;
+import dev.transactionservice.journal.EventLogTier;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Vector;
-
-import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * EventProcessor class for processing events that typically originate from the controllers.
  * 
- * <p> It is annotated with the Component annotation to allow for shared access in the controllers, when combined with the Autowired annotation. </p>
+ * <p> The EventRouter creates one event processor per partition, holding the balances, message IDs and event log of the partition's users. </p>
+ * 
+ * <p> The controllers do not call it directly, but publish their events through the EventRouter to the partition's EventSequencer,
+ * whose writer thread is the only thread processing the partition's events. </p>
  */
-@Component
 public class EventProcessor {
-  private HashSet<String> messageIds = null; // All logged message IDs
-  private HashMap<Pair<String, String>, BigDecimal> userBalances = null; // All user balances across different currencies
-  private Vector<Event> eventLogs = null; // All logged events
+  private IdempotencyWindow messageIds = null; // The recently logged message IDs
+  private Ledger ledger = null; // All user balances across different currencies
+  private ColumnarEventLog eventLogs = null; // All logged events, stored as columns of primitive arrays and moved into segment files as they age
+  private UserEventIndex userEvents = null; // The sequence numbers of every user's logged events
 
   /**
-   * Default constructor for EventProcessor.
+   * Default constructor for EventProcessor, which keeps every logged event in memory,
+   * and remembers at least the last 1,000,000 message IDs exactly and the 4,000,000 before them in Bloom filters.
    */
   public EventProcessor() {
-    this.messageIds = new HashSet<String>();
-    this.userBalances = new HashMap<Pair<String, String>, BigDecimal>();
-    this.eventLogs = new Vector<Event>();
+    this(new ColumnarEventLog(), 1000000, 8, 0.00001);
+  }
+
+  /**
+   * Parameterized constructor for EventProcessor.
+   * 
+   * @param eventLog ColumnarEventLog, the event log the processed events are appended to
+   * @param exactMessageIds int, how many of the most recent message IDs are at least kept exactly
+   * @param filteredGenerations int, how many older generations of message IDs are kept in Bloom filters
+   * @param falsePositiveRate double, the probability of each Bloom filter wrongly reporting a new message ID as used
+   */
+  public EventProcessor(ColumnarEventLog eventLog, int exactMessageIds, int filteredGenerations, double falsePositiveRate) {
+    this.messageIds = new IdempotencyWindow(exactMessageIds, filteredGenerations, falsePositiveRate);
+    this.ledger = new Ledger();
+    this.eventLogs = eventLog;
+    this.userEvents = new UserEventIndex();
   }
 
   /**
-   * Logs and processes an event.
+   * Logs and processes an event. Its message ID must have been reserved through reserveMessageId first.
    * 
    * @param event Event
    * @return The return value of an event's process method as an Object.
    */
   public Object processEvent(Event event) {
-    messageIds.add(event.getMessageId());
-    eventLogs.add(event);
+    userEvents.add(event.getUserId(), eventLogs.append(event));
     
-    return event.process(userBalances);
+    return event.process(ledger);
+  }
+
+  /**
+   * Passes every balance of one user to a consumer. Unlike processEvent, it may be called from any thread,
+   * as the ledger is read without a lock while the writer thread keeps processing events.
+   *
+   * @param userId String
+   * @param consumer Ledger.BalanceConsumer
+   */
+  public void forEachBalance(String userId, Ledger.BalanceConsumer consumer) {
+    ledger.forEachBalance(userId, consumer);
+  }
+
+  /**
+   * Gets the total of a user's open holds in a currency. Like forEachBalance, it may be called from any thread.
+   *
+   * @param userId String
+   * @param currency String
+   * @return long containing the held total in minor units.
+   */
+  public long getHeld(String userId, String currency) {
+    return ledger.getHeld(userId, currency);
+  }
+
+  /**
+   * Adds every hold that has expired by the current time to a list, without releasing it. Like processEvent, this must only be called
+   * from the EventSequencer's writer thread, which releases the expired holds through events of their own, so that the releases are journaled.
+   *
+   * @param nowMillis long, the current time in milliseconds since the epoch
+   * @param expired List&lt;Hold&gt;
+   */
+  public void expireHolds(long nowMillis, List<Hold> expired) {
+    ledger.expireHolds(nowMillis, expired);
+  }
+
+  /**
+   * Gets the sequence numbers of a user's most recent logged events before a sequence number, newest first.
+   * Like forEachBalance, it may be called from any thread, as the index of the users' events is read without a lock.
+   *
+   * @param userId String
+   * @param before long, the exclusive upper bound of the sequence numbers
+   * @param limit int
+   * @return long[] containing at most the limit of sequence numbers.
+   */
+  public long[] findUserEvents(String userId, long before, int limit)
+  {
+    return userEvents.find(userId, before, limit);
+  }
+
+  /**
+   * Gets a logged event by its sequence number, which may be called from any thread once the event has been logged.
+   *
+   * @param sequence long
+   * @return Event object materialized from the event log.
+   */
+  public Event getLoggedEvent(long sequence)
+  {
+    return eventLogs.get(sequence);
+  }
+
+  /**
+   * Reserves the message ID of an event before it is processed, unless it has been used before.
+   * 
+   * <p> Only the most recent message IDs are remembered, as configured for the idempotency window, so memory stays bounded. </p>
+   * 
+   * @param messageId String
+   * @return boolean containing true if the message ID was reserved, or false if it has been used before.
+   */
+  public boolean reserveMessageId(String messageId)
+  {
+    return messageIds.reserve(messageId);
+  }
+
+  /**
+   * Gets the amount of message IDs that are remembered exactly.
+   * 
+   * @return int containing the amount of message IDs.
+   */
+  public int messageIdCount()
+  {
+    return messageIds.size();
+  }
+
+  /**
+   * Gets the amount of balances across every user and currency.
+   * 
+   * @return int containing the amount of balances.
+   */
+  public int balanceCount()
+  {
+    return ledger.size();
+  }
+
+  /**
+   * Gets the amount of open holds.
+   * 
+   * @return int containing the amount of open holds.
+   */
+  public int holdCount()
+  {
+    return ledger.holdCount();
+  }
+
+  /**
+   * Gets the amount of events in the event log.
+   * 
+   * @return long containing the amount of logged events.
+   */
+  public long loggedEventCount()
+  {
+    return eventLogs.size();
+  }
+
+  /**
+   * Gets the amount of events in one tier of the event log.
+   * 
+   * @param tier EventLogTier
+   * @return long containing the amount of logged events in the tier.
+   */
+  public long loggedEventCount(EventLogTier tier)
+  {
+    return eventLogs.size(tier);
   }
 
   /**
@@ -46,6 +181,8 @@ public class EventProcessor {
    * 
    * <p> Non-correlated events contain unique message IDs, so these IDs can be used to track their existence. </p>
    * 
+   * <p> Like processEvent, this must only be called from the EventSequencer's writer thread while the service is running. </p>
+   * 
    * @param messageId String
    * @return Boolean object that stores whether or not the event exists.
    */
@@ -54,13 +191,54 @@ public class EventProcessor {
     return messageIds.contains(messageId);
   }
   
+  /**
+   * Restores a balance from a snapshot. Unlike the other methods, this may be called from several threads at once while a snapshot is loaded.
+   * 
+   * @param userId String
+   * @param currency String
+   * @param balance long, in minor units of the currency
+   */
+  public void restoreBalance(String userId, String currency, long balance)
+  {
+    ledger.setBalance(userId, currency, balance);
+  }
+
+  /**
+   * Restores an open hold from a snapshot. Like restoreBalance, this may be called from several threads at once while a snapshot is loaded.
+   * 
+   * @param hold Hold
+   */
+  public void restoreHold(Hold hold)
+  {
+    ledger.restoreHold(hold);
+  }
+
+  /**
+   * Restores the window of recently logged message IDs from a snapshot.
+   * 
+   * @param restoredMessageIds IdempotencyWindow
+   */
+  public void restoreMessageIds(IdempotencyWindow restoredMessageIds)
+  {
+    messageIds = restoredMessageIds;
+  }
+
   /**
    * Clears all stored data in the event controller.
    */
   public void clear()
   {
     messageIds.clear();
-    userBalances.clear();
+    ledger.clear();
     eventLogs.clear();
+    userEvents.clear();
+  }
+
+  /**
+   * Closes the event log, which the EventRouter does once the application shuts down.
+   */
+  public void close()
+  {
+    eventLogs.close();
   }
 }
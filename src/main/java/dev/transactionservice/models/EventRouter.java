@@ -0,0 +1,448 @@
+package dev.transactionservice.models;
+
+import dev.transactionservice.journal.ColumnarEventLog;
+import dev.transactionservice.journal.Durability;
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.EventLogTier;
+import dev.transactionservice.journal.SnapshotManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * EventRouter class for splitting the service into partitions by user ID, so that the balance updates of different partitions run on different cores.
+ *
+ * <p> Every partition has an event processor with its own balances, idempotency window and event log, an event journal and snapshots
+ * in a directory of its own, and an event sequencer whose writer thread applies the partition's events. An event is routed to the partition
+ * of its user, so the events of one user are still applied in one strict order, while the partitions share no state and no lock.
+ * The controllers publish their events through the router instead of a single event sequencer. </p>
+ *
+ * <p> Message IDs are deduplicated per partition, so a message ID is only rejected if it was used before for a user of the same partition.
+ * With a single partition, which is the default, every message ID is deduplicated across all users, and the journal is kept directly in the journal directory.
+ * The partition count is recorded next to the journal, and the service refuses to start with a different count, as users would be routed to
+ * partitions that do not hold their balances. </p>
+ */
+@Component
+public class EventRouter {
+  private static final String PARTITIONS_FILE = "partitions"; // Holds the partition count the journal was written with
+
+  private Partition[] partitions = null;
+
+  /**
+   * Parameterized constructor for EventRouter, which creates and recovers every partition.
+   *
+   * @param partitionCount int, how many partitions the users are split into
+   * @param ringSize int, the ring buffer size of every partition's event sequencer
+   * @param durability String, one of none, async, group or sync
+   * @param journalDirectory String, the directory of the journal, which holds a subdirectory per partition if there are several
+   * @param flushIntervalMillis long, how often the journals are forced to disk with async durability
+   * @param snapshotIntervalSeconds long, how often every partition takes a snapshot, or 0 to never take one
+   * @param snapshotShards int, how many files the balances of every partition's snapshots are split into
+   * @param eventLogDirectory String, the directory of the event log segments, which holds a subdirectory per partition if there are several, or an empty String for temporary directories
+   * @param hotRetentionSeconds long, how old events are before they are moved out of memory into the warm tier of the event logs
+   * @param warmRetentionSeconds long, how old events are before they are moved into the compressed cold tier of the event logs
+   * @param tieringIntervalSeconds long, how often the event logs move events between tiers, or 0 to keep every event in memory
+   * @param exactMessageIds int, how many of the most recent message IDs every partition at least keeps exactly
+   * @param filteredGenerations int, how many older generations of message IDs every partition keeps in Bloom filters
+   * @param falsePositiveRate double, the probability of each Bloom filter wrongly reporting a new message ID as used
+   * @param serviceMetrics ServiceMetrics
+   * @param meterRegistry MeterRegistry
+   */
+  public EventRouter(@Value("${transactionservice.partitions:1}") int partitionCount,
+                     @Value("${transactionservice.sequencer.ring-size:1024}") int ringSize,
+                     @Value("${transactionservice.journal.durability:none}") String durability,
+                     @Value("${transactionservice.journal.directory:journal}") String journalDirectory,
+                     @Value("${transactionservice.journal.flush-interval-ms:10}") long flushIntervalMillis,
+                     @Value("${transactionservice.snapshot.interval-seconds:300}") long snapshotIntervalSeconds,
+                     @Value("${transactionservice.snapshot.shards:16}") int snapshotShards,
+                     @Value("${transactionservice.eventlog.directory:}") String eventLogDirectory,
+                     @Value("${transactionservice.eventlog.hot-retention-seconds:2592000}") long hotRetentionSeconds,
+                     @Value("${transactionservice.eventlog.warm-retention-seconds:7776000}") long warmRetentionSeconds,
+                     @Value("${transactionservice.eventlog.tiering-interval-seconds:60}") long tieringIntervalSeconds,
+                     @Value("${transactionservice.idempotency.exact-ids:1000000}") int exactMessageIds,
+                     @Value("${transactionservice.idempotency.filtered-generations:8}") int filteredGenerations,
+                     @Value("${transactionservice.idempotency.false-positive-rate:0.00001}") double falsePositiveRate,
+                     ServiceMetrics serviceMetrics,
+                     MeterRegistry meterRegistry) {
+    int count = Math.max(partitionCount, 1);
+
+    if (Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT)) != Durability.NONE) {
+      checkPartitionCount(Path.of(journalDirectory), count);
+    }
+
+    this.partitions = new Partition[count];
+
+    for (int i = 0; i < count; i++) {
+      String partitionJournalDirectory = partitionDirectory(journalDirectory, i, count);
+
+      ColumnarEventLog eventLog = tieringIntervalSeconds <= 0 ? new ColumnarEventLog()
+                                : new ColumnarEventLog(eventLogDirectory.isEmpty() ? "" : partitionDirectory(eventLogDirectory, i, count),
+                                                       hotRetentionSeconds, warmRetentionSeconds, tieringIntervalSeconds);
+      EventProcessor eventProcessor = new EventProcessor(eventLog, exactMessageIds, filteredGenerations, falsePositiveRate);
+      EventJournal eventJournal = new EventJournal(durability, partitionJournalDirectory, flushIntervalMillis);
+      SnapshotManager snapshotManager = new SnapshotManager(eventJournal, partitionJournalDirectory, snapshotIntervalSeconds, snapshotShards,
+                                                            exactMessageIds, filteredGenerations, falsePositiveRate, meterRegistry, i);
+
+      partitions[i] = new Partition(eventProcessor, eventJournal, snapshotManager, new EventSequencer(eventProcessor, eventJournal, snapshotManager, serviceMetrics, ringSize));
+    }
+
+    Gauge.builder("transactionservice.balances", this, EventRouter::balanceCount)
+        .description("Amount of balances across every user and currency")
+        .register(meterRegistry);
+    Gauge.builder("transactionservice.message.ids", this, EventRouter::messageIdCount)
+        .description("Amount of message IDs remembered exactly for deduplication, across every partition")
+        .register(meterRegistry);
+    Gauge.builder("transactionservice.holds", this, EventRouter::holdCount)
+        .description("Amount of open holds across every partition")
+        .register(meterRegistry);
+    Gauge.builder("transactionservice.events.logged", this, EventRouter::loggedEventCount)
+        .description("Amount of events in the event logs of every partition")
+        .register(meterRegistry);
+
+    for (EventLogTier tier : EventLogTier.values()) {
+      Gauge.builder("transactionservice.events.tier", this, router -> router.loggedEventCount(tier))
+          .description("Amount of events in one tier of the event logs of every partition")
+          .tag("tier", tier.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Publishes a request event to the partition of its user, waits until it has been processed, and returns its response.
+   *
+   * @param event Event
+   * @return The return value of the event's process method as an Object, or null if an event with the same message ID already exists.
+   */
+  public Object publish(Event event) {
+    return partitionOf(event.getUserId()).eventSequencer().publish(event);
+  }
+
+  /**
+   * Publishes a batch of request events, waits until all of them have been processed, and returns their responses.
+   *
+   * <p> The events of each partition are published together as one entry of its event sequencer, in their order in the batch.
+   * Every partition's events are published before any partition is waited for, so the partitions process and commit their parts of the batch
+   * in parallel, and the batch waits for the slowest commit instead of one commit after another. A partition that fails to commit its part
+   * only fails its own events, whose results are the exception it failed with. </p>
+   *
+   * @param events Event[]
+   * @return Object[] containing the return value of each event's process method, null if an event with the same message ID already exists,
+   * or the RuntimeException the event failed with.
+   */
+  public Object[] publishBatch(Event[] events) {
+    Object[] results = new Object[events.length];
+
+    if (partitions.length == 1) {
+      try {
+        return partitions[0].eventSequencer().publishBatch(events);
+      }
+      catch (RuntimeException exception) {
+        Arrays.fill(results, exception);
+        return results;
+      }
+    }
+
+    int[] eventPartitions = new int[events.length];
+    int[] partitionSizes = new int[partitions.length];
+    ArrayList<CompletableFuture<Object[]>> partitionFutures = new ArrayList<CompletableFuture<Object[]>>(partitions.length);
+
+    for (int i = 0; i < events.length; i++) {
+      eventPartitions[i] = partitionIndex(events[i].getUserId());
+      partitionSizes[eventPartitions[i]]++;
+    }
+
+    for (int partition = 0; partition < partitions.length; partition++) {
+      if (partitionSizes[partition] == 0) {
+        continue;
+      }
+
+      Event[] partitionEvents = new Event[partitionSizes[partition]];
+
+      for (int i = 0, j = 0; i < events.length; i++) {
+        if (eventPartitions[i] == partition) {
+          partitionEvents[j++] = events[i];
+        }
+      }
+
+      partitionFutures.add(partitions[partition].eventSequencer().publishBatchAsync(partitionEvents));
+    }
+
+    for (int partition = 0, published = 0; partition < partitions.length; partition++) {
+      if (partitionSizes[partition] == 0) {
+        continue;
+      }
+
+      Object[] partitionResults = null;
+      RuntimeException failure = null;
+
+      try {
+        partitionResults = partitionFutures.get(published++).join();
+      }
+      catch (CompletionException exception) {
+        failure = exception.getCause() instanceof RuntimeException cause ? cause : exception;
+      }
+
+      for (int i = 0, j = 0; i < events.length; i++) {
+        if (eventPartitions[i] == partition) {
+          results[i] = failure != null ? failure : partitionResults[j++];
+        }
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Publishes a request event to the partition of its user without waiting, unless the partition's ring buffer is full.
+   *
+   * @param event Event
+   * @return CompletableFuture&lt;Object&gt; object that is completed with the return value of the event's process method,
+   * or with null if an event with the same message ID already exists, or null if the ring buffer is full and the event was not published.
+   */
+  public CompletableFuture<Object> tryPublish(Event event) {
+    return partitionOf(event.getUserId()).eventSequencer().tryPublish(event);
+  }
+
+  /**
+   * Reads the balances of a user in the partition of the user, without going through its event sequencer,
+   * so that reads neither wait for the partition's writer thread nor slow it down.
+   *
+   * @param userId String
+   * @return UserBalances object containing the available balance of the user in every currency, in the order the user first used them,
+   * and the funds held in the currency if the user has open holds.
+   */
+  public UserBalances getBalances(String userId) {
+    ArrayList<Balance> balances = new ArrayList<Balance>();
+    EventProcessor eventProcessor = partitionOf(userId).eventProcessor();
+
+    eventProcessor.forEachBalance(userId, (user, currency, balance) -> {
+      long held = eventProcessor.getHeld(user, currency);
+
+      balances.add(new Balance(Money.format(balance, currency), currency, held > 0 ? Money.format(held, currency) : null));
+    });
+
+    return new UserBalances(userId, balances);
+  }
+
+  /**
+   * Reads a page of a user's logged events, newest first, through the index of the user's events in the partition's event log,
+   * so that the cost of a page depends on its size and not on the amount of events every other user has logged.
+   *
+   * <p> Only the sequence numbers of the page are looked up here: the events themselves are decoded from the event log one at a time
+   * while the page is iterated, which the controller does while it writes the response. </p>
+   *
+   * @param userId String
+   * @param before long, the sequence number the page ends before, which is the cursor of the previous page or Long.MAX_VALUE for the first page
+   * @param limit int, the largest amount of events in the page
+   * @return UserEvents object containing the page of events, and the cursor of the next page if there are older events.
+   */
+  public UserEvents getEvents(String userId, long before, int limit) {
+    EventProcessor eventProcessor = partitionOf(userId).eventProcessor();
+    long[] sequences = eventProcessor.findUserEvents(userId, before, limit + 1); // One more event tells if there is a next page
+    int count = Math.min(sequences.length, limit);
+    String nextCursor = sequences.length > limit ? Long.toString(sequences[limit - 1]) : null;
+
+    Iterable<UserEvent> events = () -> Arrays.stream(sequences, 0, count)
+        .mapToObj(sequence -> new UserEvent(sequence, eventProcessor.getLoggedEvent(sequence)))
+        .iterator();
+
+    return new UserEvents(userId, events, nextCursor);
+  }
+
+  /**
+   * Gets the amount of partitions.
+   *
+   * @return int containing the amount of partitions.
+   */
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  /**
+   * Gets the amount of balances across every partition.
+   *
+   * @return long containing the amount of balances.
+   */
+  public long balanceCount() {
+    long count = 0;
+
+    for (Partition partition : partitions) {
+      count += partition.eventProcessor().balanceCount();
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the amount of message IDs that are remembered exactly across every partition.
+   *
+   * @return long containing the amount of message IDs.
+   */
+  public long messageIdCount() {
+    long count = 0;
+
+    for (Partition partition : partitions) {
+      count += partition.eventProcessor().messageIdCount();
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the amount of open holds across every partition.
+   *
+   * @return long containing the amount of open holds.
+   */
+  public long holdCount() {
+    long count = 0;
+
+    for (Partition partition : partitions) {
+      count += partition.eventProcessor().holdCount();
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the amount of events in the event logs of every partition.
+   *
+   * @return long containing the amount of logged events.
+   */
+  public long loggedEventCount() {
+    long count = 0;
+
+    for (Partition partition : partitions) {
+      count += partition.eventProcessor().loggedEventCount();
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the amount of events in one tier of the event logs of every partition.
+   *
+   * @param tier EventLogTier
+   * @return long containing the amount of logged events in the tier.
+   */
+  public long loggedEventCount(EventLogTier tier) {
+    long count = 0;
+
+    for (Partition partition : partitions) {
+      count += partition.eventProcessor().loggedEventCount(tier);
+    }
+
+    return count;
+  }
+
+  /**
+   * Clears all stored data in every partition's event processor.
+   */
+  public void clear() {
+    for (Partition partition : partitions) {
+      partition.eventProcessor().clear();
+    }
+  }
+
+  /**
+   * Stops every partition once the application shuts down: its writer thread first, then its snapshots, its journal and its event log.
+   */
+  @PreDestroy
+  public void close() {
+    for (Partition partition : partitions) {
+      partition.eventSequencer().shutdown();
+      partition.snapshotManager().shutdown();
+      partition.eventJournal().close();
+      partition.eventProcessor().close();
+    }
+  }
+
+  /**
+   * Finds the partition of a user.
+   *
+   * @param userId String
+   * @return int containing the index of the partition.
+   */
+  private int partitionIndex(String userId) {
+    long hash = (userId.hashCode() * 0x9E3779B9L) & 0xFFFFFFFFL; // Mixed, so that the partition does not decide the snapshot shard, which is taken from the same hash code
+
+    return (int)((hash * partitions.length) >>> 32);
+  }
+
+  private Partition partitionOf(String userId) {
+    return partitions[partitionIndex(userId)];
+  }
+
+  /**
+   * Gets the directory of a partition, which is the directory itself if there is only one partition, so that a journal from before partitioning is kept.
+   *
+   * @param directory String
+   * @param partition int
+   * @param partitionCount int
+   * @return String containing the directory of the partition.
+   */
+  private static String partitionDirectory(String directory, int partition, int partitionCount) {
+    return partitionCount == 1 ? directory : Path.of(directory).resolve("partition-" + partition).toString();
+  }
+
+  /**
+   * Checks that the journal was written with the same partition count, and records the count for the next startup.
+   *
+   * @param journalDirectory Path
+   * @param partitionCount int
+   * @throws IllegalStateException if the journal was written with a different partition count.
+   */
+  private static void checkPartitionCount(Path journalDirectory, int partitionCount) {
+    Path partitionsFile = journalDirectory.resolve(PARTITIONS_FILE);
+
+    try {
+      int journaledCount = partitionCount;
+
+      if (Files.exists(partitionsFile)) {
+        journaledCount = Integer.parseInt(Files.readString(partitionsFile).trim());
+      }
+      else if (Files.exists(journalDirectory.resolve(EventJournal.FILE_NAME))) { // A journal from before partitioning was written by a single partition
+        journaledCount = 1;
+      }
+
+      if (journaledCount != partitionCount) {
+        throw new IllegalStateException("The journal was written with " + journaledCount + " partitions, so transactionservice.partitions must be " + journaledCount + "!");
+      }
+
+      Files.createDirectories(journalDirectory);
+      Files.writeString(partitionsFile, Integer.toString(partitionCount));
+    }
+    catch (IOException exception) {
+      throw new UncheckedIOException("The partition count of the journal could not be checked!", exception);
+    }
+  }
+
+  /**
+   * Partition record for the event processor, event journal, snapshot manager and event sequencer of one partition.
+   *
+   * @param eventProcessor EventProcessor
+   * @param eventJournal EventJournal
+   * @param snapshotManager SnapshotManager
+   * @param eventSequencer EventSequencer
+   */
+  private record Partition(EventProcessor eventProcessor, EventJournal eventJournal, SnapshotManager snapshotManager, EventSequencer eventSequencer) {
+  }
+}
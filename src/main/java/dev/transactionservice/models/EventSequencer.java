@@ -0,0 +1,515 @@
+package dev.transactionservice.models;
+
+import dev.transactionservice.journal.Durability;
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventSequencer class for handing events from the controllers to a single thread that applies them to the event processor.
+ *
+ * <p> Request threads publish events into a pre-allocated ring buffer and park until the writer thread has filled in their result.
+ * As only the writer thread ever touches the event processor, its balances, message IDs and event logs need no locks,
+ * and every event is applied in one strict total order. </p>
+ *
+ * <p> The writer thread takes every event that has been published so far as one batch, and journals the whole batch before answering any of its requests.
+ * While a batch is being forced to disk, new requests queue up in the ring buffer and form the next batch, so they all share one fsync. </p>
+ *
+ * <p> A request event is buffered in the journal before the event processor sees it, so an event the journal refuses leaves no trace in memory.
+ * Once the journal fails to take an event after its request was applied, or fails to commit a batch, memory holds events the journal may not,
+ * so the partition stops: the writer thread refuses every further event and expires no more holds, while the balances can still be read. </p>
+ *
+ * <p> Request threads only ever wait by parking, never on a monitor, so virtual request threads unmount from their carrier while they wait
+ * instead of pinning it. When more requests are in flight than the ring buffer has slots, as easily happens with virtual threads,
+ * the surplus waits in the queue of a fair semaphore rather than polling for a free slot. </p>
+ *
+ * <p> A request that must not block its thread at all, such as one on an event loop, can publish asynchronously instead:
+ * it gets a future that the writer thread completes once the event is committed, or nothing at all if the ring buffer is full. </p>
+ *
+ * <p> The writer thread also expires the partition's holds, once per tick of their timing wheel, between batches. Every expired hold is released
+ * by an expiry event of its own, which is processed and journaled like a request, so replaying the journal releases the same holds. </p>
+ *
+ * <p> The EventRouter creates one event sequencer per partition, so every partition's events are applied on a writer thread of its own. </p>
+ */
+public class EventSequencer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventSequencer.class);
+
+  private static final int SPINS_BEFORE_PARKING = 1000; // How often the writer thread checks for a new event before parking
+  private static final long HOLD_EXPIRY_NANOS = TimeUnit.MILLISECONDS.toNanos(Ledger.HOLD_TICK_MILLIS); // How often the writer thread expires holds
+
+  private static final ThreadLocal<Ticket> TICKETS = ThreadLocal.withInitial(Ticket::new); // Reused by every request a pooled thread publishes, while a virtual thread gets its own
+
+  private EventProcessor eventProcessor = null;
+  private EventJournal eventJournal = null;
+  private ServiceMetrics serviceMetrics = null;
+  private Slot[] ringBuffer = null;
+  private Ticket[] batch = null; // The tickets of the batch being processed, only used by the writer thread
+  private ArrayList<Hold> expiredHolds = null; // The holds expired by the current tick, only used by the writer thread
+  private int mask = 0; // The ring buffer size is a power of 2, so a sequence can be turned into an index with a bitwise and
+  private AtomicLong claimedSequence = null; // The next sequence a request thread can claim
+  private Semaphore freeSlots = null; // One permit per ring buffer slot that is not claimed by a request thread
+  private Thread writer = null;
+  private volatile boolean writerParked = false;
+  private volatile boolean running = true;
+  private volatile RuntimeException failure = null; // The journal failure that stopped the partition, only written by the writer thread
+
+  /**
+   * Parameterized constructor for EventSequencer, which recovers the event processor from the latest snapshot and the event journal, and starts the writer thread.
+   *
+   * @param eventProcessor EventProcessor
+   * @param eventJournal EventJournal
+   * @param snapshotManager SnapshotManager
+   * @param serviceMetrics ServiceMetrics
+   * @param ringSize int, rounded up to the next power of 2
+   */
+  public EventSequencer(EventProcessor eventProcessor, EventJournal eventJournal, SnapshotManager snapshotManager, ServiceMetrics serviceMetrics, int ringSize) {
+    int size = Integer.highestOneBit(Math.max(ringSize, 2) - 1) << 1;
+
+    this.eventProcessor = eventProcessor;
+    this.eventJournal = eventJournal;
+    this.serviceMetrics = serviceMetrics;
+    this.ringBuffer = new Slot[size];
+    this.batch = new Ticket[size];
+    this.expiredHolds = new ArrayList<Hold>();
+    this.mask = size - 1;
+    this.claimedSequence = new AtomicLong(0);
+    this.freeSlots = new Semaphore(size, true);
+
+    for (int i = 0; i < size; i++) {
+      ringBuffer[i] = new Slot();
+    }
+
+    snapshotManager.recover(eventProcessor); // Rebuild the balances and message IDs from before the last shutdown
+
+    this.writer = new Thread(this::runWriter, "event-sequencer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Publishes a request event, waits until the writer thread has processed it, and returns its response.
+   *
+   * <p> The writer thread also logs the response event, so the caller does not need to publish it. </p>
+   *
+   * @param event Event
+   * @return The return value of the event's process method as an Object, or null if an event with the same message ID already exists.
+   */
+  public Object publish(Event event) {
+    return publish(event, null, null);
+  }
+
+  /**
+   * Publishes a batch of request events as one entry of the ring buffer, waits until the writer thread has processed all of them, and returns their responses.
+   *
+   * <p> The writer thread processes the events in their order in the batch, without any other event in between, and journals them together with one commit. </p>
+   *
+   * @param events Event[]
+   * @return Object[] containing the return value of each event's process method, null if an event with the same message ID already exists,
+   * or the RuntimeException the event failed with.
+   */
+  public Object[] publishBatch(Event[] events) {
+    Object[] results = new Object[events.length];
+
+    publish(null, events, results);
+
+    return results;
+  }
+
+  /**
+   * Publishes a batch of request events as one entry of the ring buffer like publishBatch, but only waits for a free slot of the ring buffer,
+   * not for the batch to be processed, so that a caller can publish batches to several event sequencers before waiting for any of them.
+   *
+   * <p> The returned future is completed on the writer thread, so anything more than a hand-off to another thread should not be chained to it directly. </p>
+   *
+   * @param events Event[]
+   * @return CompletableFuture&lt;Object[]&gt; object that is completed with the results of publishBatch,
+   * or completed exceptionally if the batch could not be committed.
+   */
+  public CompletableFuture<Object[]> publishBatchAsync(Event[] events) {
+    Ticket ticket = new Ticket(); // Answered once the caller has moved on, so the ticket cannot be the thread's own
+    ticket.results = new Object[events.length];
+    ticket.batchFuture = new CompletableFuture<Object[]>();
+
+    freeSlots.acquireUninterruptibly();
+
+    claim(null, events, ticket);
+
+    return ticket.batchFuture;
+  }
+
+  /**
+   * Publishes a request event without waiting, unless the ring buffer is full.
+   *
+   * <p> The returned future is completed on the writer thread, so anything more than a hand-off to another thread should not be chained to it directly. </p>
+   *
+   * @param event Event
+   * @return CompletableFuture&lt;Object&gt; object that is completed with the return value of the event's process method,
+   * or with null if an event with the same message ID already exists, or null if the ring buffer is full and the event was not published.
+   */
+  public CompletableFuture<Object> tryPublish(Event event) {
+    if (!freeSlots.tryAcquire()) {
+      return null;
+    }
+
+    Ticket ticket = new Ticket(); // The request can be answered on another thread, so the ticket cannot be a thread's own
+    ticket.future = new CompletableFuture<Object>();
+
+    claim(event, null, ticket);
+
+    return ticket.future;
+  }
+
+  /**
+   * Publishes either a single event or a batch of events, and waits until the writer thread has processed it.
+   *
+   * @param event Event, or null for a batch
+   * @param events Event[], or null for a single event
+   * @param results Object[], filled in with the results of a batch
+   * @return The return value of the single event's process method as an Object, or null for a batch.
+   */
+  private Object publish(Event event, Event[] events, Object[] results) {
+    Ticket ticket = TICKETS.get();
+    ticket.waiter = Thread.currentThread();
+    ticket.results = results;
+    ticket.done = false;
+
+    freeSlots.acquireUninterruptibly(); // Wait until the writer thread has freed a slot, if the ring buffer is full
+
+    claim(event, events, ticket);
+
+    while (!ticket.done) {
+      LockSupport.park(this);
+    }
+
+    RuntimeException failure = ticket.failure;
+    Object result = ticket.result;
+    ticket.failure = null;
+    ticket.result = null;
+    ticket.results = null;
+    ticket.waiter = null;
+
+    if (failure != null) {
+      throw failure;
+    }
+
+    return result;
+  }
+
+  /**
+   * Claims the next slot of the ring buffer for an event or a batch of events, and wakes up the writer thread if it is parked.
+   * A permit of the free slots must have been acquired first.
+   *
+   * @param event Event, or null for a batch
+   * @param events Event[], or null for a single event
+   * @param ticket Ticket
+   */
+  private void claim(Event event, Event[] events, Ticket ticket) {
+    long sequence = claimedSequence.getAndIncrement();
+    Slot slot = ringBuffer[(int)(sequence & mask)];
+    slot.event = event;
+    slot.events = events;
+    slot.ticket = ticket;
+    slot.publishedSequence = sequence; // Volatile write, so the writer thread sees the event and ticket once it sees the sequence
+
+    if (writerParked) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  /**
+   * Stops the writer thread, waiting for it to finish its current batch, which the EventRouter does once the application shuts down.
+   */
+  public void shutdown() {
+    running = false;
+    LockSupport.unpark(writer);
+
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The writer thread's loop, which processes every published event in sequence order, one batch at a time.
+   */
+  private void runWriter() {
+    boolean commitPerEvent = eventJournal.getDurability() == Durability.SYNC;
+    long sequence = 0;
+    long lastExpiry = System.nanoTime();
+    int spins = 0;
+
+    while (running) {
+      if (failure == null && System.nanoTime() - lastExpiry >= HOLD_EXPIRY_NANOS) {
+        lastExpiry = System.nanoTime();
+        expireHolds();
+      }
+
+      if (ringBuffer[(int)(sequence & mask)].publishedSequence != sequence) {
+        if (++spins < SPINS_BEFORE_PARKING) {
+          Thread.onSpinWait();
+        }
+        else {
+          writerParked = true;
+
+          if (ringBuffer[(int)(sequence & mask)].publishedSequence != sequence && running && failure == null && eventProcessor.holdCount() > 0) { // Wake up for the next tick of the open holds
+            LockSupport.parkNanos(this, HOLD_EXPIRY_NANOS);
+          }
+          else if (ringBuffer[(int)(sequence & mask)].publishedSequence != sequence && running) { // Check again after announcing the park, so a publish in between is never missed
+            LockSupport.park(this);
+          }
+
+          writerParked = false;
+          spins = 0;
+        }
+
+        continue;
+      }
+
+      int batchSize = 0;
+      spins = 0;
+
+      while (batchSize < batch.length && ringBuffer[(int)(sequence & mask)].publishedSequence == sequence) {
+        Slot slot = ringBuffer[(int)(sequence & mask)];
+        Event event = slot.event;
+        Event[] events = slot.events;
+        Ticket ticket = slot.ticket;
+        slot.event = null;
+        slot.events = null;
+        slot.ticket = null;
+
+        sequence++;
+        freeSlots.release(); // The slot's contents have been read, so it can be reused by a request thread
+
+        if (events == null) {
+          try {
+            ticket.result = process(event);
+          }
+          catch (RuntimeException exception) { // Hand the exception to the request thread, the writer thread has to keep running
+            ticket.failure = exception;
+          }
+        }
+        else {
+          for (int i = 0; i < events.length; i++) {
+            try {
+              ticket.results[i] = process(events[i]);
+            }
+            catch (RuntimeException exception) { // Only this event failed, so the rest of the batch is still processed
+              ticket.results[i] = exception;
+            }
+          }
+        }
+
+        batch[batchSize++] = ticket;
+
+        if (commitPerEvent) {
+          commit(batchSize);
+          batchSize = 0;
+        }
+      }
+
+      commit(batchSize);
+    }
+  }
+
+  /**
+   * Commits the event journal and then answers every request of the batch, so that no request is answered before its events are durable.
+   *
+   * @param batchSize int
+   */
+  private void commit(int batchSize) {
+    if (batchSize == 0) {
+      return;
+    }
+
+    try {
+      eventJournal.commit();
+    }
+    catch (RuntimeException exception) {
+      fail(exception);
+
+      for (int i = 0; i < batchSize; i++) {
+        if (batch[i].failure == null) {
+          batch[i].result = null;
+          batch[i].failure = exception;
+        }
+      }
+    }
+
+    for (int i = 0; i < batchSize; i++) {
+      Ticket ticket = batch[i];
+      Thread waiter = ticket.waiter; // Read before completing, as the request thread may reuse its ticket right after
+      batch[i] = null;
+
+      if (ticket.future != null) {
+        if (ticket.failure != null) {
+          ticket.future.completeExceptionally(ticket.failure);
+        }
+        else {
+          ticket.future.complete(ticket.result);
+        }
+
+        continue;
+      }
+
+      if (ticket.batchFuture != null) {
+        if (ticket.failure != null) {
+          ticket.batchFuture.completeExceptionally(ticket.failure);
+        }
+        else {
+          ticket.batchFuture.complete(ticket.results);
+        }
+
+        continue;
+      }
+
+      ticket.done = true;
+      LockSupport.unpark(waiter);
+    }
+  }
+
+  /**
+   * Releases every hold that has expired by the current time through an expiry event, and commits the journal once they are all released.
+   * The failure of a single expiry is logged, as no request is waiting for it, while a failed commit stops the partition like a failed batch does.
+   */
+  private void expireHolds() {
+    eventProcessor.expireHolds(System.currentTimeMillis(), expiredHolds);
+
+    if (expiredHolds.isEmpty()) {
+      return;
+    }
+
+    for (Hold hold : expiredHolds) { // The expiry has the message ID of the hold, which is already reserved
+      HoldRequestEvent expiry = new HoldRequestEvent(hold.getHoldId(), new HoldRequest(hold.getHoldId(), hold.getUserId(), hold.getHoldId(), HoldAction.EXPIRE, null, 0));
+
+      try {
+        eventJournal.append(expiry);
+        apply(expiry);
+      }
+      catch (RuntimeException exception) {
+        LOGGER.error("The expired hold " + hold.getHoldId() + " could not be released!", exception);
+      }
+    }
+
+    expiredHolds.clear();
+
+    try {
+      eventJournal.commit();
+    }
+    catch (RuntimeException exception) {
+      fail(exception);
+    }
+  }
+
+  /**
+   * Journals and processes a request event and its response event on the writer thread, unless its message ID has been used before.
+   *
+   * @param event Event
+   * @return The return value of the event's process method as an Object, or null if an event with the same message ID already exists.
+   * @throws IllegalStateException if the partition has stopped after a journal failure.
+   */
+  private Object process(Event event) {
+    if (failure != null) { // The partition has stopped, so the event is refused without being processed
+      throw new IllegalStateException("The partition has stopped, as its event journal failed!", failure);
+    }
+
+    if (eventProcessor.eventExists(event.getMessageId())) {
+      serviceMetrics.recordRejection(RequestError.MESSAGE_ID_EXISTS);
+      return null;
+    }
+
+    eventJournal.append(event); // Before anything in memory changes, so that an event the journal refuses, such as one too large, is simply failed
+    eventProcessor.reserveMessageId(event.getMessageId()); // Only the writer thread reserves message IDs, so they are reserved in journal order
+
+    return apply(event);
+  }
+
+  /**
+   * Processes a request event that is already journaled on the writer thread, then journals and processes its response event,
+   * and records how long each took to process.
+   *
+   * @param event Event
+   * @return The return value of the event's process method as an Object.
+   */
+  private Object apply(Event event) {
+    long start = System.nanoTime();
+    Object response = null;
+
+    try {
+      response = eventProcessor.processEvent(event);
+    }
+    catch (RuntimeException exception) { // The event failed, such as on an overflowing balance, so it must not be replayed either
+      eventJournal.discardLast();
+      throw exception;
+    }
+
+    serviceMetrics.recordEvent(event, System.nanoTime() - start);
+    serviceMetrics.recordResponse(response);
+
+    Event responseEvent = event.createResponseEvent(response);
+
+    if (responseEvent != null) {
+      try {
+        eventJournal.append(responseEvent);
+      }
+      catch (RuntimeException exception) { // The request has already been applied, so memory is ahead of the journal
+        fail(exception);
+        throw exception;
+      }
+
+      start = System.nanoTime();
+      eventProcessor.processEvent(responseEvent);
+      serviceMetrics.recordEvent(responseEvent, System.nanoTime() - start);
+    }
+
+    return response;
+  }
+
+  /**
+   * Stops the partition after a journal failure, unless it has already stopped.
+   *
+   * @param exception RuntimeException
+   */
+  private void fail(RuntimeException exception) {
+    if (failure == null) {
+      failure = exception;
+      LOGGER.error("The event journal failed, so the partition refuses every further event!", exception);
+    }
+  }
+
+  /**
+   * Slot class for one pre-allocated entry of the ring buffer.
+   */
+  private static class Slot {
+    private volatile long publishedSequence = -1; // The sequence of the event currently stored in this slot
+    private Event event = null;
+    private Event[] events = null; // The events of a batch, published as one entry instead of a single event
+    private Ticket ticket = null;
+  }
+
+  /**
+   * Ticket class for handing the result of an event back to the request thread that published it.
+   */
+  private static class Ticket {
+    private Thread waiter = null;
+    private CompletableFuture<Object> future = null; // Completed instead of unparking the waiter, for an event published without waiting
+    private CompletableFuture<Object[]> batchFuture = null; // Completed instead of unparking the waiter, for a batch published without waiting
+    private Object result = null;
+    private Object[] results = null; // The results of a batch
+    private RuntimeException failure = null;
+    private volatile boolean done = false;
+  }
+}
@@ -0,0 +1,81 @@
+package dev.transactionservice.models;
+
+/**
+ * Hold class for storing an authorization hold, which reserves funds of a user's balance until it is captured, released or expires.
+ *
+ * <p> A hold is also the timer of its own expiry: the TimingWheel links the holds of one slot into a list through their own fields,
+ * so scheduling or cancelling the expiry of a hold allocates nothing. </p>
+ */
+public class Hold {
+    private String holdId = null;
+    private String userId = null;
+    private String currency = null;
+    private long amount = 0; // In minor units of the currency
+    private long expiresAtMillis = 0;
+
+    Hold previous = null; // The neighbours of the hold in its slot of the TimingWheel
+    Hold next = null;
+    int slot = -1; // The slot of the TimingWheel the hold is linked into, or -1 if its expiry is not scheduled
+
+    /**
+     * Parameterized constructor for Hold.
+     *
+     * @param holdId String, the message ID of the request that placed the hold
+     * @param userId String
+     * @param currency String
+     * @param amount long, in minor units of the currency
+     * @param expiresAtMillis long, the time the hold expires at, in milliseconds since the epoch
+     */
+    public Hold(String holdId, String userId, String currency, long amount, long expiresAtMillis) {
+      this.holdId = holdId;
+      this.userId = userId;
+      this.currency = currency;
+      this.amount = amount;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * Gets the hold ID.
+     *
+     * @return String object containing the hold ID.
+     */
+    public String getHoldId() {
+      return holdId;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return String object containing the user ID.
+     */
+    public String getUserId() {
+      return userId;
+    }
+
+    /**
+     * Gets the currency.
+     *
+     * @return String object containing the currency.
+     */
+    public String getCurrency() {
+      return currency;
+    }
+
+    /**
+     * Gets the held amount.
+     *
+     * @return long containing the held amount, in minor units of the currency.
+     */
+    public long getAmount() {
+      return amount;
+    }
+
+    /**
+     * Gets the time the hold expires at.
+     *
+     * @return long containing the time the hold expires at, in milliseconds since the epoch.
+     */
+    public long getExpiresAtMillis() {
+      return expiresAtMillis;
+    }
+}
@@ -0,0 +1,11 @@
+package dev.transactionservice.models;
+
+/**
+ * The action a hold request takes on an authorization hold. A hold is placed once, and is then closed by exactly one of the other actions.
+ */
+public enum HoldAction {
+    HOLD, // Moves funds out of the available balance into a new hold, until the hold is captured, released or expires
+    CAPTURE, // Takes some or all of the held funds, and returns the rest to the available balance
+    RELEASE, // Returns all of the held funds to the available balance
+    EXPIRE // Returns all of the held funds once the hold has expired, which only the writer thread requests
+}
@@ -0,0 +1,199 @@
+package dev.transactionservice.models;
+
+/**
+ * HoldRequest class for storing a request that places, captures or releases an authorization hold, or expires it.
+ *
+ * <p> The ID of a hold is the message ID of the request that placed it. A capture or release names the hold by its ID,
+ * and is only approved for the user the hold belongs to. </p>
+ */
+public class HoldRequest {
+    private String messageId = null;
+    private String userId = null;
+    private String holdId = null;
+    private HoldAction action = null;
+    private Amount transactionAmount = null; // The held amount of a hold, or the captured amount of a capture
+    private long ttlSeconds = 0; // How long a hold stays open before it expires
+
+    /**
+     * Default constructor for HoldRequest.
+     */
+    public HoldRequest() {
+      
+    }
+
+    /**
+     * Parameterized constructor for HoldRequest.
+     * 
+     * @param messageId String
+     * @param userId String
+     * @param holdId String
+     * @param action HoldAction
+     * @param transactionAmount Amount, or null for a release or an expiry
+     * @param ttlSeconds long, or 0 for anything but a hold
+     */
+    public HoldRequest(String messageId, String userId, String holdId, HoldAction action, Amount transactionAmount, long ttlSeconds) {
+      this.messageId = messageId;
+      this.userId = userId;
+      this.holdId = holdId;
+      this.action = action;
+      this.transactionAmount = transactionAmount;
+      this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Sets the message ID.
+     * 
+     * @param messageId String
+     */
+    public void setMessageId(String messageId) {
+      this.messageId = messageId;
+    }
+
+    /**
+     * Sets the user ID.
+     * 
+     * @param userId String
+     */
+    public void setUserId(String userId) {
+      this.userId = userId;
+    }
+
+    /**
+     * Sets the hold ID.
+     * 
+     * @param holdId String
+     */
+    public void setHoldId(String holdId) {
+      this.holdId = holdId;
+    }
+
+    /**
+     * Sets the action.
+     * 
+     * @param action HoldAction
+     */
+    public void setAction(HoldAction action) {
+      this.action = action;
+    }
+
+    /**
+     * Sets the transaction amount.
+     * 
+     * @param transactionAmount Amount
+     */
+    public void setTransactionAmount(Amount transactionAmount) {
+      this.transactionAmount = transactionAmount;
+    }
+
+    /**
+     * Sets the TTL.
+     * 
+     * @param ttlSeconds long
+     */
+    public void setTtlSeconds(long ttlSeconds) {
+      this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Gets the message ID.
+     * 
+     * @return String object containing the message ID.
+     */
+    public String getMessageId() {
+      return messageId;
+    }
+
+    /**
+     * Gets the user ID.
+     * 
+     * @return String object containing the user ID.
+     */
+    public String getUserId() {
+      return userId;
+    }
+
+    /**
+     * Gets the hold ID.
+     * 
+     * @return String object containing the hold ID.
+     */
+    public String getHoldId() {
+      return holdId;
+    }
+
+    /**
+     * Gets the action.
+     * 
+     * @return HoldAction enumeration as either HOLD, CAPTURE, RELEASE or EXPIRE.
+     */
+    public HoldAction getAction() {
+      return action;
+    }
+
+    /**
+     * Gets the transaction amount.
+     * 
+     * @return Amount object containing the transaction amount, or null for a release or an expiry.
+     */
+    public Amount getTransactionAmount() {
+      return transactionAmount;
+    }
+
+    /**
+     * Gets the TTL.
+     * 
+     * @return long containing how many seconds a hold stays open before it expires.
+     */
+    public long getTtlSeconds() {
+      return ttlSeconds;
+    }
+
+    /**
+     * Creates a hold response from a hold request event.
+     * 
+     * <p> The expiry of a hold is taken from the time stamp of its event, so replaying the journal schedules the same expiry. </p>
+     * 
+     * @param holdRequestEvent HoldRequestEvent
+     * @param ledger Ledger
+     * @return HoldResponse object containing the response of a hold request following a hold request event, with the available balance after it.
+     */
+    public HoldResponse processRequest(HoldRequestEvent holdRequestEvent, Ledger ledger) {
+      ResponseCode responseCode = ResponseCode.DECLINED;
+      String currency = transactionAmount == null ? null : transactionAmount.getCurrency();
+      long currentUserBalance = 0;
+
+      if (action == HoldAction.HOLD) {
+        long expiresAtMillis = holdRequestEvent.getTimeStamp().toEpochMilli() + ttlSeconds * 1000;
+        long holdResult = ledger.placeHold(userId, holdId, currency, transactionAmount.getMinorUnits(), expiresAtMillis);
+
+        responseCode = holdResult < 0 ? ResponseCode.DECLINED : ResponseCode.APPROVED;
+        currentUserBalance = holdResult < 0 ? ~holdResult : holdResult; // A declined hold returns the complement of the unmodified balance, like a declined debit
+      }
+      else {
+        Hold hold = ledger.findHold(userId, holdId);
+
+        if (action == HoldAction.CAPTURE && hold != null && hold.getCurrency().equals(currency) && transactionAmount.getMinorUnits() <= hold.getAmount()) {
+          responseCode = ResponseCode.APPROVED;
+          currentUserBalance = ledger.captureHold(hold, transactionAmount.getMinorUnits());
+        }
+        else if (action != HoldAction.CAPTURE && hold != null) {
+          responseCode = ResponseCode.APPROVED;
+          currency = hold.getCurrency();
+          currentUserBalance = ledger.releaseHold(hold);
+        }
+        else if (currency != null) { // A declined capture still reports the balance, while a declined release has no currency to report it in
+          currentUserBalance = ledger.getBalance(userId, currency);
+        }
+      }
+
+      Amount balance = currency == null ? null : new Amount(Money.format(currentUserBalance, currency), currency, DebitCredit.DEBIT);
+
+      return new HoldResponse(messageId, userId, holdId, action, responseCode, balance);
+    }
+
+    @Override
+    public String toString() {
+        return "{\"messageId\":\"" + messageId + "\",\"userId\":\"" + userId + "\",\"holdId\":\"" + holdId + "\",\"action\":\"" + action
+             + "\",\"transactionAmount\":" + transactionAmount + ",\"ttlSeconds\":" + ttlSeconds + "}";
+    }
+}
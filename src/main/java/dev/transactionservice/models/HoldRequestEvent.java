@@ -0,0 +1,50 @@
+package dev.transactionservice.models;
+
+import java.time.Instant;
+
+/**
+ * HoldRequestEvent class that is a child of the Event class.
+ */
+public class HoldRequestEvent extends Event {
+  private HoldRequest holdRequest = null;
+
+  /**
+   * Parameterized constructor for HoldRequestEvent.
+   * 
+   * @param messageId String
+   * @param holdRequest HoldRequest
+   */
+  public HoldRequestEvent(String messageId, HoldRequest holdRequest) {
+    super(messageId); // Construct the HoldRequestEvent using the Event constructor
+    this.holdRequest = holdRequest;
+  }
+
+  /**
+   * Parameterized constructor for HoldRequestEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param holdRequest HoldRequest
+   * @param timeStamp Instant
+   */
+  public HoldRequestEvent(String messageId, HoldRequest holdRequest, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.holdRequest = holdRequest;
+  }
+
+  public String getUserId() {
+    return holdRequest.getUserId();
+  }
+
+  public HoldRequest getStoredRecord() {
+    return holdRequest;
+  }
+
+  public Object process(Ledger ledger) {
+    return holdRequest.processRequest(this, ledger);
+  }
+
+  @Override
+  public Event createResponseEvent(Object response) {
+    return new HoldResponseEvent(getMessageId(), (HoldResponse)response);
+  }
+}
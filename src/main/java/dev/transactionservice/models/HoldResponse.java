@@ -0,0 +1,153 @@
+package dev.transactionservice.models;
+
+/**
+ * HoldResponse class for storing the result of a hold request, with the available balance of the hold's currency after it.
+ */
+public class HoldResponse {
+    private String messageId = null;
+    private String userId = null;
+    private String holdId = null;
+    private HoldAction action = null;
+    private ResponseCode responseCode = null;
+    private Amount balance = null; // Null for a declined release, as the hold and therefore its currency are unknown
+
+    /**
+     * Default constructor.
+     */
+    public HoldResponse() {
+      
+    }
+
+    /**
+     * Parameterized constructor for HoldResponse.
+     * 
+     * @param messageId String
+     * @param userId String
+     * @param holdId String
+     * @param action HoldAction
+     * @param responseCode ResponseCode
+     * @param balance Amount
+     */
+    public HoldResponse(String messageId, String userId, String holdId, HoldAction action, ResponseCode responseCode, Amount balance) {
+      this.messageId = messageId;
+      this.userId = userId;
+      this.holdId = holdId;
+      this.action = action;
+      this.responseCode = responseCode;
+      this.balance = balance;
+    }
+
+    /**
+     * Sets the message ID.
+     * 
+     * @param messageId String
+     */
+    public void setMessageId(String messageId) {
+      this.messageId = messageId;
+    }
+
+    /**
+     * Sets the user ID.
+     * 
+     * @param userId String
+     */
+    public void setUserId(String userId) {
+      this.userId = userId;
+    }
+
+    /**
+     * Sets the hold ID.
+     * 
+     * @param holdId String
+     */
+    public void setHoldId(String holdId) {
+      this.holdId = holdId;
+    }
+
+    /**
+     * Sets the action.
+     * 
+     * @param action HoldAction
+     */
+    public void setAction(HoldAction action) {
+      this.action = action;
+    }
+
+    /**
+     * Sets the response code.
+     * 
+     * @param responseCode ResponseCode
+     */
+    public void setResponseCode(ResponseCode responseCode) {
+      this.responseCode = responseCode;
+    }
+
+    /**
+     * Sets the balance amount.
+     * 
+     * @param balance Amount
+     */
+    public void setBalance(Amount balance) {
+      this.balance = balance;
+    }
+
+    /**
+     * Gets the message ID.
+     * 
+     * @return String object containing the message ID.
+     */
+    public String getMessageId() {
+      return messageId;
+    }
+
+    /**
+     * Gets the user ID.
+     * 
+     * @return String object containing the user ID.
+     */
+    public String getUserId() {
+      return userId;
+    }
+
+    /**
+     * Gets the hold ID.
+     * 
+     * @return String object containing the hold ID.
+     */
+    public String getHoldId() {
+      return holdId;
+    }
+
+    /**
+     * Gets the action.
+     * 
+     * @return HoldAction enumeration as either HOLD, CAPTURE, RELEASE or EXPIRE.
+     */
+    public HoldAction getAction() {
+      return action;
+    }
+
+    /**
+     * Gets the response code.
+     * 
+     * @return ResponseCode enumeration as either APPROVED or DECLINED.
+     */
+    public ResponseCode getResponseCode() {
+      return responseCode;
+    }
+
+    /**
+     * Gets the available balance.
+     * 
+     * @return Amount object containing the available balance, or null if a release was declined.
+     */
+    public Amount getBalance() {
+      return balance;
+    }
+
+    @Override
+    public String toString() {
+        return "{\"messageId\":\"" + messageId + "\",\"userId\":\"" + userId + "\",\"holdId\":\"" + holdId + "\",\"action\":\"" + action
+             + "\",\"responseCode\":\"" + responseCode + "\",\"balance\":" + balance + "}";
+    }
+}
@@ -0,0 +1,45 @@
+package dev.transactionservice.models;
+
+import java.time.Instant;
+
+/**
+ * HoldResponseEvent class that is a child of the Event class.
+ */
+public class HoldResponseEvent extends Event {
+  private HoldResponse holdResponse = null;
+
+  /**
+   * Parameterized constructor for HoldResponseEvent.
+   * 
+   * @param messageId String
+   * @param holdResponse HoldResponse
+   */
+  public HoldResponseEvent(String messageId, HoldResponse holdResponse) {
+    super(messageId); // Construct the HoldResponseEvent using the Event constructor
+    this.holdResponse = holdResponse;
+  }
+
+  /**
+   * Parameterized constructor for HoldResponseEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param holdResponse HoldResponse
+   * @param timeStamp Instant
+   */
+  public HoldResponseEvent(String messageId, HoldResponse holdResponse, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.holdResponse = holdResponse;
+  }
+
+  public String getUserId() {
+    return holdResponse.getUserId();
+  }
+
+  public HoldResponse getStoredRecord() {
+    return holdResponse;
+  }
+
+  public Object process(Ledger ledger) {
+    return null;
+  }
+}
@@ -0,0 +1,361 @@
+package dev.transactionservice.models;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * IdempotencyWindow class for remembering recently used message IDs in a bounded amount of memory, so that a message ID can only be reserved once.
+ *
+ * <p> Message IDs are kept in generations of a fixed size. The current and the previous generation are kept exactly, in concurrent sets.
+ * Once the current generation is full, the previous generation is folded into a Bloom filter, and a ring of these filters remembers
+ * the older generations compactly, until the oldest filter is cleared to make room for the next generation. A message ID is therefore
+ * remembered for at least the configured amount of generations, after which it is forgotten, and memory stays flat no matter how much traffic is seen. </p>
+ *
+ * <p> A Bloom filter can report a message ID that was never used as used, so a new message ID is wrongly rejected with a probability of about
+ * the amount of filters times the configured false positive rate, but a used message ID is never accepted again within the retention horizon. </p>
+ *
+ * <p> Whether a message ID is accepted only depends on the message IDs reserved before it, so replaying the same message IDs in the same order
+ * rebuilds the same window. </p>
+ */
+public class IdempotencyWindow {
+  private static final int FORMAT_VERSION = 1;
+
+  private int generationSize = 0;
+  private int filterCount = 0;
+  private double falsePositiveRate = 0;
+  private ReentrantReadWriteLock lock = null; // Reservations share the read lock, moving to the next generation takes the write lock
+  private Set<String> current = null;
+  private AtomicInteger currentSize = null;
+  private Set<String> previous = null;
+  private BloomFilter[] filters = null; // A ring of filters, one per older generation
+  private int newestFilter = 0;
+
+  /**
+   * Parameterized constructor for IdempotencyWindow.
+   *
+   * @param exactIds int, how many of the most recent message IDs are at least kept exactly, split into two generations
+   * @param filteredGenerations int, how many older generations are kept in Bloom filters
+   * @param falsePositiveRate double, the probability of each Bloom filter reporting a message ID it does not contain
+   */
+  public IdempotencyWindow(int exactIds, int filteredGenerations, double falsePositiveRate) {
+    this.generationSize = Math.max(exactIds / 2, 1);
+    this.filterCount = Math.max(filteredGenerations, 0);
+    this.falsePositiveRate = falsePositiveRate;
+    this.lock = new ReentrantReadWriteLock();
+    this.filters = new BloomFilter[filterCount];
+
+    for (int i = 0; i < filterCount; i++) {
+      filters[i] = new BloomFilter(generationSize, falsePositiveRate);
+    }
+
+    clear();
+  }
+
+  /**
+   * Atomically reserves a message ID, unless it is already in the window.
+   *
+   * @param messageId String
+   * @return boolean containing true if the message ID was reserved, or false if it has been used before (or probably has, for older generations).
+   */
+  public boolean reserve(String messageId) {
+    boolean reserved = false;
+    boolean full = false;
+
+    lock.readLock().lock();
+
+    try {
+      if (previous.contains(messageId) || filtered(messageId)) {
+        return false;
+      }
+
+      reserved = current.add(messageId); // Only one of several concurrent reservations of the same message ID can add it
+      full = reserved && currentSize.incrementAndGet() >= generationSize;
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+
+    if (full) {
+      nextGeneration();
+    }
+
+    return reserved;
+  }
+
+  /**
+   * Checks if a message ID is in the window.
+   *
+   * @param messageId String
+   * @return boolean containing true if the message ID has been reserved (or probably has, for older generations).
+   */
+  public boolean contains(String messageId) {
+    lock.readLock().lock();
+
+    try {
+      return current.contains(messageId) || previous.contains(messageId) || filtered(messageId);
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the amount of message IDs that are kept exactly.
+   *
+   * @return int containing the amount of message IDs in the current and the previous generation.
+   */
+  public int size() {
+    lock.readLock().lock();
+
+    try {
+      return current.size() + previous.size();
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Forgets every message ID.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+
+    try {
+      current = ConcurrentHashMap.newKeySet();
+      currentSize = new AtomicInteger(0);
+      previous = ConcurrentHashMap.newKeySet();
+      newestFilter = 0;
+
+      for (BloomFilter filter : filters) {
+        filter.clear();
+      }
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Writes the window, so that it can be read back by read. Must not be called while message IDs are being reserved.
+   *
+   * @param output DataOutputStream
+   * @throws IOException if the window could not be written.
+   */
+  public void write(DataOutputStream output) throws IOException {
+    output.writeInt(FORMAT_VERSION);
+    output.writeInt(generationSize);
+    output.writeInt(filterCount);
+    output.writeDouble(falsePositiveRate);
+    writeIds(output, previous);
+    writeIds(output, current);
+    output.writeInt(newestFilter);
+
+    for (BloomFilter filter : filters) {
+      output.writeInt(filter.bits.length);
+
+      for (long word : filter.bits) {
+        output.writeLong(word);
+      }
+    }
+  }
+
+  /**
+   * Reads a window written by write. If it was written with different settings, only its exactly kept message IDs are carried over.
+   *
+   * @param input DataInputStream
+   * @param exactIds int
+   * @param filteredGenerations int
+   * @param falsePositiveRate double
+   * @return IdempotencyWindow object containing the window that was read.
+   * @throws IOException if the window could not be read.
+   */
+  public static IdempotencyWindow read(DataInputStream input, int exactIds, int filteredGenerations, double falsePositiveRate) throws IOException {
+    IdempotencyWindow window = new IdempotencyWindow(exactIds, filteredGenerations, falsePositiveRate);
+
+    if (input.readInt() != FORMAT_VERSION) {
+      throw new IOException("Unknown idempotency window format!");
+    }
+
+    int writtenGenerationSize = input.readInt();
+    int writtenFilterCount = input.readInt();
+    double writtenFalsePositiveRate = input.readDouble();
+
+    if (writtenGenerationSize != window.generationSize || writtenFilterCount != window.filterCount || writtenFalsePositiveRate != falsePositiveRate) {
+      for (int generation = 0; generation < 2; generation++) { // Reserve the previous generation first, so the order of the message IDs is kept
+        for (int i = input.readInt(); i > 0; i--) {
+          window.reserve(readString(input));
+        }
+      }
+
+      return window;
+    }
+
+    for (int i = input.readInt(); i > 0; i--) {
+      window.previous.add(readString(input));
+    }
+
+    for (int i = input.readInt(); i > 0; i--) {
+      window.current.add(readString(input));
+      window.currentSize.incrementAndGet();
+    }
+
+    window.newestFilter = input.readInt();
+
+    for (BloomFilter filter : window.filters) {
+      if (input.readInt() != filter.bits.length) {
+        throw new IOException("The Bloom filter size does not match!");
+      }
+
+      for (int i = 0; i < filter.bits.length; i++) {
+        filter.bits[i] = input.readLong();
+      }
+    }
+
+    return window;
+  }
+
+  /**
+   * Checks if a message ID is probably in one of the Bloom filters. Must be called while holding the lock.
+   *
+   * @param messageId String
+   * @return boolean containing true if one of the filters probably contains the message ID.
+   */
+  private boolean filtered(String messageId) {
+    if (filterCount == 0) {
+      return false;
+    }
+
+    long hash = BloomFilter.hash(messageId);
+
+    for (BloomFilter filter : filters) {
+      if (filter.mightContain(hash)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Moves to the next generation once the current one is full, folding the previous generation into the oldest Bloom filter.
+   */
+  private void nextGeneration() {
+    lock.writeLock().lock();
+
+    try {
+      if (currentSize.get() < generationSize) { // Another thread already moved on
+        return;
+      }
+
+      if (filterCount > 0) {
+        newestFilter = (newestFilter + 1) % filterCount;
+        BloomFilter filter = filters[newestFilter]; // The oldest filter, whose generation leaves the window
+        filter.clear();
+
+        for (String messageId : previous) {
+          filter.add(BloomFilter.hash(messageId));
+        }
+      }
+
+      previous = current;
+      current = ConcurrentHashMap.newKeySet();
+      currentSize.set(0);
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static void writeIds(DataOutputStream output, Set<String> messageIds) throws IOException {
+    String[] ids = messageIds.toArray(new String[0]);
+    output.writeInt(ids.length);
+
+    for (String id : ids) {
+      byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    return new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * BloomFilter class for one generation of older message IDs, using double hashing over a 64-bit hash of the message ID.
+   */
+  private static class BloomFilter {
+    private long[] bits = null;
+    private long bitCount = 0;
+    private int hashCount = 0;
+
+    private BloomFilter(int expectedIds, double falsePositiveRate) {
+      double bitsPerId = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+
+      this.bitCount = Math.max((long)Math.ceil(expectedIds * bitsPerId), Long.SIZE);
+      this.bits = new long[(int)((bitCount + Long.SIZE - 1) / Long.SIZE)];
+      this.bitCount = (long)bits.length * Long.SIZE;
+      this.hashCount = Math.max((int)Math.round(bitsPerId * Math.log(2)), 1);
+    }
+
+    private void add(long hash) {
+      long step = (hash >>> 32) | 1;
+
+      for (int i = 0; i < hashCount; i++, hash += step) {
+        long bit = Long.remainderUnsigned(hash, bitCount);
+        bits[(int)(bit >>> 6)] |= 1L << bit;
+      }
+    }
+
+    private boolean mightContain(long hash) {
+      long step = (hash >>> 32) | 1;
+
+      for (int i = 0; i < hashCount; i++, hash += step) {
+        long bit = Long.remainderUnsigned(hash, bitCount);
+
+        if ((bits[(int)(bit >>> 6)] & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private void clear() {
+      Arrays.fill(bits, 0);
+    }
+
+    /**
+     * Hashes a message ID into 64 bits with FNV-1a and a final mix, as the 32 bits of String.hashCode collide too often for large generations.
+     *
+     * @param messageId String
+     * @return long containing the hash.
+     */
+    private static long hash(String messageId) {
+      long hash = 0xCBF29CE484222325L;
+
+      for (int i = 0; i < messageId.length(); i++) {
+        hash = (hash ^ messageId.charAt(i)) * 0x100000001B3L;
+      }
+
+      hash ^= hash >>> 33;
+      hash *= 0xFF51AFD7ED558CCDL;
+      hash ^= hash >>> 33;
+
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,798 @@
+package dev.transactionservice.models;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+
+/**
+ * JsonCodec class for reading and writing the JSON of the load and authorization requests and responses and their amounts, without reflection.
+ *
+ * <p> Requests are parsed straight from the bytes of the body: field names and enumeration names are compared against their bytes,
+ * and a string is only created for each field's value. Responses are written into one byte array, which is then written to the stream at once.
+ * The output is identical to that of Spring Boot's ObjectMapper for these types, with the same field order, null handling and escaping. </p>
+ *
+ * <p> Parsing follows the ObjectMapper's defaults as well: fields may come in any order, unknown fields are skipped, a number or boolean
+ * is read as its text where a string is expected, an enumeration may be given by its ordinal, and anything after the object is ignored.
+ * Malformed JSON is rejected with an IllegalArgumentException. </p>
+ */
+public final class JsonCodec {
+  private static final byte[] MESSAGE_ID = ascii("messageId");
+  private static final byte[] USER_ID = ascii("userId");
+  private static final byte[] TRANSACTION_AMOUNT = ascii("transactionAmount");
+  private static final byte[] AMOUNT = ascii("amount");
+  private static final byte[] CURRENCY = ascii("currency");
+  private static final byte[] DEBIT_OR_CREDIT = ascii("debitOrCredit");
+
+  private static final byte[][] REQUEST_FIELDS = {MESSAGE_ID, USER_ID, TRANSACTION_AMOUNT};
+  private static final byte[][] AMOUNT_FIELDS = {AMOUNT, CURRENCY, DEBIT_OR_CREDIT};
+
+  private static final DebitCredit[] DEBIT_CREDIT_VALUES = DebitCredit.values();
+  private static final byte[][] DEBIT_CREDIT_NAMES = names(DEBIT_CREDIT_VALUES);
+
+  private static final byte[] NULL = ascii("null");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+  private static final byte[] HEX_DIGITS = ascii("0123456789ABCDEF");
+
+  private static final byte[] MESSAGE_ID_START = ascii("{\"messageId\":");
+  private static final byte[] USER_ID_FIELD = ascii(",\"userId\":");
+  private static final byte[] RESPONSE_CODE_FIELD = ascii(",\"responseCode\":");
+  private static final byte[] BALANCE_FIELD = ascii(",\"balance\":");
+  private static final byte[] TRANSACTION_AMOUNT_FIELD = ascii(",\"transactionAmount\":");
+  private static final byte[] AMOUNT_START = ascii("{\"amount\":");
+  private static final byte[] CURRENCY_FIELD = ascii(",\"currency\":");
+  private static final byte[] DEBIT_OR_CREDIT_FIELD = ascii(",\"debitOrCredit\":");
+
+  private JsonCodec() {
+
+  }
+
+  /**
+   * Checks whether a type is read or written by the codec.
+   *
+   * @param type Class&lt;?&gt;
+   * @return boolean containing true for LoadRequest, AuthorizationRequest, LoadResponse, AuthorizationResponse and Amount.
+   */
+  public static boolean supports(Class<?> type) {
+    return type == LoadRequest.class || type == AuthorizationRequest.class || type == LoadResponse.class || type == AuthorizationResponse.class || type == Amount.class;
+  }
+
+  /**
+   * Reads an object of one of the supported types from its JSON.
+   *
+   * @param <T> the type of the object
+   * @param type Class&lt;T&gt;
+   * @param json byte[], the UTF-8 bytes of the JSON
+   * @param length int, the amount of bytes of the JSON
+   * @return T object containing the object, or null if the JSON is null.
+   * @throws IllegalArgumentException if the JSON is malformed or does not match the type.
+   */
+  public static <T> T read(Class<T> type, byte[] json, int length) {
+    Parser parser = new Parser(json, length);
+    Object value = null;
+
+    if (type == LoadRequest.class || type == AuthorizationRequest.class) {
+      value = parser.readRequest(type == LoadRequest.class);
+    }
+    else if (type == Amount.class) {
+      value = parser.readAmount();
+    }
+    else if (type == LoadResponse.class || type == AuthorizationResponse.class) {
+      value = parser.readResponse(type == LoadResponse.class);
+    }
+    else {
+      throw new IllegalArgumentException("The type " + type.getName() + " is not supported by the JSON codec!");
+    }
+
+    return type.cast(value);
+  }
+
+  /**
+   * Writes an object of one of the supported types as JSON.
+   *
+   * @param value Object
+   * @param output OutputStream
+   * @throws IOException if the JSON could not be written to the stream.
+   * @throws IllegalArgumentException if the object is not of a supported type.
+   */
+  public static void write(Object value, OutputStream output) throws IOException {
+    Writer writer = new Writer();
+
+    writer.writeValue(value);
+    output.write(writer.bytes, 0, writer.size);
+  }
+
+  /**
+   * Writes an object of one of the supported types as JSON into a new byte array.
+   *
+   * @param value Object
+   * @return byte[] containing the UTF-8 bytes of the JSON.
+   * @throws IllegalArgumentException if the object is not of a supported type.
+   */
+  public static byte[] toBytes(Object value) {
+    Writer writer = new Writer();
+
+    writer.writeValue(value);
+
+    return Arrays.copyOf(writer.bytes, writer.size);
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[][] names(Enum<?>[] values) {
+    byte[][] names = new byte[values.length][];
+
+    for (int i = 0; i < values.length; i++) {
+      names[i] = ascii(values[i].name());
+    }
+
+    return names;
+  }
+
+  /**
+   * Parser class for reading one JSON document, keeping its position in the bytes.
+   */
+  private static final class Parser {
+    private byte[] bytes = null;
+    private int position = 0;
+    private int end = 0;
+
+    private Parser(byte[] bytes, int end) {
+      this.bytes = bytes;
+      this.end = end;
+    }
+
+    private Object readRequest(boolean load) {
+      if (readNull()) {
+        return null;
+      }
+
+      String messageId = null;
+      String userId = null;
+      Amount transactionAmount = null;
+
+      if (startObject()) {
+        do {
+          int field = readField(REQUEST_FIELDS);
+
+          if (field == 0) {
+            messageId = readText();
+          }
+          else if (field == 1) {
+            userId = readText();
+          }
+          else if (field == 2) {
+            transactionAmount = readAmount();
+          }
+          else {
+            skipValue();
+          }
+        } while (nextField());
+      }
+
+      return load ? new LoadRequest(messageId, userId, transactionAmount) : new AuthorizationRequest(messageId, userId, transactionAmount);
+    }
+
+    private Object readResponse(boolean load) {
+      if (readNull()) {
+        return null;
+      }
+
+      String messageId = null;
+      String userId = null;
+      ResponseCode responseCode = null;
+      Amount balance = null;
+
+      if (startObject()) {
+        do {
+          String field = readString(); // Responses are only read by clients and tests, so their field names are not matched as bytes
+
+          expect(':');
+
+          switch (field) {
+            case "messageId":
+              messageId = readText();
+              break;
+            case "userId":
+              userId = readText();
+              break;
+            case "responseCode":
+              String code = readText();
+              responseCode = code == null ? null : ResponseCode.valueOf(code);
+              break;
+            case "balance":
+              balance = readAmount();
+              break;
+            default:
+              skipValue();
+          }
+        } while (nextField());
+      }
+
+      return load ? new LoadResponse(messageId, userId, responseCode, balance) : new AuthorizationResponse(messageId, userId, responseCode, balance);
+    }
+
+    private Amount readAmount() {
+      if (readNull()) {
+        return null;
+      }
+
+      String amount = null;
+      String currency = null;
+      DebitCredit debitOrCredit = null;
+
+      if (startObject()) {
+        do {
+          int field = readField(AMOUNT_FIELDS);
+
+          if (field == 0) {
+            amount = readText();
+          }
+          else if (field == 1) {
+            currency = readText();
+          }
+          else if (field == 2) {
+            debitOrCredit = readDebitOrCredit();
+          }
+          else {
+            skipValue();
+          }
+        } while (nextField());
+      }
+
+      return new Amount(amount, currency, debitOrCredit);
+    }
+
+    /**
+     * Reads the opening brace of an object.
+     *
+     * @return boolean containing false if the object is empty, in which case its closing brace has been read as well.
+     */
+    private boolean startObject() {
+      expect('{');
+      skipWhitespace();
+
+      if (position < end && bytes[position] == '}') {
+        position++;
+        return false;
+      }
+
+      return true;
+    }
+
+    /**
+     * Reads the separator after a field's value.
+     *
+     * @return boolean containing true if another field follows, or false if the object has been closed.
+     */
+    private boolean nextField() {
+      skipWhitespace();
+
+      if (position < end && bytes[position] == ',') {
+        position++;
+        return true;
+      }
+
+      expect('}');
+
+      return false;
+    }
+
+    /**
+     * Reads a field name and its colon, and finds it among the known names by its bytes.
+     *
+     * @param names byte[][]
+     * @return int containing the index of the name, or -1 for an unknown field.
+     */
+    private int readField(byte[][] names) {
+      skipWhitespace();
+
+      if (position >= end || bytes[position] != '"') {
+        throw error("Expected a field name");
+      }
+
+      int start = position + 1;
+      int index = -1;
+
+      for (int i = 0; i < names.length && index < 0; i++) {
+        int length = names[i].length;
+
+        if (start + length < end && bytes[start + length] == '"' && Arrays.equals(bytes, start, start + length, names[i], 0, length)) {
+          index = i;
+          position = start + length + 1;
+        }
+      }
+
+      if (index < 0) { // An unknown field, or a known one with escaped characters
+        String field = readString();
+
+        for (int i = 0; i < names.length && index < 0; i++) {
+          index = field.equals(new String(names[i], StandardCharsets.US_ASCII)) ? i : -1;
+        }
+      }
+
+      expect(':');
+
+      return index;
+    }
+
+    /**
+     * Reads a value where a string is expected, which may also be a number or boolean, read as its text.
+     *
+     * @return String containing the text of the value, or null for a null value.
+     */
+    private String readText() {
+      skipWhitespace();
+
+      if (position >= end) {
+        throw error("Unexpected end of the JSON");
+      }
+
+      byte b = bytes[position];
+
+      if (b == '"') {
+        return readString();
+      }
+      else if (b == '-' || (b >= '0' && b <= '9')) {
+        int start = position;
+
+        skipNumber();
+
+        return new String(bytes, start, position - start, StandardCharsets.ISO_8859_1);
+      }
+      else if (readLiteral(TRUE)) {
+        return "true";
+      }
+      else if (readLiteral(FALSE)) {
+        return "false";
+      }
+      else if (readLiteral(NULL)) {
+        return null;
+      }
+
+      throw error("Expected a string");
+    }
+
+    private DebitCredit readDebitOrCredit() {
+      skipWhitespace();
+
+      if (readNull()) {
+        return null;
+      }
+      else if (position < end && bytes[position] == '"') {
+        int start = position + 1;
+
+        for (int i = 0; i < DEBIT_CREDIT_NAMES.length; i++) {
+          int length = DEBIT_CREDIT_NAMES[i].length;
+
+          if (start + length < end && bytes[start + length] == '"' && Arrays.equals(bytes, start, start + length, DEBIT_CREDIT_NAMES[i], 0, length)) {
+            position = start + length + 1;
+            return DEBIT_CREDIT_VALUES[i];
+          }
+        }
+
+        String name = readString();
+
+        for (DebitCredit value : DEBIT_CREDIT_VALUES) {
+          if (value.name().equals(name) || Integer.toString(value.ordinal()).equals(name)) { // The ObjectMapper accepts an ordinal in a string as well
+            return value;
+          }
+        }
+
+        throw error("Cannot deserialize value of type DebitCredit from String \"" + name + "\"");
+      }
+      else if (position < end && bytes[position] >= '0' && bytes[position] <= '9') { // The ordinal of the enumeration
+        int start = position;
+
+        skipNumber();
+
+        String ordinal = new String(bytes, start, position - start, StandardCharsets.ISO_8859_1);
+
+        for (DebitCredit value : DEBIT_CREDIT_VALUES) {
+          if (Integer.toString(value.ordinal()).equals(ordinal)) {
+            return value;
+          }
+        }
+
+        throw error("Cannot deserialize value of type DebitCredit from number " + ordinal);
+      }
+
+      throw error("Cannot deserialize value of type DebitCredit");
+    }
+
+    /**
+     * Reads a string, copying it straight from the bytes unless it has escaped characters.
+     *
+     * @return String containing the unescaped string.
+     */
+    private String readString() {
+      expect('"');
+
+      int start = position;
+      boolean ascii = true;
+
+      while (position < end) {
+        int b = bytes[position] & 0xFF;
+
+        if (b == '"') {
+          String value = new String(bytes, start, position - start, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+          position++;
+          return value;
+        }
+        else if (b == '\\') {
+          return readEscapedString(start);
+        }
+        else if (b < 0x20) {
+          throw error("Unescaped control character in a string");
+        }
+
+        ascii &= b < 0x80;
+        position++;
+      }
+
+      throw error("Unexpected end of the JSON in a string");
+    }
+
+    private String readEscapedString(int start) {
+      StringBuilder value = new StringBuilder(position - start + 16);
+      int run = start; // Start of the bytes that have not been escaped
+
+      while (position < end) {
+        int b = bytes[position] & 0xFF;
+
+        if (b == '"') {
+          value.append(new String(bytes, run, position - run, StandardCharsets.UTF_8));
+          position++;
+          return value.toString();
+        }
+        else if (b < 0x20) {
+          throw error("Unescaped control character in a string");
+        }
+        else if (b != '\\') {
+          position++;
+          continue;
+        }
+
+        value.append(new String(bytes, run, position - run, StandardCharsets.UTF_8));
+
+        if (position + 1 >= end) {
+          break;
+        }
+
+        byte escape = bytes[position + 1];
+        position += 2;
+
+        switch (escape) {
+          case '"': value.append('"'); break;
+          case '\\': value.append('\\'); break;
+          case '/': value.append('/'); break;
+          case 'b': value.append('\b'); break;
+          case 'f': value.append('\f'); break;
+          case 'n': value.append('\n'); break;
+          case 'r': value.append('\r'); break;
+          case 't': value.append('\t'); break;
+          case 'u':
+            if (position + 4 > end) {
+              throw error("Unexpected end of the JSON in a string");
+            }
+
+            int character = 0;
+
+            for (int i = 0; i < 4; i++) {
+              int digit = Character.digit(bytes[position++], 16);
+
+              if (digit < 0) {
+                throw error("Invalid hexadecimal digit in a \\u escape");
+              }
+
+              character = character << 4 | digit;
+            }
+
+            value.append((char)character);
+            break;
+          default:
+            throw error("Unrecognized character escape '" + (char)escape + "'");
+        }
+
+        run = position;
+      }
+
+      throw error("Unexpected end of the JSON in a string");
+    }
+
+    private void skipNumber() {
+      int start = position;
+
+      if (position < end && bytes[position] == '-') {
+        position++;
+      }
+
+      int digits = skipDigits();
+
+      if (digits == 0 || (digits > 1 && bytes[position - digits] == '0')) {
+        throw error("Invalid number " + new String(bytes, start, Math.max(position - start, 1), StandardCharsets.ISO_8859_1));
+      }
+
+      if (position < end && bytes[position] == '.') {
+        position++;
+
+        if (skipDigits() == 0) {
+          throw error("Invalid number, expected a digit after the decimal point");
+        }
+      }
+
+      if (position < end && (bytes[position] == 'e' || bytes[position] == 'E')) {
+        position++;
+
+        if (position < end && (bytes[position] == '+' || bytes[position] == '-')) {
+          position++;
+        }
+
+        if (skipDigits() == 0) {
+          throw error("Invalid number, expected a digit in the exponent");
+        }
+      }
+    }
+
+    private int skipDigits() {
+      int start = position;
+
+      while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+        position++;
+      }
+
+      return position - start;
+    }
+
+    private void skipValue() {
+      skipWhitespace();
+
+      if (position >= end) {
+        throw error("Unexpected end of the JSON");
+      }
+
+      byte b = bytes[position];
+
+      if (b == '{') {
+        if (startObject()) {
+          do {
+            readField(REQUEST_FIELDS);
+            skipValue();
+          } while (nextField());
+        }
+      }
+      else if (b == '[') {
+        position++;
+        skipWhitespace();
+
+        if (position < end && bytes[position] == ']') {
+          position++;
+          return;
+        }
+
+        do {
+          skipValue();
+          skipWhitespace();
+        } while (position < end && bytes[position++] == ',');
+
+        if (bytes[position - 1] != ']') {
+          throw error("Expected ',' or ']' in an array");
+        }
+      }
+      else {
+        readText();
+      }
+    }
+
+    private boolean readNull() {
+      skipWhitespace();
+
+      return readLiteral(NULL);
+    }
+
+    private boolean readLiteral(byte[] literal) {
+      if (position + literal.length > end || !Arrays.equals(bytes, position, position + literal.length, literal, 0, literal.length)) {
+        return false;
+      }
+
+      position += literal.length;
+
+      return true;
+    }
+
+    private void expect(char expected) {
+      skipWhitespace();
+
+      if (position >= end || bytes[position] != expected) {
+        throw error("Expected '" + expected + "'");
+      }
+
+      position++;
+    }
+
+    private void skipWhitespace() {
+      while (position < end && (bytes[position] == ' ' || bytes[position] == '\n' || bytes[position] == '\r' || bytes[position] == '\t')) {
+        position++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at byte " + position + "!");
+    }
+  }
+
+  /**
+   * Writer class for writing one JSON document into a growing byte array.
+   */
+  private static final class Writer {
+    private byte[] bytes = new byte[256];
+    private int size = 0;
+
+    private void writeValue(Object value) {
+      if (value instanceof LoadResponse loadResponse) {
+        writeResponse(loadResponse.getMessageId(), loadResponse.getUserId(), loadResponse.getResponseCode(), loadResponse.getBalance());
+      }
+      else if (value instanceof AuthorizationResponse authorizationResponse) {
+        writeResponse(authorizationResponse.getMessageId(), authorizationResponse.getUserId(), authorizationResponse.getResponseCode(), authorizationResponse.getBalance());
+      }
+      else if (value instanceof LoadRequest loadRequest) {
+        writeRequest(loadRequest.getMessageId(), loadRequest.getUserId(), loadRequest.getTransactionAmount());
+      }
+      else if (value instanceof AuthorizationRequest authorizationRequest) {
+        writeRequest(authorizationRequest.getMessageId(), authorizationRequest.getUserId(), authorizationRequest.getTransactionAmount());
+      }
+      else if (value instanceof Amount amount) {
+        writeAmount(amount);
+      }
+      else {
+        throw new IllegalArgumentException("The type " + (value == null ? "null" : value.getClass().getName()) + " is not supported by the JSON codec!");
+      }
+    }
+
+    private void writeResponse(String messageId, String userId, ResponseCode responseCode, Amount balance) {
+      writeBytes(MESSAGE_ID_START);
+      writeString(messageId);
+      writeBytes(USER_ID_FIELD);
+      writeString(userId);
+      writeBytes(RESPONSE_CODE_FIELD);
+      writeEnum(responseCode);
+      writeBytes(BALANCE_FIELD);
+      writeAmount(balance);
+      writeByte('}');
+    }
+
+    private void writeRequest(String messageId, String userId, Amount transactionAmount) {
+      writeBytes(MESSAGE_ID_START);
+      writeString(messageId);
+      writeBytes(USER_ID_FIELD);
+      writeString(userId);
+      writeBytes(TRANSACTION_AMOUNT_FIELD);
+      writeAmount(transactionAmount);
+      writeByte('}');
+    }
+
+    private void writeAmount(Amount amount) {
+      if (amount == null) {
+        writeBytes(NULL);
+        return;
+      }
+
+      writeBytes(AMOUNT_START);
+      writeString(amount.getAmount());
+      writeBytes(CURRENCY_FIELD);
+      writeString(amount.getCurrency());
+      writeBytes(DEBIT_OR_CREDIT_FIELD);
+      writeEnum(amount.getDebitOrCredit());
+      writeByte('}');
+    }
+
+    private void writeEnum(Enum<?> value) {
+      if (value == null) {
+        writeBytes(NULL);
+        return;
+      }
+
+      writeByte('"');
+      writeAscii(value.name());
+      writeByte('"');
+    }
+
+    /**
+     * Writes a string with the ObjectMapper's escaping: quotes, backslashes, control characters and surrogates are escaped, and every other character is written as UTF-8.
+     *
+     * @param value String
+     */
+    private void writeString(String value) {
+      if (value == null) {
+        writeBytes(NULL);
+        return;
+      }
+
+      int length = value.length();
+
+      ensureCapacity(length + 2); // Enough unless a character is escaped or takes several bytes, which reserves more
+      bytes[size++] = '"';
+
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+
+        if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+          bytes[size++] = (byte)c;
+          continue;
+        }
+
+        ensureCapacity(length - i + 6); // The longest escape of this character, and one byte for every other character left
+
+        if (c < 0x80) {
+          writeEscape(c);
+        }
+        else if (c < 0x800) {
+          bytes[size++] = (byte)(0xC0 | c >> 6);
+          bytes[size++] = (byte)(0x80 | (c & 0x3F));
+        }
+        else if (!Character.isSurrogate(c)) {
+          bytes[size++] = (byte)(0xE0 | c >> 12);
+          bytes[size++] = (byte)(0x80 | (c >> 6 & 0x3F));
+          bytes[size++] = (byte)(0x80 | (c & 0x3F));
+        }
+        else { // The ObjectMapper escapes both halves of a surrogate pair instead of combining them into 4 bytes
+          writeEscape(c);
+        }
+      }
+
+      bytes[size++] = '"';
+    }
+
+    private void writeEscape(char c) {
+      bytes[size++] = '\\';
+
+      switch (c) {
+        case '"': bytes[size++] = '"'; break;
+        case '\\': bytes[size++] = '\\'; break;
+        case '\b': bytes[size++] = 'b'; break;
+        case '\f': bytes[size++] = 'f'; break;
+        case '\n': bytes[size++] = 'n'; break;
+        case '\r': bytes[size++] = 'r'; break;
+        case '\t': bytes[size++] = 't'; break;
+        default:
+          bytes[size++] = 'u';
+          bytes[size++] = HEX_DIGITS[c >> 12];
+          bytes[size++] = HEX_DIGITS[c >> 8 & 0xF];
+          bytes[size++] = HEX_DIGITS[c >> 4 & 0xF];
+          bytes[size++] = HEX_DIGITS[c & 0xF];
+      }
+    }
+
+    private void writeBytes(byte[] value) {
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, bytes, size, value.length);
+      size += value.length;
+    }
+
+    private void writeAscii(String value) {
+      int length = value.length();
+
+      ensureCapacity(length);
+
+      for (int i = 0; i < length; i++) {
+        bytes[size++] = (byte)value.charAt(i);
+      }
+    }
+
+    private void writeByte(char c) {
+      ensureCapacity(1);
+      bytes[size++] = (byte)c;
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+      }
+    }
+  }
+}
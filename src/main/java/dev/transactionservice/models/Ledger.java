@@ -0,0 +1,334 @@
+package dev.transactionservice.models;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Ledger class for storing user balances across different currencies, safe for concurrent use by the controllers.
+ *
+ * <p> User IDs and currencies are encoded as compact int IDs by two dictionaries, and every balance is keyed by a single primitive long
+ * made of both IDs, in a BalanceTable of primitive longs. Looking up an existing balance therefore allocates nothing, and each balance only costs
+ * two array slots, while every user ID and currency string is stored once no matter how many balances share it. </p>
+ *
+ * <p> Updates to unrelated accounts rarely contend with each other, and a debit checks and subtracts the balance as a single step.
+ * Reads never take a lock, so balances can be read from any thread without blocking or slowing down the thread updating them. </p>
+ *
+ * <p> A hold moves funds out of a balance, which is therefore always the available balance, into the held total of the same account,
+ * so a debit still checks a single balance, and the ledger balance of an account is its available balance plus its held total.
+ * Holds are kept by user and hold ID, and their expiry is scheduled in a TimingWheel. Unlike the balances, holds must only be
+ * placed, captured, released and expired by the writer thread, while the held totals may be read from any thread. </p>
+ */
+public class Ledger {
+  private static final int CURRENCY_BITS = 16; // The low bits of an account key hold the currency ID, and the bits above them the user ID
+
+  public static final long HOLD_TICK_MILLIS = 100; // The tick of the timing wheel, which is how late a hold may expire at most
+
+  private StringDictionary userIds = null; // Every user ID with a balance, encoded as an int
+  private StringDictionary currencies = null; // Every currency with a balance, encoded as an int of at most CURRENCY_BITS bits
+  private BalanceTable userBalances = null; // All user balances across different currencies, keyed by account key
+  private BalanceTable heldBalances = null; // The total of every account's open holds, keyed by account key
+  private HashMap<HoldKey, Hold> holds = null; // Every open hold, keyed by its user and hold ID
+  private TimingWheel holdExpiries = null; // The expiry of every open hold that has not expired yet
+
+  /**
+   * Default constructor for Ledger.
+   */
+  public Ledger() {
+    this.userIds = new StringDictionary(Integer.MAX_VALUE);
+    this.currencies = new StringDictionary(1 << CURRENCY_BITS);
+    this.userBalances = new BalanceTable();
+    this.heldBalances = new BalanceTable();
+    this.holds = new HashMap<HoldKey, Hold>();
+    this.holdExpiries = new TimingWheel(HOLD_TICK_MILLIS, System.currentTimeMillis());
+  }
+
+  /**
+   * Atomically adds an amount to a balance, creating the balance if it does not exist yet.
+   *
+   * @param userId String
+   * @param currency String
+   * @param amount long, in minor units of the currency
+   * @return long containing the balance after the credit.
+   * @throws ArithmeticException if the balance would overflow, in which case it is not modified.
+   */
+  public long credit(String userId, String currency, long amount) {
+    return userBalances.add(accountKey(userIds.add(userId), currencies.add(currency)), amount);
+  }
+
+  /**
+   * Atomically subtracts an amount from a balance, if the balance exists and would not drop below 0.
+   *
+   * <p> As balances are never negative, the result tells both outcomes apart without allocating: a declined debit returns the bitwise
+   * complement of the unmodified balance, which is always negative. A balance that does not exist is declined like a balance of 0. </p>
+   *
+   * @param userId String
+   * @param currency String
+   * @param amount long, in minor units of the currency
+   * @return long containing the new balance if the debit is approved, or the bitwise complement of the unmodified balance if it is declined.
+   */
+  public long debit(String userId, String currency, long amount) {
+    int userIndex = userIds.find(userId);
+    int currencyIndex = currencies.find(currency);
+
+    if (userIndex < 0 || currencyIndex < 0) { // A balance that does not exist can never cover a debit
+      return ~0L;
+    }
+
+    return userBalances.subtract(accountKey(userIndex, currencyIndex), amount);
+  }
+
+  /**
+   * Gets a balance.
+   *
+   * @param userId String
+   * @param currency String
+   * @return long containing the balance in minor units, or 0 if the balance does not exist.
+   */
+  public long getBalance(String userId, String currency) {
+    int userIndex = userIds.find(userId);
+    int currencyIndex = currencies.find(currency);
+
+    if (userIndex < 0 || currencyIndex < 0) {
+      return 0;
+    }
+
+    return userBalances.get(accountKey(userIndex, currencyIndex), 0);
+  }
+
+  /**
+   * Passes every balance of one user to a consumer, without taking any lock.
+   *
+   * <p> Every balance is read on its own, so each is a value the account had at some point, while balances in different currencies
+   * may be read before and after an update between them. The currencies are few, so every currency is looked up for the user. </p>
+   *
+   * @param userId String
+   * @param consumer BalanceConsumer
+   */
+  public void forEachBalance(String userId, BalanceConsumer consumer) {
+    int userIndex = userIds.find(userId);
+
+    if (userIndex < 0) {
+      return;
+    }
+
+    for (int currencyIndex = 0, count = currencies.size(); currencyIndex < count; currencyIndex++) {
+      long balance = userBalances.get(accountKey(userIndex, currencyIndex), -1); // Balances are never negative
+
+      if (balance >= 0) {
+        consumer.accept(userId, currencies.get(currencyIndex), balance);
+      }
+    }
+  }
+
+  /**
+   * Gets the total of a user's open holds in a currency.
+   *
+   * @param userId String
+   * @param currency String
+   * @return long containing the held total in minor units, or 0 if the user has no open hold in the currency.
+   */
+  public long getHeld(String userId, String currency) {
+    int userIndex = userIds.find(userId);
+    int currencyIndex = currencies.find(currency);
+
+    if (userIndex < 0 || currencyIndex < 0) {
+      return 0;
+    }
+
+    return heldBalances.get(accountKey(userIndex, currencyIndex), 0);
+  }
+
+  /**
+   * Places a hold, which atomically subtracts its amount from a balance like a debit, and adds it to the held total of the account.
+   *
+   * @param userId String
+   * @param holdId String
+   * @param currency String
+   * @param amount long, in minor units of the currency
+   * @param expiresAtMillis long, the time the hold expires at, in milliseconds since the epoch
+   * @return long containing the new balance if the hold is placed, or the bitwise complement of the unmodified balance if the balance cannot cover it,
+   * or if the user already has an open hold with the same ID.
+   */
+  public long placeHold(String userId, String holdId, String currency, long amount, long expiresAtMillis) {
+    if (holds.containsKey(new HoldKey(userId, holdId))) {
+      return ~getBalance(userId, currency);
+    }
+
+    long debitResult = debit(userId, currency, amount);
+
+    if (debitResult >= 0) {
+      addHold(new Hold(holdId, userId, currency, amount, expiresAtMillis));
+    }
+
+    return debitResult;
+  }
+
+  /**
+   * Finds an open hold of a user, including a hold that has expired but has not been released yet.
+   *
+   * @param userId String
+   * @param holdId String
+   * @return Hold object containing the hold, or null if the user has no open hold with the ID.
+   */
+  public Hold findHold(String userId, String holdId) {
+    return holds.get(new HoldKey(userId, holdId));
+  }
+
+  /**
+   * Captures some or all of an open hold, which closes the hold and returns the rest of its amount to the balance.
+   *
+   * @param hold Hold
+   * @param amount long, in minor units of the currency, at most the amount of the hold
+   * @return long containing the balance after the rest of the hold is returned to it.
+   * @throws ArithmeticException if the balance would overflow, in which case the hold stays open.
+   */
+  public long captureHold(Hold hold, long amount) {
+    long balance = credit(hold.getUserId(), hold.getCurrency(), hold.getAmount() - amount);
+
+    removeHold(hold);
+
+    return balance;
+  }
+
+  /**
+   * Releases an open hold, which closes the hold and returns all of its amount to the balance.
+   *
+   * @param hold Hold
+   * @return long containing the balance after the hold is returned to it.
+   * @throws ArithmeticException if the balance would overflow, in which case the hold stays open.
+   */
+  public long releaseHold(Hold hold) {
+    return captureHold(hold, 0);
+  }
+
+  /**
+   * Advances the expiry of the holds to the current time, and adds every hold that has expired since to a list.
+   * An expired hold stays open, and keeps its funds held, until it is released.
+   *
+   * @param nowMillis long, the current time in milliseconds since the epoch
+   * @param expired List&lt;Hold&gt;
+   */
+  public void expireHolds(long nowMillis, List<Hold> expired) {
+    holdExpiries.advance(nowMillis, expired);
+  }
+
+  /**
+   * Restores an open hold from a snapshot, whose balance already excludes the held amount. Unlike the other hold methods,
+   * this may be called from several threads at once while a snapshot is loaded.
+   *
+   * @param hold Hold
+   */
+  public synchronized void restoreHold(Hold hold) {
+    addHold(hold);
+  }
+
+  /**
+   * Passes every open hold to a consumer.
+   *
+   * @param consumer Consumer&lt;Hold&gt;
+   */
+  public void forEachHold(Consumer<Hold> consumer) {
+    holds.values().forEach(consumer);
+  }
+
+  /**
+   * Gets the amount of open holds.
+   *
+   * @return int containing the amount of open holds.
+   */
+  public int holdCount() {
+    return holds.size();
+  }
+
+  /**
+   * Sets a balance, replacing any existing balance. Used when balances are restored from a snapshot.
+   *
+   * @param userId String
+   * @param currency String
+   * @param balance long, in minor units of the currency
+   */
+  public void setBalance(String userId, String currency, long balance) {
+    userBalances.put(accountKey(userIds.add(userId), currencies.add(currency)), balance);
+  }
+
+  /**
+   * Passes every balance to a consumer.
+   *
+   * @param consumer BalanceConsumer
+   */
+  public void forEach(BalanceConsumer consumer) {
+    userBalances.forEach((accountKey, balance) ->
+        consumer.accept(userIds.get((int)(accountKey >>> CURRENCY_BITS)), currencies.get((int)(accountKey & ((1 << CURRENCY_BITS) - 1))), balance));
+  }
+
+  /**
+   * Gets the amount of balances stored in the ledger.
+   *
+   * @return int containing the amount of balances.
+   */
+  public int size() {
+    return userBalances.size();
+  }
+
+  /**
+   * Clears all balances in the ledger.
+   */
+  public void clear() {
+    userBalances.clear();
+    heldBalances.clear();
+    holds.clear();
+    holdExpiries.clear();
+    userIds.clear();
+    currencies.clear();
+  }
+
+  /**
+   * Adds an open hold to the held total of its account, and schedules its expiry.
+   *
+   * @param hold Hold
+   */
+  private void addHold(Hold hold) {
+    heldBalances.add(accountKey(userIds.add(hold.getUserId()), currencies.add(hold.getCurrency())), hold.getAmount());
+    holds.put(new HoldKey(hold.getUserId(), hold.getHoldId()), hold);
+    holdExpiries.schedule(hold);
+  }
+
+  /**
+   * Removes an open hold from the held total of its account, and cancels its expiry if it has not expired yet.
+   *
+   * @param hold Hold
+   */
+  private void removeHold(Hold hold) {
+    heldBalances.add(accountKey(userIds.find(hold.getUserId()), currencies.find(hold.getCurrency())), -hold.getAmount());
+    holds.remove(new HoldKey(hold.getUserId(), hold.getHoldId()));
+    holdExpiries.cancel(hold);
+  }
+
+  /**
+   * Combines a user ID index and a currency index into an account key.
+   *
+   * @param userIndex int
+   * @param currencyIndex int
+   * @return long containing the account key.
+   */
+  private static long accountKey(int userIndex, int currencyIndex) {
+    return ((long)userIndex << CURRENCY_BITS) | currencyIndex;
+  }
+
+  /**
+   * HoldKey record for the key of an open hold, as hold IDs are only unique per user.
+   *
+   * @param userId String
+   * @param holdId String
+   */
+  private record HoldKey(String userId, String holdId) {}
+
+  /**
+   * BalanceConsumer interface for receiving balances as primitive longs.
+   */
+  @FunctionalInterface
+  public interface BalanceConsumer {
+    void accept(String userId, String currency, long balance);
+  }
+}
@@ -1,10 +1,5 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 /**
  * LoadRequest class for storing a load request that needs to be processed.
  */
@@ -91,37 +86,28 @@ public class LoadRequest {
      * Creates a load response from a load request event.
      * 
      * @param loadRequestEvent LoadRequestEvent
-     * @param userBalances HashMap&lt;Pair&lt;String, String&gt;, BigDecimal&gt;
+     * @param ledger Ledger
      * @return LoadResponse object containing the response of a load request following a load request event.
      */
-    public LoadResponse processRequest(LoadRequestEvent loadRequestEvent, HashMap<Pair<String, String>, BigDecimal> userBalances) {
+    public LoadResponse processRequest(LoadRequestEvent loadRequestEvent, Ledger ledger) {
       String requestedMsgID = loadRequestEvent.getStoredRecord().getMessageId();
       String requestedUserID = loadRequestEvent.getStoredRecord().getUserId();
-      String requestedAmount = loadRequestEvent.getStoredRecord().getTransactionAmount().getAmount();
       String requestedCurrency = loadRequestEvent.getStoredRecord().getTransactionAmount().getCurrency();
       DebitCredit debitOrCredit = loadRequestEvent.getStoredRecord().getTransactionAmount().getDebitOrCredit();
       ResponseCode responseCode = ResponseCode.APPROVED;
 
-      BigDecimal requestedAmountNum = new BigDecimal(requestedAmount).setScale(2, RoundingMode.FLOOR); // Truncate the amount to two decimal places
-      BigDecimal currentUserBalance = new BigDecimal(0); // We need to return a 0.00 as the amount instead of a 0 if the need arises
-
-      Pair<String, String> userIdCurrency = new Pair<>(requestedUserID, requestedCurrency);
-
-      // Does the user ID and associated currency balance exist?
-      if (userBalances.containsKey(userIdCurrency)) {
-
-        userBalances.put(userIdCurrency, userBalances.get(userIdCurrency).add(requestedAmountNum)); // Add the amount to the balance
+      long requestedAmountNum = loadRequestEvent.getStoredRecord().getTransactionAmount().getMinorUnits(); // The amount in minor units, truncated to the decimal places of the currency
+      long currentUserBalance = 0;
 
+      try {
+        currentUserBalance = ledger.credit(requestedUserID, requestedCurrency, requestedAmountNum); // Add the amount to the balance, or start a new balance with it, and retrieve the result
       }
-      else {
-
-        userBalances.put(userIdCurrency, requestedAmountNum); // Add the amount; this is now a new balance
-
+      catch (ArithmeticException exception) { // The balance would overflow, so the load is declined and the balance is left as it is
+        responseCode = ResponseCode.DECLINED;
+        currentUserBalance = ledger.getBalance(requestedUserID, requestedCurrency);
       }
 
-      currentUserBalance = userBalances.get(userIdCurrency); // Retrieve the now modified or new balance
-
-      Amount balance = new Amount(currentUserBalance.toString(), requestedCurrency, debitOrCredit);
+      Amount balance = new Amount(Money.format(currentUserBalance, requestedCurrency), requestedCurrency, debitOrCredit);
       
       LoadResponse loadResponse = new LoadResponse(requestedMsgID, requestedUserID, responseCode, balance);
 
@@ -1,8 +1,6 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * LoadRequestEvent class that is a child of the Event class.
@@ -21,11 +19,32 @@ public class LoadRequestEvent extends Event {
     this.loadRequest = loadRequest;
   }
 
+  /**
+   * Parameterized constructor for LoadRequestEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param loadRequest LoadRequest
+   * @param timeStamp Instant
+   */
+  public LoadRequestEvent(String messageId, LoadRequest loadRequest, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.loadRequest = loadRequest;
+  }
+
+  public String getUserId() {
+    return loadRequest.getUserId();
+  }
+
   public LoadRequest getStoredRecord() {
     return loadRequest;
   }
 
-  public Object process(HashMap<Pair<String, String>, BigDecimal> userBalances) {
-    return loadRequest.processRequest(this, userBalances);
+  public Object process(Ledger ledger) {
+    return loadRequest.processRequest(this, ledger);
+  }
+
+  @Override
+  public Event createResponseEvent(Object response) {
+    return new LoadResponseEvent(getMessageId(), (LoadResponse)response);
   }
 }
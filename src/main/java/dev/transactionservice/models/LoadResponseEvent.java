@@ -1,8 +1,6 @@
 package dev.transactionservice.models;
 
-import java.util.HashMap;
-
-import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * LoadResponseEvent class that is a child of the Event class.
@@ -21,11 +19,27 @@ public class LoadResponseEvent extends Event {
     this.loadResponse = loadResponse;
   }
 
+  /**
+   * Parameterized constructor for LoadResponseEvent, used when an event is restored with its original time stamp.
+   * 
+   * @param messageId String
+   * @param loadResponse LoadResponse
+   * @param timeStamp Instant
+   */
+  public LoadResponseEvent(String messageId, LoadResponse loadResponse, Instant timeStamp) {
+    super(messageId, timeStamp);
+    this.loadResponse = loadResponse;
+  }
+
+  public String getUserId() {
+    return loadResponse.getUserId();
+  }
+
   public LoadResponse getStoredRecord() {
     return loadResponse;
   }
 
-  public Object process(HashMap<Pair<String, String>, BigDecimal> userBalances) {
+  public Object process(Ledger ledger) {
     return null;
   }
 }
@@ -0,0 +1,186 @@
+package dev.transactionservice.models;
+
+/**
+ * Money class for converting amounts between their decimal text and a long count of minor units, such as cents.
+ *
+ * <p> The amount of minor units per major unit depends on the currency, following the ISO 4217 exponents: most currencies have 2 decimal places,
+ * while for example JPY has none and KWD has 3. Amounts are truncated towards negative infinity to the decimal places of their currency.
+ * Parsing and formatting work on the characters directly, without creating any BigDecimal, and every arithmetic step is checked for overflow. </p>
+ */
+public final class Money {
+  private static final int DEFAULT_EXPONENT = 2;
+
+  private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L};
+
+  private Money() {
+
+  }
+
+  /**
+   * Gets the amount of decimal places of a currency.
+   *
+   * @param currency String, an ISO 4217 currency code
+   * @return int containing the exponent of the currency, which is 2 for any currency that is not in the table.
+   */
+  public static int exponent(String currency) {
+    switch (currency) {
+      case "BIF": case "CLP": case "DJF": case "GNF": case "ISK": case "JPY": case "KMF": case "KRW": case "PYG":
+      case "RWF": case "UGX": case "UYI": case "VND": case "VUV": case "XAF": case "XOF": case "XPF":
+        return 0;
+      case "BHD": case "IQD": case "JOD": case "KWD": case "LYD": case "OMR": case "TND":
+        return 3;
+      case "CLF": case "UYW":
+        return 4;
+      default:
+        return DEFAULT_EXPONENT;
+    }
+  }
+
+  /**
+   * Parses a decimal amount, such as '-12.345' or '.5', into minor units of a currency.
+   *
+   * @param amount String
+   * @param currency String
+   * @return long containing the amount in minor units, truncated towards negative infinity.
+   * @throws NumberFormatException if the amount is not a decimal number.
+   * @throws ArithmeticException if the amount does not fit into a long in minor units.
+   */
+  public static long parse(String amount, String currency) {
+    int exponent = exponent(currency);
+    int length = amount.length();
+    int index = 0;
+    boolean negative = length > 0 && amount.charAt(0) == '-';
+    boolean digits = false; // Whether any digit was read
+    boolean truncated = false; // Whether a non-zero digit beyond the decimal places of the currency was dropped
+    int decimals = -1; // The amount of decimal places read so far, or -1 before the decimal point
+    long minorUnits = 0;
+
+    if (negative) {
+      index++;
+    }
+
+    for (; index < length; index++) {
+      char character = amount.charAt(index);
+
+      if (character == '.' && decimals < 0) {
+        decimals = 0;
+      }
+      else if (character >= '0' && character <= '9') {
+        digits = true;
+
+        if (decimals >= exponent) {
+          truncated |= character != '0';
+          continue;
+        }
+
+        minorUnits = Math.addExact(Math.multiplyExact(minorUnits, 10), character - '0');
+
+        if (decimals >= 0) {
+          decimals++;
+        }
+      }
+      else {
+        throw new NumberFormatException("The amount " + amount + " is not a decimal number!");
+      }
+    }
+
+    if (!digits) {
+      throw new NumberFormatException("The amount " + amount + " is not a decimal number!");
+    }
+
+    minorUnits = Math.multiplyExact(minorUnits, POWERS_OF_TEN[exponent - Math.max(decimals, 0)]); // Pad the missing decimal places with zeros
+
+    if (negative) {
+      minorUnits = Math.subtractExact(-minorUnits, truncated ? 1 : 0);
+    }
+
+    return minorUnits;
+  }
+
+  /**
+   * Checks whether a decimal amount can be parsed into minor units of a currency, the same way as parse but without throwing.
+   *
+   * @param amount String
+   * @param currency String
+   * @return boolean containing true if the amount is a decimal number that fits into a long in minor units.
+   */
+  public static boolean fitsInMinorUnits(String amount, String currency) {
+    int exponent = exponent(currency);
+    int length = amount.length();
+    boolean digits = false;
+    int decimals = -1;
+    long minorUnits = 0; // The magnitude, as truncating a negative amount can only take it to Long.MIN_VALUE
+
+    for (int index = length > 0 && amount.charAt(0) == '-' ? 1 : 0; index < length; index++) {
+      char character = amount.charAt(index);
+
+      if (character == '.' && decimals < 0) {
+        decimals = 0;
+      }
+      else if (character >= '0' && character <= '9') {
+        digits = true;
+
+        if (decimals >= exponent) {
+          continue;
+        }
+        else if (minorUnits > (Long.MAX_VALUE - (character - '0')) / 10) {
+          return false;
+        }
+
+        minorUnits = minorUnits * 10 + (character - '0');
+
+        if (decimals >= 0) {
+          decimals++;
+        }
+      }
+      else {
+        return false;
+      }
+    }
+
+    return digits && minorUnits <= Long.MAX_VALUE / POWERS_OF_TEN[exponent - Math.max(decimals, 0)];
+  }
+
+  /**
+   * Gets the sign of a decimal amount, without limiting its size or decimal places.
+   *
+   * @param amount String, a decimal number
+   * @return int containing -1, 0 or 1 as the amount is negative, zero or positive.
+   */
+  public static int signum(String amount) {
+    boolean negative = amount.length() > 0 && amount.charAt(0) == '-';
+
+    for (int index = negative ? 1 : 0; index < amount.length(); index++) {
+      char character = amount.charAt(index);
+
+      if (character >= '1' && character <= '9') {
+        return negative ? -1 : 1;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Formats minor units of a currency as a decimal amount with all of the currency's decimal places, such as '0.10'.
+   *
+   * @param minorUnits long
+   * @param currency String
+   * @return String object containing the decimal amount.
+   */
+  public static String format(long minorUnits, String currency) {
+    int exponent = exponent(currency);
+    int firstDigit = minorUnits < 0 ? 1 : 0; // After the minus sign, if there is one
+    StringBuilder builder = new StringBuilder(24).append(minorUnits);
+
+    while (builder.length() - firstDigit <= exponent) { // Keep at least one digit before the decimal point
+      builder.insert(firstDigit, '0');
+    }
+
+    if (exponent > 0) {
+      builder.insert(builder.length() - exponent, '.');
+    }
+
+    return builder.toString();
+  }
+}
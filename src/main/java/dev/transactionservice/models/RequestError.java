@@ -0,0 +1,83 @@
+package dev.transactionservice.models;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The reason a request is rejected, with an Unprocessable Entity (HTTP 422) response unless the service is too busy to take it, or cannot reach the node that owns its user.
+ * Every reason is created once, so rejecting a request only needs a comparison, without building a message or throwing an exception.
+ */
+public enum RequestError {
+    EMPTY_MESSAGE_ID("The message ID is empty!"),
+    EMPTY_USER_ID("The user ID is empty!"),
+    NON_NUMERIC_AMOUNT("The amount is non-numeric!"),
+    NON_POSITIVE_AMOUNT("The amount is less than or equal to 0!"),
+    EMPTY_CURRENCY("The currency is empty!"),
+    INVALID_CURRENCY("The currency must be 3 uppercase letters!"),
+    AMOUNT_TOO_LARGE("The amount is too large!"),
+    LOAD_NOT_CREDIT("For Load requests, please use CREDIT!"),
+    AUTHORIZATION_NOT_DEBIT("For Authorization requests, please use DEBIT!"),
+    EMPTY_HOLD_ID("The hold ID is empty!"),
+    INVALID_TTL("The TTL must be between 1 and 31536000 seconds!"),
+    MESSAGE_ID_EXISTS("The message ID already exists!"),
+    INVALID_CURSOR("The cursor is invalid!"),
+    INVALID_LIMIT("The limit must be between 1 and 1000!"),
+    MALFORMED_RECORD("The record is not a valid JSON request!"),
+    SERVICE_BUSY("The service is busy, please try again!", HttpStatus.SERVICE_UNAVAILABLE), // Answered with a Retry-After header, so the client backs off
+    NODE_UNAVAILABLE("The node that owns the user is unavailable, please try again!", HttpStatus.SERVICE_UNAVAILABLE),
+    ID_TOO_LONG("The message ID or user ID is longer than 255 bytes!"); // Only given by the binary client, as the binary protocol cannot carry longer IDs
+
+    private final String reason;
+    private final HttpStatus status;
+
+    RequestError(String reason) {
+        this(reason, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    RequestError(String reason, HttpStatus status) {
+        this.reason = reason;
+        this.status = status;
+    }
+
+    /**
+     * Gets the reason the request is rejected.
+     *
+     * @return String object containing the reason.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Creates the error response for a rejected request, with the same body the error controller gives an exception.
+     *
+     * @param path String, the path of the rejected request
+     * @return ResponseEntity&lt;Object&gt; object storing the error response.
+     */
+    public ResponseEntity<Object> toResponse(String path) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+
+        return response.body(new Error(status.getReasonPhrase(), Integer.toString(status.value()), path, reason));
+    }
+
+    /**
+     * Finds the request error with a reason, such as the reason of an error response from another node.
+     *
+     * @param reason String
+     * @return RequestError enumeration with the reason, or null if no request error has it.
+     */
+    public static RequestError fromReason(String reason) {
+        for (RequestError requestError : values()) {
+            if (requestError.reason.equals(reason)) {
+                return requestError;
+            }
+        }
+
+        return null;
+    }
+}
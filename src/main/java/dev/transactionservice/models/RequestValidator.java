@@ -0,0 +1,153 @@
+package dev.transactionservice.models;
+
+/**
+ * RequestValidator class for validating the fields shared by load, authorization and hold requests.
+ *
+ * <p> Validation scans the characters of the amount and currency directly, without compiling any pattern or parsing any number,
+ * and reports a rejection as one of the preallocated RequestError reasons instead of throwing, so an invalid request allocates nothing. </p>
+ */
+public final class RequestValidator {
+  public static final long MAX_HOLD_TTL_SECONDS = 31536000; // A hold stays open for at most 365 days
+
+  private RequestValidator() {
+
+  }
+
+  /**
+   * Validates the message ID, user ID and transaction amount of a request, in the order its fields are reported.
+   *
+   * @param messageId String
+   * @param userId String
+   * @param transactionAmount Amount
+   * @param debitOrCredit DebitCredit, the type of amount the request must have
+   * @return RequestError enumeration containing the reason the request is invalid, or null if it is valid.
+   */
+  public static RequestError validate(String messageId, String userId, Amount transactionAmount, DebitCredit debitOrCredit) {
+    if (messageId == null || messageId.length() == 0) {
+      return RequestError.EMPTY_MESSAGE_ID;
+    }
+    else if (userId == null || userId.length() == 0) {
+      return RequestError.EMPTY_USER_ID;
+    }
+    else if (transactionAmount == null) {
+      return RequestError.NON_NUMERIC_AMOUNT;
+    }
+
+    String amount = transactionAmount.getAmount();
+    String currency = transactionAmount.getCurrency();
+    RequestError amountError = validateAmount(amount);
+
+    if (amountError != null) {
+      return amountError;
+    }
+    else if (currency == null || currency.length() == 0) {
+      return RequestError.EMPTY_CURRENCY;
+    }
+    else if (!isCurrencyCode(currency)) {
+      return RequestError.INVALID_CURRENCY;
+    }
+    else if (!transactionAmount.fitsInMinorUnits()) {
+      return RequestError.AMOUNT_TOO_LARGE;
+    }
+    else if (transactionAmount.getDebitOrCredit() != debitOrCredit) {
+      return debitOrCredit == DebitCredit.CREDIT ? RequestError.LOAD_NOT_CREDIT : RequestError.AUTHORIZATION_NOT_DEBIT;
+    }
+
+    return null;
+  }
+
+  /**
+   * Validates a hold request for its action: a hold needs a debit amount and a TTL, a capture a hold ID and a debit amount, and a release only a hold ID.
+   *
+   * @param holdRequest HoldRequest
+   * @return RequestError enumeration containing the reason the request is invalid, or null if it is valid.
+   */
+  public static RequestError validateHold(HoldRequest holdRequest) {
+    HoldAction action = holdRequest.getAction();
+
+    if (holdRequest.getMessageId() == null || holdRequest.getMessageId().length() == 0) {
+      return RequestError.EMPTY_MESSAGE_ID;
+    }
+    else if (holdRequest.getUserId() == null || holdRequest.getUserId().length() == 0) {
+      return RequestError.EMPTY_USER_ID;
+    }
+    else if (action != HoldAction.HOLD && (holdRequest.getHoldId() == null || holdRequest.getHoldId().length() == 0)) {
+      return RequestError.EMPTY_HOLD_ID;
+    }
+    else if (action == HoldAction.RELEASE) {
+      return null;
+    }
+
+    RequestError error = validate(holdRequest.getMessageId(), holdRequest.getUserId(), holdRequest.getTransactionAmount(), DebitCredit.DEBIT);
+
+    if (error == null && action == HoldAction.HOLD && (holdRequest.getTtlSeconds() < 1 || holdRequest.getTtlSeconds() > MAX_HOLD_TTL_SECONDS)) {
+      return RequestError.INVALID_TTL;
+    }
+
+    return error;
+  }
+
+  /**
+   * Checks that an amount is a positive decimal number, made of an optional minus sign, digits and at most one decimal point followed by a digit.
+   *
+   * @param amount String
+   * @return RequestError enumeration containing the reason the amount is invalid, or null if it is valid.
+   */
+  private static RequestError validateAmount(String amount) {
+    if (amount == null || amount.length() == 0) {
+      return RequestError.NON_NUMERIC_AMOUNT;
+    }
+
+    int length = amount.length();
+    boolean negative = amount.charAt(0) == '-';
+    boolean point = false; // Whether a decimal point was read
+    boolean nonZero = false; // Whether a non-zero digit was read
+
+    for (int index = negative ? 1 : 0; index < length; index++) {
+      char character = amount.charAt(index);
+
+      if (character == '.' && !point) {
+        point = true;
+      }
+      else if (character >= '0' && character <= '9') {
+        nonZero |= character != '0';
+      }
+      else {
+        return RequestError.NON_NUMERIC_AMOUNT;
+      }
+    }
+
+    char last = amount.charAt(length - 1);
+
+    if (last < '0' || last > '9') { // An amount needs a digit, and a decimal point needs a digit after it
+      return RequestError.NON_NUMERIC_AMOUNT;
+    }
+    else if (negative || !nonZero) {
+      return RequestError.NON_POSITIVE_AMOUNT;
+    }
+
+    return null;
+  }
+
+  /**
+   * Checks that a currency follows the ISO 4217 standard of 3 uppercase letters.
+   *
+   * @param currency String
+   * @return boolean containing true if the currency is 3 uppercase letters.
+   */
+  private static boolean isCurrencyCode(String currency) {
+    if (currency.length() != 3) {
+      return false;
+    }
+
+    for (int index = 0; index < 3; index++) {
+      char character = currency.charAt(index);
+
+      if (character < 'A' || character > 'Z') {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
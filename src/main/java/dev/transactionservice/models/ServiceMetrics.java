@@ -0,0 +1,152 @@
+package dev.transactionservice.models;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServiceMetrics class for the meters of the request and event hot path, which are exported through the Actuator, including in the Prometheus format.
+ *
+ * <p> Every meter is registered up front, or once per event type, and looked up by path, class or enum ordinal afterwards,
+ * so recording a request, an event, a response or a rejection allocates nothing. The writer threads of every partition record into the same meters. </p>
+ */
+@Component
+public class ServiceMetrics {
+  private static final String USER_BALANCES = "/users/{userId}/balances"; // The measured endpoints with a path variable
+  private static final String USER_EVENTS = "/users/{userId}/events";
+  private static final String[] ENDPOINTS = {"/load", "/authorization", "/load/batch", "/authorization/batch", "/ping", "/users/balances", USER_BALANCES, USER_EVENTS, "/ingest",
+                                            "/holds", "/holds/capture", "/holds/release"};
+
+  private MeterRegistry meterRegistry = null;
+  private Map<String, Timer> endpointTimers = null; // Keyed by request path, and never modified after construction
+  private ClassValue<Timer> eventTimers = null; // Registered the first time an event type is processed
+  private Counter[] responseCounters = null; // Indexed by the ordinal of the response code
+  private Counter[] rejectionCounters = null; // Indexed by the ordinal of the request error
+
+  /**
+   * Parameterized constructor for ServiceMetrics, which registers every meter.
+   *
+   * @param meterRegistry MeterRegistry
+   */
+  public ServiceMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.endpointTimers = new HashMap<String, Timer>();
+    this.responseCounters = new Counter[ResponseCode.values().length];
+    this.rejectionCounters = new Counter[RequestError.values().length];
+
+    for (String endpoint : ENDPOINTS) {
+      endpointTimers.put(endpoint, Timer.builder("transactionservice.request.duration")
+          .description("Time taken to answer a request, by endpoint")
+          .tag("endpoint", endpoint)
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofNanos(100_000))
+          .maximumExpectedValue(Duration.ofSeconds(10))
+          .register(meterRegistry));
+    }
+
+    this.eventTimers = new ClassValue<Timer>() {
+      @Override
+      protected Timer computeValue(Class<?> type) {
+        return Timer.builder("transactionservice.event.duration")
+            .description("Time taken by the event processor to log and process an event, by event type")
+            .tag("type", type.getSimpleName())
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100))
+            .maximumExpectedValue(Duration.ofMillis(100))
+            .register(ServiceMetrics.this.meterRegistry);
+      }
+    };
+
+    for (ResponseCode responseCode : ResponseCode.values()) {
+      responseCounters[responseCode.ordinal()] = Counter.builder("transactionservice.responses")
+          .description("Processed load, authorization and hold requests, by response code")
+          .tag("code", responseCode.name())
+          .register(meterRegistry);
+    }
+
+    for (RequestError requestError : RequestError.values()) {
+      rejectionCounters[requestError.ordinal()] = Counter.builder("transactionservice.requests.rejected")
+          .description("Requests rejected without being processed, by reason")
+          .tag("reason", requestError.name())
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Gets the timer of an endpoint, where the balances of every user share one timer, and so do the events of every user.
+   *
+   * @param path String
+   * @return Timer object for the endpoint, or null if the path is not one of the measured endpoints.
+   */
+  public Timer endpointTimer(String path) {
+    Timer timer = endpointTimers.get(path);
+
+    if (timer == null && isUserPath(path, "/balances")) {
+      return endpointTimers.get(USER_BALANCES);
+    }
+    else if (timer == null && isUserPath(path, "/events")) {
+      return endpointTimers.get(USER_EVENTS);
+    }
+
+    return timer;
+  }
+
+  /**
+   * Checks if a path is /users/{userId} followed by a suffix, without allocating.
+   *
+   * @param path String
+   * @param suffix String
+   * @return boolean containing true if the path is the suffix of one user.
+   */
+  private static boolean isUserPath(String path, String suffix) {
+    return path.startsWith("/users/") && path.endsWith(suffix) && path.indexOf('/', "/users/".length()) == path.length() - suffix.length();
+  }
+
+  /**
+   * Records how long the event processor took to log and process an event.
+   *
+   * @param event Event
+   * @param nanoseconds long
+   */
+  public void recordEvent(Event event, long nanoseconds) {
+    eventTimers.get(event.getClass()).record(nanoseconds, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Counts the response code of a processed request, if the response has one.
+   *
+   * @param response Object, the return value of an event's process method
+   */
+  public void recordResponse(Object response) {
+    if (response instanceof LoadResponse loadResponse) {
+      responseCounters[loadResponse.getResponseCode().ordinal()].increment();
+    }
+    else if (response instanceof AuthorizationResponse authorizationResponse) {
+      responseCounters[authorizationResponse.getResponseCode().ordinal()].increment();
+    }
+    else if (response instanceof HoldResponse holdResponse) {
+      responseCounters[holdResponse.getResponseCode().ordinal()].increment();
+    }
+  }
+
+  /**
+   * Counts a rejected request by the reason it was rejected for.
+   *
+   * <p> The controllers count the requests they reject themselves, while the event sequencer counts the message IDs that have already been used,
+   * so that every front end and batch is covered. </p>
+   *
+   * @param requestError RequestError
+   */
+  public void recordRejection(RequestError requestError) {
+    rejectionCounters[requestError.ordinal()].increment();
+  }
+}
@@ -0,0 +1,223 @@
+package dev.transactionservice.models;
+
+import java.util.Arrays;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * StringDictionary class for assigning compact int IDs to strings, such as user IDs or currencies, in the order they are first added.
+ *
+ * <p> The strings are stored once in an array indexed by their ID, and found through an open-addressing hash table of IDs,
+ * so that no entry objects or boxed integers are created. Lookups are optimistic reads like those of a seqlock, which are retried
+ * until no string was added in the meantime, so they never take the lock or block a thread adding a string. </p>
+ */
+public class StringDictionary {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int SPINS = 64; // Retries of a lookup before it yields to the writer, which may have been descheduled
+
+  private int maximumSize = 0;
+  private StampedLock lock = null;
+  private int[] slots = null; // The ID plus 1 of the string hashed to each slot, or 0 if the slot is empty
+  private String[] values = null; // Every string, indexed by its ID
+  private int size = 0;
+
+  /**
+   * Parameterized constructor for StringDictionary.
+   *
+   * @param maximumSize int, the amount of strings after which no more can be added
+   */
+  public StringDictionary(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.lock = new StampedLock();
+    this.slots = new int[INITIAL_CAPACITY * 2];
+    this.values = new String[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Finds the ID of a string.
+   *
+   * @param value String
+   * @return int containing the ID of the string, or -1 if it has not been added.
+   */
+  public int find(String value) {
+    for (int attempt = 0; ; attempt++) {
+      long stamp = lock.tryOptimisticRead(); // 0 while a string is being added
+
+      if (stamp != 0) {
+        int id = find(slots, values, value);
+
+        if (lock.validate(stamp)) {
+          return id;
+        }
+      }
+
+      backOff(attempt);
+    }
+  }
+
+  /**
+   * Finds the ID of a string, adding the string if it has not been added yet.
+   *
+   * @param value String
+   * @return int containing the ID of the string.
+   * @throws IllegalStateException if the string is new and the dictionary is full.
+   */
+  public int add(String value) {
+    int id = find(value);
+
+    if (id >= 0) {
+      return id;
+    }
+
+    long stamp = lock.writeLock();
+
+    try {
+      int slot = slot(slots, values, value);
+
+      if (slots[slot] != 0) { // Another thread added it in the meantime
+        return slots[slot] - 1;
+      }
+      else if (size >= maximumSize) {
+        throw new IllegalStateException("No more than " + maximumSize + " strings can be added to the dictionary!");
+      }
+
+      if (size == values.length) { // Double the capacity, keeping the hash table at most half full
+        values = Arrays.copyOf(values, size * 2);
+        slots = new int[values.length * 2];
+
+        for (int i = 0; i < size; i++) {
+          slots[slot(slots, values, values[i])] = i + 1;
+        }
+
+        slot = slot(slots, values, value);
+      }
+
+      values[size] = value;
+      slots[slot] = size + 1;
+
+      return size++;
+    }
+    finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gets the string of an ID.
+   *
+   * @param id int
+   * @return String object containing the string with the ID.
+   */
+  public String get(int id) {
+    for (int attempt = 0; ; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+
+      if (stamp != 0) {
+        String[] currentValues = values;
+        String value = id < currentValues.length ? currentValues[id] : null;
+
+        if (lock.validate(stamp)) {
+          return value;
+        }
+      }
+
+      backOff(attempt);
+    }
+  }
+
+  /**
+   * Gets the amount of strings in the dictionary.
+   *
+   * @return int containing the amount of strings.
+   */
+  public int size() {
+    for (int attempt = 0; ; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+
+      if (stamp != 0) {
+        int currentSize = size;
+
+        if (lock.validate(stamp)) {
+          return currentSize;
+        }
+      }
+
+      backOff(attempt);
+    }
+  }
+
+  /**
+   * Removes every string from the dictionary, so that IDs are assigned from 0 again.
+   */
+  public void clear() {
+    long stamp = lock.writeLock();
+
+    try {
+      slots = new int[INITIAL_CAPACITY * 2];
+      values = new String[INITIAL_CAPACITY];
+      size = 0;
+    }
+    finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the ID of a string in a hash table, which may be read without the lock, so the amount of probes is bounded.
+   *
+   * @param currentSlots int[]
+   * @param currentValues String[]
+   * @param value String
+   * @return int containing the ID of the string, or -1 if it is not in the hash table.
+   */
+  private static int find(int[] currentSlots, String[] currentValues, String value) {
+    int mask = currentSlots.length - 1;
+
+    for (int i = 0, slot = mix(value.hashCode()) & mask; i < currentSlots.length; i++, slot = (slot + 1) & mask) {
+      int id = currentSlots[slot] - 1;
+
+      if (id < 0) {
+        return -1;
+      }
+      else if (id < currentValues.length && value.equals(currentValues[id])) {
+        return id;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Finds the slot of a string in a hash table, or the empty slot it would be added at. Must be called while holding the write lock.
+   *
+   * @param currentSlots int[]
+   * @param currentValues String[]
+   * @param value String
+   * @return int containing the slot.
+   */
+  private static int slot(int[] currentSlots, String[] currentValues, String value) {
+    int mask = currentSlots.length - 1;
+    int slot = mix(value.hashCode()) & mask;
+
+    while (currentSlots[slot] != 0 && !value.equals(currentValues[currentSlots[slot] - 1])) {
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+  }
+
+  private static void backOff(int attempt) {
+    if (attempt < SPINS) {
+      Thread.onSpinWait();
+    }
+    else {
+      Thread.yield();
+    }
+  }
+
+  private static int mix(int hash) {
+    int mixed = hash * 0x9E3779B9; // Spread similar hashes, like those of numeric user IDs, across the table
+
+    return mixed ^ (mixed >>> 16);
+  }
+}
@@ -0,0 +1,189 @@
+package dev.transactionservice.models;
+
+import java.util.List;
+
+/**
+ * TimingWheel class for scheduling the expiry of holds, so that scheduling, cancelling and expiring a hold each cost O(1) no matter how many holds are open.
+ *
+ * <p> Time is divided into ticks, and the wheel has LEVELS levels of SLOTS slots, where a slot of level n spans SLOTS^n ticks.
+ * A hold is linked into the slot of the lowest level whose span still tells its expiry apart from the current tick, so the wheel covers
+ * SLOTS^LEVELS ticks with only LEVELS * SLOTS slots. Advancing by one tick expires the holds of one slot of level 0, and whenever a slot of
+ * a higher level starts, its holds are moved down into the levels below it, at most once per level, instead of every hold being checked every tick. </p>
+ *
+ * <p> The wheel is not safe for concurrent use, as only the writer thread of a partition schedules and expires holds. </p>
+ */
+public class TimingWheel {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = 6; // 64^6 ticks, which is over 200 years of ticks of 100 milliseconds
+
+  private long tickMillis = 0;
+  private long currentTick = 0; // The last tick whose holds have expired, in ticks since the epoch
+  private Hold[] slots = null; // The first hold of every slot, level by level
+  private int size = 0;
+
+  /**
+   * Parameterized constructor for TimingWheel.
+   *
+   * @param tickMillis long, the duration of a tick, which is how late a hold may expire at most
+   * @param nowMillis long, the current time in milliseconds since the epoch
+   */
+  public TimingWheel(long tickMillis, long nowMillis) {
+    this.tickMillis = tickMillis;
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    this.slots = new Hold[LEVELS * SLOTS];
+  }
+
+  /**
+   * Schedules the expiry of a hold at its expiry time, or at the next tick if it has already expired.
+   *
+   * @param hold Hold, whose expiry is not scheduled yet
+   */
+  public void schedule(Hold hold) {
+    long expiryTick = -Math.floorDiv(-hold.getExpiresAtMillis(), tickMillis); // Rounded up, so a hold never expires early
+
+    link(hold, Math.max(expiryTick, currentTick + 1));
+    size++;
+  }
+
+  /**
+   * Cancels the expiry of a hold, if it is scheduled.
+   *
+   * @param hold Hold
+   */
+  public void cancel(Hold hold) {
+    if (hold.slot >= 0) {
+      unlink(hold);
+      size--;
+    }
+  }
+
+  /**
+   * Advances the wheel to the current time, and adds every hold that has expired since the last advance to a list, one tick after another.
+   * The expired holds are no longer scheduled, but are otherwise left as they are.
+   *
+   * @param nowMillis long, the current time in milliseconds since the epoch
+   * @param expired List&lt;Hold&gt;
+   */
+  public void advance(long nowMillis, List<Hold> expired) {
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+
+    if (size == 0 && targetTick > currentTick) { // Nothing can expire, so the empty ticks are skipped
+      currentTick = targetTick;
+    }
+
+    while (currentTick < targetTick) {
+      currentTick++;
+
+      for (int level = LEVELS - 1; level > 0; level--) { // A slot that starts at this tick is moved down before the slots below it
+        if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+          cascade(level * SLOTS + (int)((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+        }
+      }
+
+      int slot = (int)(currentTick & (SLOTS - 1));
+      Hold hold = slots[slot];
+      slots[slot] = null;
+
+      while (hold != null) {
+        Hold next = hold.next;
+        hold.previous = null;
+        hold.next = null;
+        hold.slot = -1;
+        size--;
+        expired.add(hold);
+        hold = next;
+      }
+    }
+  }
+
+  /**
+   * Gets the amount of holds whose expiry is scheduled.
+   *
+   * @return int containing the amount of scheduled holds.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every scheduled hold.
+   */
+  public void clear() {
+    for (int slot = 0; slot < slots.length; slot++) {
+      Hold hold = slots[slot];
+      slots[slot] = null;
+
+      while (hold != null) {
+        Hold next = hold.next;
+        hold.previous = null;
+        hold.next = null;
+        hold.slot = -1;
+        hold = next;
+      }
+    }
+
+    size = 0;
+  }
+
+  /**
+   * Moves the holds of a slot that has started into the levels below it.
+   *
+   * @param slot int
+   */
+  private void cascade(int slot) {
+    Hold hold = slots[slot];
+    slots[slot] = null;
+
+    while (hold != null) {
+      Hold next = hold.next;
+      link(hold, -Math.floorDiv(-hold.getExpiresAtMillis(), tickMillis));
+      hold = next;
+    }
+  }
+
+  /**
+   * Links a hold into the slot of the lowest level whose span holds both the current tick and the hold's expiry tick,
+   * or of the highest level if its expiry is further away than the wheel covers, from where it is moved again once that slot starts.
+   *
+   * @param hold Hold
+   * @param expiryTick long
+   */
+  private void link(Hold hold, long expiryTick) {
+    long tick = Math.max(expiryTick, currentTick); // A hold moved down after it has expired goes into the slot expiring at the current tick
+    int level = 0;
+
+    while (level < LEVELS - 1 && (tick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+      level++;
+    }
+
+    int slot = level * SLOTS + (int)((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+
+    hold.slot = slot;
+    hold.previous = null;
+    hold.next = slots[slot];
+
+    if (hold.next != null) {
+      hold.next.previous = hold;
+    }
+
+    slots[slot] = hold;
+  }
+
+  private void unlink(Hold hold) {
+    if (hold.previous != null) {
+      hold.previous.next = hold.next;
+    }
+    else {
+      slots[hold.slot] = hold.next;
+    }
+
+    if (hold.next != null) {
+      hold.next.previous = hold.previous;
+    }
+
+    hold.previous = null;
+    hold.next = null;
+    hold.slot = -1;
+  }
+}
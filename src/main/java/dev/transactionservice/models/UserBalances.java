@@ -0,0 +1,73 @@
+package dev.transactionservice.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserBalances class for storing the balances of a user in every currency the user has a balance in.
+ *
+ * <p> A user without any balance is answered with an empty list of balances, just like a user that has never sent a request. </p>
+ */
+public class UserBalances {
+    private String userId = null;
+    private List<Balance> balances = null;
+
+    /**
+     * Default constructor for UserBalances.
+     */
+    public UserBalances() {
+      this.balances = new ArrayList<Balance>();
+    }
+
+    /**
+     * Parameterized constructor for UserBalances.
+     *
+     * @param userId String
+     * @param balances List&lt;Balance&gt;
+     */
+    public UserBalances(String userId, List<Balance> balances) {
+      this.userId = userId;
+      this.balances = balances;
+    }
+
+    /**
+     * Sets the user ID.
+     *
+     * @param userId String
+     */
+    public void setUserId(String userId) {
+      this.userId = userId;
+    }
+
+    /**
+     * Sets the balances.
+     *
+     * @param balances List&lt;Balance&gt;
+     */
+    public void setBalances(List<Balance> balances) {
+      this.balances = balances;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return String object containing the user ID.
+     */
+    public String getUserId() {
+      return userId;
+    }
+
+    /**
+     * Gets the balances.
+     *
+     * @return List&lt;Balance&gt; object containing the balance in every currency.
+     */
+    public List<Balance> getBalances() {
+      return balances;
+    }
+
+    @Override
+    public String toString() {
+        return "{\"userId\":\"" + userId + "\",\"balances\":" + balances + "}";
+    }
+}
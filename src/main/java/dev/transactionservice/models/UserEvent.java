@@ -0,0 +1,130 @@
+package dev.transactionservice.models;
+
+import java.time.Instant;
+
+/**
+ * UserEvent class for storing one logged event of a user, which is a load or authorization request or the response to one.
+ */
+public class UserEvent {
+    private long sequence = 0;
+    private String type = null;
+    private String messageId = null;
+    private Instant timeStamp = null;
+    private Object record = null;
+
+    /**
+     * Default constructor for UserEvent.
+     */
+    public UserEvent() {
+
+    }
+
+    /**
+     * Parameterized constructor for UserEvent, which takes the type, message ID, time stamp and stored record of a logged event.
+     *
+     * @param sequence long, the sequence number of the event in the event log
+     * @param event Event
+     */
+    public UserEvent(long sequence, Event event) {
+      this.sequence = sequence;
+      this.type = event.getStoredRecord().getClass().getSimpleName();
+      this.messageId = event.getMessageId();
+      this.timeStamp = event.getTimeStamp();
+      this.record = event.getStoredRecord();
+    }
+
+    /**
+     * Sets the sequence number.
+     *
+     * @param sequence long
+     */
+    public void setSequence(long sequence) {
+      this.sequence = sequence;
+    }
+
+    /**
+     * Sets the type.
+     *
+     * @param type String
+     */
+    public void setType(String type) {
+      this.type = type;
+    }
+
+    /**
+     * Sets the message ID.
+     *
+     * @param messageId String
+     */
+    public void setMessageId(String messageId) {
+      this.messageId = messageId;
+    }
+
+    /**
+     * Sets the time stamp.
+     *
+     * @param timeStamp Instant
+     */
+    public void setTimeStamp(Instant timeStamp) {
+      this.timeStamp = timeStamp;
+    }
+
+    /**
+     * Sets the stored record.
+     *
+     * @param record Object
+     */
+    public void setRecord(Object record) {
+      this.record = record;
+    }
+
+    /**
+     * Gets the sequence number of the event in the event log of its partition, which is also the cursor of the events that precede it.
+     *
+     * @return long containing the sequence number.
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * Gets the type, which is LoadRequest, LoadResponse, AuthorizationRequest or AuthorizationResponse.
+     *
+     * @return String object containing the type.
+     */
+    public String getType() {
+      return type;
+    }
+
+    /**
+     * Gets the message ID.
+     *
+     * @return String object containing the message ID.
+     */
+    public String getMessageId() {
+      return messageId;
+    }
+
+    /**
+     * Gets the time stamp the event was logged at.
+     *
+     * @return Instant object containing the time stamp.
+     */
+    public Instant getTimeStamp() {
+      return timeStamp;
+    }
+
+    /**
+     * Gets the stored record, which is the request or response of the event.
+     *
+     * @return The stored record as an Object.
+     */
+    public Object getRecord() {
+      return record;
+    }
+
+    @Override
+    public String toString() {
+        return "{\"sequence\":" + sequence + ",\"type\":\"" + type + "\",\"messageId\":\"" + messageId + "\",\"timeStamp\":\"" + timeStamp + "\",\"record\":" + record + "}";
+    }
+}
@@ -0,0 +1,108 @@
+package dev.transactionservice.models;
+
+import java.util.Arrays;
+
+/**
+ * UserEventIndex class for the secondary index from user IDs to the sequence numbers of their events in an event log.
+ *
+ * <p> Every user has an ascending array of primitive long sequence numbers, found through a StringDictionary of user IDs,
+ * so that the events of a user are looked up without scanning the events of every other user. Only the writer thread adds sequence numbers,
+ * while any thread may read them without a lock: an array that is full is copied into a larger one, and a history publishes its array before its size,
+ * so a reader that has read the size always finds at least as many sequence numbers in the array it reads afterwards. </p>
+ */
+public class UserEventIndex {
+  private static final int INITIAL_USERS = 16;
+  private static final int INITIAL_CAPACITY = 4; // Per user, as most users only have a few events
+
+  private StringDictionary userIds = null;
+  private volatile History[] histories = null; // Indexed by the ID of the user in the dictionary
+
+  /**
+   * Default constructor for UserEventIndex.
+   */
+  public UserEventIndex() {
+    this.userIds = new StringDictionary(Integer.MAX_VALUE);
+    this.histories = new History[INITIAL_USERS];
+  }
+
+  /**
+   * Adds the sequence number of a user's event, which must be larger than the user's previous one. Must only be called from the writer thread.
+   *
+   * @param userId String
+   * @param sequence long
+   */
+  public void add(String userId, long sequence) {
+    int id = userIds.add(userId);
+    History[] currentHistories = histories;
+
+    if (id >= currentHistories.length) {
+      currentHistories = Arrays.copyOf(currentHistories, Math.max(currentHistories.length * 2, id + 1));
+      histories = currentHistories;
+    }
+
+    if (currentHistories[id] == null) {
+      currentHistories[id] = new History();
+    }
+
+    currentHistories[id].add(sequence);
+  }
+
+  /**
+   * Gets the sequence numbers of a user's most recent events before a sequence number, newest first.
+   *
+   * @param userId String
+   * @param before long, the exclusive upper bound of the sequence numbers
+   * @param limit int, the largest amount of sequence numbers to return
+   * @return long[] containing at most the limit of sequence numbers, which is empty for an unknown user.
+   */
+  public long[] find(String userId, long before, int limit) {
+    int id = userIds.find(userId);
+    History[] currentHistories = histories;
+    History history = id >= 0 && id < currentHistories.length ? currentHistories[id] : null;
+    int size = history == null ? 0 : history.size; // Read before the array, see the class comment
+
+    if (size == 0) { // Not added yet, or added by the writer thread after this thread read the histories
+      return new long[0];
+    }
+
+    long[] sequences = history.sequences;
+    int end = Arrays.binarySearch(sequences, 0, size, before);
+    end = end < 0 ? -end - 1 : end; // The amount of sequence numbers before the bound
+
+    long[] page = new long[Math.min(limit, end)];
+
+    for (int i = 0; i < page.length; i++) {
+      page[i] = sequences[end - 1 - i];
+    }
+
+    return page;
+  }
+
+  /**
+   * Removes every user from the index. Must not be called while sequence numbers are being added.
+   */
+  public void clear() {
+    userIds.clear();
+    histories = new History[INITIAL_USERS];
+  }
+
+  /**
+   * History class for the ascending sequence numbers of one user's events.
+   */
+  private static class History {
+    private volatile long[] sequences = new long[INITIAL_CAPACITY];
+    private volatile int size = 0;
+
+    private void add(long sequence) {
+      long[] currentSequences = sequences;
+
+      if (size == currentSequences.length) {
+        currentSequences = Arrays.copyOf(currentSequences, size * 2);
+      }
+
+      currentSequences[size] = sequence;
+      sequences = currentSequences; // Published before the size, see the class comment
+      size++;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package dev.transactionservice.models;
+
+import java.util.ArrayList;
+
+/**
+ * UserEvents class for storing one page of a user's logged events, newest first, and the cursor of the next page.
+ *
+ * <p> The events are an Iterable rather than a List, so that a page read from the event log is decoded one event at a time
+ * while it is written to the response, instead of being decoded into a list first. </p>
+ */
+public class UserEvents {
+    private String userId = null;
+    private Iterable<UserEvent> events = null;
+    private String nextCursor = null;
+
+    /**
+     * Default constructor for UserEvents.
+     */
+    public UserEvents() {
+      this.events = new ArrayList<UserEvent>();
+    }
+
+    /**
+     * Parameterized constructor for UserEvents.
+     *
+     * @param userId String
+     * @param events Iterable&lt;UserEvent&gt;
+     * @param nextCursor String, or null if there are no older events
+     */
+    public UserEvents(String userId, Iterable<UserEvent> events, String nextCursor) {
+      this.userId = userId;
+      this.events = events;
+      this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Sets the user ID.
+     *
+     * @param userId String
+     */
+    public void setUserId(String userId) {
+      this.userId = userId;
+    }
+
+    /**
+     * Sets the events.
+     *
+     * @param events Iterable&lt;UserEvent&gt;
+     */
+    public void setEvents(Iterable<UserEvent> events) {
+      this.events = events;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param nextCursor String
+     */
+    public void setNextCursor(String nextCursor) {
+      this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return String object containing the user ID.
+     */
+    public String getUserId() {
+      return userId;
+    }
+
+    /**
+     * Gets the events of the page.
+     *
+     * @return Iterable&lt;UserEvent&gt; object containing the events, newest first.
+     */
+    public Iterable<UserEvent> getEvents() {
+      return events;
+    }
+
+    /**
+     * Gets the cursor of the next page, which is passed as the cursor query parameter to read the events older than this page.
+     *
+     * @return String object containing the cursor, or null if there are no older events.
+     */
+    public String getNextCursor() {
+      return nextCursor;
+    }
+}
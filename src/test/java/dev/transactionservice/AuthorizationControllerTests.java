@@ -2,7 +2,7 @@ package dev.transactionservice;
 
 import dev.transactionservice.models.AuthorizationRequestJson;
 import dev.transactionservice.models.AuthorizationResponseJson;
-import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventRouter;
 import dev.transactionservice.models.LoadRequestJson;
 
 import org.springframework.test.web.servlet.MockMvc;
@@ -37,8 +37,8 @@ public class AuthorizationControllerTests {
 	private MockMvc mockMvc;
 
 	@BeforeEach
-	void resetEventProcessor(@Autowired EventProcessor eventProcessor) {
-		eventProcessor.clear();
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
 	}
 
 	@Test
@@ -564,6 +564,18 @@ public class AuthorizationControllerTests {
 
 	}
 	
+	@Test
+	public void authorizeOneWithTooLargeAmount() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "250", "USD", "CREDIT").toString();
+		String request2 = new AuthorizationRequestJson("1", "0", "100000000000000000000", "USD", "DEBIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andDo(result1 -> mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(status().isUnprocessableEntity()));
+
+	}
+	
 	@Test
 	public void authorizeOneWithEmptyCurrency() throws Exception {
 
@@ -624,4 +636,27 @@ public class AuthorizationControllerTests {
 
 	}
 
+	@Test
+	public void authorizeBatchWithApprovedAndDeclined() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+		String request2 = new AuthorizationRequestJson("1", "0", "60", "USD", "DEBIT").toString();
+		String request3 = new AuthorizationRequestJson("2", "0", "60", "USD", "DEBIT").toString();
+		String request4 = new AuthorizationRequestJson("3", "0", "40", "USD", "DEBIT").toString();
+		String request5 = new AuthorizationRequestJson("4", "0", "10", "USD", "CREDIT").toString();
+
+		String response2 = new AuthorizationResponseJson("1", "0", "APPROVED", "40.00", "USD", "DEBIT").toString();
+		String response3 = new AuthorizationResponseJson("2", "0", "DECLINED", "40.00", "USD", "DEBIT").toString();
+		String response4 = new AuthorizationResponseJson("3", "0", "APPROVED", "0.00", "USD", "DEBIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andDo(result1 -> mockMvc.perform(put("/authorization/batch").contentType(MediaType.APPLICATION_JSON).content("[" + request2 + "," + request3 + "," + request4 + "," + request5 + "]"))
+					.andExpect(content().json("[{\"messageId\":\"1\",\"response\":" + response2 + "},"
+											+ "{\"messageId\":\"2\",\"response\":" + response3 + "},"
+											+ "{\"messageId\":\"3\",\"response\":" + response4 + "},"
+											+ "{\"messageId\":\"4\",\"error\":\"For Authorization requests, please use DEBIT!\"}]", true))
+					.andExpect(status().isCreated()));
+
+	}
+
 }
@@ -0,0 +1,110 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * BalanceControllerTests class to test the balance read endpoints, using the MockMvc entry point.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BalanceControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void balancesWithMultipleCurrencies() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100.25", "USD", "CREDIT").toString();
+		String request2 = new LoadRequestJson("1", "0", "50", "EUR", "CREDIT").toString();
+		String request3 = new AuthorizationRequestJson("2", "0", "0.25", "USD", "DEBIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request3))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(get("/users/0/balances"))
+					.andExpect(content().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"100.00\",\"currency\":\"USD\"},{\"amount\":\"50.00\",\"currency\":\"EUR\"}]}", true))
+					.andExpect(status().isOk());
+
+	}
+
+	@Test
+	public void balancesOfUnknownUser() throws Exception {
+
+		this.mockMvc.perform(get("/users/unknown/balances"))
+					.andExpect(content().json("{\"userId\":\"unknown\",\"balances\":[]}", true))
+					.andExpect(status().isOk());
+
+	}
+
+	@Test
+	public void balancesAfterDeclinedDebit() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "50", "USD", "CREDIT").toString();
+		String request2 = new AuthorizationRequestJson("1", "0", "100", "USD", "DEBIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(get("/users/0/balances"))
+					.andExpect(content().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"50.00\",\"currency\":\"USD\"}]}", true))
+					.andExpect(status().isOk());
+
+	}
+
+	@Test
+	public void bulkBalancesInOrderOfUserIds() throws Exception {
+
+		for (int user = 0; user < 3; user++) {
+			String request1 = new LoadRequestJson(Integer.toString(user), Integer.toString(user), Integer.toString(10 * (user + 1)), "USD", "CREDIT").toString();
+
+			this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+						.andExpect(status().isCreated());
+		}
+
+		this.mockMvc.perform(get("/users/balances").param("userId", "2", "unknown", "0"))
+					.andExpect(content().json("[{\"userId\":\"2\",\"balances\":[{\"amount\":\"30.00\",\"currency\":\"USD\"}]},"
+							+ "{\"userId\":\"unknown\",\"balances\":[]},"
+							+ "{\"userId\":\"0\",\"balances\":[{\"amount\":\"10.00\",\"currency\":\"USD\"}]}]", true))
+					.andExpect(status().isOk());
+
+		this.mockMvc.perform(get("/users/balances?userId=1,0"))
+					.andExpect(content().json("[{\"userId\":\"1\"},{\"userId\":\"0\"}]"))
+					.andExpect(status().isOk());
+
+	}
+
+}
@@ -0,0 +1,183 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.BalanceTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BalanceTableTests class to test that lock-free reads never see a torn or missing balance while writers update and resize the stripes,
+ * and that subtractions, additions, clearing and iteration keep the balances consistent.
+ */
+public class BalanceTableTests {
+
+	private static final long MISSING = Long.MIN_VALUE;
+	private static final long KEY_FACTOR = 1000000; // A balance of a key is the key times this factor, plus how often it was added to
+	private static final int PRESENT_KEYS = 1000;
+	private static final int INSERTED_KEYS = 200000; // Enough to double every stripe several times
+
+	@Test
+	public void readWhileStripesResize() throws Exception {
+
+		BalanceTable balanceTable = new BalanceTable();
+		AtomicBoolean writing = new AtomicBoolean(true);
+		AtomicReference<String> failure = new AtomicReference<String>();
+		List<Thread> readers = new ArrayList<Thread>();
+
+		for (int key = 0; key < PRESENT_KEYS; key++) {
+			balanceTable.put(key, key * KEY_FACTOR);
+		}
+
+		for (int reader = 0; reader < 4; reader++) {
+			int seed = reader;
+
+			readers.add(start(() -> {
+				SplittableRandom random = new SplittableRandom(seed);
+
+				while (writing.get() && failure.get() == null) {
+					long presentKey = random.nextInt(PRESENT_KEYS);
+					long presentBalance = balanceTable.get(presentKey, MISSING);
+					long insertedKey = PRESENT_KEYS + random.nextInt(INSERTED_KEYS);
+					long insertedBalance = balanceTable.get(insertedKey, MISSING);
+
+					if (presentBalance == MISSING || presentBalance / KEY_FACTOR != presentKey) {
+						failure.compareAndSet(null, "Key " + presentKey + " had the balance " + presentBalance);
+					}
+					else if (insertedBalance != MISSING && insertedBalance != insertedKey * KEY_FACTOR) {
+						failure.compareAndSet(null, "Key " + insertedKey + " had the balance " + insertedBalance);
+					}
+				}
+			}));
+		}
+
+		Thread writer = start(() -> {
+			for (int key = PRESENT_KEYS; key < PRESENT_KEYS + INSERTED_KEYS; key++) {
+				balanceTable.put(key, key * KEY_FACTOR);
+				balanceTable.add(key % PRESENT_KEYS, 1); // Updates the present keys while their stripes are resized
+			}
+
+			writing.set(false);
+		});
+
+		writer.join();
+
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		assertNull(failure.get());
+		assertEquals(PRESENT_KEYS + INSERTED_KEYS, balanceTable.size());
+
+		for (int key = 0; key < PRESENT_KEYS; key++) {
+			assertEquals(key * KEY_FACTOR + INSERTED_KEYS / PRESENT_KEYS, balanceTable.get(key, MISSING));
+		}
+
+	}
+
+	@Test
+	public void addFromConcurrentWriters() throws Exception {
+
+		BalanceTable balanceTable = new BalanceTable();
+		List<Thread> writers = new ArrayList<Thread>();
+
+		for (int writer = 0; writer < 8; writer++) {
+			writers.add(start(() -> {
+				for (int key = 0; key < 20000; key++) {
+					balanceTable.add(key, 1);
+				}
+			}));
+		}
+
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		assertEquals(20000, balanceTable.size());
+
+		for (int key = 0; key < 20000; key++) {
+			assertEquals(8, balanceTable.get(key, MISSING));
+		}
+
+	}
+
+	@Test
+	public void returnComplementOnInsufficientFunds() {
+
+		BalanceTable balanceTable = new BalanceTable();
+		balanceTable.put(1, 100);
+
+		assertEquals(~100L, balanceTable.subtract(1, 150));
+		assertEquals(100, balanceTable.get(1, MISSING)); // Unmodified
+		assertEquals(~0L, balanceTable.subtract(2, 1)); // A missing balance counts as 0
+		assertEquals(MISSING, balanceTable.get(2, MISSING));
+		assertEquals(40, balanceTable.subtract(1, 60));
+		assertEquals(0, balanceTable.subtract(1, 40));
+		assertEquals(~0L, balanceTable.subtract(1, 1));
+
+	}
+
+	@Test
+	public void keepBalanceOnOverflow() {
+
+		BalanceTable balanceTable = new BalanceTable();
+		balanceTable.put(1, Long.MAX_VALUE - 1);
+
+		assertThrows(ArithmeticException.class, () -> balanceTable.add(1, 2));
+		assertEquals(Long.MAX_VALUE - 1, balanceTable.get(1, MISSING));
+		assertEquals(Long.MAX_VALUE, balanceTable.add(1, 1));
+		assertEquals(5, balanceTable.add(2, 5)); // Created by its first addition
+		assertEquals(2, balanceTable.size());
+
+	}
+
+	@Test
+	public void clearAndIterateBalances() {
+
+		BalanceTable balanceTable = new BalanceTable();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+
+		for (long key = 0; key < 5000; key++) {
+			balanceTable.put(key * 7919, key);
+			expected.put(key * 7919, key);
+		}
+
+		Map<Long, Long> iterated = new HashMap<Long, Long>();
+		balanceTable.forEach((key, balance) -> assertNull(iterated.put(key, balance), "Key " + key + " was passed twice"));
+
+		assertEquals(expected, iterated);
+		assertEquals(5000, balanceTable.size());
+
+		balanceTable.clear();
+
+		assertEquals(0, balanceTable.size());
+		assertEquals(MISSING, balanceTable.get(7919, MISSING));
+		balanceTable.forEach((key, balance) -> assertTrue(false, "Key " + key + " was not cleared"));
+
+		balanceTable.put(7919, 3);
+
+		assertEquals(3, balanceTable.get(7919, MISSING));
+		assertEquals(1, balanceTable.size());
+
+	}
+
+	private static Thread start(Runnable runnable) {
+		Thread thread = new Thread(runnable);
+		thread.start();
+
+		return thread;
+	}
+
+}
@@ -0,0 +1,238 @@
+package dev.transactionservice;
+
+import dev.transactionservice.binary.BinaryClient;
+import dev.transactionservice.binary.BinaryProtocol;
+import dev.transactionservice.binary.BinaryServer;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationResponse;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.RequestError;
+import dev.transactionservice.models.ResponseCode;
+
+import java.net.InetSocketAddress;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * BinaryServerTests class to test the binary protocol listener, using the binary client over a real connection.
+ */
+@SpringBootTest(properties = "transactionservice.binary.port=0")
+public class BinaryServerTests {
+
+	private BinaryClient client = null;
+	private int port = 0;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter, @Autowired BinaryServer binaryServer) throws Exception {
+		eventRouter.clear();
+		port = binaryServer.getPort();
+		client = new BinaryClient("localhost", port);
+	}
+
+	@AfterEach
+	void closeClient() {
+		client.close();
+	}
+
+	@Test
+	public void loadAndAuthorize() throws Exception {
+
+		LoadResponse loadResponse = client.load(new LoadRequest("0", "0", new Amount("100", "USD", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS);
+
+		assertEquals("0", loadResponse.getMessageId());
+		assertEquals("0", loadResponse.getUserId());
+		assertEquals(ResponseCode.APPROVED, loadResponse.getResponseCode());
+		assertEquals("100.00", loadResponse.getBalance().getAmount());
+		assertEquals("USD", loadResponse.getBalance().getCurrency());
+		assertEquals(DebitCredit.CREDIT, loadResponse.getBalance().getDebitOrCredit());
+
+		AuthorizationResponse approved = client.authorize(new AuthorizationRequest("1", "0", new Amount("30", "USD", DebitCredit.DEBIT))).get(5, TimeUnit.SECONDS);
+
+		assertEquals(ResponseCode.APPROVED, approved.getResponseCode());
+		assertEquals("70.00", approved.getBalance().getAmount());
+		assertEquals(DebitCredit.DEBIT, approved.getBalance().getDebitOrCredit());
+
+		AuthorizationResponse declined = client.authorize(new AuthorizationRequest("2", "0", new Amount("1000", "USD", DebitCredit.DEBIT))).get(5, TimeUnit.SECONDS);
+
+		assertEquals(ResponseCode.DECLINED, declined.getResponseCode());
+		assertEquals("70.00", declined.getBalance().getAmount());
+
+	}
+
+	@Test
+	public void rejectInvalidRequests() throws Exception {
+
+		assertRejected(client.load(new LoadRequest("0", "0", new Amount("100test", "USD", DebitCredit.CREDIT))), RequestError.NON_NUMERIC_AMOUNT);
+		assertRejected(client.load(new LoadRequest("1", "0", new Amount("100", "USD", DebitCredit.DEBIT))), RequestError.LOAD_NOT_CREDIT);
+		assertRejected(client.authorize(new AuthorizationRequest("2", "", new Amount("100", "USD", DebitCredit.DEBIT))), RequestError.EMPTY_USER_ID);
+		assertRejected(client.authorize(new AuthorizationRequest("3", "0", new Amount("100", "usd", DebitCredit.DEBIT))), RequestError.INVALID_CURRENCY);
+
+	}
+
+	@Test
+	public void sendAmountsInMinorUnits() throws Exception {
+
+		assertEquals("1.005", client.load(new LoadRequest("0", "0", new Amount("1.005", "KWD", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS).getBalance().getAmount());
+		assertEquals("1500", client.load(new LoadRequest("1", "0", new Amount("1500", "JPY", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS).getBalance().getAmount());
+		assertEquals("0.10", client.load(new LoadRequest("2", "0", new Amount(".109", "EUR", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS).getBalance().getAmount()); // Truncated like on /load
+		assertEquals("92233720368547758.07", client.load(new LoadRequest("3", "1", new Amount("92233720368547758.07", "USD", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS)
+				.getBalance().getAmount());
+
+		assertRejected(client.load(new LoadRequest("4", "1", new Amount("92233720368547758.08", "USD", DebitCredit.CREDIT))), RequestError.AMOUNT_TOO_LARGE);
+
+	}
+
+	@Test
+	public void rejectInvalidFrameFields() throws Exception {
+
+		try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port))) { // Frames the client would not send, as it validates them first
+			assertEquals(RequestError.NON_POSITIVE_AMOUNT, send(channel, BinaryProtocol.LOAD, "0", "0", new Amount("-5", "USD", DebitCredit.CREDIT)).requestError());
+			assertEquals(RequestError.NON_NUMERIC_AMOUNT, send(channel, BinaryProtocol.LOAD, "1", "0", null).requestError());
+			assertEquals(RequestError.INVALID_CURRENCY, send(channel, BinaryProtocol.AUTHORIZATION, "2", "0", new Amount("5", "us$", DebitCredit.DEBIT)).requestError());
+
+			BinaryProtocol.Reply reply = send(channel, BinaryProtocol.LOAD, "3", "0", new Amount("5", "USD", DebitCredit.CREDIT));
+
+			assertNull(reply.requestError());
+			assertEquals("5.00", ((LoadResponse)reply.response()).getBalance().getAmount());
+		}
+
+	}
+
+	@Test
+	public void rejectLongIdsWithoutSending() throws Exception {
+
+		assertRejected(client.load(new LoadRequest("a".repeat(256), "0", new Amount("1", "USD", DebitCredit.CREDIT))), RequestError.ID_TOO_LONG);
+		assertRejected(client.load(new LoadRequest("0", "é".repeat(128), new Amount("1", "USD", DebitCredit.CREDIT))), RequestError.ID_TOO_LONG); // 256 bytes in UTF-8
+
+		assertEquals("1.00", client.load(new LoadRequest("a".repeat(255), "é".repeat(127), new Amount("1", "USD", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS)
+				.getBalance().getAmount());
+		assertEquals(0, client.inFlightCount());
+
+	}
+
+	@Test
+	public void sendConcurrentlyWithRejectedRequests() throws Exception {
+
+		int senders = 8;
+		int requestsPerSender = 500;
+		List<CompletableFuture<LoadResponse>> responses = Collections.synchronizedList(new ArrayList<CompletableFuture<LoadResponse>>());
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int sender = 0; sender < senders; sender++) {
+			int currentSender = sender;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < requestsPerSender; i++) {
+					responses.add(client.load(new LoadRequest(currentSender + "-" + i, Integer.toString(currentSender), new Amount("1", "USD", DebitCredit.CREDIT))));
+					assertRejected(client.load(new LoadRequest(currentSender + "-" + i + "x".repeat(300), "0", new Amount("1", "USD", DebitCredit.CREDIT))),
+							RequestError.ID_TOO_LONG);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (CompletableFuture<LoadResponse> response : responses) { // No frame was corrupted, or the service would have closed the connection
+			assertEquals(ResponseCode.APPROVED, response.get(10, TimeUnit.SECONDS).getResponseCode());
+		}
+
+		assertEquals(senders * requestsPerSender, responses.size());
+
+	}
+
+	@Test
+	public void rejectUsedMessageId() throws Exception {
+
+		client.load(new LoadRequest("0", "0", new Amount("100", "USD", DebitCredit.CREDIT))).get(5, TimeUnit.SECONDS);
+
+		assertRejected(client.load(new LoadRequest("0", "0", new Amount("100", "USD", DebitCredit.CREDIT))), RequestError.MESSAGE_ID_EXISTS);
+		assertRejected(client.authorize(new AuthorizationRequest("0", "0", new Amount("10", "USD", DebitCredit.DEBIT))), RequestError.MESSAGE_ID_EXISTS);
+
+	}
+
+	@Test
+	public void pipelineManyRequests() throws Exception {
+
+		List<CompletableFuture<LoadResponse>> responses = new ArrayList<CompletableFuture<LoadResponse>>();
+
+		for (int i = 0; i < 10000; i++) { // More than the requests one connection may have in flight
+			responses.add(client.load(new LoadRequest(Integer.toString(i), Integer.toString(i % 10), new Amount("1", "USD", DebitCredit.CREDIT))));
+		}
+
+		for (int i = 0; i < responses.size(); i++) { // Every reply is correlated with its request by its message ID
+			LoadResponse loadResponse = responses.get(i).get(10, TimeUnit.SECONDS);
+
+			assertEquals(Integer.toString(i), loadResponse.getMessageId());
+			assertEquals(Integer.toString(i % 10), loadResponse.getUserId());
+		}
+
+		AuthorizationResponse authorizationResponse = client.authorize(new AuthorizationRequest("10000", "3", new Amount("1000", "USD", DebitCredit.DEBIT))).get(5, TimeUnit.SECONDS);
+
+		assertEquals(ResponseCode.APPROVED, authorizationResponse.getResponseCode());
+		assertEquals("0.00", authorizationResponse.getBalance().getAmount());
+		assertEquals(0, client.inFlightCount());
+
+	}
+
+	private static BinaryProtocol.Reply send(SocketChannel channel, byte kind, String messageId, String userId, Amount transactionAmount) throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAXIMUM_FRAME_SIZE);
+		BinaryProtocol.encodeRequest(kind, messageId, userId, transactionAmount, buffer);
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear().limit(4);
+
+		while (buffer.hasRemaining()) {
+			channel.read(buffer);
+		}
+
+		buffer.limit(4 + buffer.getInt(0));
+
+		while (buffer.hasRemaining()) {
+			channel.read(buffer);
+		}
+
+		return BinaryProtocol.decodeReply(buffer.position(4), new byte[BinaryProtocol.MAXIMUM_STRING_SIZE]);
+	}
+
+	private static void assertRejected(CompletableFuture<?> response, RequestError requestError) {
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+
+		assertInstanceOf(BinaryClient.RejectedException.class, exception.getCause());
+		assertEquals(requestError, ((BinaryClient.RejectedException)exception.getCause()).getRequestError());
+	}
+
+}
@@ -0,0 +1,270 @@
+package dev.transactionservice;
+
+import dev.transactionservice.cluster.ClusterRouter;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.AuthorizationResponseJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.LoadResponseJson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+import java.net.ServerSocket;
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ClusterTests class to test three nodes of a cluster on localhost, which forward the requests of the users they do not own to the owner.
+ */
+public class ClusterTests {
+
+	private static final int NODES = 3;
+
+	private static ConfigurableApplicationContext[] nodes = new ConfigurableApplicationContext[NODES];
+	private static int[] ports = new int[NODES];
+	private static Path membersFile = null;
+	private static HttpClient httpClient = HttpClient.newHttpClient();
+
+	@BeforeAll
+	static void startNodes() throws IOException {
+		StringBuilder members = new StringBuilder();
+
+		for (int i = 0; i < NODES; i++) {
+			try (ServerSocket socket = new ServerSocket(0)) { // Every member's port must be known before the first node starts
+				ports[i] = socket.getLocalPort();
+			}
+
+			members.append("node-").append(i).append("=http://localhost:").append(ports[i]).append("\n");
+		}
+
+		membersFile = Files.createTempFile("cluster", ".properties");
+		Files.writeString(membersFile, members);
+
+		for (int i = 0; i < NODES; i++) {
+			nodes[i] = new SpringApplicationBuilder(TransactionService.class)
+					.run("--server.port=" + ports[i],
+						"--transactionservice.cluster.members-file=" + membersFile,
+						"--transactionservice.cluster.node-id=node-" + i,
+						"--logging.level.root=WARN");
+		}
+	}
+
+	@AfterAll
+	static void stopNodes() throws IOException {
+		for (ConfigurableApplicationContext node : nodes) {
+			if (node != null) {
+				node.close();
+			}
+		}
+
+		Files.deleteIfExists(membersFile);
+	}
+
+	@BeforeEach
+	void resetEventRouters() {
+		for (ConfigurableApplicationContext node : nodes) {
+			node.getBean(EventRouter.class).clear();
+		}
+	}
+
+	@Test
+	public void authorizeMultipleWithMultipleUsers() throws Exception {
+
+		for (int user = 0; user < 30; user++) {
+			String request1 = new LoadRequestJson("load-" + user, Integer.toString(user), Integer.toString(100 + user), "USD", "CREDIT").toString();
+			String request2 = new AuthorizationRequestJson("authorization-" + user, Integer.toString(user), "100", "USD", "DEBIT").toString();
+
+			String response2 = new AuthorizationResponseJson("authorization-" + user, Integer.toString(user), "APPROVED", user + ".00", "USD", "DEBIT").toString();
+
+			assertEquals(201, send(user % NODES, "/load", request1).statusCode());
+
+			HttpResponse<String> response = send((user + 1) % NODES, "/authorization", request2); // The debit reaches the owner through another node than the credit
+
+			assertEquals(201, response.statusCode());
+			JSONAssert.assertEquals(response2, response.body(), false);
+		}
+
+		long balances = 0;
+
+		for (ConfigurableApplicationContext node : nodes) {
+			long nodeBalances = node.getBean(EventRouter.class).balanceCount();
+
+			assertTrue(nodeBalances > 0); // Every node owns a share of the users
+			balances += nodeBalances;
+		}
+
+		assertEquals(30, balances); // Every balance is only kept by its owner
+
+	}
+
+	@Test
+	public void ownerIsTheSameOnEveryNode() throws Exception {
+
+		for (int user = 0; user < 100; user++) {
+			int owners = 0;
+
+			for (ConfigurableApplicationContext node : nodes) {
+				owners += node.getBean(ClusterRouter.class).isLocal(Integer.toString(user)) ? 1 : 0;
+			}
+
+			assertEquals(1, owners);
+		}
+
+	}
+
+	@Test
+	public void loadMultipleWithSameMsgIdThroughDifferentNodes() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+
+		assertEquals(201, send(0, "/load", request1).statusCode());
+
+		for (int node = 0; node < NODES; node++) {
+			HttpResponse<String> response = send(node, "/load", request1);
+
+			assertEquals(422, response.statusCode());
+			assertTrue(response.body().contains("The message ID already exists!"));
+		}
+
+	}
+
+	@Test
+	public void loadBatchWithMultipleUsers() throws Exception {
+
+		StringBuilder requests = new StringBuilder("[");
+		StringBuilder responses = new StringBuilder("[");
+
+		for (int i = 0; i < 12; i++) {
+			String userId = Integer.toString(i % 6); // The users are spread across the nodes, and every user appears twice
+			String balance = (i < 6 ? 10 : 20) + ".00";
+
+			requests.append(i == 0 ? "" : ",").append(new LoadRequestJson(Integer.toString(i), userId, "10", "USD", "CREDIT"));
+			responses.append(i == 0 ? "" : ",").append("{\"messageId\":\"" + i + "\",\"response\":" + new LoadResponseJson(Integer.toString(i), userId, "APPROVED", balance, "USD", "CREDIT") + "}");
+		}
+
+		HttpResponse<String> response = send(0, "/load/batch", requests.append("]").toString());
+
+		assertEquals(201, response.statusCode());
+		JSONAssert.assertEquals(responses.append("]").toString(), response.body(), true); // The results are in the order of the batch, whatever node each item was processed on
+
+	}
+
+	@Test
+	public void balancesThroughEveryNode() throws Exception {
+
+		StringBuilder expected = new StringBuilder("[");
+		StringBuilder query = new StringBuilder("/users/balances");
+
+		for (int user = 0; user < 12; user++) {
+			String request1 = new LoadRequestJson(Integer.toString(user), Integer.toString(user), Integer.toString(100 + user), "USD", "CREDIT").toString();
+
+			assertEquals(201, send(user % NODES, "/load", request1).statusCode());
+
+			expected.append(user == 0 ? "" : ",").append("{\"userId\":\"" + user + "\",\"balances\":[{\"amount\":\"" + (100 + user) + ".00\",\"currency\":\"USD\"}]}");
+			query.append(user == 0 ? '?' : '&').append("userId=").append(user);
+		}
+
+		for (int node = 0; node < NODES; node++) {
+			HttpResponse<String> response = get(node, "/users/5/balances");
+
+			assertEquals(200, response.statusCode());
+			JSONAssert.assertEquals("{\"userId\":\"5\",\"balances\":[{\"amount\":\"105.00\",\"currency\":\"USD\"}]}", response.body(), true);
+
+			response = get(node, query.toString()); // The users are spread across the nodes, and the balances are in the order of the user IDs
+
+			assertEquals(200, response.statusCode());
+			JSONAssert.assertEquals(expected + "]", response.body(), true);
+		}
+
+	}
+
+	@Test
+	public void eventsThroughEveryNode() throws Exception {
+
+		for (int i = 0; i < 3; i++) {
+			String request1 = new LoadRequestJson(Integer.toString(i), "7", "10", "USD", "CREDIT").toString();
+
+			assertEquals(201, send(i % NODES, "/load", request1).statusCode());
+		}
+
+		for (int node = 0; node < NODES; node++) {
+			HttpResponse<String> response = get(node, "/users/7/events?limit=4");
+
+			assertEquals(200, response.statusCode());
+			JSONAssert.assertEquals("{\"userId\":\"7\",\"events\":[{\"messageId\":\"2\"},{\"messageId\":\"2\"},{\"messageId\":\"1\"},{\"messageId\":\"1\"}]}", response.body(), false);
+
+			String cursor = response.body().replaceAll(".*\"nextCursor\":\"(\\d+)\".*", "$1"); // The cursor of the owner's event log, which every node forwards
+
+			response = get(node, "/users/7/events?limit=4&cursor=" + cursor);
+
+			assertEquals(200, response.statusCode());
+			JSONAssert.assertEquals("{\"events\":[{\"messageId\":\"0\"},{\"messageId\":\"0\"}],\"nextCursor\":null}", response.body(), false);
+		}
+
+	}
+
+	@Test
+	public void loadWithInvalidAmountIsRejectedBeforeForwarding() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100test", "USD", "CREDIT").toString();
+
+		for (int node = 0; node < NODES; node++) {
+			HttpResponse<String> response = send(node, "/load", request1);
+
+			assertEquals(422, response.statusCode());
+			assertTrue(response.body().contains("The amount is non-numeric!"));
+		}
+
+	}
+
+	/**
+	 * Sends a GET request to one of the nodes, and waits for its response.
+	 *
+	 * @param node int
+	 * @param path String
+	 * @return HttpResponse&lt;String&gt; object storing the response.
+	 * @throws Exception if the request could not be sent.
+	 */
+	private static HttpResponse<String> get(int node, String path) throws Exception {
+		return httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + ports[node] + path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Sends a request to one of the nodes, and waits for its response.
+	 *
+	 * @param node int
+	 * @param path String
+	 * @param body String
+	 * @return HttpResponse&lt;String&gt; object storing the response.
+	 * @throws Exception if the request could not be sent.
+	 */
+	private static HttpResponse<String> send(int node, String path, String body) throws Exception {
+		return httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + ports[node] + path))
+									.header("Content-Type", "application/json")
+									.PUT(HttpRequest.BodyPublishers.ofString(body))
+									.build(),
+								HttpResponse.BodyHandlers.ofString());
+	}
+
+}
@@ -0,0 +1,141 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EventControllerTests class to test the paginated user event endpoint, using the MockMvc entry point.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EventControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void eventsOfOneUserNewestFirst() throws Exception {
+
+		String request1 = new LoadRequestJson("50E70C62-E480-49FC-BC1B-E991AC672173", "0", "100", "USD", "CREDIT").toString();
+		String request2 = new LoadRequestJson("1", "1", "50", "USD", "CREDIT").toString();
+		String request3 = new AuthorizationRequestJson("8786e2f9-d472-46a8-958f-d659880e723d", "0", "30", "USD", "DEBIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request3))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(get("/users/0/events"))
+					.andExpect(jsonPath("$.userId").value("0"))
+					.andExpect(jsonPath("$.events.length()").value(4)) // The other user's events are not part of the page
+					.andExpect(jsonPath("$.events[*].type", contains("AuthorizationResponse", "AuthorizationRequest", "LoadResponse", "LoadRequest")))
+					.andExpect(jsonPath("$.events[*].messageId", contains("8786e2f9-d472-46a8-958f-d659880e723d", "8786e2f9-d472-46a8-958f-d659880e723d",
+							"50E70C62-E480-49FC-BC1B-E991AC672173", "50E70C62-E480-49FC-BC1B-E991AC672173"))) // Only lowercase UUIDs are packed, so both read back unchanged
+					.andExpect(jsonPath("$.events[0].record.responseCode").value("APPROVED"))
+					.andExpect(jsonPath("$.events[0].record.balance.amount").value("70.00"))
+					.andExpect(jsonPath("$.events[3].record.transactionAmount.amount").value("100.00")) // Stored in minor units, so formatted in the decimal places of the currency
+					.andExpect(jsonPath("$.nextCursor").doesNotExist())
+					.andExpect(status().isOk());
+
+	}
+
+	@Test
+	public void eventsWithCursorPagination() throws Exception {
+
+		for (int i = 0; i < 5; i++) {
+			String request1 = new LoadRequestJson(Integer.toString(i), "0", "10", "USD", "CREDIT").toString();
+
+			this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+						.andExpect(status().isCreated());
+		}
+
+		List<Integer> pageSizes = new ArrayList<Integer>();
+		List<String> messageIds = new ArrayList<String>();
+		String cursor = null;
+
+		do {
+			String page = this.mockMvc.perform(cursor == null ? get("/users/0/events?limit=4") : get("/users/0/events?limit=4&cursor=" + cursor))
+									.andExpect(status().isOk())
+									.andReturn().getResponse().getContentAsString();
+
+			List<String> pageMessageIds = JsonPath.read(page, "$.events[*].messageId");
+
+			pageSizes.add(pageMessageIds.size());
+			messageIds.addAll(pageMessageIds);
+			cursor = JsonPath.read(page, "$.nextCursor");
+		}
+		while (cursor != null);
+
+		assertEquals(List.of(4, 4, 2), pageSizes);
+		assertEquals(List.of("4", "4", "3", "3", "2", "2", "1", "1", "0", "0"), messageIds); // Every event once, newest first
+
+	}
+
+	@Test
+	public void eventsOfUnknownUser() throws Exception {
+
+		this.mockMvc.perform(get("/users/unknown/events"))
+					.andExpect(content().json("{\"userId\":\"unknown\",\"events\":[],\"nextCursor\":null}", true))
+					.andExpect(status().isOk());
+
+	}
+
+	@Test
+	public void eventsWithInvalidCursorOrLimit() throws Exception {
+
+		this.mockMvc.perform(get("/users/0/events?cursor=abc"))
+					.andExpect(jsonPath("$.reason").value("The cursor is invalid!"))
+					.andExpect(status().isUnprocessableEntity());
+
+		this.mockMvc.perform(get("/users/0/events?cursor=-1"))
+					.andExpect(jsonPath("$.reason").value("The cursor is invalid!"))
+					.andExpect(status().isUnprocessableEntity());
+
+		this.mockMvc.perform(get("/users/0/events?limit=0"))
+					.andExpect(jsonPath("$.reason").value("The limit must be between 1 and 1000!"))
+					.andExpect(status().isUnprocessableEntity());
+
+		this.mockMvc.perform(get("/users/0/events?limit=1001"))
+					.andExpect(jsonPath("$.reason").value("The limit must be between 1 and 1000!"))
+					.andExpect(status().isUnprocessableEntity());
+
+	}
+
+}
@@ -0,0 +1,324 @@
+package dev.transactionservice;
+
+import dev.transactionservice.journal.Durability;
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationRequestEvent;
+import dev.transactionservice.models.AuthorizationResponse;
+import dev.transactionservice.models.AuthorizationResponseEvent;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.Event;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.LoadResponseEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EventJournalTests class to test that journaled events are replayed unchanged with every durability, that a torn or corrupted last record is cut off,
+ * and that the events published while a batch is forced to disk share the next fsync.
+ */
+public class EventJournalTests {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	@Test
+	public void replayEveryDurability(@TempDir Path directory) throws Exception {
+
+		for (Durability durability : Durability.values()) {
+			String journalDirectory = directory.resolve(durability.name().toLowerCase(Locale.ROOT)).toString();
+			EventJournal eventJournal = new EventJournal(durability.name().toLowerCase(Locale.ROOT), journalDirectory, 10);
+			List<Event> events = transactions(100);
+
+			eventJournal.replay(0, event -> {});
+
+			for (int i = 0; i < events.size(); i++) {
+				eventJournal.append(events.get(i));
+
+				if (i % 10 == 9) {
+					eventJournal.commit();
+				}
+			}
+
+			if (durability == Durability.GROUP || durability == Durability.SYNC) {
+				assertEquals(Files.size(Path.of(journalDirectory, EventJournal.FILE_NAME)), eventJournal.getDurableLength()); // Forced by every commit
+			}
+			else if (durability == Durability.ASYNC) {
+				for (int i = 0; i < 100 && eventJournal.getDurableLength() < Files.size(Path.of(journalDirectory, EventJournal.FILE_NAME)); i++) {
+					Thread.sleep(10); // Forced by the flusher thread
+				}
+
+				assertEquals(Files.size(Path.of(journalDirectory, EventJournal.FILE_NAME)), eventJournal.getDurableLength());
+			}
+
+			eventJournal.close();
+
+			List<Event> replayed = replay(durability.name().toLowerCase(Locale.ROOT), journalDirectory);
+
+			if (durability == Durability.NONE) {
+				assertEquals(0, replayed.size());
+				assertTrue(!Files.exists(Path.of(journalDirectory, EventJournal.FILE_NAME)));
+				continue;
+			}
+
+			assertEquals(events.size(), replayed.size());
+
+			for (int i = 0; i < events.size(); i++) {
+				assertEvent(events.get(i), replayed.get(i));
+			}
+		}
+
+	}
+
+	@Test
+	public void cutOffTornLastRecord(@TempDir Path directory) throws Exception {
+
+		List<Event> events = transactions(5);
+		Path file = journal(directory, events);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3); // A crash in the middle of writing the last record
+		}
+
+		assertAppendAfterCutOff(directory, events);
+
+	}
+
+	@Test
+	public void cutOffCorruptedLastRecord(@TempDir Path directory) throws Exception {
+
+		List<Event> events = transactions(5);
+		Path file = journal(directory, events);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer lastByte = ByteBuffer.allocate(1);
+			channel.read(lastByte, channel.size() - 1);
+			lastByte.put(0, (byte)(lastByte.get(0) ^ 0x5A)).rewind();
+			channel.write(lastByte, channel.size() - 1); // The last record no longer matches its checksum
+		}
+
+		assertAppendAfterCutOff(directory, events);
+
+	}
+
+	@Test
+	public void shareOneForceBetweenPublishers(@TempDir Path directory) throws Exception {
+
+		assertEquals(2, publishWhileForcing(directory.resolve("group"), "group", 16)); // The first event, and all the others together
+		assertEquals(17, publishWhileForcing(directory.resolve("sync"), "sync", 16)); // Every event on its own
+
+		assertEquals(17 * 2, replay("group", directory.resolve("group").toString()).size());
+
+	}
+
+	/**
+	 * Publishes one event through an event sequencer, and more events from several threads while the first is forced to disk.
+	 *
+	 * @param directory Path
+	 * @param durability String
+	 * @param publishers int
+	 * @return int containing the amount of times the journal was forced to disk.
+	 */
+	private static int publishWhileForcing(Path directory, String durability, int publishers) throws Exception {
+		ForceCountingJournal eventJournal = new ForceCountingJournal(durability, directory.toString());
+		SnapshotManager snapshotManager = new SnapshotManager(eventJournal, directory.toString(), 0, 1, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0);
+		EventSequencer eventSequencer = new EventSequencer(new EventProcessor(), eventJournal, snapshotManager, new ServiceMetrics(new SimpleMeterRegistry()), 64);
+		List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>();
+		List<Thread> threads = new ArrayList<Thread>();
+
+		futures.add(eventSequencer.tryPublish(loadEvent("first", "user-0")));
+		assertTrue(eventJournal.entered.await(5, TimeUnit.SECONDS));
+
+		for (int publisher = 0; publisher < publishers; publisher++) {
+			CompletableFuture<Object> future = new CompletableFuture<Object>();
+			int currentPublisher = publisher;
+			futures.add(future);
+
+			Thread thread = new Thread(() -> eventSequencer.tryPublish(loadEvent("event-" + currentPublisher, "user-" + currentPublisher)).whenComplete((response, exception) -> future.complete(response)));
+			thread.start();
+			threads.add(thread);
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		eventJournal.released.countDown();
+
+		for (CompletableFuture<Object> future : futures) {
+			assertTrue(future.get(5, TimeUnit.SECONDS) instanceof LoadResponse);
+		}
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+		return eventJournal.forces.get();
+	}
+
+	/**
+	 * Checks that only the events before the last record are replayed, and that an event appended afterwards is replayed right after them.
+	 *
+	 * @param directory Path
+	 * @param events List&lt;Event&gt;, the journaled events
+	 */
+	private static void assertAppendAfterCutOff(Path directory, List<Event> events) throws Exception {
+		EventJournal eventJournal = new EventJournal("group", directory.toString(), 10);
+		List<Event> replayed = new ArrayList<Event>();
+
+		eventJournal.replay(0, replayed::add);
+
+		assertEquals(events.size() - 1, replayed.size());
+
+		Event appended = loadEvent("appended", "user-0");
+		eventJournal.append(appended);
+		eventJournal.commit();
+		eventJournal.close();
+
+		replayed = replay("group", directory.toString());
+
+		assertEquals(events.size(), replayed.size());
+
+		for (int i = 0; i < events.size() - 1; i++) {
+			assertEvent(events.get(i), replayed.get(i));
+		}
+
+		assertEvent(appended, replayed.get(events.size() - 1));
+	}
+
+	private static Path journal(Path directory, List<Event> events) {
+		EventJournal eventJournal = new EventJournal("group", directory.toString(), 10);
+
+		eventJournal.replay(0, event -> {});
+
+		for (Event event : events) {
+			eventJournal.append(event);
+		}
+
+		eventJournal.commit();
+		eventJournal.close();
+
+		return directory.resolve(EventJournal.FILE_NAME);
+	}
+
+	private static List<Event> replay(String durability, String directory) {
+		EventJournal eventJournal = new EventJournal(durability, directory, 10);
+		List<Event> replayed = new ArrayList<Event>();
+
+		eventJournal.replay(0, replayed::add);
+		eventJournal.close();
+
+		return replayed;
+	}
+
+	/**
+	 * Processes loads and authorizations of a few users, and returns their request and response events.
+	 *
+	 * @param transactions int
+	 * @return List&lt;Event&gt; containing a request and a response event per transaction.
+	 */
+	private static List<Event> transactions(int transactions) {
+		Ledger ledger = new Ledger();
+		List<Event> events = new ArrayList<Event>();
+		Instant timeStamp = Instant.now();
+
+		for (int i = 0; i < transactions; i++) {
+			String messageId = "message-" + i;
+			String userId = "user-" + (i % 7);
+
+			if (i % 3 == 2) {
+				AuthorizationRequestEvent request = new AuthorizationRequestEvent(messageId,
+						new AuthorizationRequest(messageId, userId, new Amount("4.25", "EUR", DebitCredit.DEBIT)), timeStamp.plusNanos(i));
+				events.add(request);
+				events.add(new AuthorizationResponseEvent(messageId, (AuthorizationResponse)request.process(ledger), timeStamp.plusNanos(i)));
+			}
+			else {
+				LoadRequestEvent request = new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("10.50", "EUR", DebitCredit.CREDIT)), timeStamp.plusNanos(i));
+				events.add(request);
+				events.add(new LoadResponseEvent(messageId, (LoadResponse)request.process(ledger), timeStamp.plusNanos(i)));
+			}
+		}
+
+		return events;
+	}
+
+	private static LoadRequestEvent loadEvent(String messageId, String userId) {
+		return new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount("1", "USD", DebitCredit.CREDIT)));
+	}
+
+	private static void assertEvent(Event expected, Event actual) throws Exception {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getMessageId(), actual.getMessageId());
+		assertEquals(expected.getTimeStamp(), actual.getTimeStamp());
+		assertEquals(OBJECT_MAPPER.writeValueAsString(expected.getStoredRecord()), OBJECT_MAPPER.writeValueAsString(actual.getStoredRecord()));
+	}
+
+	/**
+	 * ForceCountingJournal class for an event journal that counts how often a commit forced it to disk, and holds the writer thread inside its first commit.
+	 */
+	private static class ForceCountingJournal extends EventJournal {
+		private AtomicInteger forces = new AtomicInteger();
+		private CountDownLatch entered = new CountDownLatch(1);
+		private CountDownLatch released = new CountDownLatch(1);
+
+		private ForceCountingJournal(String durability, String directory) {
+			super(durability, directory, 10);
+		}
+
+		@Override
+		public void commit() {
+			entered.countDown();
+
+			try {
+				released.await();
+			}
+			catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+
+			long durableLength = getDurableLength();
+			super.commit();
+
+			if (getDurableLength() != durableLength) {
+				forces.incrementAndGet();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,217 @@
+package dev.transactionservice;
+
+import dev.transactionservice.journal.ColumnarEventLog;
+import dev.transactionservice.journal.EventLogTier;
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationRequestEvent;
+import dev.transactionservice.models.AuthorizationResponse;
+import dev.transactionservice.models.AuthorizationResponseEvent;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.Event;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.HoldAction;
+import dev.transactionservice.models.HoldRequest;
+import dev.transactionservice.models.HoldRequestEvent;
+import dev.transactionservice.models.HoldResponse;
+import dev.transactionservice.models.HoldResponseEvent;
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.LoadResponseEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * EventLogTieringTests class to test that aged events are moved out of memory into the warm and cold tiers of the event log, and are still read back unchanged.
+ */
+@SpringBootTest(properties = {"transactionservice.eventlog.hot-retention-seconds=0", "transactionservice.eventlog.warm-retention-seconds=0",
+							  "transactionservice.eventlog.tiering-interval-seconds=1"})
+@AutoConfigureMockMvc
+public class EventLogTieringTests {
+
+	private static final int CHUNK_EVENTS = 1 << 14; // The events of one chunk of the event log, which is the unit moved between tiers
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EventRouter eventRouter;
+
+	@BeforeEach
+	void resetEventRouter() {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void moveAgedChunksBetweenTiers(@TempDir Path directory) throws Exception {
+
+		ColumnarEventLog eventLog = new ColumnarEventLog(directory.toString(), 3600, 7200, 0);
+		List<Event> events = new ArrayList<Event>();
+		Instant now = Instant.now();
+
+		appendTransactions(eventLog, events, CHUNK_EVENTS / 2, now.minus(Duration.ofHours(3))); // Older than the warm retention, so moved straight into the cold tier
+		appendTransactions(eventLog, events, CHUNK_EVENTS / 2, now.minus(Duration.ofMinutes(90))); // Older than the hot retention only
+		appendTransactions(eventLog, events, CHUNK_EVENTS / 2, now.minus(Duration.ofHours(5))); // The last chunk always stays in memory
+
+		eventLog.moveTiers();
+
+		assertEquals(CHUNK_EVENTS, eventLog.size(EventLogTier.COLD));
+		assertEquals(CHUNK_EVENTS, eventLog.size(EventLogTier.WARM));
+		assertEquals(CHUNK_EVENTS, eventLog.size(EventLogTier.HOT));
+		assertTrue(eventLog.segmentBytes(EventLogTier.COLD) < eventLog.segmentBytes(EventLogTier.WARM) / 2);
+
+		for (int sequence = events.size() - 1; sequence >= 0; sequence -= 7) { // Newest first and skipping, like the pages of a user's events
+			assertEvent(events.get(sequence), eventLog.get(sequence));
+		}
+
+		for (int sequence = 0; sequence < events.size(); sequence++) {
+			assertEvent(events.get(sequence), eventLog.get(sequence));
+		}
+
+		eventLog.clear();
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+
+		eventLog.close();
+
+	}
+
+	@Test
+	public void sealFullChunksOutsideHeap() throws Exception {
+
+		ColumnarEventLog eventLog = new ColumnarEventLog();
+		List<Event> events = new ArrayList<Event>();
+
+		appendTransactions(eventLog, events, CHUNK_EVENTS / 2, Instant.now());
+
+		assertEquals(0, eventLog.directBytes()); // The only chunk is still being appended to
+
+		long heapBytes = eventLog.allocatedBytes();
+		appendTransactions(eventLog, events, CHUNK_EVENTS, Instant.now());
+
+		assertTrue(eventLog.directBytes() > 28L * CHUNK_EVENTS); // The columns and message IDs of the two full chunks
+		assertTrue(eventLog.allocatedBytes() < heapBytes + 16 * CHUNK_EVENTS); // Still one chunk of columns, and more dictionary entries
+		assertEquals(3L * CHUNK_EVENTS, eventLog.size(EventLogTier.HOT));
+
+		for (int sequence = 0; sequence < events.size(); sequence++) {
+			assertEvent(events.get(sequence), eventLog.get(sequence));
+		}
+
+	}
+
+	@Test
+	public void readEventsFromColdTier() throws Exception {
+
+		Event[] requests = new Event[CHUNK_EVENTS / 2 + 1]; // One more transaction than a chunk, so that the first chunk is full
+
+		for (int i = 0; i < requests.length; i++) {
+			String messageId = UUID.randomUUID().toString();
+			requests[i] = new LoadRequestEvent(messageId, new LoadRequest(messageId, "user-" + (i % 8), new Amount("1.50", "USD", DebitCredit.CREDIT)));
+		}
+
+		eventRouter.publishBatch(requests);
+
+		for (int i = 0; i < 100 && eventRouter.loggedEventCount(EventLogTier.COLD) < CHUNK_EVENTS; i++) {
+			Thread.sleep(100);
+		}
+
+		assertEquals(CHUNK_EVENTS, eventRouter.loggedEventCount(EventLogTier.COLD));
+		assertEquals(2, eventRouter.loggedEventCount(EventLogTier.HOT));
+
+		this.mockMvc.perform(get("/users/user-0/events?limit=2&cursor=2"))
+					.andExpect(jsonPath("$.events[*].type", contains("LoadResponse", "LoadRequest")))
+					.andExpect(jsonPath("$.events[*].messageId", contains(requests[0].getMessageId(), requests[0].getMessageId())))
+					.andExpect(jsonPath("$.events[0].record.balance.amount").value("1.50"))
+					.andExpect(jsonPath("$.events[1].record.transactionAmount.amount").value("1.50"))
+					.andExpect(status().isOk());
+
+	}
+
+	private void appendTransactions(ColumnarEventLog eventLog, List<Event> events, int transactions, Instant timeStamp) {
+		Ledger ledger = new Ledger();
+		String[] currencies = {"USD", "EUR", "JPY"};
+
+		for (int i = 0; i < transactions; i++) {
+			String messageId = i % 3 == 0 ? UUID.randomUUID().toString() : i % 3 == 1 ? UUID.randomUUID().toString().toUpperCase() : "é€-" + i;
+			String userId = "user-" + (i % 100);
+			String currency = currencies[i % currencies.length];
+			Instant eventTimeStamp = timeStamp.plusNanos(i);
+			Event request = null;
+			Event response = null;
+
+			if (i % 4 == 0) {
+				AuthorizationRequestEvent authorization = new AuthorizationRequestEvent(messageId,
+						new AuthorizationRequest(messageId, userId, new Amount(currency.equals("JPY") ? "3" : "0.25", currency, DebitCredit.DEBIT)), eventTimeStamp);
+				request = authorization;
+				response = new AuthorizationResponseEvent(messageId, (AuthorizationResponse)authorization.process(ledger), eventTimeStamp);
+			}
+			else if (i % 8 == 3) { // A hold, and then a capture, release or expiry of it, with the hold ID and TTL stored after the message ID
+				HoldAction action = HoldAction.values()[(i / 8) % 4];
+				String holdId = action == HoldAction.HOLD ? messageId : "hold-" + (i - 8);
+				Amount amount = action == HoldAction.HOLD || action == HoldAction.CAPTURE ? new Amount(currency.equals("JPY") ? "2" : "0.50", currency, DebitCredit.DEBIT) : null;
+				HoldRequestEvent hold = new HoldRequestEvent(messageId, new HoldRequest(messageId, userId, holdId, action, amount, action == HoldAction.HOLD ? 600 : 0), eventTimeStamp);
+				request = hold;
+				response = new HoldResponseEvent(messageId, (HoldResponse)hold.process(ledger), eventTimeStamp);
+			}
+			else {
+				LoadRequestEvent load = new LoadRequestEvent(messageId,
+						new LoadRequest(messageId, userId, new Amount(currency.equals("JPY") ? "100" : "10.00", currency, DebitCredit.CREDIT)), eventTimeStamp);
+				request = load;
+				response = new LoadResponseEvent(messageId, (LoadResponse)load.process(ledger), eventTimeStamp);
+			}
+
+			events.add(request);
+			events.add(response);
+			eventLog.append(request);
+			eventLog.append(response);
+		}
+	}
+
+	private void assertEvent(Event expected, Event actual) throws Exception {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getMessageId(), actual.getMessageId());
+		assertEquals(expected.getTimeStamp(), actual.getTimeStamp());
+		assertEquals(objectMapper.writeValueAsString(expected.getStoredRecord()), objectMapper.writeValueAsString(actual.getStoredRecord()));
+	}
+
+}
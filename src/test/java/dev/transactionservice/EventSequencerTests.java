@@ -0,0 +1,313 @@
+package dev.transactionservice;
+
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.Event;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.LoadResponseEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EventSequencerTests class to test that the events of concurrent publishers are applied in one strict order, share commits, and wait for a full ring buffer,
+ * and that a partition stops once its journal fails.
+ */
+public class EventSequencerTests {
+
+	@Test
+	public void concurrentPublishersInOrder() throws Exception {
+
+		EventProcessor eventProcessor = new EventProcessor();
+		EventSequencer eventSequencer = eventSequencer(eventProcessor, new CountingJournal("none", ""), "", 16); // Fewer slots than publishers
+		int publishers = 32;
+		int eventsPerPublisher = 200;
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int publisher = 0; publisher < publishers; publisher++) {
+			int currentPublisher = publisher;
+
+			threads.add(start(() -> {
+				for (int i = 0; i < eventsPerPublisher; i++) {
+					assertNotNull(eventSequencer.publish(loadEvent(currentPublisher + "-" + i, "user-" + currentPublisher, "1")));
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(2L * publishers * eventsPerPublisher, eventProcessor.loggedEventCount());
+
+		int[] nextEvent = new int[publishers];
+
+		for (long sequence = 0; sequence < eventProcessor.loggedEventCount(); sequence += 2) { // Every request is directly followed by its response
+			Event request = eventProcessor.getLoggedEvent(sequence);
+			Event response = eventProcessor.getLoggedEvent(sequence + 1);
+			String[] id = request.getMessageId().split("-");
+			int publisher = Integer.parseInt(id[0]);
+
+			assertTrue(request instanceof LoadRequestEvent);
+			assertTrue(response instanceof LoadResponseEvent);
+			assertEquals(request.getMessageId(), response.getMessageId());
+			assertEquals(nextEvent[publisher]++, Integer.parseInt(id[1]), "The events of publisher " + publisher + " were reordered");
+		}
+
+		for (int publisher = 0; publisher < publishers; publisher++) {
+			long[] balance = new long[1];
+			eventProcessor.forEachBalance("user-" + publisher, (userId, currency, amount) -> balance[0] = amount);
+
+			assertEquals(eventsPerPublisher * 100L, balance[0]);
+		}
+
+		eventSequencer.shutdown();
+
+	}
+
+	@Test
+	public void batchPublishedEventsIntoOneCommit(@TempDir Path directory) throws Exception {
+
+		CountingJournal eventJournal = new CountingJournal("group", directory.toString());
+		EventSequencer eventSequencer = eventSequencer(new EventProcessor(), eventJournal, directory.toString(), 64);
+		int publishers = 16;
+		CountDownLatch published = new CountDownLatch(publishers);
+		List<Thread> threads = new ArrayList<Thread>();
+		List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>();
+
+		eventJournal.blockNextCommit();
+		CompletableFuture<Object> first = eventSequencer.tryPublish(loadEvent("first", "user-0", "1"));
+		eventJournal.awaitBlockedCommit();
+
+		for (int publisher = 0; publisher < publishers; publisher++) { // Published while the writer thread is committing the first event
+			int currentPublisher = publisher;
+
+			threads.add(start(() -> {
+				CompletableFuture<Object> future = eventSequencer.tryPublish(loadEvent("event-" + currentPublisher, "user-" + currentPublisher, "1"));
+
+				synchronized (futures) {
+					futures.add(future);
+				}
+
+				published.countDown();
+			}));
+		}
+
+		assertTrue(published.await(5, TimeUnit.SECONDS));
+		assertFalse(first.isDone()); // Not answered before its commit
+
+		eventJournal.unblockCommit();
+
+		assertTrue(first.get(5, TimeUnit.SECONDS) instanceof LoadResponse);
+
+		for (CompletableFuture<Object> future : futures) {
+			assertTrue(future.get(5, TimeUnit.SECONDS) instanceof LoadResponse);
+		}
+
+		assertEquals(2, eventJournal.commits.get()); // The first event, and every event published while it was committed
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+	}
+
+	@Test
+	public void waitForFullRingBuffer() throws Exception {
+
+		CountingJournal eventJournal = new CountingJournal("none", "");
+		EventSequencer eventSequencer = eventSequencer(new EventProcessor(), eventJournal, "", 2);
+
+		eventJournal.blockNextCommit();
+		CompletableFuture<Object> first = eventSequencer.tryPublish(loadEvent("0", "user-0", "1"));
+		eventJournal.awaitBlockedCommit(); // The writer thread has taken the first event out of the ring buffer
+
+		CompletableFuture<Object> second = eventSequencer.tryPublish(loadEvent("1", "user-0", "1"));
+		CompletableFuture<Object> third = eventSequencer.tryPublish(loadEvent("2", "user-0", "1"));
+
+		assertNotNull(second);
+		assertNotNull(third);
+		assertNull(eventSequencer.tryPublish(loadEvent("3", "user-0", "1"))); // Both slots are taken
+
+		Object[] blocked = new Object[1];
+		Thread publisher = start(() -> blocked[0] = eventSequencer.publish(loadEvent("4", "user-0", "1")));
+
+		for (int i = 0; i < 500 && publisher.getState() != Thread.State.WAITING; i++) {
+			Thread.sleep(10);
+		}
+
+		assertEquals(Thread.State.WAITING, publisher.getState()); // Queued on the free slots, as its event has not been published yet
+		assertFalse(second.isDone());
+
+		eventJournal.unblockCommit();
+		publisher.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertFalse(publisher.isAlive());
+		assertTrue(blocked[0] instanceof LoadResponse);
+		assertEquals("1.00", ((LoadResponse)first.get()).getBalance().getAmount());
+		assertEquals("2.00", ((LoadResponse)second.get()).getBalance().getAmount());
+		assertEquals("3.00", ((LoadResponse)third.get()).getBalance().getAmount());
+		assertEquals("4.00", ((LoadResponse)blocked[0]).getBalance().getAmount());
+
+		eventSequencer.shutdown();
+
+	}
+
+	@Test
+	public void stopPartitionAfterFailedCommit(@TempDir Path directory) throws Exception {
+
+		EventProcessor eventProcessor = new EventProcessor();
+		CountingJournal eventJournal = new CountingJournal("group", directory.toString());
+		EventSequencer eventSequencer = eventSequencer(eventProcessor, eventJournal, directory.toString(), 64);
+
+		assertTrue(eventSequencer.publish(loadEvent("0", "user-0", "1")) instanceof LoadResponse);
+
+		eventJournal.failCommits = true;
+
+		assertThrows(IllegalStateException.class, () -> eventSequencer.publish(loadEvent("1", "user-0", "1")));
+
+		eventJournal.failCommits = false;
+
+		IllegalStateException refused = assertThrows(IllegalStateException.class, () -> eventSequencer.publish(loadEvent("2", "user-0", "1")));
+		assertEquals("The partition has stopped, as its event journal failed!", refused.getMessage());
+		assertThrows(IllegalStateException.class, () -> eventSequencer.publish(loadEvent("1", "user-0", "1"))); // A retry is refused, not answered as a duplicate
+		assertEquals(4, eventProcessor.loggedEventCount()); // Nothing was applied after the failed commit
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+	}
+
+	@Test
+	public void publishBatchesWithoutWaiting(@TempDir Path directory) throws Exception {
+
+		CountingJournal blockedJournal = new CountingJournal("group", directory.resolve("blocked").toString());
+		CountingJournal failingJournal = new CountingJournal("group", directory.resolve("failing").toString());
+		EventSequencer blockedSequencer = eventSequencer(new EventProcessor(), blockedJournal, directory.resolve("blocked").toString(), 64);
+		EventSequencer failingSequencer = eventSequencer(new EventProcessor(), failingJournal, directory.resolve("failing").toString(), 64);
+
+		blockedJournal.blockNextCommit();
+		failingJournal.failCommits = true;
+
+		CompletableFuture<Object[]> blocked = blockedSequencer.publishBatchAsync(new Event[] {loadEvent("0", "user-0", "1"), loadEvent("1", "user-0", "2")});
+		CompletableFuture<Object[]> failing = failingSequencer.publishBatchAsync(new Event[] {loadEvent("2", "user-1", "1")});
+
+		blockedJournal.awaitBlockedCommit();
+
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS)); // Answered while the other batch is still being committed
+		assertEquals("The event journal could not be forced to disk!", failure.getCause().getMessage());
+		assertFalse(blocked.isDone());
+
+		blockedJournal.unblockCommit();
+
+		Object[] results = blocked.get(5, TimeUnit.SECONDS);
+
+		assertEquals("1.00", ((LoadResponse)results[0]).getBalance().getAmount());
+		assertEquals("3.00", ((LoadResponse)results[1]).getBalance().getAmount());
+
+		blockedSequencer.shutdown();
+		failingSequencer.shutdown();
+		blockedJournal.close();
+		failingJournal.close();
+
+	}
+
+	private static EventSequencer eventSequencer(EventProcessor eventProcessor, EventJournal eventJournal, String directory, int ringSize) {
+		SnapshotManager snapshotManager = new SnapshotManager(eventJournal, directory, 0, 1, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0);
+
+		return new EventSequencer(eventProcessor, eventJournal, snapshotManager, new ServiceMetrics(new SimpleMeterRegistry()), ringSize);
+	}
+
+	private static Thread start(Runnable runnable) {
+		Thread thread = new Thread(runnable);
+		thread.start();
+
+		return thread;
+	}
+
+	private static LoadRequestEvent loadEvent(String messageId, String userId, String amount) {
+		return new LoadRequestEvent(messageId, new LoadRequest(messageId, userId, new Amount(amount, "USD", DebitCredit.CREDIT)));
+	}
+
+	/**
+	 * CountingJournal class for an event journal that counts its commits, and can hold the writer thread inside a commit.
+	 */
+	private static class CountingJournal extends EventJournal {
+		private AtomicInteger commits = new AtomicInteger();
+		private volatile CountDownLatch entered = null;
+		private volatile CountDownLatch released = null;
+		private volatile boolean failCommits = false;
+
+		private CountingJournal(String durability, String directory) {
+			super(durability, directory, 10);
+		}
+
+		private void blockNextCommit() {
+			entered = new CountDownLatch(1);
+			released = new CountDownLatch(1);
+		}
+
+		private void awaitBlockedCommit() throws InterruptedException {
+			assertTrue(entered.await(5, TimeUnit.SECONDS));
+		}
+
+		private void unblockCommit() {
+			CountDownLatch latch = released;
+			released = null;
+			latch.countDown();
+		}
+
+		@Override
+		public void commit() {
+			commits.incrementAndGet();
+			CountDownLatch latch = released;
+
+			if (latch != null) {
+				entered.countDown();
+
+				try {
+					latch.await();
+				}
+				catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			if (failCommits) {
+				throw new IllegalStateException("The event journal could not be forced to disk!");
+			}
+
+			super.commit();
+		}
+	}
+
+}
@@ -0,0 +1,297 @@
+package dev.transactionservice;
+
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.Hold;
+import dev.transactionservice.models.HoldAction;
+import dev.transactionservice.models.HoldRequest;
+import dev.transactionservice.models.HoldRequestEvent;
+import dev.transactionservice.models.HoldRequestJson;
+import dev.transactionservice.models.Ledger;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.ServiceMetrics;
+import dev.transactionservice.models.TimingWheel;
+import dev.transactionservice.models.AuthorizationRequestJson;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * HoldControllerTests class to test placing, capturing, releasing and expiring authorization holds through the /holds endpoints,
+ * and that the holds are replayed from the journal and snapshots.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class HoldControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EventRouter eventRouter;
+
+	@BeforeEach
+	void resetEventRouter() {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void holdReducesAvailableBalance() throws Exception {
+
+		load("0", "0", "100");
+
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("1", "0", null, "30", "USD", 60).toString()))
+					.andExpect(jsonPath("$.holdId").value("1"))
+					.andExpect(jsonPath("$.action").value("HOLD"))
+					.andExpect(jsonPath("$.responseCode").value("APPROVED"))
+					.andExpect(jsonPath("$.balance.amount").value("70.00"))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(get("/users/0/balances"))
+					.andExpect(content().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"70.00\",\"currency\":\"USD\",\"held\":\"30.00\"}]}", true));
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(new AuthorizationRequestJson("2", "0", "80", "USD", "DEBIT").toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED")) // The held funds are not available
+					.andExpect(jsonPath("$.balance.amount").value("70.00"));
+
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("3", "0", null, "70.01", "USD", 60).toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED"))
+					.andExpect(jsonPath("$.balance.amount").value("70.00"));
+
+	}
+
+	@Test
+	public void captureHoldPartially() throws Exception {
+
+		load("0", "0", "100");
+		hold("1", "0", "30");
+
+		this.mockMvc.perform(put("/holds/capture").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("2", "0", "1", "20.50", "USD", 0).toString()))
+					.andExpect(jsonPath("$.holdId").value("1"))
+					.andExpect(jsonPath("$.action").value("CAPTURE"))
+					.andExpect(jsonPath("$.responseCode").value("APPROVED"))
+					.andExpect(jsonPath("$.balance.amount").value("79.50")) // The rest of the hold is returned
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(get("/users/0/balances"))
+					.andExpect(content().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"79.50\",\"currency\":\"USD\"}]}", true));
+
+		this.mockMvc.perform(put("/holds/capture").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("3", "0", "1", "1", "USD", 0).toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED")) // A hold is captured at most once
+					.andExpect(jsonPath("$.balance.amount").value("79.50"));
+
+	}
+
+	@Test
+	public void captureMoreThanHold() throws Exception {
+
+		load("0", "0", "100");
+		hold("1", "0", "30");
+
+		this.mockMvc.perform(put("/holds/capture").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("2", "0", "1", "30.01", "USD", 0).toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED"))
+					.andExpect(jsonPath("$.balance.amount").value("70.00"));
+
+		this.mockMvc.perform(put("/holds/capture").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("3", "1", "1", "10", "USD", 0).toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED")); // The hold belongs to another user
+
+	}
+
+	@Test
+	public void releaseHold() throws Exception {
+
+		load("0", "0", "100");
+		hold("1", "0", "30");
+
+		this.mockMvc.perform(put("/holds/release").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("2", "0", "1", null, null, 0).toString()))
+					.andExpect(jsonPath("$.action").value("RELEASE"))
+					.andExpect(jsonPath("$.responseCode").value("APPROVED"))
+					.andExpect(jsonPath("$.balance.amount").value("100.00"))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/holds/release").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("3", "0", "1", null, null, 0).toString()))
+					.andExpect(jsonPath("$.responseCode").value("DECLINED"))
+					.andExpect(jsonPath("$.balance").doesNotExist());
+
+	}
+
+	@Test
+	public void holdWithInvalidFields() throws Exception {
+
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("1", "0", null, "30", "USD", 0).toString()))
+					.andExpect(jsonPath("$.reason").value("The TTL must be between 1 and 31536000 seconds!"))
+					.andExpect(status().isUnprocessableEntity());
+
+		this.mockMvc.perform(put("/holds/release").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("2", "0", null, null, null, 0).toString()))
+					.andExpect(jsonPath("$.reason").value("The hold ID is empty!"))
+					.andExpect(status().isUnprocessableEntity());
+
+		load("3", "0", "100");
+		hold("4", "0", "30");
+
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("4", "0", null, "30", "USD", 60).toString()))
+					.andExpect(jsonPath("$.reason").value("The message ID already exists!"))
+					.andExpect(status().isUnprocessableEntity());
+
+	}
+
+	@Test
+	public void expireHold() throws Exception {
+
+		load("0", "0", "100");
+
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson("1", "0", null, "30", "USD", 1).toString()))
+					.andExpect(jsonPath("$.responseCode").value("APPROVED"));
+
+		for (int i = 0; i < 50 && eventRouter.holdCount() > 0; i++) {
+			Thread.sleep(100);
+		}
+
+		assertEquals(0, eventRouter.holdCount());
+
+		this.mockMvc.perform(get("/users/0/balances"))
+					.andExpect(content().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"100.00\",\"currency\":\"USD\"}]}", true));
+
+		this.mockMvc.perform(get("/users/0/events?limit=2"))
+					.andExpect(jsonPath("$.events[*].type", contains("HoldResponse", "HoldRequest")))
+					.andExpect(jsonPath("$.events[*].record.action", contains("EXPIRE", "EXPIRE")))
+					.andExpect(jsonPath("$.events[0].record.balance.amount").value("100.00"));
+
+	}
+
+	@Test
+	public void expireHoldsOnTheirTick() {
+
+		long start = 1_000_000_000L;
+		TimingWheel timingWheel = new TimingWheel(Ledger.HOLD_TICK_MILLIS, start);
+		List<Hold> holds = new ArrayList<Hold>();
+		List<Hold> expired = new ArrayList<Hold>();
+
+		for (long delay : new long[] {-500, 1, 99, 100, 101, 6_400, 6_401, 409_600, 26_214_400, 1_728_000_000L}) {
+			Hold hold = new Hold(Long.toString(delay), "0", "USD", 100, start + delay);
+			holds.add(hold);
+			timingWheel.schedule(hold);
+		}
+
+		timingWheel.cancel(holds.get(4));
+
+		for (long now = start; expired.size() < holds.size() - 1; now += 37) { // Advancing by other steps than the tick
+			int before = expired.size();
+			timingWheel.advance(now, expired);
+
+			for (Hold hold : expired.subList(before, expired.size())) {
+				assertTrue(hold.getExpiresAtMillis() <= now, "Hold " + hold.getHoldId() + " expired early");
+				assertTrue(now - Math.max(hold.getExpiresAtMillis(), start) < Ledger.HOLD_TICK_MILLIS + 37, "Hold " + hold.getHoldId() + " expired late");
+			}
+
+			if (now - start > 26_214_400 + 1000 && now - start < 1_728_000_000L - 1000) {
+				now = start + 1_728_000_000L - 1000; // Skip ahead to the last hold
+			}
+		}
+
+		assertEquals(0, timingWheel.size());
+		assertTrue(!expired.contains(holds.get(4)));
+
+	}
+
+	@Test
+	public void replayHoldsFromJournalAndSnapshot(@TempDir Path directory) throws Exception {
+
+		EventProcessor eventProcessor = new EventProcessor();
+		EventJournal eventJournal = new EventJournal("group", directory.toString(), 10);
+		SnapshotManager snapshotManager = new SnapshotManager(eventJournal, directory.toString(), 0, 4, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0);
+		EventSequencer eventSequencer = new EventSequencer(eventProcessor, eventJournal, snapshotManager, new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		for (int user = 0; user < 8; user++) {
+			eventSequencer.publish(new LoadRequestEvent("load-" + user, new LoadRequest("load-" + user, "user-" + user, new Amount("100", "EUR", DebitCredit.CREDIT))));
+			eventSequencer.publish(holdEvent("hold-" + user, "user-" + user, "hold-" + user, HoldAction.HOLD, "10", 3600));
+			eventSequencer.publish(holdEvent("expiring-" + user, "user-" + user, "expiring-" + user, HoldAction.HOLD, "5", 1));
+		}
+
+		snapshotManager.snapshot();
+
+		for (int user = 0; user < 8; user += 2) {
+			eventSequencer.publish(holdEvent("capture-" + user, "user-" + user, "hold-" + user, HoldAction.CAPTURE, "4", 0));
+		}
+
+		for (int i = 0; i < 50 && eventProcessor.holdCount() > 8; i++) {
+			Thread.sleep(100);
+		}
+
+		assertEquals(4, eventProcessor.holdCount());
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+		EventProcessor recoveredProcessor = new EventProcessor();
+		EventJournal recoveredJournal = new EventJournal("group", directory.toString(), 10);
+		EventSequencer recoveredSequencer = new EventSequencer(recoveredProcessor, recoveredJournal,
+				new SnapshotManager(recoveredJournal, directory.toString(), 0, 4, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0), new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		assertEquals(4, recoveredProcessor.holdCount());
+
+		for (int user = 0; user < 8; user++) {
+			long[] balance = new long[1];
+			recoveredProcessor.forEachBalance("user-" + user, (userId, currency, amount) -> balance[0] = amount);
+
+			assertEquals(user % 2 == 0 ? 9600 : 9000, balance[0]);
+			assertEquals(user % 2 == 0 ? 0 : 1000, recoveredProcessor.getHeld("user-" + user, "EUR"));
+		}
+
+		recoveredSequencer.shutdown();
+		recoveredJournal.close();
+
+	}
+
+	private void load(String messageId, String userId, String amount) throws Exception {
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(new LoadRequestJson(messageId, userId, amount, "USD", "CREDIT").toString()))
+					.andExpect(status().isCreated());
+	}
+
+	private void hold(String messageId, String userId, String amount) throws Exception {
+		this.mockMvc.perform(put("/holds").contentType(MediaType.APPLICATION_JSON).content(new HoldRequestJson(messageId, userId, null, amount, "USD", 60).toString()))
+					.andExpect(jsonPath("$.responseCode").value("APPROVED"));
+	}
+
+	private static HoldRequestEvent holdEvent(String messageId, String userId, String holdId, HoldAction action, String amount, long ttlSeconds) {
+		return new HoldRequestEvent(messageId, new HoldRequest(messageId, userId, holdId, action, new Amount(amount, "EUR", DebitCredit.DEBIT), ttlSeconds));
+	}
+
+}
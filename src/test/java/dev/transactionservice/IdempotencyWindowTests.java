@@ -0,0 +1,161 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.IdempotencyWindow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CyclicBarrier;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * IdempotencyWindowTests class to test that message IDs are remembered exactly and then in Bloom filters until the retention horizon,
+ * that a message ID is reserved only once under concurrency, and that a window survives being written into a snapshot and read back.
+ */
+public class IdempotencyWindowTests {
+
+	private static final int EXACT_IDS = 100; // Two generations of 50 message IDs
+	private static final int GENERATION_SIZE = EXACT_IDS / 2;
+	private static final int FILTERED_GENERATIONS = 4;
+	private static final double FALSE_POSITIVE_RATE = 1e-9; // So that no test depends on a message ID being wrongly reported as used
+
+	@Test
+	public void rejectIdAfterRotationIntoBloomFilter() {
+
+		IdempotencyWindow window = new IdempotencyWindow(EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE);
+
+		assertTrue(window.reserve("id-0"));
+		reserve(window, 1, 3 * GENERATION_SIZE); // The generation of id-0 is no longer kept exactly
+
+		assertTrue(window.size() <= EXACT_IDS);
+		assertTrue(window.contains("id-0"));
+		assertFalse(window.reserve("id-0"));
+
+		for (int i = 1; i < 3 * GENERATION_SIZE; i++) {
+			assertFalse(window.reserve("id-" + i), "id-" + i + " was reserved twice");
+		}
+
+	}
+
+	@Test
+	public void forgetIdsAfterRetentionHorizon() {
+
+		IdempotencyWindow window = new IdempotencyWindow(EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE);
+		int horizon = (2 + FILTERED_GENERATIONS) * GENERATION_SIZE; // The current, the previous and every filtered generation
+
+		for (int i = 0; i < horizon - 1; i++) {
+			assertTrue(window.reserve("id-" + i));
+			assertTrue(window.size() <= EXACT_IDS);
+		}
+
+		assertTrue(window.contains("id-0")); // Still within the horizon
+
+		assertTrue(window.reserve("id-" + (horizon - 1))); // Completes a generation, so the oldest filter is cleared for it
+
+		assertFalse(window.contains("id-0"));
+		assertFalse(window.contains("id-" + (GENERATION_SIZE - 1)));
+		assertTrue(window.contains("id-" + GENERATION_SIZE)); // The next generation is still remembered
+		assertTrue(window.reserve("id-0"));
+
+	}
+
+	@Test
+	public void reserveSameIdOnceConcurrently() throws Exception {
+
+		IdempotencyWindow window = new IdempotencyWindow(EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE);
+		int ids = (1 + FILTERED_GENERATIONS) * GENERATION_SIZE; // The generations rotate while the threads reserve, but no ID leaves the window before every thread tried it
+		int threadCount = 8;
+		AtomicIntegerArray reservations = new AtomicIntegerArray(ids);
+		CyclicBarrier barrier = new CyclicBarrier(threadCount);
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int thread = 0; thread < threadCount; thread++) {
+			threads.add(new Thread(() -> {
+				try {
+					barrier.await();
+				}
+				catch (Exception exception) {
+					throw new IllegalStateException(exception);
+				}
+
+				for (int i = 0; i < ids; i++) {
+					if (window.reserve("id-" + i)) {
+						reservations.incrementAndGet(i);
+					}
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (int i = 0; i < ids; i++) {
+			assertEquals(1, reservations.get(i), "id-" + i + " was reserved " + reservations.get(i) + " times");
+		}
+
+	}
+
+	@Test
+	public void writeAndReadWindow() throws Exception {
+
+		IdempotencyWindow window = new IdempotencyWindow(EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE);
+		reserve(window, 0, 4 * GENERATION_SIZE + 10); // Filtered, previous and current generations
+
+		IdempotencyWindow restored = IdempotencyWindow.read(input(window), EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE);
+
+		assertEquals(window.size(), restored.size());
+
+		for (int i = 0; i < 4 * GENERATION_SIZE + 10; i++) {
+			assertTrue(restored.contains("id-" + i), "id-" + i + " was lost");
+		}
+
+		for (int i = 4 * GENERATION_SIZE + 10; i < 10 * GENERATION_SIZE; i++) { // Both windows keep rotating the same way
+			assertEquals(window.reserve("id-" + i), restored.reserve("id-" + i));
+			assertEquals(window.size(), restored.size());
+		}
+
+		for (int i = 0; i < 10 * GENERATION_SIZE; i++) {
+			assertEquals(window.contains("id-" + i), restored.contains("id-" + i));
+		}
+
+		IdempotencyWindow resized = IdempotencyWindow.read(input(window), 2 * EXACT_IDS, FILTERED_GENERATIONS, FALSE_POSITIVE_RATE); // Only the exact message IDs are carried over
+
+		for (int i = 9 * GENERATION_SIZE; i < 10 * GENERATION_SIZE; i++) { // The previous generation, as the current one has just been started
+			assertTrue(resized.contains("id-" + i));
+		}
+
+		assertFalse(resized.contains("id-0"));
+
+	}
+
+	private static void reserve(IdempotencyWindow window, int from, int to) {
+		for (int i = from; i < to; i++) {
+			assertTrue(window.reserve("id-" + i));
+		}
+	}
+
+	private static DataInputStream input(IdempotencyWindow window) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		window.write(new DataOutputStream(bytes));
+
+		return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+}
@@ -0,0 +1,122 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.AuthorizationResponseJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.LoadResponseJson;
+
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * IngestControllerTests class to test the streaming NDJSON ingest endpoint, using the MockMvc entry point.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IngestControllerTests {
+
+	private static final String NDJSON = "application/x-ndjson";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void ingestLoadsAndAuthorizations() throws Exception {
+
+		String body = new LoadRequestJson("0", "0", "100", "USD", "CREDIT") + "\n"
+				+ new AuthorizationRequestJson("1", "0", "30", "USD", "DEBIT") + "\n"
+				+ "\n" // Blank lines have no result
+				+ new AuthorizationRequestJson("2", "0", "1000", "USD", "DEBIT") + "\n"
+				+ new LoadRequestJson("3", "1", "50", "EUR", "CREDIT"); // The last line may have no newline
+
+		String[] results = ingest(body);
+
+		assertEquals(4, results.length);
+		JSONAssert.assertEquals("{\"messageId\":\"0\",\"response\":" + new LoadResponseJson("0", "0", "APPROVED", "100.00", "USD", "CREDIT") + "}", results[0], true);
+		JSONAssert.assertEquals("{\"messageId\":\"1\",\"response\":" + new AuthorizationResponseJson("1", "0", "APPROVED", "70.00", "USD", "DEBIT") + "}", results[1], true);
+		JSONAssert.assertEquals("{\"messageId\":\"2\",\"response\":" + new AuthorizationResponseJson("2", "0", "DECLINED", "70.00", "USD", "DEBIT") + "}", results[2], true);
+		JSONAssert.assertEquals("{\"messageId\":\"3\",\"response\":" + new LoadResponseJson("3", "1", "APPROVED", "50.00", "EUR", "CREDIT") + "}", results[3], true);
+
+	}
+
+	@Test
+	public void ingestWithRejectedLines() throws Exception {
+
+		String body = new LoadRequestJson("0", "0", "100", "USD", "CREDIT") + "\n"
+				+ "{\"messageId\":\"1\",\"userId\":\n" // Malformed
+				+ new LoadRequestJson("2", "0", "100test", "USD", "CREDIT") + "\n"
+				+ new LoadRequestJson("0", "0", "100", "USD", "CREDIT") + "\n" // The message ID already exists
+				+ "{\"messageId\":\"" + "4".repeat(70000) + "\"}\n" // Too long
+				+ new AuthorizationRequestJson("5", "0", "10", "USD", "DEBIT") + "\n";
+
+		String[] results = ingest(body);
+
+		assertEquals(6, results.length);
+		JSONAssert.assertEquals("{\"messageId\":\"0\",\"response\":{\"responseCode\":\"APPROVED\"}}", results[0], false);
+		JSONAssert.assertEquals("{\"error\":\"The record is not a valid JSON request!\"}", results[1], true);
+		JSONAssert.assertEquals("{\"messageId\":\"2\",\"error\":\"The amount is non-numeric!\"}", results[2], true);
+		JSONAssert.assertEquals("{\"messageId\":\"0\",\"error\":\"The message ID already exists!\"}", results[3], true);
+		JSONAssert.assertEquals("{\"error\":\"The record is not a valid JSON request!\"}", results[4], true);
+		JSONAssert.assertEquals("{\"messageId\":\"5\",\"response\":" + new AuthorizationResponseJson("5", "0", "APPROVED", "90.00", "USD", "DEBIT") + "}", results[5], true);
+
+	}
+
+	@Test
+	public void ingestMoreThanOneBatch() throws Exception {
+
+		StringBuilder body = new StringBuilder();
+
+		for (int i = 0; i < 10000; i++) { // More than two batches of the default size
+			body.append(new LoadRequestJson(Integer.toString(i), Integer.toString(i % 10), "1", "USD", "CREDIT")).append('\n');
+		}
+
+		String[] results = ingest(body.toString());
+
+		assertEquals(10000, results.length);
+		JSONAssert.assertEquals("{\"messageId\":\"9999\",\"response\":{\"responseCode\":\"APPROVED\",\"balance\":{\"amount\":\"1000.00\"}}}", results[9999], false);
+
+		this.mockMvc.perform(get("/users/3/balances"))
+					.andExpect(content().json("{\"userId\":\"3\",\"balances\":[{\"amount\":\"1000.00\",\"currency\":\"USD\"}]}", true))
+					.andExpect(status().isOk());
+
+	}
+
+	/**
+	 * Sends a stream of requests, and splits its results into lines.
+	 *
+	 * @param body String
+	 * @return String[] containing the result of every line, in order.
+	 * @throws Exception if the request could not be performed.
+	 */
+	private String[] ingest(String body) throws Exception {
+		String results = this.mockMvc.perform(put("/ingest").contentType(NDJSON).content(body))
+									.andExpect(status().isOk())
+									.andExpect(content().contentType(NDJSON))
+									.andReturn().getResponse().getContentAsString();
+
+		return results.split("\n");
+	}
+
+}
@@ -0,0 +1,144 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationResponse;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.JsonCodec;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.LoadResponse;
+import dev.transactionservice.models.ResponseCode;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * JsonCodecTests class to test that the JSON codec reads and writes the same JSON as Spring Boot's ObjectMapper, and that it serves /load and /authorization.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JsonCodecTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void writeLikeObjectMapper() throws Exception {
+
+		List<Object> values = List.of(
+				new LoadResponse("0", "1", ResponseCode.APPROVED, new Amount("100.00", "USD", DebitCredit.CREDIT)),
+				new AuthorizationResponse("2", "3", ResponseCode.DECLINED, new Amount("0.50", "EUR", DebitCredit.DEBIT)),
+				new LoadResponse(null, "1", null, null),
+				new AuthorizationResponse("quote\" backslash\\ slash/ tab\t newline\n null\u0000 unit\u001f del\u007f", "é€😀", ResponseCode.APPROVED, new Amount(null, null, null)),
+				new LoadResponse("lone \uD800 surrogate", "1", ResponseCode.APPROVED, new Amount("1", "USD", DebitCredit.CREDIT)),
+				new LoadRequest("0", "1", new Amount("100", "USD", DebitCredit.CREDIT)),
+				new AuthorizationRequest("0", "1", null),
+				new Amount("1", "JPY", DebitCredit.DEBIT));
+
+		for (Object value : values) {
+			assertEquals(new String(objectMapper.writeValueAsBytes(value), StandardCharsets.UTF_8), new String(JsonCodec.toBytes(value), StandardCharsets.UTF_8));
+			assertArrayEquals(objectMapper.writeValueAsBytes(value), JsonCodec.toBytes(value));
+		}
+
+	}
+
+	@Test
+	public void readLikeObjectMapper() throws Exception {
+
+		List<String> documents = List.of(
+				new LoadRequestJson("0", "1", "100", "USD", "CREDIT").toString(),
+				"{ \"transactionAmount\" : { \"debitOrCredit\" : \"DEBIT\", \"currency\" : \"EUR\", \"amount\" : \"1.5\" } ,\n\t\"userId\":\"1\", \"messageId\" : \"2\" }",
+				"{\"messageId\":7,\"userId\":-1.5e3,\"unknown\":{\"nested\":[1,{\"a\":null},\"x\"],\"b\":true},\"transactionAmount\":{\"amount\":10,\"currency\":true,\"debitOrCredit\":1}}",
+				"{\"messageId\":\"esc\\\"aped\\u00e9\\n\",\"userId\":\"é€\",\"transactionAmount\":null}",
+				"{\"messageId\":null,\"messageId\":\"last\",\"transactionAmount\":{\"debitOrCredit\":null}}",
+				"{}",
+				"{\"messageId\":\"0\"} trailing");
+
+		for (String document : documents) {
+			byte[] json = document.getBytes(StandardCharsets.UTF_8);
+
+			assertEquals(objectMapper.writeValueAsString(objectMapper.readValue(json, LoadRequest.class)),
+					objectMapper.writeValueAsString(JsonCodec.read(LoadRequest.class, json, json.length)), document);
+		}
+
+		byte[] response = JsonCodec.toBytes(new LoadResponse("0", "1", ResponseCode.APPROVED, new Amount("100.00", "USD", DebitCredit.CREDIT)));
+
+		assertArrayEquals(response, JsonCodec.toBytes(JsonCodec.read(LoadResponse.class, response, response.length)));
+		assertNull(JsonCodec.read(AuthorizationRequest.class, "null".getBytes(StandardCharsets.UTF_8), 4));
+
+	}
+
+	@Test
+	public void rejectMalformedJson() throws Exception {
+
+		List<String> documents = List.of(
+				"",
+				"{\"messageId\":\"0\"",
+				"{\"messageId\":\"0\",}",
+				"{\"messageId\":01}",
+				"{\"messageId\":{}}",
+				"{\"messageId\":\"tab\tinside\"}",
+				"{\"transactionAmount\":{\"debitOrCredit\":\"credit\"}}",
+				"{\"transactionAmount\":\"100\"}",
+				"[]");
+
+		for (String document : documents) {
+			byte[] json = document.getBytes(StandardCharsets.UTF_8);
+
+			assertThrows(IllegalArgumentException.class, () -> JsonCodec.read(LoadRequest.class, json, json.length), document);
+		}
+
+	}
+
+	@Test
+	public void serveLoadAndAuthorization() throws Exception {
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString()))
+					.andExpect(content().string("{\"messageId\":\"0\",\"userId\":\"0\",\"responseCode\":\"APPROVED\",\"balance\":{\"amount\":\"100.00\",\"currency\":\"USD\",\"debitOrCredit\":\"CREDIT\"}}"))
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content("{\"messageId\":\"1\",\"userId\":\"0\",\"transactionAmount\":{\"amount\":\"30\",\"currency\":\"USD\",\"debitOrCredit\":\"DEBIT\"}}"))
+					.andExpect(content().string("{\"messageId\":\"1\",\"userId\":\"0\",\"responseCode\":\"APPROVED\",\"balance\":{\"amount\":\"70.00\",\"currency\":\"USD\",\"debitOrCredit\":\"DEBIT\"}}"))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content("{\"messageId\":\"2\",\"userId\":"))
+					.andExpect(status().isBadRequest());
+
+	}
+
+}
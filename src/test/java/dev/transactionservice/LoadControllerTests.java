@@ -1,6 +1,6 @@
 package dev.transactionservice;
 
-import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventRouter;
 import dev.transactionservice.models.LoadRequestJson;
 import dev.transactionservice.models.LoadResponseJson;
 
@@ -8,6 +8,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -36,8 +37,8 @@ public class LoadControllerTests {
 	private MockMvc mockMvc;
 
 	@BeforeEach
-	void resetEventProcessor(@Autowired EventProcessor eventProcessor) {
-		eventProcessor.clear();
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
 	}
 
 	@Test
@@ -388,6 +389,46 @@ public class LoadControllerTests {
 
 	}
 
+	@Test
+	public void loadOneWithZeroDecimalCurrency() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100.75", "JPY", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "100", "JPY", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(content().json(response1)); // JPY has no decimal places, so the amount is truncated to a whole number
+
+	}
+
+	@Test
+	public void loadOneWithThreeDecimalCurrency() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "1.2345", "KWD", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "1.234", "KWD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(content().json(response1));
+
+	}
+
+	@Test
+	public void loadMultipleWithOverflowingBalance() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "90000000000000000", "USD", "CREDIT").toString();
+		String request2 = new LoadRequestJson("1", "0", "90000000000000000", "USD", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "90000000000000000.00", "USD", "CREDIT").toString();
+		String response2 = new LoadResponseJson("1", "0", "DECLINED", "90000000000000000.00", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(content().json(response1))
+					.andDo(result1 -> mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(content().json(response2))); // The balance would no longer fit, so the second load is declined
+
+	}
+
 	@Test
 	public void loadOneWithEmptyUserId() throws Exception {
 
@@ -459,6 +500,29 @@ public class LoadControllerTests {
 					.andExpect(status().isUnprocessableEntity());
 
 	}
+
+	@Test
+	public void loadOneWithTrailingDecimalPoint() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100.", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isUnprocessableEntity())
+					.andExpect(jsonPath("$.code").value("422"))
+					.andExpect(jsonPath("$.path").value("/load"))
+					.andExpect(jsonPath("$.reason").value("The amount is non-numeric!")); // The rejection is answered directly, with the same body as the error controller's
+
+	}
+	
+	@Test
+	public void loadOneWithTooLargeAmount() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100000000000000000000", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isUnprocessableEntity());
+
+	}
 	
 	@Test
 	public void loadOneWithEmptyCurrency() throws Exception {
@@ -510,4 +574,43 @@ public class LoadControllerTests {
 
 	}
 
+	@Test
+	public void loadBatchWithMultipleUsers() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+		String request2 = new LoadRequestJson("1", "1", "50.5", "USD", "CREDIT").toString();
+		String request3 = new LoadRequestJson("2", "0", "25.25", "USD", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "100.00", "USD", "CREDIT").toString();
+		String response2 = new LoadResponseJson("1", "1", "APPROVED", "50.50", "USD", "CREDIT").toString();
+		String response3 = new LoadResponseJson("2", "0", "APPROVED", "125.25", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load/batch").contentType(MediaType.APPLICATION_JSON).content("[" + request1 + "," + request2 + "," + request3 + "]"))
+					.andExpect(content().json("[{\"messageId\":\"0\",\"response\":" + response1 + "},"
+											+ "{\"messageId\":\"1\",\"response\":" + response2 + "},"
+											+ "{\"messageId\":\"2\",\"response\":" + response3 + "}]", true)) // The items of the same user are applied in their order in the batch, so the order is checked strictly
+					.andExpect(status().isCreated());
+
+	}
+
+	@Test
+	public void loadBatchWithInvalidItemAndSameMsgId() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+		String request2 = new LoadRequestJson("1", "0", "-100", "USD", "CREDIT").toString();
+		String request3 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+		String request4 = new LoadRequestJson("2", "0", "1", "USD", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "100.00", "USD", "CREDIT").toString();
+		String response4 = new LoadResponseJson("2", "0", "APPROVED", "101.00", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load/batch").contentType(MediaType.APPLICATION_JSON).content("[" + request1 + "," + request2 + "," + request3 + "," + request4 + "]"))
+					.andExpect(content().json("[{\"messageId\":\"0\",\"response\":" + response1 + "},"
+											+ "{\"messageId\":\"1\",\"error\":\"The amount is less than or equal to 0!\"},"
+											+ "{\"messageId\":\"0\",\"error\":\"The message ID already exists!\"},"
+											+ "{\"messageId\":\"2\",\"response\":" + response4 + "}]", true)) // Rejected items do not affect the rest of the batch
+					.andExpect(status().isCreated());
+
+	}
+
 }
@@ -0,0 +1,77 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * MetricsTests class to test that the request, event, response and rejection metrics are recorded and scrapeable in the Prometheus format.
+ *
+ * <p> Tests do not export metrics unless they are annotated with AutoConfigureObservability. </p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class MetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void prometheusAfterRequests() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "50", "USD", "CREDIT").toString();
+		String request2 = new AuthorizationRequestJson("1", "0", "100", "USD", "DEBIT").toString();
+		String request3 = new LoadRequestJson("2", "0", "100test", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request2))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request3))
+					.andExpect(status().is(422));
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().is(422));
+
+		this.mockMvc.perform(get("/actuator/prometheus"))
+					.andExpect(status().isOk())
+					.andExpect(content().string(containsString("transactionservice_request_duration_seconds_bucket{endpoint=\"/load\"")))
+					.andExpect(content().string(containsString("transactionservice_event_duration_seconds_count{type=\"LoadRequestEvent\"")))
+					.andExpect(content().string(containsString("transactionservice_event_duration_seconds_count{type=\"AuthorizationResponseEvent\"")))
+					.andExpect(content().string(containsString("transactionservice_responses_total{code=\"DECLINED\"")))
+					.andExpect(content().string(containsString("transactionservice_requests_rejected_total{reason=\"NON_NUMERIC_AMOUNT\"")))
+					.andExpect(content().string(containsString("transactionservice_requests_rejected_total{reason=\"MESSAGE_ID_EXISTS\"")))
+					.andExpect(content().string(containsString("transactionservice_balances ")))
+					.andExpect(content().string(containsString("transactionservice_message_ids ")))
+					.andExpect(content().string(containsString("transactionservice_events_logged ")));
+	}
+
+}
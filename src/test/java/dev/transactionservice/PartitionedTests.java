@@ -0,0 +1,108 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.AuthorizationResponseJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.LoadResponseJson;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * PartitionedTests class to test the load and authorization endpoints with the users split into several partitions, using the MockMvc entry point.
+ */
+@SpringBootTest(properties = "transactionservice.partitions=4")
+@AutoConfigureMockMvc
+public class PartitionedTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EventRouter eventRouter;
+
+	@BeforeEach
+	void resetEventRouter() {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void partitionCount() throws Exception {
+
+		assertEquals(4, eventRouter.getPartitionCount());
+
+	}
+
+	@Test
+	public void authorizeMultipleWithMultipleUsers() throws Exception {
+
+		for (int user = 0; user < 16; user++) {
+			String request1 = new LoadRequestJson("load-" + user, Integer.toString(user), Integer.toString(100 + user), "USD", "CREDIT").toString();
+			String request2 = new AuthorizationRequestJson("authorization-" + user, Integer.toString(user), "100", "USD", "DEBIT").toString();
+
+			String response2 = new AuthorizationResponseJson("authorization-" + user, Integer.toString(user), "APPROVED", user + ".00", "USD", "DEBIT").toString();
+
+			this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+						.andExpect(status().isCreated());
+
+			this.mockMvc.perform(put("/authorization").contentType(MediaType.APPLICATION_JSON).content(request2))
+						.andExpect(content().json(response2))
+						.andExpect(status().isCreated());
+		}
+
+		assertEquals(16, eventRouter.balanceCount());
+
+	}
+
+	@Test
+	public void loadMultipleWithSameMsgId() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(status().isCreated());
+
+		this.mockMvc.perform(put("/load").contentType(MediaType.APPLICATION_JSON).content(request1))
+					.andExpect(jsonPath("$.reason").value("The message ID already exists!"))
+					.andExpect(status().is(422));
+
+	}
+
+	@Test
+	public void loadBatchWithMultipleUsers() throws Exception {
+
+		StringBuilder requests = new StringBuilder("[");
+		StringBuilder responses = new StringBuilder("[");
+
+		for (int i = 0; i < 12; i++) {
+			String userId = Integer.toString(i % 6); // Every user appears twice, so the items of a user must be applied in their order in the batch
+			String balance = (i < 6 ? 10 : 20) + ".00";
+
+			requests.append(i == 0 ? "" : ",").append(new LoadRequestJson(Integer.toString(i), userId, "10", "USD", "CREDIT"));
+			responses.append(i == 0 ? "" : ",").append("{\"messageId\":\"" + i + "\",\"response\":" + new LoadResponseJson(Integer.toString(i), userId, "APPROVED", balance, "USD", "CREDIT") + "}");
+		}
+
+		this.mockMvc.perform(put("/load/batch").contentType(MediaType.APPLICATION_JSON).content(requests.append("]").toString()))
+					.andExpect(content().json(responses.append("]").toString(), true)) // The results are in the order of the batch, whatever partition each item was processed in
+					.andExpect(status().isCreated());
+
+	}
+
+}
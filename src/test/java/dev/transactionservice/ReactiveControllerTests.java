@@ -0,0 +1,131 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.AuthorizationRequestJson;
+import dev.transactionservice.models.AuthorizationResponseJson;
+import dev.transactionservice.models.EventRouter;
+import dev.transactionservice.models.LoadRequestJson;
+import dev.transactionservice.models.LoadResponseJson;
+
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * ReactiveControllerTests class to test the load, authorization, balance and ping endpoints of the reactive stack, using the WebTestClient entry point.
+ *
+ * <p> The test names follow the same scheme as those of the LoadControllerTests and AuthorizationControllerTests. </p>
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+public class ReactiveControllerTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@BeforeEach
+	void resetEventRouter(@Autowired EventRouter eventRouter) {
+		eventRouter.clear();
+	}
+
+	@Test
+	public void loadOneWithTwoDecimals() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100.25", "USD", "CREDIT").toString();
+
+		String response1 = new LoadResponseJson("0", "0", "APPROVED", "100.25", "USD", "CREDIT").toString();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isCreated()
+					.expectBody().json(response1);
+
+	}
+
+	@Test
+	public void loadMultipleWithSameMsgId() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isCreated();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isEqualTo(422)
+					.expectBody().jsonPath("$.reason").isEqualTo("The message ID already exists!");
+
+	}
+
+	@Test
+	public void balancesAfterLoad() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100.25", "USD", "CREDIT").toString();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isCreated();
+
+		this.webTestClient.get().uri("/users/0/balances").exchange()
+					.expectStatus().isOk()
+					.expectBody().json("{\"userId\":\"0\",\"balances\":[{\"amount\":\"100.25\",\"currency\":\"USD\"}]}", true);
+
+		this.webTestClient.get().uri("/users/balances?userId=unknown&userId=0").exchange()
+					.expectStatus().isOk()
+					.expectBody().json("[{\"userId\":\"unknown\",\"balances\":[]},{\"userId\":\"0\",\"balances\":[{\"amount\":\"100.25\",\"currency\":\"USD\"}]}]", true);
+
+	}
+
+	@Test
+	public void loadOneWithNonNumericAmount() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "100test", "USD", "CREDIT").toString();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isEqualTo(422)
+					.expectBody().jsonPath("$.reason").isEqualTo("The amount is non-numeric!");
+
+	}
+
+	@Test
+	public void authorizeOneWithInsufficientBalance() throws Exception {
+
+		String request1 = new LoadRequestJson("0", "0", "50", "USD", "CREDIT").toString();
+		String request2 = new AuthorizationRequestJson("1", "0", "100", "USD", "DEBIT").toString();
+
+		String response2 = new AuthorizationResponseJson("1", "0", "DECLINED", "50.00", "USD", "DEBIT").toString();
+
+		this.webTestClient.put().uri("/load").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isCreated();
+
+		this.webTestClient.put().uri("/authorization").contentType(MediaType.APPLICATION_JSON).bodyValue(request2).exchange()
+					.expectStatus().isCreated()
+					.expectBody().json(response2);
+
+	}
+
+	@Test
+	public void authorizeOneWithInvalidDebitCredit() throws Exception {
+
+		String request1 = new AuthorizationRequestJson("0", "0", "100", "USD", "CREDIT").toString();
+
+		this.webTestClient.put().uri("/authorization").contentType(MediaType.APPLICATION_JSON).bodyValue(request1).exchange()
+					.expectStatus().isEqualTo(422)
+					.expectBody().jsonPath("$.reason").isEqualTo("For Authorization requests, please use DEBIT!");
+
+	}
+
+	@Test
+	public void pingTest() throws Exception {
+
+		this.webTestClient.get().uri("/ping").exchange()
+					.expectStatus().isOk()
+					.expectBody().jsonPath("$.serverTime").exists();
+
+	}
+
+}
@@ -0,0 +1,176 @@
+package dev.transactionservice;
+
+import dev.transactionservice.journal.EventJournal;
+import dev.transactionservice.journal.SnapshotManager;
+
+import dev.transactionservice.models.Amount;
+import dev.transactionservice.models.AuthorizationRequest;
+import dev.transactionservice.models.AuthorizationRequestEvent;
+import dev.transactionservice.models.DebitCredit;
+import dev.transactionservice.models.EventProcessor;
+import dev.transactionservice.models.EventSequencer;
+import dev.transactionservice.models.LoadRequest;
+import dev.transactionservice.models.LoadRequestEvent;
+import dev.transactionservice.models.ServiceMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * SnapshotManagerTests class to test that a restart recovers the balances and message IDs from the latest complete snapshot
+ * and the journaled events after it.
+ */
+public class SnapshotManagerTests {
+
+	private static final int USERS = 40;
+	private static final int SHARDS = 4;
+
+	@Test
+	public void recoverFromLatestCompleteSnapshot(@TempDir Path directory) throws Exception {
+
+		EventProcessor eventProcessor = new EventProcessor();
+		EventJournal eventJournal = new EventJournal("group", directory.toString(), 10);
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		SnapshotManager snapshotManager = new SnapshotManager(eventJournal, directory.toString(), 0, SHARDS, 1000000, 8, 0.00001, meterRegistry, 0);
+		EventSequencer eventSequencer = new EventSequencer(eventProcessor, eventJournal, snapshotManager, new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		for (int user = 0; user < USERS; user++) {
+			eventSequencer.publish(new LoadRequestEvent("load-" + user, new LoadRequest("load-" + user, "user-" + user, new Amount("100", "EUR", DebitCredit.CREDIT))));
+			eventSequencer.publish(new AuthorizationRequestEvent("authorization-" + user,
+					new AuthorizationRequest("authorization-" + user, "user-" + user, new Amount(user + ".25", "EUR", DebitCredit.DEBIT))));
+		}
+
+		snapshotManager.snapshot();
+
+		assertEquals(1, meterRegistry.get("transactionservice.snapshot.duration").tag("partition", "0").timer().count());
+		assertEquals(4L * USERS, meterRegistry.get("transactionservice.snapshot.events").tag("partition", "0").gauge().value());
+
+		for (int user = 0; user < USERS; user += 4) { // Only journaled after the snapshot
+			eventSequencer.publish(new LoadRequestEvent("after-" + user, new LoadRequest("after-" + user, "user-" + user, new Amount("7", "EUR", DebitCredit.CREDIT))));
+		}
+
+		Map<String, Long> balances = balances(eventProcessor);
+		int messageIds = eventProcessor.messageIdCount();
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+		Path incomplete = directory.resolve("snapshots").resolve(String.format("%020d", Long.MAX_VALUE)); // Newer than the complete snapshot, but without its marker
+		Files.createDirectories(incomplete);
+		Files.writeString(incomplete.resolve("shard-0000.snapshot"), "torn");
+
+		Set<String> restoringThreads = ConcurrentHashMap.newKeySet();
+		EventProcessor recoveredProcessor = new EventProcessor() {
+			@Override
+			public void restoreBalance(String userId, String currency, long balance) {
+				restoringThreads.add(Thread.currentThread().getName());
+				super.restoreBalance(userId, currency, balance);
+			}
+		};
+		EventJournal recoveredJournal = new EventJournal("group", directory.toString(), 10);
+		MeterRegistry recoveredRegistry = new SimpleMeterRegistry();
+		EventSequencer recoveredSequencer = new EventSequencer(recoveredProcessor, recoveredJournal,
+				new SnapshotManager(recoveredJournal, directory.toString(), 0, SHARDS, 1000000, 8, 0.00001, recoveredRegistry, 0), new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		assertFalse(Files.exists(incomplete)); // Ignored and deleted
+
+		try (Stream<Path> snapshots = Files.list(directory.resolve("snapshots"))) {
+			assertEquals(1, snapshots.count());
+		}
+
+		assertEquals(2L * USERS / 4, recoveredRegistry.get("transactionservice.recovery.replayed.events").tag("partition", "0").gauge().value()); // The events after the snapshot
+		assertEquals(1, recoveredRegistry.get("transactionservice.recovery.duration").tag("partition", "0").timer().count());
+		assertNotNull(recoveredRegistry.find("transactionservice.snapshot.duration").tag("partition", "0").timer());
+
+		assertTrue(restoringThreads.size() >= Math.min(SHARDS, Runtime.getRuntime().availableProcessors())); // Every shard of the snapshot on a thread of its own, up to one per core
+		assertFalse(restoringThreads.contains(Thread.currentThread().getName()));
+
+		assertEquals(balances, balances(recoveredProcessor));
+		assertEquals(messageIds, recoveredProcessor.messageIdCount());
+
+		for (int user = 0; user < USERS; user++) {
+			assertTrue(recoveredProcessor.eventExists("load-" + user)); // From the snapshot
+			assertEquals(user % 4 == 0, recoveredProcessor.eventExists("after-" + user)); // From the journal after it
+		}
+
+		assertNull(recoveredSequencer.publish(new LoadRequestEvent("load-0", new LoadRequest("load-0", "user-0", new Amount("1", "EUR", DebitCredit.CREDIT)))));
+
+		recoveredSequencer.shutdown();
+		recoveredJournal.close();
+
+	}
+
+	@Test
+	public void replayWholeJournalWithoutCompleteSnapshot(@TempDir Path directory) throws Exception {
+
+		EventProcessor eventProcessor = new EventProcessor();
+		EventJournal eventJournal = new EventJournal("group", directory.toString(), 10);
+		SnapshotManager snapshotManager = new SnapshotManager(eventJournal, directory.toString(), 0, SHARDS, 1000000, 8, 0.00001, new SimpleMeterRegistry(), 0);
+		EventSequencer eventSequencer = new EventSequencer(eventProcessor, eventJournal, snapshotManager, new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		for (int user = 0; user < USERS; user++) {
+			eventSequencer.publish(new LoadRequestEvent("load-" + user, new LoadRequest("load-" + user, "user-" + user, new Amount("100", "EUR", DebitCredit.CREDIT))));
+		}
+
+		snapshotManager.snapshot();
+
+		Map<String, Long> balances = balances(eventProcessor);
+
+		eventSequencer.shutdown();
+		eventJournal.close();
+
+		try (Stream<Path> snapshots = Files.list(directory.resolve("snapshots"))) {
+			Files.delete(snapshots.findFirst().orElseThrow().resolve("complete")); // As if the snapshot was interrupted before its marker was written
+		}
+
+		EventProcessor recoveredProcessor = new EventProcessor();
+		EventJournal recoveredJournal = new EventJournal("group", directory.toString(), 10);
+		MeterRegistry recoveredRegistry = new SimpleMeterRegistry();
+		EventSequencer recoveredSequencer = new EventSequencer(recoveredProcessor, recoveredJournal,
+				new SnapshotManager(recoveredJournal, directory.toString(), 0, SHARDS, 1000000, 8, 0.00001, recoveredRegistry, 0), new ServiceMetrics(new SimpleMeterRegistry()), 64);
+
+		assertEquals(2L * USERS, recoveredRegistry.get("transactionservice.recovery.replayed.events").tag("partition", "0").gauge().value());
+		assertEquals(balances, balances(recoveredProcessor));
+
+		try (Stream<Path> snapshots = Files.list(directory.resolve("snapshots"))) {
+			assertEquals(0, snapshots.count());
+		}
+
+		recoveredSequencer.shutdown();
+		recoveredJournal.close();
+
+	}
+
+	private static Map<String, Long> balances(EventProcessor eventProcessor) {
+		Map<String, Long> balances = new HashMap<String, Long>();
+
+		for (int user = 0; user < USERS; user++) {
+			eventProcessor.forEachBalance("user-" + user, (userId, currency, balance) -> balances.put(userId + "/" + currency, balance));
+		}
+
+		return balances;
+	}
+
+}
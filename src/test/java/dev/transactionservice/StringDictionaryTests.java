@@ -0,0 +1,159 @@
+package dev.transactionservice;
+
+import dev.transactionservice.models.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * StringDictionaryTests class to test that the ID of a string never changes while the dictionary grows, that lock-free lookups agree with the added strings,
+ * and that no more strings than the maximum size can be added.
+ */
+public class StringDictionaryTests {
+
+	private static final int STRINGS = 50000;
+
+	@Test
+	public void keepIdsWhileGrowing() {
+
+		StringDictionary dictionary = new StringDictionary(Integer.MAX_VALUE);
+
+		for (int i = 0; i < STRINGS; i++) {
+			assertEquals(i, dictionary.add("user-" + i));
+		}
+
+		assertEquals(STRINGS, dictionary.size());
+
+		for (int i = 0; i < STRINGS; i++) {
+			assertEquals(i, dictionary.find("user-" + i));
+			assertEquals(i, dictionary.add("user-" + i)); // Already added, so not added again
+			assertEquals("user-" + i, dictionary.get(i));
+		}
+
+		assertEquals(STRINGS, dictionary.size());
+		assertEquals(-1, dictionary.find("user-" + STRINGS));
+
+	}
+
+	@Test
+	public void findWhileGrowing() throws Exception {
+
+		StringDictionary dictionary = new StringDictionary(Integer.MAX_VALUE);
+		AtomicBoolean adding = new AtomicBoolean(true);
+		AtomicReference<String> failure = new AtomicReference<String>();
+		List<Thread> readers = new ArrayList<Thread>();
+
+		for (int reader = 0; reader < 4; reader++) {
+			int seed = reader;
+
+			readers.add(start(() -> {
+				SplittableRandom random = new SplittableRandom(seed);
+
+				while (adding.get() && failure.get() == null) {
+					int i = random.nextInt(STRINGS);
+					int id = dictionary.find("user-" + i);
+					int size = dictionary.size();
+					String value = size > 0 ? dictionary.get(size - 1) : null;
+
+					if (id != -1 && id != i) { // A single thread adds the strings in order, so every string's ID is its number
+						failure.compareAndSet(null, "user-" + i + " was found with the ID " + id);
+					}
+					else if (size > 0 && !("user-" + (size - 1)).equals(value)) {
+						failure.compareAndSet(null, "The ID " + (size - 1) + " had the string " + value);
+					}
+				}
+			}));
+		}
+
+		Thread writer = start(() -> {
+			for (int i = 0; i < STRINGS; i++) {
+				dictionary.add("user-" + i);
+			}
+
+			adding.set(false);
+		});
+
+		writer.join();
+
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		assertNull(failure.get());
+
+	}
+
+	@Test
+	public void addSameStringsConcurrently() throws Exception {
+
+		StringDictionary dictionary = new StringDictionary(Integer.MAX_VALUE);
+		int[][] ids = new int[4][STRINGS];
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int thread = 0; thread < ids.length; thread++) {
+			int[] threadIds = ids[thread];
+
+			threads.add(start(() -> {
+				for (int i = 0; i < STRINGS; i++) {
+					threadIds[i] = dictionary.add("user-" + i);
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(STRINGS, dictionary.size());
+
+		for (int thread = 1; thread < ids.length; thread++) {
+			assertArrayEquals(ids[0], ids[thread]);
+		}
+
+		for (int i = 0; i < STRINGS; i++) {
+			assertEquals("user-" + i, dictionary.get(ids[0][i]));
+		}
+
+	}
+
+	@Test
+	public void rejectStringsBeyondMaximumSize() {
+
+		StringDictionary dictionary = new StringDictionary(20); // More than the initial capacity, so that it grows before it is full
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(i, dictionary.add("currency-" + i));
+		}
+
+		assertThrows(IllegalStateException.class, () -> dictionary.add("currency-20"));
+		assertEquals(20, dictionary.size());
+		assertEquals(-1, dictionary.find("currency-20"));
+		assertEquals(7, dictionary.add("currency-7")); // A string that has been added is still found
+
+		dictionary.clear();
+
+		assertEquals(0, dictionary.size());
+		assertEquals(-1, dictionary.find("currency-7"));
+		assertEquals(0, dictionary.add("currency-20"));
+
+	}
+
+	private static Thread start(Runnable runnable) {
+		Thread thread = new Thread(runnable);
+		thread.start();
+
+		return thread;
+	}
+
+}
@@ -0,0 +1,22 @@
+package dev.transactionservice.models;
+
+/**
+ * HoldRequestJson record that stores a String representation of the JSON body of a hold, capture or release request.
+ * 
+ * @param msgId String
+ * @param userId String
+ * @param holdId String, or null for a hold
+ * @param amount String, or null for a release
+ * @param currency String
+ * @param ttlSeconds long, or 0 for a capture or release
+ */
+public record HoldRequestJson(String msgId, String userId, String holdId, String amount, String currency, long ttlSeconds) {
+
+    @Override
+    public String toString() {
+        return "{\"messageId\":\"" + msgId + "\",\"userId\":\"" + userId + "\"" + (holdId == null ? "" : ",\"holdId\":\"" + holdId + "\"")
+             + (amount == null ? "" : ",\"transactionAmount\":{\"amount\":\"" + amount + "\",\"currency\":\"" + currency + "\",\"debitOrCredit\":\"DEBIT\"}")
+             + (ttlSeconds == 0 ? "" : ",\"ttlSeconds\":" + ttlSeconds) + "}";
+    }
+    
+}